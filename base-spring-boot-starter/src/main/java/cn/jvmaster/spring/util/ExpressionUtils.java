@@ -68,7 +68,7 @@ public class ExpressionUtils {
         // 构建上下文环境
         try {
             StandardEvaluationContext context = new StandardEvaluationContext();
-            context.registerFunction("format", DateUtils.class.getDeclaredMethod("covert", new Class[]{Date.class, String.class}));
+            context.registerFunction("format", DateUtils.class.getDeclaredMethod("convert", new Class[]{Date.class, String.class}));
             listener.accept(context);
 
             return expression.getValue(context, clazz);
@@ -0,0 +1,115 @@
+package cn.jvmaster.core.util;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * 非加密hash方法
+ * @author AI
+ * @date 2025/6/17 14:10
+ * @version 1.0
+**/
+public class HashUtils {
+    private static final VarHandle LONG_HANDLE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+
+    /**
+     * MurmurHash3 x64 128位hash，结果与其他语言的实现一致
+     * @param data  数据
+     * @return  128位hash，长度为2的数组
+     */
+    public static long[] murmur3(byte[] data) {
+        return murmur3(data, 0);
+    }
+
+    /**
+     * MurmurHash3 x64 128位hash，结果与其他语言的实现一致
+     * @param data  数据
+     * @param seed  种子
+     * @return  128位hash，长度为2的数组
+     */
+    public static long[] murmur3(byte[] data, int seed) {
+        int length = data.length;
+        int blocks = length >>> 4;
+        long h1 = seed & 0xffffffffL;
+        long h2 = h1;
+
+        for (int i = 0; i < blocks; i++) {
+            long k1 = (long) LONG_HANDLE.get(data, i << 4);
+            long k2 = (long) LONG_HANDLE.get(data, (i << 4) + 8);
+
+            h1 ^= mixK1(k1);
+            h1 = Long.rotateLeft(h1, 27);
+            h1 += h2;
+            h1 = h1 * 5 + 0x52dce729;
+
+            h2 ^= mixK2(k2);
+            h2 = Long.rotateLeft(h2, 31);
+            h2 += h1;
+            h2 = h2 * 5 + 0x38495ab5;
+        }
+
+        // 不足16字节的尾部数据
+        int offset = blocks << 4;
+        long k1 = 0;
+        long k2 = 0;
+        switch (length & 15) {
+            case 15: k2 ^= (long) (data[offset + 14] & 0xff) << 48;
+            case 14: k2 ^= (long) (data[offset + 13] & 0xff) << 40;
+            case 13: k2 ^= (long) (data[offset + 12] & 0xff) << 32;
+            case 12: k2 ^= (long) (data[offset + 11] & 0xff) << 24;
+            case 11: k2 ^= (long) (data[offset + 10] & 0xff) << 16;
+            case 10: k2 ^= (long) (data[offset + 9] & 0xff) << 8;
+            case 9:
+                k2 ^= data[offset + 8] & 0xff;
+                h2 ^= mixK2(k2);
+            case 8: k1 ^= (long) (data[offset + 7] & 0xff) << 56;
+            case 7: k1 ^= (long) (data[offset + 6] & 0xff) << 48;
+            case 6: k1 ^= (long) (data[offset + 5] & 0xff) << 40;
+            case 5: k1 ^= (long) (data[offset + 4] & 0xff) << 32;
+            case 4: k1 ^= (long) (data[offset + 3] & 0xff) << 24;
+            case 3: k1 ^= (long) (data[offset + 2] & 0xff) << 16;
+            case 2: k1 ^= (long) (data[offset + 1] & 0xff) << 8;
+            case 1:
+                k1 ^= data[offset] & 0xff;
+                h1 ^= mixK1(k1);
+            default:
+                break;
+        }
+
+        h1 ^= length;
+        h2 ^= length;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix(h1);
+        h2 = fmix(h2);
+        h1 += h2;
+        h2 += h1;
+
+        return new long[]{h1, h2};
+    }
+
+    private static long mixK1(long k1) {
+        k1 *= C1;
+        k1 = Long.rotateLeft(k1, 31);
+        return k1 * C2;
+    }
+
+    private static long mixK2(long k2) {
+        k2 *= C2;
+        k2 = Long.rotateLeft(k2, 33);
+        return k2 * C1;
+    }
+
+    private static long fmix(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
@@ -1,6 +1,10 @@
 package cn.jvmaster.redis;
 
+import cn.jvmaster.core.util.RandomUtils;
 import cn.jvmaster.redis.annotation.Cache;
+import cn.jvmaster.redis.constant.CacheConstant;
+import cn.jvmaster.redis.constant.Mode;
+import java.time.Duration;
 import org.aspectj.lang.reflect.MethodSignature;
 
 /**
@@ -14,4 +18,25 @@ public record CacheContext(Cache cache,
                            MethodSignature signature,
                            Object[] args) {
 
+    /**
+     * 缓存统计名称，同一个方法的所有缓存key共用一个名称
+     * @return  类名::方法名
+     */
+    public String name() {
+        return signature.getDeclaringTypeName() + CacheConstant.SEPARATOR + signature.getName();
+    }
+
+    /**
+     * 缓存在redis中的有效时间
+     * 在expire的基础上加上100秒以内的随机时间，防止缓存雪崩；STALE_WHILE_REVALIDATE模式下再加上可以返回旧数据的时间
+     * @return  有效时间
+     */
+    public Duration expire() {
+        long seconds = cache.expire() + RandomUtils.random(100L);
+        if (cache.mode() == Mode.STALE_WHILE_REVALIDATE) {
+            seconds += cache.staleTime();
+        }
+
+        return Duration.ofSeconds(seconds);
+    }
 }
@@ -33,6 +33,13 @@ public @interface Cache {
      */
     long expire() default 60*60*24*30L;
 
+    /**
+     * 方法返回null时，空值缓存存在的时间，单位：秒
+     * 缓存空值可以防止不存在的数据每次都访问数据库（缓存穿透），小于等于0时不缓存空值
+     * @return  空值有效时间
+     */
+    long nullExpire() default 60L;
+
     /**
      * 自定义的缓存解析器
      * @return  对应解析器bean名称
@@ -43,7 +50,88 @@ public @interface Cache {
      * 缓存模式
      * 当为NORMAL时，如果存在缓存，会通过缓存进行获取
      *    当为UPDATE_ONLY时，则不管缓存存不存在，则都会更新缓存
+     *    当为STALE_WHILE_REVALIDATE时，缓存超过expire后仍返回旧数据，同时在后台刷新缓存
+     *    当为WRITE_BEHIND时，与UPDATE_ONLY相同，但是缓存延迟批量写入redis
      * @return  对应的模式
      */
     Mode mode() default Mode.NORMAL;
+
+    /**
+     * STALE_WHILE_REVALIDATE模式下，缓存过期后仍然可以返回旧数据的时间，单位：秒
+     * 缓存在redis中实际存在的时间为expire + staleTime
+     * @return  可以返回旧数据的时间
+     */
+    long staleTime() default 60L;
+
+    /**
+     * 是否在缓存过期前提前刷新
+     * 根据上次加载数据的耗时，越接近过期时间、加载越耗时，提前刷新的概率越大（XFetch），热点缓存会在过期前由后台线程刷新
+     * @return  是否提前刷新
+     */
+    boolean earlyRefresh() default false;
+
+    /**
+     * 提前刷新的系数，大于1时更倾向于提前刷新，小于1时更倾向于接近过期时再刷新
+     * @return  提前刷新系数
+     */
+    double beta() default 1.0;
+
+    /**
+     * 是否在redis之前使用本地缓存（一级缓存）
+     * 本地缓存命中时不再访问redis，缓存被删除时会通过redis发布订阅通知所有节点失效本地数据
+     * @return  是否使用本地缓存
+     */
+    boolean local() default false;
+
+    /**
+     * 本地缓存存在的时间，单位：秒
+     * 小于等于0时，使用全局配置的本地缓存有效时间
+     * @return  本地缓存有效时间
+     */
+    long localExpire() default 0;
+
+    /**
+     * 是否批量缓存
+     * 方法的第一个集合参数为id集合，每个id单独缓存，缓存key为：缓存名称::id，未定义缓存名称时为：类名::方法名::id
+     * 一次读取所有id的缓存，只使用缓存中不存在的id调用方法，方法的返回值需要为Map（key为id）或者List（需要定义batchKey）
+     * @return  是否批量缓存
+     */
+    boolean batch() default false;
+
+    /**
+     * 批量缓存时，从返回的List元素中获取id的表达式，如：id
+     * @return  id表达式
+     */
+    String batchKey() default "";
+
+    /**
+     * 按照hash字段读取缓存，springEl表达式，如：#code
+     * 方法返回值为Map时，整个Map保存在hash中，每次只读取表达式对应的字段（表达式结果为集合时读取多个字段），
+     * 方法返回值只包含读取的字段；缓存不存在时执行方法加载整个Map并保存。
+     * 缓存名称不能与字段参数相关，未定义缓存名称时为：类名::方法名
+     * @return  hash字段表达式
+     */
+    String hashField() default "";
+
+    /**
+     * 按照范围读取list缓存时的开始位置，springEl表达式，如：(#pageNum - 1) * #pageSize
+     * 方法返回值为List时，整个List保存在缓存中，每次只读取指定范围的数据，方法返回值只包含读取范围内的数据；
+     * 缓存不存在时执行方法加载整个List并保存。缓存名称不能与范围参数相关，未定义缓存名称时为：类名::方法名
+     * 方法返回值为ListSlice时同时返回list的总长度，方法需要返回包含所有数据的ListSlice
+     * @return  开始位置表达式，为空时从0开始
+     */
+    String offset() default "";
+
+    /**
+     * 按照范围读取list缓存时读取的数量，springEl表达式，如：#pageSize
+     * @return  读取数量表达式，为空时读取到最后一个
+     */
+    String limit() default "";
+
+    /**
+     * 缓存标签，springEl表达式或者固定值，如：#user.deptId，表达式结果为集合时添加多个标签
+     * 写入缓存时把缓存key记录到每个标签的集合中，通过{@link CacheRemove#tags()}可以一次删除标签下的所有缓存
+     * @return  缓存标签
+     */
+    String[] tags() default {};
 }
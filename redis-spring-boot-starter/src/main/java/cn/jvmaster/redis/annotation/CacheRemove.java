@@ -34,4 +34,11 @@ public @interface CacheRemove {
      * @return  是否批量删除
      */
     boolean allEntries() default false;
+
+    /**
+     * 删除标签下的所有缓存，springEl表达式或者固定值，如：#deptId，对应{@link Cache#tags()}
+     * 只定义标签、未定义缓存名称时只按照标签删除
+     * @return  缓存标签
+     */
+    String[] tags() default {};
 }
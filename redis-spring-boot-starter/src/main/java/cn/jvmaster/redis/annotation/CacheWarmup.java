@@ -0,0 +1,40 @@
+package cn.jvmaster.redis.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 缓存预热
+ * 应用启动完成后通过代理调用标注的方法，方法上的{@link Cache}等注解正常生效，从而提前写入缓存
+ * @author AI
+ * @date 2025/6/17 9:30
+ * @version 1.0
+**/
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CacheWarmup {
+
+    /**
+     * 预热参数，springEl表达式，以方法所在的bean为根对象，如：hotUserIds()、@userService.hotUserIds()
+     * 计算结果为集合或者数组时每个元素调用一次方法，方法有多个参数时每个元素需要是数组或者集合；
+     * 无参方法不需要配置
+     * @return  参数表达式
+     */
+    String arguments() default "";
+
+    /**
+     * 是否是关键缓存，所有关键缓存预热完成（或者超时）前cacheWarmup健康检查为OUT_OF_SERVICE
+     * @return  是否是关键缓存
+     */
+    boolean critical() default false;
+
+    /**
+     * 预热顺序，关键缓存总是先预热，同类缓存中值越小越先预热
+     * @return  顺序
+     */
+    int order() default 0;
+}
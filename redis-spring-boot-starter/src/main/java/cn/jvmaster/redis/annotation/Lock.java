@@ -1,5 +1,6 @@
 package cn.jvmaster.redis.annotation;
 
+import cn.jvmaster.redis.constant.LockType;
 import java.lang.annotation.Documented;
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
@@ -32,7 +33,30 @@ public @interface Lock {
     long lockExistSeconds() default 30;
 
     /**
-     * 当锁存在时，等待重试时间
+     * 当锁存在时，等待重试时间，单位：秒
+     * 定义了waitTime时不再生效
      */
     int retryTimes() default 3;
+
+    /**
+     * 当锁存在时，最长等待时间，单位：毫秒
+     * 等待期间收到锁释放的通知后立即重试，小于0时使用retryTimes，等于0时不等待
+     */
+    long waitTime() default -1;
+
+    /**
+     * 是否使用看门狗
+     * 使用看门狗时lockExistSeconds不再生效，锁只设置较短的有效时间（spring.redis.lock.lease-time），
+     * 方法执行期间自动续期，执行时间再长也不会因为过期被其他节点获取；节点宕机后锁很快就会释放
+     */
+    boolean watchdog() default false;
+
+    /**
+     * 锁类型
+     * EXCLUSIVE：排他锁，不可重入，同一个线程再次进入时需要等待锁过期
+     * REENTRANT：可重入锁，同一个线程直接或者通过其他方法再次进入时不需要等待
+     * READ、WRITE：读写锁，读锁之间不互斥，写锁与读锁、写锁互斥；同一个线程可重入，持有写锁时可以获取读锁，持有读锁时不能获取写锁
+     * 同一个锁名称需要使用相同的锁类型（REENTRANT与WRITE相同），排他锁与可重入锁、读写锁之间不互斥
+     */
+    LockType type() default LockType.EXCLUSIVE;
 }
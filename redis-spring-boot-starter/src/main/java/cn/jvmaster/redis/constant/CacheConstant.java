@@ -13,4 +13,24 @@ public interface CacheConstant {
      * 缓存分隔符
      */
     String SEPARATOR = "::";
+
+    /**
+     * 缓存元数据后缀
+     */
+    String META_SUFFIX = "~meta";
+
+    /**
+     * 命名空间版本号后缀
+     */
+    String GENERATION_SUFFIX = "~gen";
+
+    /**
+     * 缓存标签集合的前缀
+     */
+    String TAG_PREFIX = "cache" + SEPARATOR + "tag" + SEPARATOR;
+
+    /**
+     * 缓存标签索引后缀，记录缓存所属的标签集合
+     */
+    String TAGS_SUFFIX = "~tags";
 }
@@ -0,0 +1,52 @@
+package cn.jvmaster.redis.constant;
+
+/**
+ * 缓存数据编码格式
+ * 二进制格式在序列化后的数据前添加1个字节的格式标记，读取时根据标记选择解码方式，
+ * 没有标记的数据按照JSON解析，切换编码格式后旧数据仍然可以正常读取
+ * @author AI
+ * @date 2025/6/11 10:20
+ * @version 1.0
+**/
+public enum Codec {
+    /**
+     * JSON文本，不添加格式标记，与旧数据保持一致
+     */
+    JSON((byte) 0),
+    /**
+     * Jackson Smile二进制格式
+     */
+    SMILE((byte) 1),
+    /**
+     * CBOR二进制格式
+     */
+    CBOR((byte) 2);
+
+    /**
+     * 格式标记
+     */
+    private final byte marker;
+
+    Codec(byte marker) {
+        this.marker = marker;
+    }
+
+    public byte getMarker() {
+        return marker;
+    }
+
+    /**
+     * 根据格式标记获取编码格式
+     * @param marker    数据的第一个字节
+     * @return  二进制编码格式，不是格式标记时返回null
+     */
+    public static Codec fromMarker(byte marker) {
+        for (Codec codec : values()) {
+            if (codec != JSON && codec.marker == marker) {
+                return codec;
+            }
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,37 @@
+package cn.jvmaster.redis.constant;
+
+import java.util.zip.Deflater;
+
+/**
+ * 缓存数据压缩方式
+ * @author AI
+ * @date 2025/6/12 9:10
+ * @version 1.0
+**/
+public enum Compression {
+    /**
+     * 不压缩
+     */
+    NONE(Deflater.NO_COMPRESSION),
+    /**
+     * 快速压缩，压缩耗时最少
+     */
+    FAST(Deflater.BEST_SPEED),
+    /**
+     * 高压缩率，压缩耗时较多，适合读多写少的大数据
+     */
+    HIGH(Deflater.BEST_COMPRESSION);
+
+    /**
+     * 压缩级别
+     */
+    private final int level;
+
+    Compression(int level) {
+        this.level = level;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+}
@@ -0,0 +1,42 @@
+package cn.jvmaster.redis.constant;
+
+/**
+ * 分布式锁类型
+ * @author AI
+ * @date 2025/6/20 15:30
+ * @version 1.0
+**/
+public enum LockType {
+    /**
+     * 排他锁，同一时间只有一个持有者，不可重入
+     */
+    EXCLUSIVE,
+    /**
+     * 可重入锁，同一个线程可以多次获取，与WRITE使用同一个锁
+     */
+    REENTRANT,
+    /**
+     * 读锁，多个读者可以同时持有，存在写锁时需要等待；持有写锁的线程可以再获取读锁
+     */
+    READ,
+    /**
+     * 写锁，与读锁、其他写锁互斥，同一个线程可重入
+     */
+    WRITE;
+
+    /**
+     * 是否使用读写锁实现
+     * @return  boolean
+     */
+    public boolean readWrite() {
+        return this != EXCLUSIVE;
+    }
+
+    /**
+     * 是否独占锁（写锁）
+     * @return  boolean
+     */
+    public boolean write() {
+        return this == REENTRANT || this == WRITE;
+    }
+}
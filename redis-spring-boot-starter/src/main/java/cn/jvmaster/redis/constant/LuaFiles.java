@@ -10,4 +10,8 @@ public interface LuaFiles {
 
     String RELATION_QUERY = "lua/relation-query.lua";
 
+    String TAG_ADD = "lua/tag-add.lua";
+
+    String LOCK_RENEW = "lua/lock-renew.lua";
+
 }
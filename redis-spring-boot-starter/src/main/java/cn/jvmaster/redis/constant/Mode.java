@@ -14,5 +14,24 @@ public enum Mode {
     /**
      * 仅做修改使用
      */
-    UPDATE_ONLY
+    UPDATE_ONLY,
+    /**
+     * 过期后仍然返回旧数据，同时在后台刷新缓存
+     * 缓存在expire后进入软过期状态，此时直接返回旧数据，并由后台线程重新执行方法刷新缓存，
+     * 超过expire + staleTime后缓存才会真正失效
+     */
+    STALE_WHILE_REVALIDATE,
+    /**
+     * 延迟更新，与UPDATE_ONLY一样每次都执行方法，但是结果不立即写入redis
+     * 同一个缓存key在内存中只保留最新的值，定时或者数量达到批次大小时批量写入，适用于访问次数、最后访问时间等高频更新
+     */
+    WRITE_BEHIND;
+
+    /**
+     * 是否优先从缓存中读取数据
+     * @return  boolean
+     */
+    public boolean readCache() {
+        return this != UPDATE_ONLY && this != WRITE_BEHIND;
+    }
 }
@@ -0,0 +1,70 @@
+package cn.jvmaster.redis.domain;
+
+import cn.jvmaster.core.util.RandomUtils;
+
+/**
+ * 缓存元数据
+ * 与缓存数据分开存储在"缓存名称~meta"中，记录缓存的软过期时间以及加载数据的耗时
+ * @author AI
+ * @date 2025/6/6 10:15
+ * @version 1.0
+ * @param softExpireAt  软过期时间点，毫秒
+ * @param computeTime   加载数据的耗时，毫秒
+**/
+public record CacheMeta(long softExpireAt, long computeTime) {
+
+    /**
+     * 元数据分隔符
+     */
+    private static final String SEPARATOR = ",";
+
+    /**
+     * 是否已经软过期
+     * @return  boolean
+     */
+    public boolean isSoftExpired() {
+        return softExpireAt <= System.currentTimeMillis();
+    }
+
+    /**
+     * 是否需要提前刷新（XFetch）
+     * 当前时间 - 加载耗时 * beta * ln(random) >= 过期时间时进行刷新，越接近过期时间、加载越耗时，刷新的概率越大
+     * @param beta  提前刷新系数
+     * @return  boolean
+     */
+    public boolean shouldRefreshEarly(double beta) {
+        // random取值范围(0, 1]，ln(random) <= 0
+        double gap = -computeTime * beta * Math.log(1 - RandomUtils.getRandom().nextDouble());
+        return System.currentTimeMillis() + gap >= softExpireAt;
+    }
+
+    /**
+     * 转换成缓存内容
+     * @return  软过期时间点,加载耗时
+     */
+    public String encode() {
+        return softExpireAt + SEPARATOR + computeTime;
+    }
+
+    /**
+     * 解析缓存内容
+     * @param value 缓存内容
+     * @return  元数据，格式不正确时返回null
+     */
+    public static CacheMeta decode(Object value) {
+        if (!(value instanceof String text)) {
+            return null;
+        }
+
+        String[] values = text.split(SEPARATOR);
+        if (values.length != 2) {
+            return null;
+        }
+
+        try {
+            return new CacheMeta(Long.parseLong(values[0]), Long.parseLong(values[1]));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
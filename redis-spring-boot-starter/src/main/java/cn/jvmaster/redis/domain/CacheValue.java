@@ -0,0 +1,40 @@
+package cn.jvmaster.redis.domain;
+
+import org.springframework.cache.support.NullValue;
+
+/**
+ * 缓存读取结果
+ * 缓存处理器读取不到缓存时返回null，读取到缓存时返回该对象，value为null表示缓存的是空值
+ * @author AI
+ * @date 2025/6/5 14:02
+ * @version 1.0
+ * @param value 缓存内容
+**/
+public record CacheValue(Object value) {
+
+    /**
+     * 缓存的空值
+     */
+    public static final CacheValue EMPTY = new CacheValue(null);
+
+    /**
+     * 构建缓存读取结果
+     * @param value 从redis中读取到的数据
+     * @return  数据不存在时返回null
+     */
+    public static CacheValue of(Object value) {
+        if (value == null) {
+            return null;
+        }
+
+        return value instanceof NullValue ? EMPTY : new CacheValue(value);
+    }
+
+    /**
+     * 是否是缓存的空值
+     * @return  boolean
+     */
+    public boolean isEmpty() {
+        return value == null;
+    }
+}
@@ -0,0 +1,32 @@
+package cn.jvmaster.redis.domain;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * 空集合占位对象
+ * 方法返回空的List、Set时，redis中不能保存空集合，以只包含该对象的集合占位，读取时转换为空集合，
+ * 与{@link org.springframework.cache.support.NullValue}一样使用空值缓存的有效时间，防止缓存穿透
+ * @author AI
+ * @date 2025/6/22 10:20
+ * @version 1.0
+**/
+public final class EmptyValue implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    public static final EmptyValue INSTANCE = new EmptyValue();
+
+    private EmptyValue() {
+    }
+
+    @Serial
+    private Object readResolve() {
+        return INSTANCE;
+    }
+
+    @Override
+    public String toString() {
+        return "empty";
+    }
+}
@@ -0,0 +1,13 @@
+package cn.jvmaster.redis.domain;
+
+/**
+ * 热点key
+ * @author AI
+ * @date 2025/6/18 9:30
+ * @version 1.0
+ * @param key   缓存key
+ * @param name  缓存所属方法的统计名称
+ * @param qps   估算的每秒访问次数，每个统计窗口更新一次
+ * @param since 成为热点key的时间，毫秒
+**/
+public record HotKey(String key, String name, long qps, long since) {}
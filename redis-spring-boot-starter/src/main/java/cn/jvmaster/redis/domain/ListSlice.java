@@ -0,0 +1,23 @@
+package cn.jvmaster.redis.domain;
+
+import java.util.List;
+
+/**
+ * list缓存的分段读取结果
+ * @author AI
+ * @date 2025/6/13 10:05
+ * @version 1.0
+ * @param items 读取到的数据
+ * @param total list的总长度，为0时表示缓存不存在
+ * @param <T>   数据类型
+**/
+public record ListSlice<T>(List<T> items, long total) {
+
+    /**
+     * 缓存是否存在
+     * @return  boolean
+     */
+    public boolean exists() {
+        return total > 0;
+    }
+}
@@ -0,0 +1,14 @@
+package cn.jvmaster.redis.domain;
+
+/**
+ * 缓存预热进度
+ * @author AI
+ * @date 2025/6/17 9:42
+ * @version 1.0
+ * @param total         预热调用总数，参数还未计算完成时为0
+ * @param completed     已经完成的调用数，包含失败的调用
+ * @param failed        失败的调用数
+ * @param criticalReady 关键缓存是否已经预热完成（或者等待超时）
+ * @param finished      是否已经全部完成
+**/
+public record WarmupProgress(int total, int completed, int failed, boolean criticalReady, boolean finished) {}
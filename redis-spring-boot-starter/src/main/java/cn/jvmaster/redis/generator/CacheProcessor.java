@@ -1,8 +1,9 @@
 package cn.jvmaster.redis.generator;
 
 import cn.jvmaster.redis.CacheContext;
-import cn.jvmaster.redis.annotation.Cache;
+import cn.jvmaster.redis.domain.CacheValue;
 import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.data.redis.core.RedisOperations;
 
 /**
  * 缓存解析器
@@ -15,6 +16,7 @@ public interface CacheProcessor {
 
     /**
      * 判断是否支持缓存操作
+     * 注解未指定解析器时，按照顺序调用该方法查找处理器，可以根据方法参数判断，此时{@link #supportByMethod()}需要返回false
      * @param target    对象属性
      * @param method    方法属性
      * @param args      方法参数值
@@ -24,19 +26,82 @@ public interface CacheProcessor {
         return false;
     }
 
+    /**
+     * {@link #support(Object, MethodSignature, Object[])}的结果是否只由方法本身（如返回类型）决定，与调用对象、方法参数无关
+     * 查找时经过的处理器都返回true时，同一个方法只查找一次，否则每次调用都需要重新查找
+     * @return  默认为false
+     */
+    default boolean supportByMethod() {
+        return false;
+    }
+
+    /**
+     * 缓存处理器类型，用于统计信息和监控指标的分类
+     * @return  类型名称，如string、list、set、hash
+     */
+    default String type() {
+        return getClass().getSimpleName();
+    }
+
     /**
      * 从缓存中加载数据
+     * 只需要一次读取即可判断缓存是否存在，不需要再额外判断缓存key是否存在
      * @param cacheName 缓存名称
      * @param cache 缓存配置
-     * @return  获取缓存结果
+     * @return  获取缓存结果，缓存不存在时返回null，缓存的是空值时返回{@link CacheValue#EMPTY}
+     */
+    CacheValue get(String cacheName, CacheContext cache);
+
+    /**
+     * 是否支持在管道中读取缓存
+     * 支持时，缓存可以和其他命令（如缓存元数据）在同一次网络往返中读取
+     * @return  是否支持管道读取
+     */
+    default boolean pipelined() {
+        return false;
+    }
+
+    /**
+     * 在管道中读取缓存，管道中的结果通过{@link #convert(Object, CacheContext)}转换为缓存读取结果
+     * 只有{@link #pipelined()}返回true时才会调用
+     * @param operations    管道操作对象
+     * @param cacheName     缓存名称
+     * @param cache         缓存配置
+     */
+    default void read(RedisOperations<String, Object> operations, String cacheName, CacheContext cache) {
+        throw new UnsupportedOperationException("当前缓存处理器不支持管道读取");
+    }
+
+    /**
+     * 转换管道中的读取结果
+     * @param result    管道中的读取结果
+     * @param cache     缓存配置
+     * @return  获取缓存结果，缓存不存在时返回null
      */
-    Object get(String cacheName, CacheContext cache);
+    default CacheValue convert(Object result, CacheContext cache) {
+        return CacheValue.of(result);
+    }
 
     /**
      * 保存数据到缓存中
+     * 方法返回null时，value为null，此时需要以{@link org.springframework.cache.support.NullValue}占位，
+     * 有效时间为{@link cn.jvmaster.redis.annotation.Cache#nullExpire()}
      * @param cacheName 缓存名称
      * @param value     保存的数据
      * @param cache     缓存配置
      */
     void save(String cacheName, Object value, CacheContext cache);
+
+    /**
+     * 在管道中保存数据，与{@link #save(String, Object, CacheContext)}含义相同
+     * 一个方法上有多个缓存注解时，所有缓存在同一次网络往返中写入
+     * @param operations    管道操作对象
+     * @param cacheName     缓存名称
+     * @param value         保存的数据
+     * @param cache         缓存配置
+     * @return  是否已经在管道中保存，返回false时在管道执行完成后调用{@link #save(String, Object, CacheContext)}保存
+     */
+    default boolean write(RedisOperations<String, Object> operations, String cacheName, Object value, CacheContext cache) {
+        return false;
+    }
 }
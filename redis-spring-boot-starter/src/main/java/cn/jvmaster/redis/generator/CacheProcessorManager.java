@@ -1,18 +1,56 @@
 package cn.jvmaster.redis.generator;
 
 import cn.jvmaster.core.util.StringUtils;
+import cn.jvmaster.core.util.ThreadUtils;
 import cn.jvmaster.redis.CacheContext;
 import cn.jvmaster.redis.annotation.Cache;
 import cn.jvmaster.redis.annotation.CacheRemove;
+import cn.jvmaster.redis.constant.CacheConstant;
 import cn.jvmaster.redis.constant.Mode;
+import cn.jvmaster.redis.domain.CacheMeta;
+import cn.jvmaster.redis.domain.CacheValue;
+import cn.jvmaster.redis.domain.EmptyValue;
+import cn.jvmaster.redis.domain.ListSlice;
+import cn.jvmaster.redis.generator.processor.DefaultCacheProcessor;
+import cn.jvmaster.redis.service.HashRedisOperationService;
+import cn.jvmaster.redis.service.ListRedisOperationService;
+import cn.jvmaster.redis.service.StringRedisOperationService;
+import cn.jvmaster.redis.starter.RedisProperties;
+import cn.jvmaster.redis.support.CacheAsyncExecutor;
+import cn.jvmaster.redis.support.CacheInvalidationBroadcaster;
+import cn.jvmaster.redis.support.CacheMethodMetadata;
+import cn.jvmaster.redis.support.CacheMethodRegistry;
+import cn.jvmaster.redis.support.CacheNamespaces;
+import cn.jvmaster.redis.support.CacheRefresher;
+import cn.jvmaster.redis.support.CacheStatistics;
+import cn.jvmaster.redis.support.CacheTags;
+import cn.jvmaster.redis.support.CacheWriteBehind;
+import cn.jvmaster.redis.support.HotKeyDetector;
+import cn.jvmaster.redis.support.SingleFlight;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.cache.support.NullValue;
 import org.springframework.data.redis.core.Cursor;
 import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
@@ -27,57 +65,1282 @@ import org.springframework.data.redis.core.ScanOptions;
 public class CacheProcessorManager {
     private static final Log logger = LogFactory.getLog(CacheProcessorManager.class);
 
+    /**
+     * 多节点加载时，加载锁的后缀
+     */
+    public static final String LOAD_LOCK_SUFFIX = "~load";
+
+    /**
+     * 多节点加载时，检查其他节点是否加载完成的间隔，毫秒
+     */
+    private static final long LOAD_WAIT_INTERVAL = 50L;
+
+    /**
+     * 缓存元数据比缓存多保留的时间，秒，大于缓存有效时间的随机范围
+     */
+    private static final long META_EXTRA_EXPIRE = 100L;
+
     /**
      * 所有的解析器
      */
     private final List<CacheProcessorEntity> cacheProcessorList;
 
-    private final RedisTemplate<String, ?> redisTemplate;
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    /**
+     * 本地缓存配置
+     */
+    private final RedisProperties.Local localProperties;
+
+    /**
+     * 本地缓存失效通知
+     */
+    private final CacheInvalidationBroadcaster cacheInvalidationBroadcaster;
+
+    /**
+     * 缓存加载配置
+     */
+    private final RedisProperties.Load loadProperties;
+
+    /**
+     * 多节点加载时使用的加载锁，以及缓存元数据的读写
+     */
+    private final StringRedisOperationService<Object> stringRedisOperationService;
+
+    /**
+     * 缓存后台刷新
+     */
+    private final CacheRefresher cacheRefresher;
+
+    /**
+     * 按照hash字段读取缓存
+     */
+    private final HashRedisOperationService<Object> hashRedisOperationService;
+
+    /**
+     * 按照范围读取list缓存
+     */
+    private final ListRedisOperationService<Object> listRedisOperationService;
+
+    /**
+     * 缓存方法元数据
+     */
+    private final CacheMethodRegistry cacheMethodRegistry;
+
+    /**
+     * 缓存命名空间版本号
+     */
+    private final CacheNamespaces cacheNamespaces;
+
+    /**
+     * 非命名空间的缓存批量删除时，每批次删除的key数量
+     */
+    private final int removeBatchSize;
+
+    /**
+     * 合并相同缓存key的并发加载
+     */
+    private final SingleFlight singleFlight = new SingleFlight();
+
+    /**
+     * 缓存统计信息
+     */
+    private final CacheStatistics cacheStatistics;
+
+    /**
+     * 异步方法的缓存读写线程池
+     */
+    private final CacheAsyncExecutor cacheAsyncExecutor;
+
+    /**
+     * 缓存key - 正在执行的异步加载
+     */
+    private final Map<String, CompletableFuture<Object>> asyncLoads = new ConcurrentHashMap<>();
+
+    /**
+     * 热点key检测，热点key自动保存到本地缓存
+     */
+    private final HotKeyDetector hotKeyDetector;
+
+    /**
+     * 延迟更新模式的缓存写入
+     */
+    private final CacheWriteBehind cacheWriteBehind;
+
+    /**
+     * 缓存标签
+     */
+    private final CacheTags cacheTags;
+
+    /**
+     * 批量缓存的每个id以字符串类型单独缓存，使用默认的字符串缓存处理器读写
+     */
+    private final CacheProcessor batchProcessor;
 
-    public CacheProcessorManager(List<CacheProcessorEntity> cacheProcessorList, RedisTemplate<String, ?> redisTemplate) {
+    public CacheProcessorManager(List<CacheProcessorEntity> cacheProcessorList,
+                                    RedisTemplate<String, Object> redisTemplate,
+                                    RedisProperties redisProperties,
+                                    CacheInvalidationBroadcaster cacheInvalidationBroadcaster,
+                                    StringRedisOperationService<Object> stringRedisOperationService,
+                                    HashRedisOperationService<Object> hashRedisOperationService,
+                                    ListRedisOperationService<Object> listRedisOperationService,
+                                    CacheRefresher cacheRefresher,
+                                    CacheMethodRegistry cacheMethodRegistry,
+                                    CacheNamespaces cacheNamespaces,
+                                    CacheStatistics cacheStatistics,
+                                    CacheAsyncExecutor cacheAsyncExecutor,
+                                    HotKeyDetector hotKeyDetector,
+                                    CacheWriteBehind cacheWriteBehind,
+                                    CacheTags cacheTags) {
         this.cacheProcessorList = cacheProcessorList;
         this.redisTemplate = redisTemplate;
+        this.localProperties = redisProperties.getLocal();
+        this.cacheInvalidationBroadcaster = cacheInvalidationBroadcaster;
+        this.loadProperties = redisProperties.getLoad();
+        this.stringRedisOperationService = stringRedisOperationService;
+        this.hashRedisOperationService = hashRedisOperationService;
+        this.listRedisOperationService = listRedisOperationService;
+        this.cacheRefresher = cacheRefresher;
+        this.cacheMethodRegistry = cacheMethodRegistry;
+        this.cacheNamespaces = cacheNamespaces;
+        this.cacheStatistics = cacheStatistics;
+        this.cacheAsyncExecutor = cacheAsyncExecutor;
+        this.hotKeyDetector = hotKeyDetector;
+        this.cacheWriteBehind = cacheWriteBehind;
+        this.cacheTags = cacheTags;
+        this.removeBatchSize = Math.max(redisProperties.getNamespace().getBatchSize(), 1);
+        this.batchProcessor = cacheProcessorList.stream()
+            .map(CacheProcessorEntity::cacheProcessor)
+            .filter(DefaultCacheProcessor.class::isInstance)
+            .findFirst()
+            .orElseGet(() -> new DefaultCacheProcessor(stringRedisOperationService));
     }
 
     /**
      *
-     * @param cacheName             缓存名称
+     * @param name                  缓存名称
      * @param cache                 缓存属性
      * @param joinPoint             aop属性
      * @param resultSupplier        获取接口数据使用
      * @return  缓存逻辑执行结果
      */
-    public Object resolve(String cacheName,
+    public Object resolve(String name,
                             Cache cache,
                             ProceedingJoinPoint joinPoint,
                             Supplier<Object> resultSupplier
     ) {
+        CacheMethodMetadata metadata = cacheMethodRegistry.get(((MethodSignature) joinPoint.getSignature()).getMethod());
+        String previousName = cacheStatistics.bind(metadata.getName());
+        try {
+            return doResolve(name, cache, joinPoint, resultSupplier, metadata);
+        } finally {
+            cacheStatistics.restore(previousName);
+        }
+    }
+
+    /**
+     *
+     * @param name                  缓存名称
+     * @param cache                 缓存属性
+     * @param joinPoint             aop属性
+     * @param resultSupplier        获取接口数据使用
+     * @param metadata              缓存方法元数据
+     * @return  缓存逻辑执行结果
+     */
+    private Object doResolve(String name,
+                                Cache cache,
+                                ProceedingJoinPoint joinPoint,
+                                Supplier<Object> resultSupplier,
+                                CacheMethodMetadata metadata
+    ) {
+        // 属于命名空间的缓存，实际的key中带有命名空间版本号
+        String cacheName = cacheNamespaces.resolve(name);
         Object target = joinPoint.getTarget();
         MethodSignature signature = ((MethodSignature) joinPoint.getSignature());
         Object[] args = joinPoint.getArgs();
 
-        CacheProcessor cacheProcessor = getCacheResolver(cache.resolver(), target, signature, args);
+        CacheProcessor cacheProcessor = metadata.getProcessor(cache.resolver(), resolverName -> getCacheResolver(resolverName, target, signature, args));
         if (cacheProcessor == null) {
             // 没有对应的解析器
             logger.debug("未找到对应的缓存解析器");
             return resultSupplier.get();
         }
 
-        // 判断是否存在对应的缓存
+        CacheStatistics.Statistic statistic = cacheStatistics.get(metadata.getName());
+        statistic.setType(cacheProcessor.type());
+
+        // 优先从本地缓存中获取，读取redis之前获取时间戳，期间本地缓存被删除时不再保存
+        boolean useLocalCache = useLocalCache(cacheName, cache, statistic);
+        long stamp = cacheInvalidationBroadcaster.getNearCache().stamp();
+        CacheValue localValue = getLocalCache(cacheName, cache, useLocalCache, statistic);
+        if (localValue != null) {
+            return localValue.value();
+        }
+
+        // 一次读取即可判断缓存是否存在
         CacheContext cacheContext = new CacheContext(cache, target, signature, args);
-        boolean cacheExist = cache.mode().equals(Mode.NORMAL) ? redisTemplate.hasKey(cacheName) : false;
-        if (!cacheExist) {
-            // 不存在
-            Object result = resultSupplier.get();
-            if (result == null) {
+        CacheValue cacheValue = readCache(cacheName, cacheProcessor, cacheContext, resultSupplier, statistic, metadata, useLocalCache);
+        if (cacheValue == null) {
+            // 不存在，读取模式下合并相同key的并发加载，更新模式每次都需要执行方法
+            Object result = cache.mode().readCache() && loadProperties.isSingleFlight()
+                ? singleFlight.execute(cacheName, () -> load(cacheName, cacheProcessor, cacheContext, resultSupplier, statistic), statistic)
+                : load(cacheName, cacheProcessor, cacheContext, resultSupplier, statistic);
+            if (result == null && !cache.mode().readCache()) {
                 return null;
             }
 
-            cacheProcessor.save(cacheName, result, cacheContext);
+            if (cache.mode().equals(Mode.UPDATE_ONLY) && localProperties.isEnabled()) {
+                // 缓存已经更新，通知所有节点删除旧的本地缓存，当前结果是最新的数据
+                cacheInvalidationBroadcaster.invalidate(Collections.singletonList(cacheName), false);
+                stamp = cacheInvalidationBroadcaster.getNearCache().stamp();
+            }
+            cacheValue = result == null ? CacheValue.EMPTY : new CacheValue(result);
+        }
+
+        if (useLocalCache) {
+            putLocalCache(cacheName, cache, cacheValue, stamp);
+        }
+
+        return cacheValue.value();
+    }
+
+    /**
+     * 一个方法上的多个缓存
+     * 所有缓存在一个管道中读取，存在不存在的缓存时只执行一次方法，方法结果在一个管道中写入所有不存在的缓存，
+     * 不论有多少个缓存注解，网络往返次数都是固定的
+     * @param names             缓存名称，与缓存属性一一对应
+     * @param caches            缓存属性
+     * @param joinPoint         aop属性
+     * @param resultSupplier    获取接口数据使用，多次调用只执行一次方法
+     * @return  第一个不为空的缓存结果
+     */
+    public Object resolveAll(List<String> names, Cache[] caches, ProceedingJoinPoint joinPoint, Supplier<Object> resultSupplier) {
+        CacheMethodMetadata metadata = cacheMethodRegistry.get(((MethodSignature) joinPoint.getSignature()).getMethod());
+        String previousName = cacheStatistics.bind(metadata.getName());
+        try {
+            return doResolveAll(names, caches, joinPoint, resultSupplier, metadata);
+        } finally {
+            cacheStatistics.restore(previousName);
+        }
+    }
+
+    /**
+     * 一个方法上的多个缓存
+     * @param names             缓存名称，与缓存属性一一对应
+     * @param caches            缓存属性
+     * @param joinPoint         aop属性
+     * @param resultSupplier    获取接口数据使用，多次调用只执行一次方法
+     * @param metadata          缓存方法元数据
+     * @return  第一个不为空的缓存结果
+     */
+    private Object doResolveAll(List<String> names,
+                                Cache[] caches,
+                                ProceedingJoinPoint joinPoint,
+                                Supplier<Object> resultSupplier,
+                                CacheMethodMetadata metadata) {
+        Object target = joinPoint.getTarget();
+        MethodSignature signature = ((MethodSignature) joinPoint.getSignature());
+        Object[] args = joinPoint.getArgs();
+
+        CacheStatistics.Statistic statistic = cacheStatistics.get(metadata.getName());
+        List<CacheItem> items = new ArrayList<>(caches.length);
+        for (int i = 0; i < caches.length; i++) {
+            Cache cache = caches[i];
+            CacheProcessor cacheProcessor = metadata.getProcessor(cache.resolver(), resolverName -> getCacheResolver(resolverName, target, signature, args));
+            if (cacheProcessor == null || useMeta(cache)) {
+                // 没有对应的解析器，或者需要读取缓存元数据，依次执行每个缓存
+                return resolveEach(names, caches, joinPoint, resultSupplier, metadata);
+            }
+
+            String cacheName = cacheNamespaces.resolve(names.get(i));
+            items.add(new CacheItem(cacheName, cache, cacheProcessor, new CacheContext(cache, target, signature, args),
+                useLocalCache(cacheName, cache, statistic), cacheInvalidationBroadcaster.getNearCache().stamp()));
+        }
+
+        statistic.setType(items.getFirst().cacheProcessor().type());
+
+        // 优先从本地缓存中获取
+        CacheValue[] values = new CacheValue[items.size()];
+        boolean[] localHits = new boolean[items.size()];
+        List<Integer> readIndexes = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            CacheItem item = items.get(i);
+            values[i] = getLocalCache(item.cacheName(), item.cache(), item.useLocalCache(), statistic);
+            localHits[i] = values[i] != null;
+            if (!localHits[i] && item.cache().mode().readCache()) {
+                readIndexes.add(i);
+            }
+        }
+
+        if (!readIndexes.isEmpty()) {
+            readAll(items, readIndexes, values, statistic);
+        }
+
+        List<Integer> missIndexes = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            if (values[i] == null) {
+                missIndexes.add(i);
+            }
+        }
+
+        if (!missIndexes.isEmpty()) {
+            // 只执行一次方法，结果在一个管道中写入所有不存在的缓存
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = resultSupplier.get();
+            } finally {
+                statistic.recordLoad(System.nanoTime() - start);
+            }
+
+            saveAll(items, missIndexes, result);
+            for (int i : missIndexes) {
+                if (result != null || items.get(i).cache().mode().readCache()) {
+                    values[i] = result == null ? CacheValue.EMPTY : new CacheValue(result);
+                }
+            }
+        }
+
+        Object firstCacheResult = null;
+        for (int i = 0; i < items.size(); i++) {
+            if (values[i] == null) {
+                continue;
+            }
+
+            CacheItem item = items.get(i);
+            if (item.useLocalCache() && !localHits[i]) {
+                putLocalCache(item.cacheName(), item.cache(), values[i], item.stamp());
+            }
+
+            if (firstCacheResult == null) {
+                firstCacheResult = values[i].value();
+            }
+        }
+
+        return firstCacheResult;
+    }
+
+    /**
+     * 在一个管道中读取多个缓存，不支持管道读取的缓存处理器单独读取
+     * @param items         所有缓存
+     * @param readIndexes   需要读取的缓存位置
+     * @param values        读取结果
+     * @param statistic     统计信息
+     */
+    private void readAll(List<CacheItem> items, List<Integer> readIndexes, CacheValue[] values, CacheStatistics.Statistic statistic) {
+        long readStart = System.nanoTime();
+        List<Integer> pipelinedIndexes = readIndexes.stream().filter(i -> items.get(i).cacheProcessor().pipelined()).toList();
+        if (!pipelinedIndexes.isEmpty()) {
+            List<Object> results = stringRedisOperationService.executePipelined(operations -> pipelinedIndexes.forEach(i -> {
+                CacheItem item = items.get(i);
+                item.cacheProcessor().read(operations, item.cacheName(), item.cacheContext());
+            }));
+
+            for (int j = 0; j < pipelinedIndexes.size(); j++) {
+                CacheItem item = items.get(pipelinedIndexes.get(j));
+                values[pipelinedIndexes.get(j)] = item.cacheProcessor().convert(results.get(j), item.cacheContext());
+            }
+        }
+
+        for (int i : readIndexes) {
+            CacheItem item = items.get(i);
+            if (!item.cacheProcessor().pipelined()) {
+                values[i] = item.cacheProcessor().get(item.cacheName(), item.cacheContext());
+            }
+        }
+        statistic.recordRead(System.nanoTime() - readStart);
+
+        long hitCount = readIndexes.stream().filter(i -> values[i] != null).count();
+        statistic.recordHit(hitCount);
+        statistic.recordMiss(readIndexes.size() - hitCount);
+    }
+
+    /**
+     * 在一个管道中写入多个缓存，不支持管道写入的缓存处理器单独写入，延迟更新模式的缓存交给{@link CacheWriteBehind}
+     * @param items         所有缓存
+     * @param saveIndexes   需要写入的缓存位置
+     * @param result        方法执行结果
+     */
+    private void saveAll(List<CacheItem> items, List<Integer> saveIndexes, Object result) {
+        // 更新模式下空值不需要缓存
+        List<Integer> writeIndexes = saveIndexes.stream().filter(i -> result != null || items.get(i).cache().mode().readCache()).toList();
+        if (writeIndexes.isEmpty()) {
+            return;
+        }
+
+        List<Integer> saveLater = new ArrayList<>();
+        List<Integer> pipelinedIndexes = new ArrayList<>();
+        for (int i : writeIndexes) {
+            CacheItem item = items.get(i);
+            if (item.cache().mode().equals(Mode.WRITE_BEHIND)) {
+                cacheWriteBehind.submit(item.cacheName(), item.cacheProcessor(), item.cacheContext(), result);
+            } else {
+                pipelinedIndexes.add(i);
+            }
+        }
+
+        if (!pipelinedIndexes.isEmpty()) {
+            stringRedisOperationService.executePipelined(operations -> pipelinedIndexes.forEach(i -> {
+                CacheItem item = items.get(i);
+                if (!item.cacheProcessor().write(operations, item.cacheName(), result, item.cacheContext())) {
+                    saveLater.add(i);
+                }
+            }));
+        }
+
+        for (int i : saveLater) {
+            CacheItem item = items.get(i);
+            item.cacheProcessor().save(item.cacheName(), result, item.cacheContext());
+        }
+
+        for (int i : writeIndexes) {
+            tag(items.get(i).cacheName(), items.get(i).cacheContext());
+        }
+
+        if (localProperties.isEnabled()) {
+            // 更新模式下缓存已经更新，通知所有节点删除旧的本地缓存
+            List<String> updatedNames = writeIndexes.stream().map(items::get)
+                .filter(item -> item.cache().mode().equals(Mode.UPDATE_ONLY)).map(CacheItem::cacheName).toList();
+            if (!updatedNames.isEmpty()) {
+                cacheInvalidationBroadcaster.invalidate(updatedNames, false);
+            }
+        }
+    }
+
+    /**
+     * 依次执行每个缓存
+     * @param names             缓存名称，与缓存属性一一对应
+     * @param caches            缓存属性
+     * @param joinPoint         aop属性
+     * @param resultSupplier    获取接口数据使用，多次调用只执行一次方法
+     * @param metadata          缓存方法元数据
+     * @return  第一个不为空的缓存结果
+     */
+    private Object resolveEach(List<String> names,
+                                Cache[] caches,
+                                ProceedingJoinPoint joinPoint,
+                                Supplier<Object> resultSupplier,
+                                CacheMethodMetadata metadata) {
+        Object firstCacheResult = null;
+        for (int i = 0; i < caches.length; i++) {
+            Object result = doResolve(names.get(i), caches[i], joinPoint, resultSupplier, metadata);
+            if (firstCacheResult == null && result != null) {
+                firstCacheResult = result;
+            }
+        }
+
+        return firstCacheResult;
+    }
+
+    /**
+     * 异步缓存
+     * 方法返回CompletableFuture时，缓存的读取、写入在异步线程池中执行，调用线程不需要等待redis，
+     * 缓存不存在时执行方法，方法返回的CompletableFuture完成后再保存结果，同一个缓存key的并发加载共用一个CompletableFuture
+     * @param name          缓存名称
+     * @param cache         缓存属性
+     * @param joinPoint     aop属性
+     * @param loader        执行方法，获取方法返回的CompletableFuture
+     * @return  缓存逻辑执行结果
+     */
+    public CompletableFuture<Object> resolveAsync(String name,
+                                                    Cache cache,
+                                                    ProceedingJoinPoint joinPoint,
+                                                    Supplier<CompletableFuture<Object>> loader) {
+        CacheMethodMetadata metadata = cacheMethodRegistry.get(((MethodSignature) joinPoint.getSignature()).getMethod());
+        Object target = joinPoint.getTarget();
+        MethodSignature signature = ((MethodSignature) joinPoint.getSignature());
+        Object[] args = joinPoint.getArgs();
+
+        CacheProcessor cacheProcessor = metadata.getProcessor(cache.resolver(), resolverName -> getCacheResolver(resolverName, target, signature, args));
+        if (cacheProcessor == null) {
+            // 没有对应的解析器
+            logger.debug("未找到对应的缓存解析器");
+            return loader.get();
+        }
+
+        CacheStatistics.Statistic statistic = cacheStatistics.get(metadata.getName());
+        statistic.setType(cacheProcessor.type());
+        CacheContext cacheContext = new CacheContext(cache, target, signature, args);
+        Supplier<Object> resultSupplier = () -> loader.get().join();
+
+        return cacheAsyncExecutor.supply(() -> {
+            String previousName = cacheStatistics.bind(metadata.getName());
+            try {
+                // 属于命名空间的缓存，读取版本号也需要访问redis
+                String cacheName = cacheNamespaces.resolve(name);
+                boolean useLocalCache = useLocalCache(cacheName, cache, statistic);
+                long stamp = cacheInvalidationBroadcaster.getNearCache().stamp();
+                CacheValue cacheValue = getLocalCache(cacheName, cache, useLocalCache, statistic);
+                if (cacheValue != null) {
+                    return new AsyncLookup(cacheName, cacheValue, false, stamp);
+                }
+
+                return new AsyncLookup(cacheName, readCache(cacheName, cacheProcessor, cacheContext, resultSupplier, statistic, metadata, useLocalCache),
+                    useLocalCache, stamp);
+            } finally {
+                cacheStatistics.restore(previousName);
+            }
+        }).thenCompose(lookup -> {
+            if (lookup.value() != null) {
+                if (lookup.useLocalCache()) {
+                    putLocalCache(lookup.cacheName(), cache, lookup.value(), lookup.stamp());
+                }
+                return CompletableFuture.completedFuture(lookup.value().value());
+            }
+
+            // 不存在，读取模式下合并相同key的并发加载，更新模式每次都需要执行方法
+            String cacheName = lookup.cacheName();
+            CompletableFuture<Object> future = cache.mode().readCache() && loadProperties.isSingleFlight()
+                ? loadAsyncOnce(cacheName, cacheProcessor, cacheContext, loader, statistic, metadata)
+                : loadAsync(cacheName, cacheProcessor, cacheContext, loader, statistic, metadata);
+            return future.thenApply(result -> {
+                if (result == null && !cache.mode().readCache()) {
+                    return null;
+                }
+
+                long stamp = lookup.stamp();
+                if (cache.mode().equals(Mode.UPDATE_ONLY) && localProperties.isEnabled()) {
+                    // 缓存已经更新，通知所有节点删除旧的本地缓存，当前结果是最新的数据
+                    cacheInvalidationBroadcaster.invalidate(Collections.singletonList(cacheName), false);
+                    stamp = cacheInvalidationBroadcaster.getNearCache().stamp();
+                }
+
+                if (lookup.useLocalCache()) {
+                    putLocalCache(cacheName, cache, result == null ? CacheValue.EMPTY : new CacheValue(result), stamp);
+                }
+                return result;
+            });
+        });
+    }
+
+    /**
+     * 异步加载数据，同一个缓存key同一时刻只有一个加载
+     * @param cacheName         缓存名称
+     * @param cacheProcessor    缓存处理器
+     * @param cacheContext      缓存上下文
+     * @param loader            执行方法
+     * @param statistic         统计信息
+     * @param metadata          缓存方法元数据
+     * @return  加载的数据
+     */
+    private CompletableFuture<Object> loadAsyncOnce(String cacheName,
+                                                    CacheProcessor cacheProcessor,
+                                                    CacheContext cacheContext,
+                                                    Supplier<CompletableFuture<Object>> loader,
+                                                    CacheStatistics.Statistic statistic,
+                                                    CacheMethodMetadata metadata) {
+        CompletableFuture<Object> created = new CompletableFuture<>();
+        CompletableFuture<Object> running = asyncLoads.putIfAbsent(cacheName, created);
+        if (running != null) {
+            return running;
+        }
+
+        loadAsync(cacheName, cacheProcessor, cacheContext, loader, statistic, metadata).whenComplete((result, e) -> {
+            asyncLoads.remove(cacheName, created);
+            if (e != null) {
+                created.completeExceptionally(e);
+            } else {
+                created.complete(result);
+            }
+        });
+
+        return created;
+    }
+
+    /**
+     * 异步加载数据，方法返回的CompletableFuture完成后在异步线程池中保存结果
+     * @param cacheName         缓存名称
+     * @param cacheProcessor    缓存处理器
+     * @param cacheContext      缓存上下文
+     * @param loader            执行方法
+     * @param statistic         统计信息
+     * @param metadata          缓存方法元数据
+     * @return  加载的数据
+     */
+    private CompletableFuture<Object> loadAsync(String cacheName,
+                                                CacheProcessor cacheProcessor,
+                                                CacheContext cacheContext,
+                                                Supplier<CompletableFuture<Object>> loader,
+                                                CacheStatistics.Statistic statistic,
+                                                CacheMethodMetadata metadata) {
+        long start = System.nanoTime();
+        CompletableFuture<Object> future;
+        try {
+            future = loader.get();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        return future.thenCompose(result -> {
+            long nanos = System.nanoTime() - start;
+            statistic.recordLoad(nanos);
+
+            return cacheAsyncExecutor.supply(() -> {
+                String previousName = cacheStatistics.bind(metadata.getName());
+                try {
+                    save(cacheName, cacheProcessor, cacheContext, result, TimeUnit.NANOSECONDS.toMillis(nanos));
+                } finally {
+                    cacheStatistics.restore(previousName);
+                }
+
+                return result;
+            }).exceptionally(e -> {
+                if (!CacheAsyncExecutor.isRejected(e)) {
+                    throw e instanceof CompletionException completionException ? completionException : new CompletionException(e);
+                }
+
+                // 线程池已满时不保存缓存，方法的结果仍然正常返回
+                logger.warn("缓存异步线程池已满，不保存缓存: " + cacheName);
+                return result;
+            });
+        });
+    }
+
+    /**
+     * 从本地缓存中读取
+     * @param cacheName     缓存名称
+     * @param cache         缓存属性
+     * @param useLocalCache 是否使用本地缓存
+     * @param statistic     统计信息
+     * @return  本地缓存不存在时返回null
+     */
+    private CacheValue getLocalCache(String cacheName, Cache cache, boolean useLocalCache, CacheStatistics.Statistic statistic) {
+        if (!useLocalCache || !cache.mode().readCache()) {
+            return null;
+        }
+
+        Object localResult = cacheInvalidationBroadcaster.getNearCache().get(cacheName);
+        if (localResult == null) {
+            return null;
+        }
+
+        statistic.recordHit(1);
+        return localResult instanceof NullValue ? CacheValue.EMPTY : new CacheValue(localResult);
+    }
+
+    /**
+     * 保存到本地缓存
+     * @param cacheName     缓存名称
+     * @param cache         缓存属性
+     * @param cacheValue    缓存数据
+     * @param stamp         读取缓存之前获取的本地缓存时间戳，之后本地缓存被删除过时不保存
+     */
+    private void putLocalCache(String cacheName, Cache cache, CacheValue cacheValue, long stamp) {
+        if (cacheValue.isEmpty() && cache.nullExpire() <= 0) {
+            return;
+        }
+
+        Duration localExpire;
+        if (!isLocalCache(cacheName, cache)) {
+            // 自动保存到本地缓存的热点key
+            localExpire = hotKeyDetector.getExpire();
+        } else {
+            localExpire = cache.localExpire() > 0 ? Duration.ofSeconds(cache.localExpire()) : localProperties.getExpire();
+        }
+        if (cacheValue.isEmpty() && localExpire.getSeconds() > cache.nullExpire()) {
+            // 空值在本地缓存的时间不超过空值缓存的时间
+            localExpire = Duration.ofSeconds(cache.nullExpire());
+        }
+        cacheInvalidationBroadcaster.getNearCache().put(cacheName, cacheValue.isEmpty() ? NullValue.INSTANCE : cacheValue.value(), localExpire, stamp);
+    }
+
+    /**
+     * 从redis中读取缓存，一次读取即可判断缓存是否存在
+     * 缓存已经软过期或者需要提前刷新时，返回当前数据，同时在后台刷新缓存
+     * @param cacheName         缓存名称
+     * @param cacheProcessor    缓存处理器
+     * @param cacheContext      缓存上下文
+     * @param resultSupplier    获取接口数据使用
+     * @param statistic         统计信息
+     * @param metadata          缓存方法元数据
+     * @param useLocalCache     是否使用本地缓存
+     * @return  缓存不存在或者不需要读取缓存时返回null
+     */
+    private CacheValue readCache(String cacheName,
+                                    CacheProcessor cacheProcessor,
+                                    CacheContext cacheContext,
+                                    Supplier<Object> resultSupplier,
+                                    CacheStatistics.Statistic statistic,
+                                    CacheMethodMetadata metadata,
+                                    boolean useLocalCache) {
+        Cache cache = cacheContext.cache();
+        if (!useMeta(cache) && !cache.mode().readCache()) {
+            return null;
+        }
+
+        CacheValue cacheValue;
+        CacheMeta cacheMeta = null;
+        long readStart = System.nanoTime();
+        if (useMeta(cache)) {
+            CacheEntry cacheEntry = readWithMeta(cacheName, cacheProcessor, cacheContext);
+            cacheValue = cacheEntry.value();
+            cacheMeta = cacheEntry.meta();
+        } else {
+            cacheValue = cacheProcessor.get(cacheName, cacheContext);
+        }
+
+        statistic.recordRead(System.nanoTime() - readStart);
+        if (cacheValue == null) {
+            statistic.recordMiss(1);
+            return null;
+        }
+
+        statistic.recordHit(1);
+        if (needRefresh(cache, cacheMeta)) {
+            // 已经软过期或者需要提前刷新，直接返回当前数据，同时在后台刷新缓存
+            cacheRefresher.refresh(cacheName, () -> {
+                String previousName = cacheStatistics.bind(metadata.getName());
+                try {
+                    load(cacheName, cacheProcessor, cacheContext, resultSupplier, statistic);
+                    if (useLocalCache) {
+                        cacheInvalidationBroadcaster.getNearCache().remove(cacheName);
+                    }
+                } finally {
+                    cacheStatistics.restore(previousName);
+                }
+            });
+        }
+
+        return cacheValue;
+    }
+
+    /**
+     * 按照hash字段读取缓存
+     * 缓存存在时只读取需要的字段，不存在时执行方法加载整个Map并保存
+     * @param name              缓存名称
+     * @param field             hash字段，为集合时读取多个字段
+     * @param cache             缓存属性
+     * @param joinPoint         aop属性
+     * @param resultSupplier    获取接口数据使用
+     * @param metadata          缓存方法元数据
+     * @return  只包含读取字段的Map
+     */
+    public Object resolveHashField(String name,
+                                    Object field,
+                                    Cache cache,
+                                    ProceedingJoinPoint joinPoint,
+                                    Supplier<Object> resultSupplier,
+                                    CacheMethodMetadata metadata) {
+        Collection<?> fields = field instanceof Collection<?> collection ? collection : Collections.singletonList(field);
+        if (field == null || fields.isEmpty()) {
+            // 没有需要读取的字段
+            return new LinkedHashMap<>();
+        }
+
+        String previousName = cacheStatistics.bind(metadata.getName());
+        try {
+            if (cache.mode().readCache()) {
+                // 字段值和缓存是否存在一次读取
+                CacheStatistics.Statistic statistic = cacheStatistics.get(metadata.getName());
+                long start = System.nanoTime();
+                Map<Object, Object> values = hashRedisOperationService.get(cacheNamespaces.resolve(name), fields);
+                if (values != null) {
+                    statistic.recordRead(System.nanoTime() - start);
+                    statistic.recordHit(1);
+                    return values;
+                }
+            }
+
+            // 缓存不存在，加载整个Map
+            Object result = doResolve(name, cache, joinPoint, resultSupplier, metadata);
+            if (!(result instanceof Map<?, ?> map)) {
+                return result;
+            }
+
+            // 缓存中的hash key为字符串，按照字符串匹配
+            Map<String, Object> stringKeyMap = new HashMap<>(map.size());
+            map.forEach((key, value) -> stringKeyMap.put(String.valueOf(key), value));
+
+            Map<Object, Object> values = new LinkedHashMap<>(fields.size());
+            for (Object item : fields) {
+                Object value = stringKeyMap.get(String.valueOf(item));
+                if (value != null) {
+                    values.put(item, value);
+                }
+            }
+
+            return values;
+        } finally {
+            cacheStatistics.restore(previousName);
+        }
+    }
+
+    /**
+     * 按照范围读取list缓存
+     * 缓存存在时只读取范围内的数据，不存在时执行方法加载整个List并保存；
+     * 方法返回值为ListSlice时同时返回list的总长度，方法需要返回包含所有数据的ListSlice
+     * @param name              缓存名称
+     * @param offset            开始位置
+     * @param limit             读取数量，小于等于0时读取到最后一个
+     * @param cache             缓存属性
+     * @param joinPoint         aop属性
+     * @param resultSupplier    获取接口数据使用
+     * @param metadata          缓存方法元数据
+     * @return  范围内的数据，List或者ListSlice
+     */
+    public Object resolveListRange(String name,
+                                    long offset,
+                                    long limit,
+                                    Cache cache,
+                                    ProceedingJoinPoint joinPoint,
+                                    Supplier<Object> resultSupplier,
+                                    CacheMethodMetadata metadata) {
+        long start = Math.max(offset, 0L);
+        long stop = limit > 0 ? start + limit - 1 : -1L;
+        boolean sliceResult = ListSlice.class.isAssignableFrom(((MethodSignature) joinPoint.getSignature()).getReturnType());
+        String previousName = cacheStatistics.bind(metadata.getName());
+        try {
+            if (cache.mode().readCache()) {
+                // 范围内的数据和list长度一次读取
+                CacheStatistics.Statistic statistic = cacheStatistics.get(metadata.getName());
+                long readStart = System.nanoTime();
+                ListSlice<Object> slice = listRedisOperationService.range(cacheNamespaces.resolve(name), start, stop);
+                if (slice.exists()) {
+                    statistic.recordRead(System.nanoTime() - readStart);
+                    statistic.recordHit(1);
+                    List<Object> items = slice.items();
+                    if (slice.total() == 1 && !items.isEmpty() && items.getFirst() instanceof NullValue) {
+                        // 只有一个空值占位元素时，表示缓存的是空值
+                        return null;
+                    }
+
+                    if (slice.total() == 1 && !items.isEmpty() && items.getFirst() instanceof EmptyValue) {
+                        // 只有一个空集合占位元素时，表示缓存的是空集合
+                        return sliceResult ? new ListSlice<>(new ArrayList<>(), 0L) : new ArrayList<>();
+                    }
+
+                    return sliceResult ? slice : items;
+                }
+            }
+
+            // 缓存不存在，加载整个List，方法返回ListSlice时只缓存其中的数据
+            Object result = doResolve(name, cache, joinPoint, () -> {
+                Object value = resultSupplier.get();
+                return value instanceof ListSlice<?> loaded ? loaded.items() : value;
+            }, metadata);
+            if (!(result instanceof List<?> list)) {
+                return result;
+            }
+
+            int fromIndex = (int) Math.min(start, list.size());
+            int toIndex = stop < 0 ? list.size() : (int) Math.min(stop + 1, list.size());
+            List<Object> items = new ArrayList<>(list.subList(fromIndex, toIndex));
+            return sliceResult ? new ListSlice<>(items, list.size()) : items;
+        } finally {
+            cacheStatistics.restore(previousName);
+        }
+    }
+
+    /**
+     * 批量缓存
+     * 方法的第一个集合参数中的每个id单独缓存，一次读取所有id的缓存，只使用缓存中不存在的id调用方法，
+     * 方法返回的数据在一个管道中写入缓存
+     * @param name          缓存名称前缀
+     * @param cache         缓存属性
+     * @param joinPoint     aop属性
+     * @param metadata      缓存方法元数据
+     * @return  方法执行结果，Map或者List
+     */
+    public Object resolveBatch(String name, Cache cache, ProceedingJoinPoint joinPoint, CacheMethodMetadata metadata) {
+        String previousName = cacheStatistics.bind(metadata.getName());
+        try {
+            return doResolveBatch(name, cache, joinPoint, metadata);
+        } finally {
+            cacheStatistics.restore(previousName);
+        }
+    }
+
+    /**
+     * 批量缓存
+     * 与单个缓存相同，按照缓存模式决定是否读取缓存以及如何写入，写入时记录缓存标签；
+     * 本地缓存、后台刷新在注册缓存方法时已经排除
+     * @param name          缓存名称前缀
+     * @param cache         缓存属性
+     * @param joinPoint     aop属性
+     * @param metadata      缓存方法元数据
+     * @return  方法执行结果，Map或者List
+     */
+    private Object doResolveBatch(String name, Cache cache, ProceedingJoinPoint joinPoint, CacheMethodMetadata metadata) {
+        MethodSignature signature = ((MethodSignature) joinPoint.getSignature());
+        Object[] args = joinPoint.getArgs();
+
+        int index = getBatchIndex(args);
+        boolean mapResult = Map.class.isAssignableFrom(signature.getReturnType());
+        boolean listResult = List.class.isAssignableFrom(signature.getReturnType()) && StringUtils.isNotEmpty(cache.batchKey());
+        if (index < 0 || (!mapResult && !listResult)) {
+            logger.debug("方法不支持批量缓存: " + metadata.getName());
+            return proceed(joinPoint, args);
+        }
+
+        Collection<?> ids = (Collection<?>) args[index];
+        if (ids.isEmpty()) {
+            return proceed(joinPoint, args);
+        }
+
+        List<Object> idList = new ArrayList<>(new LinkedHashSet<>(ids));
+        List<String> cacheKeys = idList.stream().map(id -> cacheNamespaces.resolve(name + CacheConstant.SEPARATOR + id)).toList();
+        CacheStatistics.Statistic statistic = cacheStatistics.get(metadata.getName());
+        statistic.setType(batchProcessor.type());
+
+        Map<String, Object> values = new HashMap<>();
+        List<Object> missIds = new ArrayList<>();
+        List<String> missKeys = new ArrayList<>();
+        if (cache.mode().readCache()) {
+            // 一次读取所有id的缓存
+            long readStart = System.nanoTime();
+            List<Object> cacheValues = redisTemplate.opsForValue().multiGet(cacheKeys);
+            statistic.recordRead(System.nanoTime() - readStart);
+
+            for (int i = 0; i < idList.size(); i++) {
+                Object value = cacheValues == null ? null : cacheValues.get(i);
+                if (value == null) {
+                    missIds.add(idList.get(i));
+                    missKeys.add(cacheKeys.get(i));
+                } else if (!(value instanceof NullValue)) {
+                    values.put(String.valueOf(idList.get(i)), value);
+                }
+            }
+
+            statistic.recordHit(idList.size() - missIds.size());
+            statistic.recordMiss(missIds.size());
+        } else {
+            // 更新模式不读取缓存，所有id都需要调用方法
+            missIds.addAll(idList);
+            missKeys.addAll(cacheKeys);
+        }
+
+        if (!missIds.isEmpty()) {
+            // 只使用缓存中不存在的id调用方法
+            Object[] loadArgs = args.clone();
+            loadArgs[index] = ids instanceof Set ? new LinkedHashSet<>(missIds) : missIds;
+
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = proceed(joinPoint, loadArgs);
+            } finally {
+                statistic.recordLoad(System.nanoTime() - start);
+            }
+
+            Map<String, Object> loadValues = toBatchValues(result, cache, metadata);
+            values.putAll(loadValues);
+            saveBatch(missIds, missKeys, loadValues, new CacheContext(cache, joinPoint.getTarget(), signature, args));
+        }
+
+        // 按照参数中id的顺序返回
+        if (mapResult) {
+            Map<Object, Object> result = new LinkedHashMap<>();
+            idList.forEach(id -> {
+                Object value = values.get(String.valueOf(id));
+                if (value != null) {
+                    result.put(id, value);
+                }
+            });
+
+            return result;
+        }
+
+        return idList.stream().map(id -> values.get(String.valueOf(id))).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    /**
+     * 保存批量缓存中方法加载的数据
+     * 读取模式下方法未返回的id缓存空值，更新模式只保存方法返回的数据；延迟更新模式交给延迟写入合并写入，
+     * 其他模式通过缓存处理器在一个管道中写入，处理器不支持管道写入的单独保存
+     * @param ids           加载的id
+     * @param cacheKeys     id对应的缓存key
+     * @param loadValues    方法返回的 id - 数据
+     * @param cacheContext  缓存上下文
+     */
+    private void saveBatch(List<Object> ids, List<String> cacheKeys, Map<String, Object> loadValues, CacheContext cacheContext) {
+        Cache cache = cacheContext.cache();
+        List<String> saveKeys = new ArrayList<>(cacheKeys.size());
+        List<Object> saveValues = new ArrayList<>(cacheKeys.size());
+        for (int i = 0; i < ids.size(); i++) {
+            Object value = loadValues.get(String.valueOf(ids.get(i)));
+            if (value != null || cache.mode().readCache()) {
+                saveKeys.add(cacheKeys.get(i));
+                saveValues.add(value);
+            }
+        }
+
+        if (saveKeys.isEmpty()) {
+            return;
+        }
+
+        if (cache.mode().equals(Mode.WRITE_BEHIND)) {
+            for (int i = 0; i < saveKeys.size(); i++) {
+                cacheWriteBehind.submit(saveKeys.get(i), batchProcessor, cacheContext, saveValues.get(i));
+            }
+        } else {
+            // 在一个管道中写入缓存
+            List<Integer> fallbackIndexes = new ArrayList<>();
+            stringRedisOperationService.executePipelined(operations -> {
+                for (int i = 0; i < saveKeys.size(); i++) {
+                    if (!batchProcessor.write(operations, saveKeys.get(i), saveValues.get(i), cacheContext)) {
+                        fallbackIndexes.add(i);
+                    }
+                }
+            });
+            fallbackIndexes.forEach(i -> batchProcessor.save(saveKeys.get(i), saveValues.get(i), cacheContext));
+
+            if (cache.mode().equals(Mode.UPDATE_ONLY) && localProperties.isEnabled()) {
+                // 缓存已经更新，通知所有节点删除旧的本地缓存
+                cacheInvalidationBroadcaster.invalidate(saveKeys, false);
+            }
+        }
+
+        tag(saveKeys, cacheContext);
+    }
+
+    /**
+     * 获取批量缓存的id集合参数位置
+     * @param args  方法参数
+     * @return  第一个集合参数的位置，不存在时返回-1
+     */
+    private int getBatchIndex(Object[] args) {
+        for (int i = 0; i < args.length; i++) {
+            if (args[i] instanceof Collection) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * 将方法的返回值转换为 id - 数据
+     * @param result    方法返回值
+     * @param cache     缓存属性
+     * @param metadata  缓存方法元数据
+     * @return  id - 数据
+     */
+    private Map<String, Object> toBatchValues(Object result, Cache cache, CacheMethodMetadata metadata) {
+        Map<String, Object> values = new HashMap<>();
+        if (result instanceof Map<?, ?> map) {
+            map.forEach((key, value) -> {
+                if (value != null) {
+                    values.put(String.valueOf(key), value);
+                }
+            });
+        } else if (result instanceof Collection<?> collection) {
+            for (Object value : collection) {
+                if (value != null) {
+                    values.put(String.valueOf(metadata.getValue(cache.batchKey(), value)), value);
+                }
+            }
         }
 
-        // 存在，返回对应的缓存结果
-        return cacheProcessor.get(cacheName, cacheContext);
+        return values;
+    }
+
+    /**
+     * 执行方法
+     * @param joinPoint aop属性
+     * @param args      方法参数
+     * @return  方法执行结果
+     */
+    private Object proceed(ProceedingJoinPoint joinPoint, Object[] args) {
+        try {
+            return joinPoint.proceed(args);
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * 判断缓存是否需要元数据
+     * @param cache 缓存属性
+     * @return  STALE_WHILE_REVALIDATE模式或者开启了提前刷新时需要
+     */
+    private boolean useMeta(Cache cache) {
+        return cache.mode().equals(Mode.STALE_WHILE_REVALIDATE) || (cache.earlyRefresh() && cache.mode().readCache());
+    }
+
+    /**
+     * 判断缓存是否需要在后台刷新
+     * @param cache     缓存属性
+     * @param cacheMeta 缓存元数据
+     * @return  已经软过期，或者满足提前刷新条件时需要刷新
+     */
+    private boolean needRefresh(Cache cache, CacheMeta cacheMeta) {
+        if (cacheMeta == null) {
+            return false;
+        }
+
+        if (cache.mode().equals(Mode.STALE_WHILE_REVALIDATE) && cacheMeta.isSoftExpired()) {
+            return true;
+        }
+
+        return cache.earlyRefresh() && cacheMeta.shouldRefreshEarly(cache.beta());
+    }
+
+    /**
+     * 读取缓存以及缓存元数据
+     * 缓存处理器支持管道读取时，缓存和元数据在一次网络往返中读取
+     * @param cacheName         缓存名称
+     * @param cacheProcessor    缓存处理器
+     * @param cacheContext      缓存上下文
+     * @return  缓存以及元数据
+     */
+    @SuppressWarnings("unchecked")
+    private CacheEntry readWithMeta(String cacheName, CacheProcessor cacheProcessor, CacheContext cacheContext) {
+        String metaKey = cacheName + CacheConstant.META_SUFFIX;
+        if (!cacheProcessor.pipelined()) {
+            return new CacheEntry(cacheProcessor.get(cacheName, cacheContext), CacheMeta.decode(stringRedisOperationService.get(metaKey)));
+        }
+
+        List<Object> results = stringRedisOperationService.executePipelined(operations -> {
+            cacheProcessor.read(operations, cacheName, cacheContext);
+            operations.opsForValue().get(metaKey);
+        });
+        return new CacheEntry(cacheProcessor.convert(results.get(0), cacheContext), CacheMeta.decode(results.get(1)));
+    }
+
+    /**
+     * 执行方法加载数据，并保存到缓存中
+     * 开启多节点加载时，只有获取到加载锁的节点执行方法，其他节点等待缓存写入
+     * @param cacheName         缓存名称
+     * @param cacheProcessor    缓存处理器
+     * @param cacheContext      缓存上下文
+     * @param resultSupplier    获取接口数据使用
+     * @param statistic         统计信息
+     * @return  加载的数据
+     */
+    private Object load(String cacheName,
+                        CacheProcessor cacheProcessor,
+                        CacheContext cacheContext,
+                        Supplier<Object> resultSupplier,
+                        CacheStatistics.Statistic statistic) {
+        if (!cacheContext.cache().mode().readCache() || !loadProperties.isDistributed()) {
+            return loadAndSave(cacheName, cacheProcessor, cacheContext, resultSupplier, statistic);
+        }
+
+        String lockKey = cacheName + LOAD_LOCK_SUFFIX;
+        String lockValue = UUID.randomUUID().toString().replace("-", "");
+        if (stringRedisOperationService.lock(lockKey, lockValue, loadProperties.getLeaseTime())) {
+            try {
+                return loadAndSave(cacheName, cacheProcessor, cacheContext, resultSupplier, statistic);
+            } finally {
+                stringRedisOperationService.unlock(lockKey, lockValue);
+            }
+        }
+
+        // 其他节点正在加载，等待其写入缓存
+        long start = System.nanoTime();
+        long deadline = start + loadProperties.getWaitTime().toNanos();
+        while (System.nanoTime() < deadline) {
+            ThreadUtils.sleep(LOAD_WAIT_INTERVAL, TimeUnit.MILLISECONDS);
+            CacheValue cacheValue = cacheProcessor.get(cacheName, cacheContext);
+            if (cacheValue != null) {
+                statistic.recordWait(System.nanoTime() - start);
+                return cacheValue.value();
+            }
+        }
+
+        // 等待超时，自行加载
+        statistic.recordWait(System.nanoTime() - start);
+        logger.debug("等待其他节点加载缓存超时: " + cacheName);
+        return loadAndSave(cacheName, cacheProcessor, cacheContext, resultSupplier, statistic);
+    }
+
+    /**
+     * 执行方法并保存结果
+     * @param cacheName         缓存名称
+     * @param cacheProcessor    缓存处理器
+     * @param cacheContext      缓存上下文
+     * @param resultSupplier    获取接口数据使用
+     * @param statistic         统计信息
+     * @return  方法执行结果
+     */
+    private Object loadAndSave(String cacheName,
+                                CacheProcessor cacheProcessor,
+                                CacheContext cacheContext,
+                                Supplier<Object> resultSupplier,
+                                CacheStatistics.Statistic statistic) {
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = resultSupplier.get();
+        } finally {
+            statistic.recordLoad(System.nanoTime() - start);
+        }
+        save(cacheName, cacheProcessor, cacheContext, result, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+        return result;
+    }
+
+    /**
+     * 保存方法执行结果
+     * @param cacheName         缓存名称
+     * @param cacheProcessor    缓存处理器
+     * @param cacheContext      缓存上下文
+     * @param result            方法执行结果
+     * @param computeTime       方法执行耗时，毫秒
+     */
+    private void save(String cacheName, CacheProcessor cacheProcessor, CacheContext cacheContext, Object result, long computeTime) {
+        Cache cache = cacheContext.cache();
+        if (result == null && !cache.mode().readCache()) {
+            return;
+        }
+
+        if (cache.mode().equals(Mode.WRITE_BEHIND)) {
+            cacheWriteBehind.submit(cacheName, cacheProcessor, cacheContext, result);
+            tag(cacheName, cacheContext);
+            return;
+        }
+
+        // 读取模式下空值也需要缓存，防止缓存穿透
+        cacheProcessor.save(cacheName, result, cacheContext);
+        if (result != null && useMeta(cache)) {
+            // 记录软过期时间和加载耗时，元数据比缓存多保留一段时间，保证缓存存在时元数据一定存在
+            CacheMeta cacheMeta = new CacheMeta(System.currentTimeMillis() + cache.expire() * 1000, computeTime);
+            stringRedisOperationService.setEx(cacheName + CacheConstant.META_SUFFIX, cacheMeta.encode(),
+                Duration.ofSeconds(cache.expire() + cache.staleTime() + META_EXTRA_EXPIRE));
+        }
+        tag(cacheName, cacheContext);
+    }
+
+    /**
+     * 记录缓存所属的标签，标签的有效时间与元数据相同，不短于缓存本身
+     * @param cacheName     缓存名称
+     * @param cacheContext  缓存上下文
+     */
+    private void tag(String cacheName, CacheContext cacheContext) {
+        tag(Collections.singletonList(cacheName), cacheContext);
+    }
+
+    /**
+     * 记录缓存所属的标签，同一个方法调用的多个缓存只计算一次标签
+     * @param cacheNames    缓存名称
+     * @param cacheContext  缓存上下文
+     */
+    private void tag(List<String> cacheNames, CacheContext cacheContext) {
+        Cache cache = cacheContext.cache();
+        if (cache.tags().length == 0) {
+            return;
+        }
+
+        CacheMethodMetadata metadata = cacheMethodRegistry.get(cacheContext.signature().getMethod());
+        List<String> tags = metadata.getTags(cache.tags(), cacheContext.target(), cacheContext.signature(), cacheContext.args());
+        long expire = cache.expire() <= 0 ? 0 : cache.expire() + cache.staleTime() + META_EXTRA_EXPIRE;
+        cacheTags.add(cacheNames, tags, expire);
+    }
+
+    /**
+     * 删除标签下的所有缓存
+     * @param tags      标签
+     * @param joinPoint aop属性
+     */
+    public void removeByTags(List<String> tags, ProceedingJoinPoint joinPoint) {
+        CacheMethodMetadata metadata = cacheMethodRegistry.get(((MethodSignature) joinPoint.getSignature()).getMethod());
+        List<String> cacheNames = cacheTags.remove(tags);
+        cacheStatistics.get(metadata.getName()).recordEviction(cacheNames.size());
+
+        if (localProperties.isEnabled() && !cacheNames.isEmpty()) {
+            // 删除所有节点的本地缓存
+            cacheInvalidationBroadcaster.invalidate(cacheNames, false);
+        }
     }
 
     /**
@@ -93,38 +1356,109 @@ public class CacheProcessorManager {
         Object[] args = joinPoint.getArgs();
 
         // 获取解析器
-        CacheProcessor cacheProcessor = getCacheResolver(cacheRemove == null ? null : cacheRemove.resolver(), target, signature, args);
+        CacheMethodMetadata metadata = cacheMethodRegistry.get(signature.getMethod());
+        CacheProcessor cacheProcessor = metadata
+            .getProcessor(cacheRemove == null ? null : cacheRemove.resolver(), resolverName -> getCacheResolver(resolverName, target, signature, args));
         if (cacheProcessor == null) {
             return;
         }
 
-        // 根据缓存的key值，删除对应的缓存
+        // 根据缓存的key值，删除对应的缓存，属于命名空间的缓存实际的key中带有版本号
+        CacheStatistics.Statistic statistic = cacheStatistics.get(metadata.getName());
+        statistic.setType(cacheProcessor.type());
+        List<String> cacheKeys = removeAll ? cacheNames : cacheNames.stream().map(cacheNamespaces::resolve).toList();
+        long evictionCount = 0;
         if (removeAll) {
-            List<byte[]> deleteCacheKeys = new ArrayList<>();
-
-            // 遍历所有的key
             for (String currentName : cacheNames) {
-                try(Cursor<String> cursor = redisTemplate.scan(ScanOptions.scanOptions().match("*" + currentName + "*").build())) {
-                    while (cursor.hasNext()) {
-                        String cacheKey = cursor.next();
-                        deleteCacheKeys.add(cacheKey.getBytes(StandardCharsets.UTF_8));
-                    }
+                if (cacheNamespaces.contains(currentName)) {
+                    // 命名空间只需要增加版本号，旧版本的缓存等待自动过期
+                    cacheNamespaces.increment(currentName);
+                    evictionCount++;
+                } else {
+                    evictionCount += removeByPattern(currentName);
                 }
             }
-
-            // 删除
-            redisTemplate.execute((RedisCallback<Object>) connection -> connection.keyCommands().del(deleteCacheKeys.toArray(new byte[deleteCacheKeys.size()][])));
         } else {
-            redisTemplate.delete(cacheNames);
+            if (cacheMethodRegistry.isTagged()) {
+                // 同时删除缓存对应的元数据，并从缓存所属的标签集合中移除
+                cacheTags.delete(cacheKeys);
+            } else {
+                // 同时删除缓存对应的元数据
+                List<String> deleteCacheKeys = new ArrayList<>(cacheKeys);
+                cacheKeys.forEach(item -> deleteCacheKeys.add(item + CacheConstant.META_SUFFIX));
+                redisTemplate.delete(deleteCacheKeys);
+            }
+            evictionCount = cacheKeys.size();
+        }
+        statistic.recordEviction(evictionCount);
+
+        if (localProperties.isEnabled()) {
+            // 删除所有节点的本地缓存
+            cacheInvalidationBroadcaster.invalidate(cacheKeys, removeAll);
         }
     }
 
-    private CacheProcessor getCacheResolver(String resolverName, ProceedingJoinPoint joinPoint) {
-        Object target = joinPoint.getTarget();
-        MethodSignature signature = ((MethodSignature) joinPoint.getSignature());
-        Object[] args = joinPoint.getArgs();
+    /**
+     * 删除所有包含缓存名称的key
+     * 遍历时分批删除，避免一次删除大量key阻塞redis
+     * @param cacheName 缓存名称
+     * @return  删除的key数量
+     */
+    private long removeByPattern(String cacheName) {
+        long count = 0;
+        List<byte[]> deleteCacheKeys = new ArrayList<>(removeBatchSize);
+        ScanOptions scanOptions = ScanOptions.scanOptions().match("*" + cacheName + "*").count(removeBatchSize).build();
+        try(Cursor<String> cursor = redisTemplate.scan(scanOptions)) {
+            while (cursor.hasNext()) {
+                deleteCacheKeys.add(cursor.next().getBytes(StandardCharsets.UTF_8));
+                count++;
+                if (deleteCacheKeys.size() >= removeBatchSize) {
+                    unlink(deleteCacheKeys);
+                    deleteCacheKeys.clear();
+                }
+            }
+        }
 
-        return getCacheResolver(resolverName, target, signature, args);
+        unlink(deleteCacheKeys);
+        return count;
+    }
+
+    /**
+     * 删除key，在redis后台线程中释放内存
+     * @param keys  待删除的key
+     */
+    private void unlink(List<byte[]> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+
+        byte[][] keyArray = keys.toArray(new byte[keys.size()][]);
+        redisTemplate.execute((RedisCallback<Object>) connection -> connection.keyCommands().unlink(keyArray));
+    }
+
+    /**
+     * 判断缓存是否使用本地缓存，同时统计访问频率，热点key自动使用本地缓存
+     * @param cacheName 缓存名称
+     * @param cache     缓存属性
+     * @param statistic 统计信息
+     * @return  是否使用本地缓存
+     */
+    private boolean useLocalCache(String cacheName, Cache cache, CacheStatistics.Statistic statistic) {
+        if (!localProperties.isEnabled()) {
+            return false;
+        }
+
+        return hotKeyDetector.record(cacheName, statistic) || isLocalCache(cacheName, cache);
+    }
+
+    /**
+     * 判断缓存是否配置了本地缓存
+     * @param cacheName 缓存名称
+     * @param cache     缓存属性
+     * @return  boolean
+     */
+    private boolean isLocalCache(String cacheName, Cache cache) {
+        return cache.local() || localProperties.getNames().stream().anyMatch(cacheName::startsWith);
     }
 
     /**
@@ -133,10 +1467,11 @@ public class CacheProcessorManager {
      * @param target 对象信息
      * @param method 对应方法信息
      * @param args 方法参数
-     * @return 获取缓存解析器
+     * @return 获取缓存解析器，以及查找结果能否在之后的调用中直接使用
      */
-    private CacheProcessor getCacheResolver(String resolverName, Object target, MethodSignature method, Object[] args) {
+    private CacheMethodMetadata.ProcessorLookup getCacheResolver(String resolverName, Object target, MethodSignature method, Object[] args) {
         boolean useOptionsCacheResolver = StringUtils.isNotEmpty(resolverName);
+        boolean reusable = true;
         for (CacheProcessorEntity resolver : cacheProcessorList) {
             // 如果指定了解析器，则以指定的解析器去寻找
             if (useOptionsCacheResolver) {
@@ -144,17 +1479,50 @@ public class CacheProcessorManager {
                     continue;
                 }
             } else {
+                // 经过的处理器中有根据调用对象、方法参数判断的，查找结果只能用于本次调用
+                reusable &= resolver.cacheProcessor.supportByMethod();
                 if (!resolver.cacheProcessor.support(target, method, args)) {
                     // 非当前解析器
                     continue;
                 }
             }
-            return resolver.cacheProcessor;
+            return new CacheMethodMetadata.ProcessorLookup(resolver.cacheProcessor, reusable);
         }
 
-        return null;
+        return new CacheMethodMetadata.ProcessorLookup(null, reusable);
+    }
+
+    public CacheStatistics getCacheStatistics() {
+        return cacheStatistics;
     }
 
+    /**
+     * 缓存读取结果以及元数据
+     * @param value 缓存读取结果
+     * @param meta  缓存元数据
+     */
+    private record CacheEntry(CacheValue value, CacheMeta meta) {}
+
+    /**
+     * 一个方法上的多个缓存中的单个缓存
+     * @param cacheName         实际的缓存名称
+     * @param cache             缓存属性
+     * @param cacheProcessor    缓存处理器
+     * @param cacheContext      缓存上下文
+     * @param useLocalCache     是否使用本地缓存
+     * @param stamp             读取缓存之前获取的本地缓存时间戳
+     */
+    private record CacheItem(String cacheName, Cache cache, CacheProcessor cacheProcessor, CacheContext cacheContext, boolean useLocalCache, long stamp) {}
+
+    /**
+     * 异步读取缓存的结果
+     * @param cacheName     实际的缓存名称
+     * @param value         缓存读取结果，不存在时为null
+     * @param useLocalCache 是否需要保存到本地缓存
+     * @param stamp         读取缓存之前获取的本地缓存时间戳
+     */
+    private record AsyncLookup(String cacheName, CacheValue value, boolean useLocalCache, long stamp) {}
+
     /**
      * 构建处理器实体
      * @param beanName          容器内beanName
@@ -0,0 +1,271 @@
+package cn.jvmaster.redis.generator;
+
+import cn.jvmaster.core.util.HashUtils;
+import cn.jvmaster.redis.constant.CacheConstant;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.data.redis.core.RedisTemplate;
+
+/**
+ * 定长hash缓存key构造器
+ * 方法参数按照类型编码为与JVM无关的规范字符串（参数指纹），再计算128位MurmurHash3，
+ * 缓存key为 类名::方法名::22位base64，参数再多、再长key的长度也是固定的。
+ * 调试模式下会把参数指纹保存到redis（每个缓存key单独保存，带有有效时间），出现不同参数生成相同key时输出错误日志
+ * @author AI
+ * @date 2025/6/17 14:30
+ * @version 1.0
+**/
+public class HashCacheKeyGenerator implements CacheKeyGenerator {
+    private static final Log logger = LogFactory.getLog(HashCacheKeyGenerator.class);
+
+    /**
+     * 调试模式下保存参数指纹的key前缀，实际的key为 cache::fingerprint::缓存key
+     */
+    public static final String FINGERPRINT_KEY = "cache" + CacheConstant.SEPARATOR + "fingerprint";
+
+    /**
+     * 参数指纹默认的有效时间
+     */
+    public static final Duration DEFAULT_FINGERPRINT_EXPIRE = Duration.ofHours(1);
+
+    /**
+     * 普通对象的编码方式，属性、map按照名称排序，保证相同内容的编码相同
+     */
+    private static final ObjectMapper OBJECT_MAPPER = JsonMapper.builder()
+        .enable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+        .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+        .disable(SerializationFeature.FAIL_ON_EMPTY_BEANS)
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+        .addModule(new JavaTimeModule())
+        .build();
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    /**
+     * 调试模式下用于保存参数指纹，非调试模式为null
+     */
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    /**
+     * 参数指纹的有效时间，只检查有效时间内的冲突，redis中参数指纹的数量不会无限增长
+     */
+    private final Duration fingerprintExpire;
+
+    public HashCacheKeyGenerator() {
+        this(null);
+    }
+
+    /**
+     * 构建缓存key构造器
+     * @param redisTemplate 不为null时开启调试模式，保存并检查参数指纹
+     */
+    public HashCacheKeyGenerator(RedisTemplate<String, Object> redisTemplate) {
+        this(redisTemplate, DEFAULT_FINGERPRINT_EXPIRE);
+    }
+
+    /**
+     * 构建缓存key构造器
+     * @param redisTemplate     不为null时开启调试模式，保存并检查参数指纹
+     * @param fingerprintExpire 参数指纹的有效时间
+     */
+    public HashCacheKeyGenerator(RedisTemplate<String, Object> redisTemplate, Duration fingerprintExpire) {
+        this.redisTemplate = redisTemplate;
+        this.fingerprintExpire = fingerprintExpire == null || fingerprintExpire.isNegative() || fingerprintExpire.isZero()
+            ? DEFAULT_FINGERPRINT_EXPIRE : fingerprintExpire;
+    }
+
+    @Override
+    public String generate(Object target, MethodSignature method, Object[] args) {
+        String prefix = target.getClass().getName() + CacheConstant.SEPARATOR + method.getName();
+        if (args == null || args.length == 0) {
+            return prefix;
+        }
+
+        String fingerprint = fingerprint(args);
+        String key = prefix + CacheConstant.SEPARATOR + hash(fingerprint);
+        if (redisTemplate != null) {
+            audit(key, fingerprint);
+        }
+
+        return key;
+    }
+
+    /**
+     * 计算参数指纹，相同类型、相同内容的参数在任何JVM上得到相同的指纹
+     * @param args  方法参数
+     * @return  参数指纹
+     */
+    public static String fingerprint(Object[] args) {
+        StringBuilder builder = new StringBuilder();
+        for (Object arg : args) {
+            append(builder, arg);
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * 计算参数指纹的128位hash
+     * @param fingerprint   参数指纹
+     * @return  22位url安全的base64
+     */
+    public static String hash(String fingerprint) {
+        long[] hash = HashUtils.murmur3(fingerprint.getBytes(StandardCharsets.UTF_8));
+        return ENCODER.encodeToString(ByteBuffer.allocate(16).putLong(hash[0]).putLong(hash[1]).array());
+    }
+
+    /**
+     * 保存参数指纹，同一个key已经保存了不同的指纹时说明发生了冲突
+     * @param key           缓存key
+     * @param fingerprint   参数指纹
+     */
+    private void audit(String key, String fingerprint) {
+        String fingerprintKey = FINGERPRINT_KEY + CacheConstant.SEPARATOR + key;
+        try {
+            if (Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(fingerprintKey, fingerprint, fingerprintExpire))) {
+                return;
+            }
+
+            Object existing = redisTemplate.opsForValue().get(fingerprintKey);
+            if (existing != null && !fingerprint.equals(existing)) {
+                logger.error("缓存key冲突: " + key + "，已有参数指纹: " + existing + "，当前参数指纹: " + fingerprint);
+            }
+        } catch (Exception e) {
+            logger.warn("保存缓存参数指纹失败: " + key, e);
+        }
+    }
+
+    /**
+     * 按照类型编码单个值，每种类型有不同的标识，字符串类内容带有长度，保证编码结果可以唯一还原
+     * @param builder   编码结果
+     * @param value     值
+     */
+    private static void append(StringBuilder builder, Object value) {
+        switch (value) {
+            case null -> builder.append('N');
+            case String string -> text(builder, 'S', string);
+            case Boolean bool -> builder.append('Z').append(bool ? 1 : 0);
+            case Character character -> builder.append('C').append((int) character).append(';');
+            case Byte number -> builder.append('B').append(number).append(';');
+            case Short number -> builder.append('H').append(number).append(';');
+            case Integer number -> builder.append('I').append(number).append(';');
+            case Long number -> builder.append('J').append(number).append(';');
+            case Float number -> builder.append('F').append(Float.floatToIntBits(number)).append(';');
+            case Double number -> builder.append('D').append(Double.doubleToLongBits(number)).append(';');
+            case BigInteger number -> builder.append('G').append(number).append(';');
+            case BigDecimal number -> builder.append('M').append(number).append(';');
+            case Enum<?> item -> {
+                text(builder, 'E', item.getDeclaringClass().getName());
+                text(builder, 'E', item.name());
+            }
+            case Class<?> clazz -> text(builder, 'K', clazz.getName());
+            case UUID uuid -> text(builder, 'U', uuid.toString());
+            case Date date -> {
+                text(builder, 'T', date.getClass().getName());
+                builder.append(date.getTime()).append(';');
+            }
+            case TemporalAccessor temporal -> {
+                text(builder, 'V', temporal.getClass().getName());
+                text(builder, 'V', temporal.toString());
+            }
+            case byte[] bytes -> text(builder, 'Y', Base64.getEncoder().encodeToString(bytes));
+            case Optional<?> optional -> {
+                builder.append('W');
+                append(builder, optional.orElse(null));
+            }
+            case Set<?> set -> unordered(builder, 'Q', set);
+            case Collection<?> collection -> {
+                builder.append('L').append(collection.size()).append(':');
+                for (Object item : collection) {
+                    append(builder, item);
+                }
+            }
+            case Map<?, ?> map -> {
+                List<String> entries = new ArrayList<>(map.size());
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    StringBuilder item = new StringBuilder();
+                    append(item, entry.getKey());
+                    append(item, entry.getValue());
+                    entries.add(item.toString());
+                }
+                sorted(builder, 'P', entries);
+            }
+            default -> {
+                if (value.getClass().isArray()) {
+                    int length = Array.getLength(value);
+                    builder.append('A').append(length).append(':');
+                    for (int i = 0; i < length; i++) {
+                        append(builder, Array.get(value, i));
+                    }
+                } else {
+                    text(builder, 'X', value.getClass().getName());
+                    text(builder, 'X', toJson(value));
+                }
+            }
+        }
+    }
+
+    /**
+     * 编码无序集合，元素编码后排序，与集合的遍历顺序无关
+     * @param builder   编码结果
+     * @param tag       类型标识
+     * @param items     集合
+     */
+    private static void unordered(StringBuilder builder, char tag, Collection<?> items) {
+        List<String> encoded = new ArrayList<>(items.size());
+        for (Object item : items) {
+            StringBuilder element = new StringBuilder();
+            append(element, item);
+            encoded.add(element.toString());
+        }
+        sorted(builder, tag, encoded);
+    }
+
+    private static void sorted(StringBuilder builder, char tag, List<String> encoded) {
+        encoded.sort(null);
+        builder.append(tag).append(encoded.size()).append(':');
+        for (String item : encoded) {
+            builder.append(item);
+        }
+    }
+
+    private static void text(StringBuilder builder, char tag, String text) {
+        builder.append(tag).append(text.length()).append(':').append(text);
+    }
+
+    /**
+     * 普通对象按照属性编码，无法转换为json时使用toString
+     * @param value 对象
+     * @return  编码结果
+     */
+    private static String toJson(Object value) {
+        try {
+            return OBJECT_MAPPER.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            return String.valueOf(value);
+        }
+    }
+}
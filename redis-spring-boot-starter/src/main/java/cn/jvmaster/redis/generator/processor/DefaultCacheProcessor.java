@@ -1,12 +1,13 @@
 package cn.jvmaster.redis.generator.processor;
 
-import cn.jvmaster.core.util.RandomUtils;
 import cn.jvmaster.redis.CacheContext;
-import cn.jvmaster.redis.annotation.Cache;
+import cn.jvmaster.redis.domain.CacheValue;
 import cn.jvmaster.redis.generator.CacheProcessor;
 import cn.jvmaster.redis.service.StringRedisOperationService;
 import java.time.Duration;
 import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.core.RedisOperations;
 
 /**
  * 默认缓存处理器
@@ -30,13 +31,55 @@ public class DefaultCacheProcessor implements CacheProcessor {
     }
 
     @Override
-    public Object get(String cacheName, CacheContext cache) {
-        return stringRedisOperationService.get(cacheName);
+    public boolean supportByMethod() {
+        return true;
+    }
+
+    @Override
+    public String type() {
+        return "string";
+    }
+
+    @Override
+    public CacheValue get(String cacheName, CacheContext cache) {
+        return convert(stringRedisOperationService.get(cacheName), cache);
+    }
+
+    @Override
+    public boolean pipelined() {
+        return true;
+    }
+
+    @Override
+    public void read(RedisOperations<String, Object> operations, String cacheName, CacheContext cache) {
+        operations.opsForValue().get(cacheName);
     }
 
     @Override
     public void save(String cacheName, Object value, CacheContext cache) {
+        if (value == null) {
+            // 缓存空值，防止缓存穿透
+            if (cache.cache().nullExpire() > 0) {
+                stringRedisOperationService.setEx(cacheName, NullValue.INSTANCE, Duration.ofSeconds(cache.cache().nullExpire()));
+            }
+            return;
+        }
+
         // 加个时间，防止缓存雪崩
-        stringRedisOperationService.setEx(cacheName, value, Duration.ofSeconds(cache.cache().expire() + RandomUtils.random(100L)));
+        stringRedisOperationService.setEx(cacheName, value, cache.expire());
+    }
+
+    @Override
+    public boolean write(RedisOperations<String, Object> operations, String cacheName, Object value, CacheContext cache) {
+        if (value == null) {
+            // 缓存空值，防止缓存穿透
+            if (cache.cache().nullExpire() > 0) {
+                operations.opsForValue().set(cacheName, NullValue.INSTANCE, Duration.ofSeconds(cache.cache().nullExpire()));
+            }
+            return true;
+        }
+
+        operations.opsForValue().set(cacheName, value, cache.expire());
+        return true;
     }
 }
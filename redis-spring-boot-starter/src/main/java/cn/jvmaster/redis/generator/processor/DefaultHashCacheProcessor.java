@@ -1,12 +1,15 @@
 package cn.jvmaster.redis.generator.processor;
 
-import cn.jvmaster.core.util.RandomUtils;
 import cn.jvmaster.redis.CacheContext;
+import cn.jvmaster.redis.domain.CacheValue;
 import cn.jvmaster.redis.generator.CacheProcessor;
 import cn.jvmaster.redis.service.HashRedisOperationService;
 import java.time.Duration;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.core.RedisOperations;
 
 /**
  * hash类型缓存操作
@@ -16,6 +19,16 @@ import org.aspectj.lang.reflect.MethodSignature;
 **/
 public class DefaultHashCacheProcessor implements CacheProcessor {
 
+    /**
+     * 缓存空值时使用的hash key
+     */
+    public static final String NULL_VALUE_KEY = "~null";
+
+    /**
+     * 缓存空Map时使用的hash key
+     */
+    public static final String EMPTY_VALUE_KEY = "~empty";
+
     private final HashRedisOperationService hashRedisOperationService;
 
     public DefaultHashCacheProcessor(HashRedisOperationService hashRedisOperationService) {
@@ -28,12 +41,87 @@ public class DefaultHashCacheProcessor implements CacheProcessor {
     }
 
     @Override
-    public Object get(String cacheName, CacheContext cache) {
-        return hashRedisOperationService.get(cacheName);
+    public boolean supportByMethod() {
+        return true;
+    }
+
+    @Override
+    public String type() {
+        return "hash";
+    }
+
+    @Override
+    public CacheValue get(String cacheName, CacheContext cache) {
+        return convert(hashRedisOperationService.get(cacheName), cache);
+    }
+
+    @Override
+    public boolean pipelined() {
+        return true;
+    }
+
+    @Override
+    public void read(RedisOperations<String, Object> operations, String cacheName, CacheContext cache) {
+        operations.opsForHash().entries(cacheName);
+    }
+
+    @Override
+    public CacheValue convert(Object result, CacheContext cache) {
+        if (!(result instanceof Map<?, ?> map) || map.isEmpty()) {
+            // 不存在
+            return null;
+        }
+
+        if (map.size() == 1 && map.get(NULL_VALUE_KEY) instanceof NullValue) {
+            // 只有一个空值占位元素时，表示缓存的是空值
+            return CacheValue.EMPTY;
+        }
+
+        // 只有一个空Map占位元素时，表示缓存的是空Map
+        return map.size() == 1 && map.get(EMPTY_VALUE_KEY) instanceof NullValue ? new CacheValue(new LinkedHashMap<>()) : new CacheValue(map);
     }
 
     @Override
     public void save(String cacheName, Object value, CacheContext cache) {
-        hashRedisOperationService.set(cacheName, (Map<?, ?>) value, Duration.ofSeconds(cache.cache().expire() + RandomUtils.random(100L)), true);
+        Map<?, ?> map = (Map<?, ?>) value;
+        if (map == null || map.isEmpty()) {
+            // 缓存空值以及空Map，防止缓存穿透
+            if (cache.cache().nullExpire() > 0) {
+                hashRedisOperationService.set(cacheName, placeholder(map), Duration.ofSeconds(cache.cache().nullExpire()), true);
+            }
+            return;
+        }
+
+        hashRedisOperationService.set(cacheName, map, cache.expire(), true);
+    }
+
+    @Override
+    public boolean write(RedisOperations<String, Object> operations, String cacheName, Object value, CacheContext cache) {
+        Map<?, ?> map = (Map<?, ?>) value;
+        boolean empty = map == null || map.isEmpty();
+        if (empty && cache.cache().nullExpire() <= 0) {
+            return true;
+        }
+
+        if (!empty && map.size() > hashRedisOperationService.getChunkSize()) {
+            // 超过每批写入的数量时不在管道中写入，由save分批写入，避免一条命令阻塞redis
+            return false;
+        }
+
+        // 先写入临时key再原子替换，读取方不会看到写了一半的数据
+        String tempKey = hashRedisOperationService.tempKey(cacheName);
+        operations.opsForHash().putAll(tempKey, empty ? placeholder(map) : map);
+        operations.expire(tempKey, empty ? Duration.ofSeconds(cache.cache().nullExpire()) : cache.expire());
+        operations.rename(tempKey, cacheName);
+        return true;
+    }
+
+    /**
+     * 空值或者空Map的占位数据
+     * @param map   方法返回的数据
+     * @return  null时为空值占位，否则为空Map占位
+     */
+    private static Map<String, Object> placeholder(Map<?, ?> map) {
+        return Map.of(map == null ? NULL_VALUE_KEY : EMPTY_VALUE_KEY, NullValue.INSTANCE);
     }
 }
@@ -1,13 +1,17 @@
 package cn.jvmaster.redis.generator.processor;
 
-import cn.jvmaster.core.util.RandomUtils;
 import cn.jvmaster.redis.CacheContext;
-import cn.jvmaster.redis.annotation.Cache;
+import cn.jvmaster.redis.domain.CacheValue;
+import cn.jvmaster.redis.domain.EmptyValue;
+import cn.jvmaster.redis.domain.ListSlice;
 import cn.jvmaster.redis.generator.CacheProcessor;
 import cn.jvmaster.redis.service.ListRedisOperationService;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.core.RedisOperations;
 
 /**
  * hash类型缓存操作
@@ -25,17 +29,92 @@ public class DefaultListCacheProcessor implements CacheProcessor {
 
     @Override
     public boolean support(Object target, MethodSignature method, Object[] args) {
-        return List.class.isAssignableFrom(method.getReturnType());
+        // 返回值为ListSlice时只能按照范围读取，缓存的是整个List
+        return List.class.isAssignableFrom(method.getReturnType()) || ListSlice.class.isAssignableFrom(method.getReturnType());
     }
 
     @Override
-    public Object get(String cacheName, CacheContext cache) {
-        return listRedisOperationService.get(cacheName);
+    public boolean supportByMethod() {
+        return true;
+    }
+
+    @Override
+    public String type() {
+        return "list";
+    }
+
+    @Override
+    public CacheValue get(String cacheName, CacheContext cache) {
+        return convert(listRedisOperationService.get(cacheName), cache);
+    }
+
+    @Override
+    public boolean pipelined() {
+        return true;
+    }
+
+    @Override
+    public void read(RedisOperations<String, Object> operations, String cacheName, CacheContext cache) {
+        operations.opsForList().range(cacheName, 0, -1);
+    }
+
+    @Override
+    public CacheValue convert(Object result, CacheContext cache) {
+        if (!(result instanceof List<?> list) || list.isEmpty()) {
+            // 不存在
+            return null;
+        }
+
+        if (list.size() == 1 && list.getFirst() instanceof NullValue) {
+            // 只有一个空值占位元素时，表示缓存的是空值
+            return CacheValue.EMPTY;
+        }
+
+        // 只有一个空集合占位元素时，表示缓存的是空集合
+        return list.size() == 1 && list.getFirst() instanceof EmptyValue ? new CacheValue(new ArrayList<>()) : new CacheValue(list);
     }
 
     @Override
     public void save(String cacheName, Object value, CacheContext cache) {
         List<?> list = (List<?>) value;
-        listRedisOperationService.set(cacheName, list, Duration.ofSeconds(cache.cache().expire() + RandomUtils.random(100L)), true);
+        if (list == null || list.isEmpty()) {
+            // 缓存空值以及空集合，防止缓存穿透
+            if (cache.cache().nullExpire() > 0) {
+                listRedisOperationService.set(cacheName, List.of(placeholder(list)), Duration.ofSeconds(cache.cache().nullExpire()), true);
+            }
+            return;
+        }
+
+        listRedisOperationService.set(cacheName, list, cache.expire(), true);
+    }
+
+    @Override
+    public boolean write(RedisOperations<String, Object> operations, String cacheName, Object value, CacheContext cache) {
+        List<?> list = (List<?>) value;
+        boolean empty = list == null || list.isEmpty();
+        if (empty && cache.cache().nullExpire() <= 0) {
+            return true;
+        }
+
+        if (!empty && list.size() > listRedisOperationService.getChunkSize()) {
+            // 超过每批写入的数量时不在管道中写入，由save分批写入，避免一条命令阻塞redis
+            return false;
+        }
+
+        // 先写入临时key再原子替换，读取方不会看到写了一半的数据
+        String tempKey = listRedisOperationService.tempKey(cacheName);
+        operations.opsForList().rightPushAll(tempKey, empty ? new Object[]{placeholder(list)} : list.toArray());
+        operations.expire(tempKey, empty ? Duration.ofSeconds(cache.cache().nullExpire()) : cache.expire());
+        operations.rename(tempKey, cacheName);
+        return true;
+    }
+
+    /**
+     * 空值或者空集合的占位元素
+     * @param list  方法返回的数据
+     * @return  null时为空值占位，否则为空集合占位
+     */
+    private static Object placeholder(List<?> list) {
+        return list == null ? NullValue.INSTANCE : EmptyValue.INSTANCE;
     }
 }
@@ -1,12 +1,16 @@
 package cn.jvmaster.redis.generator.processor;
 
-import cn.jvmaster.core.util.RandomUtils;
 import cn.jvmaster.redis.CacheContext;
+import cn.jvmaster.redis.domain.CacheValue;
+import cn.jvmaster.redis.domain.EmptyValue;
 import cn.jvmaster.redis.generator.CacheProcessor;
 import cn.jvmaster.redis.service.SetRedisOperationService;
 import java.time.Duration;
+import java.util.LinkedHashSet;
 import java.util.Set;
 import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.core.RedisOperations;
 
 /**
  * hash类型缓存操作
@@ -28,13 +32,88 @@ public class DefaultSetCacheProcessor implements CacheProcessor {
     }
 
     @Override
-    public Object get(String cacheName, CacheContext cache) {
-        return setRedisOperationService.get(cacheName);
+    public boolean supportByMethod() {
+        return true;
+    }
+
+    @Override
+    public String type() {
+        return "set";
+    }
+
+    @Override
+    public CacheValue get(String cacheName, CacheContext cache) {
+        return convert(setRedisOperationService.get(cacheName), cache);
+    }
+
+    @Override
+    public boolean pipelined() {
+        return true;
+    }
+
+    @Override
+    public void read(RedisOperations<String, Object> operations, String cacheName, CacheContext cache) {
+        operations.opsForSet().members(cacheName);
+    }
+
+    @Override
+    public CacheValue convert(Object result, CacheContext cache) {
+        if (!(result instanceof Set<?> set) || set.isEmpty()) {
+            // 不存在
+            return null;
+        }
+
+        Object first = set.size() == 1 ? set.iterator().next() : null;
+        if (first instanceof NullValue) {
+            // 只有一个空值占位元素时，表示缓存的是空值
+            return CacheValue.EMPTY;
+        }
+
+        // 只有一个空集合占位元素时，表示缓存的是空集合
+        return first instanceof EmptyValue ? new CacheValue(new LinkedHashSet<>()) : new CacheValue(set);
     }
 
     @Override
     public void save(String cacheName, Object value, CacheContext cache) {
         Set<?> set = (Set<?>) value;
-        setRedisOperationService.set(cacheName, set, Duration.ofSeconds(cache.cache().expire() + RandomUtils.random(100L)), true);
+        if (set == null || set.isEmpty()) {
+            // 缓存空值以及空集合，防止缓存穿透
+            if (cache.cache().nullExpire() > 0) {
+                setRedisOperationService.set(cacheName, Set.of(placeholder(set)), Duration.ofSeconds(cache.cache().nullExpire()), true);
+            }
+            return;
+        }
+
+        setRedisOperationService.set(cacheName, set, cache.expire(), true);
+    }
+
+    @Override
+    public boolean write(RedisOperations<String, Object> operations, String cacheName, Object value, CacheContext cache) {
+        Set<?> set = (Set<?>) value;
+        boolean empty = set == null || set.isEmpty();
+        if (empty && cache.cache().nullExpire() <= 0) {
+            return true;
+        }
+
+        if (!empty && set.size() > setRedisOperationService.getChunkSize()) {
+            // 超过每批写入的数量时不在管道中写入，由save分批写入，避免一条命令阻塞redis
+            return false;
+        }
+
+        // 先写入临时key再原子替换，读取方不会看到写了一半的数据
+        String tempKey = setRedisOperationService.tempKey(cacheName);
+        operations.opsForSet().add(tempKey, empty ? new Object[]{placeholder(set)} : set.toArray());
+        operations.expire(tempKey, empty ? Duration.ofSeconds(cache.cache().nullExpire()) : cache.expire());
+        operations.rename(tempKey, cacheName);
+        return true;
+    }
+
+    /**
+     * 空值或者空集合的占位元素
+     * @param set   方法返回的数据
+     * @return  null时为空值占位，否则为空集合占位
+     */
+    private static Object placeholder(Set<?> set) {
+        return set == null ? NullValue.INSTANCE : EmptyValue.INSTANCE;
     }
 }
@@ -0,0 +1,145 @@
+package cn.jvmaster.redis.serializer;
+
+import cn.jvmaster.redis.constant.Codec;
+import cn.jvmaster.redis.domain.EmptyValue;
+import cn.jvmaster.redis.support.CacheStatistics;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * redis value缓存处理
+ * 在实际序列化方式之外，将空值占位对象{@link NullValue}、空集合占位对象{@link EmptyValue}序列化为1个字节，用于缓存空值，防止缓存穿透
+ * 二进制编码格式在数据前添加1个字节的格式标记，读取时根据格式标记选择对应的序列化方式，没有标记时按照JSON读取
+ * 编码后超过压缩阈值的数据再进行压缩，读取时根据压缩标记自动解压，最终写入的数据大小记录到当前缓存的统计信息中
+ * @author AI
+ * @date 2025/6/5 14:10
+ * @version 1.0
+**/
+public class RedisValueSerializer implements RedisSerializer<Object> {
+
+    /**
+     * 空值序列化后的内容
+     */
+    private static final byte[] NULL_VALUE = new byte[]{0};
+
+    /**
+     * 空集合占位序列化后的内容，只有1个字节，不会与格式标记冲突
+     */
+    private static final byte[] EMPTY_VALUE = new byte[]{1};
+
+    /**
+     * 写入数据使用的编码格式
+     */
+    private final Codec codec;
+
+    /**
+     * 编码格式 - 序列化方式
+     */
+    private final Map<Codec, RedisSerializer<Object>> serializers;
+
+    /**
+     * 数据压缩，为null时不压缩
+     */
+    private final ValueCompressor compressor;
+
+    /**
+     * 统计信息，为null时不统计
+     */
+    private final CacheStatistics cacheStatistics;
+
+    public RedisValueSerializer(RedisSerializer<Object> delegate) {
+        this(Codec.JSON, Map.of(Codec.JSON, delegate), null);
+    }
+
+    public RedisValueSerializer(Codec codec, Map<Codec, RedisSerializer<Object>> serializers, ValueCompressor compressor) {
+        this(codec, serializers, compressor, null);
+    }
+
+    /**
+     * @param codec         写入数据使用的编码格式
+     * @param serializers   所有可以读取的编码格式，必须包含JSON以及写入数据使用的编码格式
+     * @param compressor    数据压缩，为null时不压缩
+     * @param cacheStatistics   统计信息，为null时不统计
+     */
+    public RedisValueSerializer(Codec codec, Map<Codec, RedisSerializer<Object>> serializers, ValueCompressor compressor, CacheStatistics cacheStatistics) {
+        if (!serializers.containsKey(Codec.JSON) || !serializers.containsKey(codec)) {
+            throw new IllegalArgumentException("缺少编码格式对应的序列化方式: " + codec);
+        }
+
+        this.codec = codec;
+        this.serializers = new EnumMap<>(serializers);
+        this.compressor = compressor;
+        this.cacheStatistics = cacheStatistics;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value instanceof NullValue) {
+            return NULL_VALUE.clone();
+        }
+
+        if (value instanceof EmptyValue) {
+            return EMPTY_VALUE.clone();
+        }
+
+        byte[] bytes = serializers.get(codec).serialize(value);
+        if (codec != Codec.JSON && bytes != null) {
+            // 添加格式标记
+            byte[] result = new byte[bytes.length + 1];
+            result[0] = codec.getMarker();
+            System.arraycopy(bytes, 0, result, 1, bytes.length);
+            bytes = result;
+        }
+
+        if (compressor != null) {
+            bytes = compressor.compress(bytes);
+        }
+
+        if (cacheStatistics != null && bytes != null) {
+            cacheStatistics.current().recordPayload(bytes.length);
+        }
+
+        return bytes;
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null) {
+            return null;
+        }
+
+        if (Arrays.equals(bytes, NULL_VALUE)) {
+            return NullValue.INSTANCE;
+        }
+
+        if (Arrays.equals(bytes, EMPTY_VALUE)) {
+            return EmptyValue.INSTANCE;
+        }
+
+        // 压缩标记与格式标记、JSON文本都不相同，关闭压缩后已经压缩的数据仍然可以读取
+        if (compressor != null && compressor.isCompressed(bytes)) {
+            bytes = compressor.decompress(bytes);
+        }
+
+        // JSON文本不会以格式标记开头
+        Codec dataCodec = bytes.length > 1 ? Codec.fromMarker(bytes[0]) : null;
+        if (dataCodec == null) {
+            return serializers.get(Codec.JSON).deserialize(bytes);
+        }
+
+        RedisSerializer<Object> serializer = serializers.get(dataCodec);
+        if (serializer == null) {
+            throw new SerializationException("不支持的缓存编码格式: " + dataCodec);
+        }
+
+        return serializer.deserialize(Arrays.copyOfRange(bytes, 1, bytes.length));
+    }
+
+    public Codec getCodec() {
+        return codec;
+    }
+}
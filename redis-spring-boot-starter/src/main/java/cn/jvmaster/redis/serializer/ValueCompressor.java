@@ -0,0 +1,121 @@
+package cn.jvmaster.redis.serializer;
+
+import cn.jvmaster.redis.constant.Compression;
+import cn.jvmaster.redis.support.CacheStatistics;
+import java.io.ByteArrayOutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * 缓存数据压缩
+ * 超过阈值的数据进行压缩，压缩后的数据前添加1个字节的压缩标记，读取时根据标记自动解压
+ * @author AI
+ * @date 2025/6/12 9:25
+ * @version 1.0
+**/
+public class ValueCompressor {
+
+    /**
+     * 压缩标记
+     */
+    public static final byte MARKER = 0x10;
+
+    /**
+     * 压缩缓冲区大小
+     */
+    private static final int BUFFER_SIZE = 4096;
+
+    /**
+     * 压缩方式
+     */
+    private final Compression compression;
+
+    /**
+     * 压缩阈值，超过该大小才进行压缩，字节
+     */
+    private final int threshold;
+
+    /**
+     * 记录每个缓存的压缩率以及压缩耗时
+     */
+    private final CacheStatistics cacheStatistics;
+
+    public ValueCompressor(Compression compression, int threshold, CacheStatistics cacheStatistics) {
+        this.compression = compression;
+        this.threshold = threshold;
+        this.cacheStatistics = cacheStatistics;
+    }
+
+    /**
+     * 压缩数据
+     * @param bytes 序列化后的数据
+     * @return  未超过阈值或者压缩后没有变小时返回原数据
+     */
+    public byte[] compress(byte[] bytes) {
+        if (compression == Compression.NONE || bytes == null || bytes.length < threshold) {
+            return bytes;
+        }
+
+        long start = System.nanoTime();
+        Deflater deflater = new Deflater(compression.getLevel());
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(bytes.length / 2 + 1);
+        outputStream.write(MARKER);
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!deflater.finished()) {
+                outputStream.write(buffer, 0, deflater.deflate(buffer));
+            }
+        } finally {
+            deflater.end();
+        }
+
+        byte[] result = outputStream.toByteArray();
+        cacheStatistics.current().recordCompress(bytes.length, result.length, System.nanoTime() - start);
+
+        return result.length < bytes.length ? result : bytes;
+    }
+
+    /**
+     * 判断数据是否已经压缩
+     * @param bytes 缓存中的数据
+     * @return  boolean
+     */
+    public boolean isCompressed(byte[] bytes) {
+        return bytes != null && bytes.length > 1 && bytes[0] == MARKER;
+    }
+
+    /**
+     * 解压数据
+     * @param bytes 压缩后的数据，包含压缩标记
+     * @return  解压后的数据
+     */
+    public byte[] decompress(byte[] bytes) {
+        long start = System.nanoTime();
+        Inflater inflater = new Inflater();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(bytes.length * 2);
+        try {
+            inflater.setInput(bytes, 1, bytes.length - 1);
+
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!inflater.finished()) {
+                int count = inflater.inflate(buffer);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new SerializationException("缓存数据解压失败，数据不完整");
+                }
+                outputStream.write(buffer, 0, count);
+            }
+        } catch (DataFormatException e) {
+            throw new SerializationException("缓存数据解压失败", e);
+        } finally {
+            inflater.end();
+        }
+
+        cacheStatistics.current().recordDecompress(System.nanoTime() - start);
+        return outputStream.toByteArray();
+    }
+}
@@ -1,9 +1,12 @@
 package cn.jvmaster.redis.service;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Consumer;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.dao.DataAccessException;
@@ -25,7 +28,25 @@ import org.springframework.scripting.support.ResourceScriptSource;
 **/
 public abstract class AbstractRedisOperationService<T> {
     protected static final String UN_LOCK_SCRIPT = "lua/un-lock.lua";
+    protected static final String RW_LOCK_SCRIPT = "lua/rw-lock.lua";
+    protected static final String RW_UN_LOCK_SCRIPT = "lua/rw-unlock.lua";
     protected static final String SIGN_SCRIPT = "lua/sign.lua";
+    protected static final String BULK_SWAP_SCRIPT = "lua/bulk-swap.lua";
+
+    /**
+     * 分批写入时每批次默认的元素数量
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+
+    /**
+     * 分批写入时临时key的后缀
+     */
+    private static final String TEMP_KEY_SUFFIX = "~tmp~";
+
+    /**
+     * 临时key的有效期，秒，每写入一批数据续期一次，写入中断时临时key自动过期
+     */
+    private static final long TEMP_KEY_EXPIRE = 60;
 
     /**
      * lua脚本
@@ -34,6 +55,11 @@ public abstract class AbstractRedisOperationService<T> {
 
     protected final RedisTemplate<String, T> redisTemplate;
 
+    /**
+     * 分批写入时每批次的元素数量
+     */
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+
     public AbstractRedisOperationService(RedisTemplate<String, T> redisTemplate) {
         this.redisTemplate = redisTemplate;
     }
@@ -67,6 +93,82 @@ public abstract class AbstractRedisOperationService<T> {
         return redisSerializer.serialize(key);
     }
 
+    /**
+     * 分批写入集合数据，每批次单独序列化、发送，内存占用只与批次大小有关
+     * 替换旧数据时先写入临时key，全部写入后通过RENAME原子替换并设置有效期，读取方不会看到写了一半的数据
+     * @param key       缓存key
+     * @param elements  待写入的元素
+     * @param timeout   有效时间
+     * @param replace   是否替换旧数据
+     * @param writer    单批次写入命令
+     */
+    protected <E> void bulkWrite(String key, Iterable<E> elements, Duration timeout, boolean replace, ChunkWriter<E> writer) {
+        byte[] keyBytes = serializeKey(key);
+        byte[] writeKey = replace ? serializeKey(tempKey(key)) : keyBytes;
+
+        try {
+            List<E> chunk = new ArrayList<>(chunkSize);
+            for (E element : elements) {
+                chunk.add(element);
+                if (chunk.size() >= chunkSize) {
+                    writeChunk(writeKey, chunk, replace, writer);
+                    chunk.clear();
+                }
+            }
+
+            if (!chunk.isEmpty()) {
+                writeChunk(writeKey, chunk, replace, writer);
+            }
+
+            long seconds = timeout == null ? 0 : timeout.toSeconds();
+            if (replace) {
+                // 原子替换旧数据
+                executeLuaFromFile(Long.class, BULK_SWAP_SCRIPT, 2, writeKey, keyBytes, String.valueOf(Math.max(seconds, 0)));
+            } else if (seconds > 0) {
+                // 设置有效期
+                redisTemplate.execute((RedisCallback<Boolean>) connection -> connection.keyCommands().expire(keyBytes, seconds));
+            }
+        } catch (RuntimeException e) {
+            if (replace) {
+                // 写入失败，删除临时key，旧数据保持不变
+                redisTemplate.execute((RedisCallback<Long>) connection -> connection.keyCommands().del(writeKey));
+            }
+
+            throw e;
+        }
+    }
+
+    /**
+     * 生成临时key，数据全部写入临时key后再通过RENAME替换正式key
+     * redis集群中RENAME以及lua脚本的所有key必须在同一个slot，正式key中没有大括号时以整个正式key作为临时key的hash tag，
+     * 如：{prefix::key}~tmp~uuid，两者的slot相同；正式key已经有hash tag时直接添加后缀
+     * @param key   正式key
+     * @return  临时key
+     */
+    public String tempKey(String key) {
+        String actualKey = new String(serializeKey(key), StandardCharsets.UTF_8);
+        String suffix = TEMP_KEY_SUFFIX + UUID.randomUUID();
+        return actualKey.indexOf('{') < 0 && actualKey.indexOf('}') < 0 ? "{" + actualKey + "}" + suffix : key + suffix;
+    }
+
+    /**
+     * 写入一个批次的数据
+     * @param writeKey  写入的key
+     * @param chunk     批次数据
+     * @param temporary 是否是临时key，临时key需要续期
+     * @param writer    写入命令
+     */
+    private <E> void writeChunk(byte[] writeKey, List<E> chunk, boolean temporary, ChunkWriter<E> writer) {
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            writer.write(connection, writeKey, chunk);
+            if (temporary) {
+                connection.keyCommands().expire(writeKey, TEMP_KEY_EXPIRE);
+            }
+
+            return null;
+        });
+    }
+
     /**
      * 执行lua脚本文件
      * @param filepath  lua脚本路径，classpath下
@@ -86,8 +188,21 @@ public abstract class AbstractRedisOperationService<T> {
      * @param args 脚本需要的参数
      * @return 脚本执行结果
      */
-    @SuppressWarnings("unchecked")
     public <S> S executeLuaFromFile(Class<S> tClass, RedisSerializer<?> argSerializer, String filepath, int keySize, Object... args) {
+        return executeLuaFromFile(tClass, argSerializer, redisTemplate.getValueSerializer(), filepath, keySize, args);
+    }
+
+    /**
+     * 执行lua脚本文件
+     * @param filepath lua脚本路径，classpath下
+     * @param argSerializer 参数序列化方式
+     * @param resultSerializer 结果反序列化方式
+     * @param keySize  指定参数中key的数量
+     * @param args 脚本需要的参数
+     * @return 脚本执行结果
+     */
+    @SuppressWarnings("unchecked")
+    public <S> S executeLuaFromFile(Class<S> tClass, RedisSerializer<?> argSerializer, RedisSerializer<?> resultSerializer, String filepath, int keySize, Object... args) {
         // 执行脚本获取结果
         Object result = redisTemplate.execute((RedisCallback<Object>) connection -> {
             final byte[][] keysAndArgs = keysAndArgs(keySize, args, argSerializer);
@@ -95,15 +210,29 @@ public abstract class AbstractRedisOperationService<T> {
             return connection.scriptingCommands().eval(getScriptSourceFromFile(filepath), ReturnType.fromJavaType(tClass), keySize, keysAndArgs);
         });
 
-        return (S) deserializeResult(result);
+        return (S) deserializeResult(result, resultSerializer);
+    }
+
+    /**
+     * 在管道中执行lua脚本文件，结果由管道统一返回
+     * @param connection    管道中的连接
+     * @param tClass        结果类型
+     * @param filepath      lua脚本路径，classpath下
+     * @param keySize       指定参数中key的数量
+     * @param args          脚本需要的参数
+     */
+    public void executeLuaFromFile(RedisConnection connection, Class<?> tClass, String filepath, int keySize, Object... args) {
+        final byte[][] keysAndArgs = keysAndArgs(keySize, args, redisTemplate.getStringSerializer());
+        connection.scriptingCommands().eval(getScriptSourceFromFile(filepath), ReturnType.fromJavaType(tClass), keySize, keysAndArgs);
     }
 
     /**
      * 反序列化结果
      * @param result 对结果进行反序列化
+     * @param resultSerializer 反序列化方式
      * @return 脚本执行结果
      */
-    private Object deserializeResult(Object result) {
+    private Object deserializeResult(Object result, RedisSerializer<?> resultSerializer) {
         switch (result) {
             case null -> {
                 return null;
@@ -111,7 +240,7 @@ public abstract class AbstractRedisOperationService<T> {
 
             // 反序列化
             case byte[] resultByte -> {
-                return redisTemplate.getValueSerializer().deserialize(resultByte);
+                return resultSerializer.deserialize(resultByte);
             }
 
             // 数组，依次解析
@@ -119,7 +248,7 @@ public abstract class AbstractRedisOperationService<T> {
                 List<Object> results = new ArrayList<>(resultList.size());
 
                 for (Object obj : resultList) {
-                    results.add(deserializeResult(obj));
+                    results.add(deserializeResult(obj, resultSerializer));
                 }
 
                 return results;
@@ -197,7 +326,35 @@ public abstract class AbstractRedisOperationService<T> {
         });
     }
 
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("每批写入的数量必须大于0");
+        }
+
+        this.chunkSize = chunkSize;
+    }
+
     public RedisTemplate<String, T> getRedisTemplate() {
         return redisTemplate;
     }
+
+    /**
+     * 分批写入时单批次的写入命令
+     * @param <E>   元素类型
+     */
+    @FunctionalInterface
+    protected interface ChunkWriter<E> {
+
+        /**
+         * 写入一个批次的数据
+         * @param connection    redis连接
+         * @param key           写入的key
+         * @param chunk         批次数据
+         */
+        void write(RedisConnection connection, byte[] key, List<E> chunk);
+    }
 }
@@ -2,13 +2,16 @@ package cn.jvmaster.redis.service;
 
 import cn.jvmaster.core.util.StringUtils;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.function.Predicate;
 import org.springframework.data.redis.core.Cursor;
 import org.springframework.data.redis.core.HashOperations;
-import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.ScanOptions;
 import org.springframework.data.redis.core.ScanOptions.ScanOptionsBuilder;
@@ -57,28 +60,11 @@ public class HashRedisOperationService<T> extends AbstractRedisOperationService<
             return;
         }
 
-        // 添加到缓存中
-        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
-            byte[] keyBytes = serializeKey(key);
-
-            if (remove) {
-                connection.keyCommands().del(keyBytes);
-            }
-
-            // 序列化
-            Map<byte[], byte[]> byteMap = new HashMap<>(value.size());
-            value.forEach((k, v) -> {
-               byteMap.put(serialize(k, redisTemplate.getHashKeySerializer()), serializeValue(v));
-            });
-
-            // 存入缓存
+        // 分批序列化后存入缓存
+        bulkWrite(key, value.entrySet(), timeout, remove, (connection, keyBytes, chunk) -> {
+            Map<byte[], byte[]> byteMap = new HashMap<>(chunk.size());
+            chunk.forEach(entry -> byteMap.put(serialize(entry.getKey(), redisTemplate.getHashKeySerializer()), serializeValue(entry.getValue())));
             connection.hashCommands().hMSet(keyBytes, byteMap);
-            if (timeout != null && timeout.toSeconds() > 0) {
-                // 设置有效期
-                connection.keyCommands().expire(keyBytes, timeout.getSeconds());
-            }
-
-            return null;
         });
     }
 
@@ -101,6 +87,36 @@ public class HashRedisOperationService<T> extends AbstractRedisOperationService<
         return Optional.ofNullable(getHashOperations().get(key, hashKey));
     }
 
+    /**
+     * 获取hash中多个key的值，hash中的值和hash是否存在在一次网络往返中读取
+     * @param key       缓存值
+     * @param hashKeys  对应的key值
+     * @return  hash key - 值，只包含存在的值，hash不存在时返回null
+     */
+    @SuppressWarnings("unchecked")
+    public Map<Object, T> get(String key, Collection<?> hashKeys) {
+        List<Object> hashKeyList = new ArrayList<>(hashKeys);
+        List<Object> results = executePipelined(operations -> {
+            operations.opsForHash().multiGet(key, hashKeyList);
+            operations.hasKey(key);
+        });
+
+        if (!Boolean.TRUE.equals(results.get(1))) {
+            return null;
+        }
+
+        List<T> values = (List<T>) results.get(0);
+        Map<Object, T> result = new LinkedHashMap<>(hashKeyList.size());
+        for (int i = 0; i < hashKeyList.size(); i++) {
+            T value = values == null ? null : values.get(i);
+            if (value != null) {
+                result.put(hashKeyList.get(i), value);
+            }
+        }
+
+        return result;
+    }
+
     /**
      * 遍历hash中满足条件的值
      * @param key   缓存的值
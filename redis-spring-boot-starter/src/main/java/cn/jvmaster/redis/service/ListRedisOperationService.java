@@ -1,9 +1,17 @@
 package cn.jvmaster.redis.service;
 
+import cn.jvmaster.redis.domain.ListSlice;
 import java.time.Duration;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
-import org.springframework.data.redis.core.RedisCallback;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import org.springframework.data.redis.core.RedisTemplate;
 
 /**
@@ -50,23 +58,9 @@ public class ListRedisOperationService<T> extends AbstractRedisOperationService<
             return;
         }
 
-        // 添加到缓存中
-        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
-            byte[] keyBytes = serializeKey(key);
-            byte[][] values = value.stream().map(this::serializeValue).toArray(byte[][]::new);
-
-            if (remove) {
-                connection.keyCommands().del(keyBytes);
-            }
-
-            connection.listCommands().lPush(serializeKey(key), values);
-            if (timeout != null && timeout.toSeconds() > 0) {
-                // 设置有效期
-                connection.keyCommands().expire(keyBytes, timeout.getSeconds());
-            }
-
-            return null;
-        });
+        // 分批从尾部依次添加，保证与原数据顺序一致
+        bulkWrite(key, value, timeout, remove, (connection, keyBytes, chunk) ->
+            connection.listCommands().rPush(keyBytes, chunk.stream().map(this::serializeValue).toArray(byte[][]::new)));
     }
 
     /**
@@ -77,4 +71,107 @@ public class ListRedisOperationService<T> extends AbstractRedisOperationService<
     public List<T> get(String key) {
         return redisTemplate.opsForList().range(key, 0, -1);
     }
+
+    /**
+     * 获取list中指定范围的数据，以及list的总长度，在一次网络往返中读取
+     * @param key   缓存值
+     * @param start 开始位置，从0开始
+     * @param stop  结束位置（包含），-1表示到最后一个
+     * @return  分段读取结果
+     */
+    @SuppressWarnings("unchecked")
+    public ListSlice<T> range(String key, long start, long stop) {
+        List<Object> results = executePipelined(operations -> {
+            operations.opsForList().range(key, start, stop);
+            operations.opsForList().size(key);
+        });
+
+        List<T> items = (List<T>) results.get(0);
+        Long total = (Long) results.get(1);
+        return new ListSlice<>(items == null ? Collections.emptyList() : items, total == null ? 0L : total);
+    }
+
+    /**
+     * 获取list的长度
+     * @param key   缓存值
+     * @return  长度，不存在时为0
+     */
+    public long size(String key) {
+        Long size = redisTemplate.opsForList().size(key);
+        return size == null ? 0L : size;
+    }
+
+    /**
+     * 分批遍历list中所有数据
+     * @param key       缓存值
+     * @param chunkSize 每批读取的数量
+     * @param consumer  每批数据的处理
+     */
+    public void forEach(String key, int chunkSize, Consumer<List<T>> consumer) {
+        checkChunkSize(chunkSize);
+
+        long offset = 0;
+        while (true) {
+            List<T> chunk = redisTemplate.opsForList().range(key, offset, offset + chunkSize - 1);
+            if (chunk == null || chunk.isEmpty()) {
+                return;
+            }
+
+            consumer.accept(chunk);
+            if (chunk.size() < chunkSize) {
+                return;
+            }
+            offset += chunkSize;
+        }
+    }
+
+    /**
+     * 以流的方式遍历list中所有数据，每次从redis中读取一批，只在需要时读取下一批
+     * 遍历过程中list被修改时，可能会读取到重复或者遗漏数据
+     * @param key       缓存值
+     * @param chunkSize 每批读取的数量
+     * @return  数据流
+     */
+    public Stream<T> stream(String key, int chunkSize) {
+        checkChunkSize(chunkSize);
+
+        Iterator<T> iterator = new Iterator<>() {
+            private long offset = 0;
+            private Iterator<T> current = Collections.emptyIterator();
+            private boolean finished = false;
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext() && !finished) {
+                    List<T> chunk = redisTemplate.opsForList().range(key, offset, offset + chunkSize - 1);
+                    offset += chunkSize;
+                    finished = chunk == null || chunk.size() < chunkSize;
+                    current = chunk == null ? Collections.emptyIterator() : chunk.iterator();
+                }
+
+                return current.hasNext();
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                return current.next();
+            }
+        };
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false);
+    }
+
+    /**
+     * 校验每批读取的数量
+     * @param chunkSize 每批读取的数量
+     */
+    private void checkChunkSize(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("每批读取的数量必须大于0");
+        }
+    }
 }
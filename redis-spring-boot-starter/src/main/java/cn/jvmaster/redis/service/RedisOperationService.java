@@ -2,12 +2,25 @@ package cn.jvmaster.redis.service;
 
 import cn.jvmaster.core.exception.SystemException;
 import cn.jvmaster.core.function.Callback;
+import cn.jvmaster.redis.constant.LockType;
 import cn.jvmaster.redis.domain.SignEntity;
+import cn.jvmaster.redis.support.LocalLocks;
+import cn.jvmaster.redis.support.LockWaiter;
+import cn.jvmaster.redis.support.LockWatchdog;
 import java.time.Duration;
 import java.util.Calendar;
 import java.util.Collection;
-import java.util.Optional;
+import java.util.Collections;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
@@ -26,17 +39,26 @@ public class RedisOperationService<T> extends AbstractRedisOperationService<T> {
     private final SetRedisOperationService<T> setRedisOperationService;
     private final ListRedisOperationService<T> listRedisOperationService;
     private final HashRedisOperationService<T> hashRedisOperationService;
+    private final LockWaiter lockWaiter;
+    private final LockWatchdog lockWatchdog;
+    private final LocalLocks localLocks;
 
     public RedisOperationService(RedisTemplate<String, T> redisTemplate,
                                             StringRedisOperationService<T> stringRedisOperationService,
                                             SetRedisOperationService<T> setRedisOperationService,
                                             ListRedisOperationService<T> listRedisOperationService,
-                                            HashRedisOperationService<T> hashRedisOperationService) {
+                                            HashRedisOperationService<T> hashRedisOperationService,
+                                            LockWaiter lockWaiter,
+                                            LockWatchdog lockWatchdog,
+                                            LocalLocks localLocks) {
         super(redisTemplate);
         this.stringRedisOperationService = stringRedisOperationService;
         this.setRedisOperationService = setRedisOperationService;
         this.listRedisOperationService = listRedisOperationService;
         this.hashRedisOperationService = hashRedisOperationService;
+        this.lockWaiter = lockWaiter;
+        this.lockWatchdog = lockWatchdog;
+        this.localLocks = localLocks;
     }
 
     /**
@@ -47,6 +69,14 @@ public class RedisOperationService<T> extends AbstractRedisOperationService<T> {
      * 锁后缀标识
      */
     public static final String LOCK_KEY_SUFFIX = "~lock";
+    /**
+     * 可重入锁、读写锁后缀标识
+     */
+    public static final String RW_LOCK_KEY_SUFFIX = "~rwlock";
+    /**
+     * 当前节点标识，与线程id组成可重入锁、读写锁的持有者
+     */
+    private static final String NODE_ID = UUID.randomUUID().toString().replace("-", "");
     /**
      * 锁存在时间
      */
@@ -93,24 +123,54 @@ public class RedisOperationService<T> extends AbstractRedisOperationService<T> {
      *
      * @param key        锁标识
      * @param callable   回调
-     * @param retryTimes 重试次数
+     * @param retryTimes 重试次数，最多等待retryTimes秒
      * @param lockTime   加锁时间
      * @return 回函函数返回数据
      */
     public Object lock(String key, Supplier<Object> callable, int retryTimes, Duration lockTime, boolean throwEx) {
-        String uuid = UUID.randomUUID().toString().replace("-", "");
-        String lockKey = key + LOCK_KEY_SUFFIX;
+        return lock(key, callable, Duration.ofSeconds(Math.max(retryTimes, 0)), lockTime, throwEx);
+    }
+
+    /**
+     * 加锁操作
+     * 锁被占用时等待锁释放的通知，最长等待waitTime
+     *
+     * @param key        锁标识
+     * @param callable   回调
+     * @param waitTime   获取锁的最长等待时间
+     * @param lockTime   加锁时间，为null时使用看门狗，持有期间自动续期
+     * @param throwEx    获取锁失败时是否抛出异常
+     * @return 回函函数返回数据
+     */
+    public Object lock(String key, Supplier<Object> callable, Duration waitTime, Duration lockTime, boolean throwEx) {
+        return lock(key, LockType.EXCLUSIVE, callable, waitTime, lockTime, throwEx);
+    }
+
+    /**
+     * 加锁操作
+     * 可重入锁、读写锁的持有者为当前线程，同一个线程可以重入
+     *
+     * @param key        锁标识
+     * @param type       锁类型
+     * @param callable   回调
+     * @param waitTime   获取锁的最长等待时间
+     * @param lockTime   加锁时间，为null时使用看门狗，持有期间自动续期
+     * @param throwEx    获取锁失败时是否抛出异常
+     * @return 回函函数返回数据
+     */
+    public Object lock(String key, LockType type, Supplier<Object> callable, Duration waitTime, Duration lockTime, boolean throwEx) {
+        if (!type.readWrite() && localLocks.isEnabled()) {
+            return lockLocally(key, callable, waitTime, lockTime, throwEx);
+        }
+
+        String owner = type.readWrite() ? NODE_ID + ":" + Thread.currentThread().threadId() : UUID.randomUUID().toString().replace("-", "");
+        String lockKey = lockKey(key, type);
+        Duration leaseTime = lockTime == null ? lockWatchdog.getLeaseTime() : lockTime;
         boolean lockSuccess = false;
 
         try {
-            if (!stringRedisOperationService.lock(lockKey, uuid, lockTime)) {
+            if (!tryLock(lockKey, waitTime, () -> acquire(lockKey, type, owner, leaseTime, lockTime == null))) {
                 // 没有成功，表示当前已经有相关的操作正在进行
-                if (retryTimes > 0) {
-                    // 等待1s后进行重试
-                    Thread.sleep(1000);
-                    return lock(key, callable, retryTimes - 1, lockTime, throwEx);
-                }
-
                 if (throwEx) {
                     throw new SystemException("已经存在正在运行的进程，请稍后重试");
                 }
@@ -119,13 +179,389 @@ public class RedisOperationService<T> extends AbstractRedisOperationService<T> {
 
             lockSuccess = true;
             return callable.get();
+        } catch (InterruptedException e) {
+            // 等待锁时被中断，恢复中断状态后交给调用方处理
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e.getMessage(), e);
         } catch (Exception e) {
             throw new RuntimeException(e.getMessage(), e);
         } finally {
             if (lockSuccess) {
-                stringRedisOperationService.unlock(lockKey, uuid);
+                release(lockKey, type, owner);
+            }
+        }
+    }
+
+    /**
+     * 先获取本地锁再获取redis排他锁，同一个key在当前节点只有一个线程竞争redis锁，
+     * 执行完成时如果有本地线程在排队，直接把redis锁交给下一个线程
+     *
+     * @param key        锁标识
+     * @param callable   回调
+     * @param waitTime   获取锁的最长等待时间，包括本地排队的时间
+     * @param lockTime   加锁时间，为null时使用看门狗，持有期间自动续期
+     * @param throwEx    获取锁失败时是否抛出异常
+     * @return 回函函数返回数据
+     */
+    private Object lockLocally(String key, Supplier<Object> callable, Duration waitTime, Duration lockTime, boolean throwEx) {
+        String lockKey = lockKey(key, LockType.EXCLUSIVE);
+        Duration leaseTime = lockTime == null ? lockWatchdog.getLeaseTime() : lockTime;
+        boolean watch = lockTime == null;
+        long deadline = System.nanoTime() + Math.max(waitTime.toNanos(), 0);
+        LocalLocks.Entry entry = localLocks.acquire(lockKey);
+        boolean localLocked = false;
+        String owner = null;
+
+        try {
+            localLocked = entry.tryLock(Math.max(waitTime.toNanos(), 0));
+            if (localLocked) {
+                owner = takeHandoff(lockKey, entry, leaseTime, watch);
+                if (owner == null) {
+                    // 没有交接的锁，由当前线程竞争redis锁
+                    String uuid = UUID.randomUUID().toString().replace("-", "");
+                    Duration remaining = Duration.ofNanos(Math.max(deadline - System.nanoTime(), 0));
+                    owner = tryLock(lockKey, remaining, () -> acquire(lockKey, LockType.EXCLUSIVE, uuid, leaseTime, watch)) ? uuid : null;
+                }
+            }
+
+            if (owner == null) {
+                // 没有成功，表示当前已经有相关的操作正在进行
+                if (throwEx) {
+                    throw new SystemException("已经存在正在运行的进程，请稍后重试");
+                }
+                return null;
+            }
+
+            return callable.get();
+        } catch (InterruptedException e) {
+            // 等待锁时被中断，恢复中断状态后交给调用方处理
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e.getMessage(), e);
+        } catch (Exception e) {
+            throw new RuntimeException(e.getMessage(), e);
+        } finally {
+            if (owner != null) {
+                if (entry.handoff(owner)) {
+                    // 下一个线程接收后按照自己的加锁时间续期
+                    lockWatchdog.unwatch(lockKey, owner);
+                } else {
+                    release(lockKey, LockType.EXCLUSIVE, owner);
+                }
+            }
+            if (localLocked) {
+                entry.unlock();
+            }
+
+            String pending = localLocks.release(lockKey, entry);
+            if (pending != null) {
+                // 排队的线程都已经超时离开，没有线程接收交接的锁
+                release(lockKey, LockType.EXCLUSIVE, pending);
+            }
+        }
+    }
+
+    /**
+     * 接收上一个线程交接的redis锁，并按照当前线程的加锁时间续期
+     *
+     * @param lockKey    锁的key值
+     * @param entry      本地锁
+     * @param leaseTime  加锁时间
+     * @param watch      是否使用看门狗
+     * @return 锁值，没有交接或者交接期间锁已经过期时返回null
+     */
+    private String takeHandoff(String lockKey, LocalLocks.Entry entry, Duration leaseTime, boolean watch) {
+        String owner = entry.takeHandoff();
+        if (owner == null || !stringRedisOperationService.renew(lockKey, owner, leaseTime)) {
+            return null;
+        }
+
+        if (watch) {
+            lockWatchdog.watch(lockKey, owner);
+        }
+        return owner;
+    }
+
+    /**
+     * 可重入锁
+     *
+     * @param key        锁标识
+     * @param callable   回调
+     * @param waitTime   获取锁的最长等待时间
+     * @param lockTime   加锁时间，为null时使用看门狗
+     * @return 回函函数返回数据，获取锁失败时抛出异常
+     */
+    public Object reentrantLock(String key, Supplier<Object> callable, Duration waitTime, Duration lockTime) {
+        return lock(key, LockType.REENTRANT, callable, waitTime, lockTime, true);
+    }
+
+    /**
+     * 读锁，多个读者可以同时持有
+     *
+     * @param key        锁标识
+     * @param callable   回调
+     * @param waitTime   获取锁的最长等待时间
+     * @param lockTime   加锁时间，为null时使用看门狗
+     * @return 回函函数返回数据，获取锁失败时抛出异常
+     */
+    public Object readLock(String key, Supplier<Object> callable, Duration waitTime, Duration lockTime) {
+        return lock(key, LockType.READ, callable, waitTime, lockTime, true);
+    }
+
+    /**
+     * 写锁，与读锁、其他写锁互斥
+     *
+     * @param key        锁标识
+     * @param callable   回调
+     * @param waitTime   获取锁的最长等待时间
+     * @param lockTime   加锁时间，为null时使用看门狗
+     * @return 回函函数返回数据，获取锁失败时抛出异常
+     */
+    public Object writeLock(String key, Supplier<Object> callable, Duration waitTime, Duration lockTime) {
+        return lock(key, LockType.WRITE, callable, waitTime, lockTime, true);
+    }
+
+    /**
+     * 获取锁，锁被占用时等待释放通知或者退避时间后重试，直到超过等待时间
+     *
+     * @param lockKey    锁的key值
+     * @param waitTime   最长等待时间
+     * @param acquire    尝试获取一次锁
+     * @return 是否获取成功
+     */
+    private boolean tryLock(String lockKey, Duration waitTime, BooleanSupplier acquire) throws InterruptedException {
+        if (waitTime.isZero() || waitTime.isNegative()) {
+            return acquire.getAsBoolean();
+        }
+
+        long deadline = System.nanoTime() + waitTime.toNanos();
+        for (int attempt = 0; ; attempt++) {
+            CompletableFuture<Void> released = lockWaiter.await(lockKey);
+            try {
+                if (acquire.getAsBoolean()) {
+                    return true;
+                }
+
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+
+                released.get(Math.min(lockWaiter.backoff(attempt), remaining), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException | ExecutionException ignored) {
+                // 退避时间内没有收到释放通知，重新尝试
+            } finally {
+                lockWaiter.cancel(lockKey, released);
+            }
+        }
+    }
+
+    /**
+     * 尝试获取一次锁，使用看门狗时第一次获取成功后开始续期
+     *
+     * @param lockKey    锁的key值
+     * @param type       锁类型
+     * @param owner      排他锁的锁值，或者读写锁的持有者
+     * @param leaseTime  加锁时间
+     * @param watch      是否使用看门狗
+     * @return 是否获取成功
+     */
+    private boolean acquire(String lockKey, LockType type, String owner, Duration leaseTime, boolean watch) {
+        if (!type.readWrite()) {
+            boolean success = stringRedisOperationService.lock(lockKey, owner, leaseTime);
+            if (success && watch) {
+                lockWatchdog.watch(lockKey, owner);
+            }
+            return success;
+        }
+
+        long count = stringRedisOperationService.readWriteLock(lockKey, owner, type.write(), leaseTime);
+        if (count == 1 && watch) {
+            // 重入时已经在续期
+            lockWatchdog.watchField(lockKey, field(owner, type));
+        }
+        return count > 0;
+    }
+
+    /**
+     * 解锁，锁完全释放后唤醒当前节点和其他节点等待该锁的线程
+     *
+     * @param lockKey   锁的key值
+     * @param type      锁类型
+     * @param owner     排他锁的锁值，或者读写锁的持有者
+     */
+    private void release(String lockKey, LockType type, String owner) {
+        if (!type.readWrite()) {
+            // 先停止续期
+            lockWatchdog.unwatch(lockKey, owner);
+            if (stringRedisOperationService.unlock(lockKey, owner, lockWaiter.getChannel())) {
+                // 不需要等待通知从redis返回
+                lockWaiter.release(lockKey);
             }
+            return;
         }
+
+        long remaining = stringRedisOperationService.readWriteUnlock(lockKey, owner, type.write(), lockWaiter.getChannel());
+        if (remaining > 0) {
+            // 外层仍然持有，外层可能使用了看门狗，不能停止续期
+            return;
+        }
+
+        // 完全释放（或者已经不再持有）后才停止续期，续期脚本只会延长仍然持有的锁
+        lockWatchdog.unwatchField(lockKey, field(owner, type));
+        if (remaining == 0) {
+            lockWaiter.release(lockKey);
+        }
+    }
+
+    /**
+     * 锁的key，排他锁与读写锁的数据结构不同，使用不同的key
+     *
+     * @param key   锁标识
+     * @param type  锁类型
+     * @return 锁的key
+     */
+    private static String lockKey(String key, LockType type) {
+        return key + (type.readWrite() ? RW_LOCK_KEY_SUFFIX : LOCK_KEY_SUFFIX);
+    }
+
+    /**
+     * 读写锁持有者在锁中的字段，与rw-lock.lua一致
+     *
+     * @param owner 持有者
+     * @param type  锁类型
+     * @return 字段名称
+     */
+    private static String field(String owner, LockType type) {
+        return owner + (type.write() ? ":w" : ":r");
+    }
+
+    /**
+     * 异步加锁操作
+     *
+     * @param key        锁标识
+     * @param callable   回调
+     * @param retryTimes 重试次数，最多等待retryTimes秒
+     * @param lockTime   加锁时间
+     * @param throwEx    获取锁失败时是否抛出异常
+     * @param executor   执行redis操作的线程池
+     * @return 回函函数返回数据
+     */
+    public CompletableFuture<Object> lockAsync(String key, Supplier<CompletableFuture<Object>> callable, int retryTimes, Duration lockTime, boolean throwEx, Executor executor) {
+        return lockAsync(key, callable, Duration.ofSeconds(Math.max(retryTimes, 0)), lockTime, throwEx, executor);
+    }
+
+    /**
+     * 异步加锁操作
+     *
+     * @param key        锁标识
+     * @param callable   回调
+     * @param waitTime   获取锁的最长等待时间
+     * @param lockTime   加锁时间，为null时使用看门狗，持有期间自动续期
+     * @param throwEx    获取锁失败时是否抛出异常
+     * @param executor   执行redis操作的线程池
+     * @return 回函函数返回数据
+     */
+    public CompletableFuture<Object> lockAsync(String key, Supplier<CompletableFuture<Object>> callable, Duration waitTime, Duration lockTime, boolean throwEx, Executor executor) {
+        return lockAsync(key, LockType.EXCLUSIVE, callable, waitTime, lockTime, throwEx, executor);
+    }
+
+    /**
+     * 异步加锁操作
+     * 获取锁、释放锁都在指定的线程池中执行，锁被占用时等待释放通知或者退避时间后再提交，等待期间不占用线程，
+     * 回调返回的CompletableFuture完成后再释放锁。异步执行没有固定的线程，每次调用都是不同的持有者，不能重入
+     *
+     * @param key        锁标识
+     * @param type       锁类型
+     * @param callable   回调
+     * @param waitTime   获取锁的最长等待时间
+     * @param lockTime   加锁时间，为null时使用看门狗，持有期间自动续期
+     * @param throwEx    获取锁失败时是否抛出异常
+     * @param executor   执行redis操作的线程池
+     * @return 回函函数返回数据
+     */
+    public CompletableFuture<Object> lockAsync(String key, LockType type, Supplier<CompletableFuture<Object>> callable, Duration waitTime, Duration lockTime, boolean throwEx, Executor executor) {
+        String owner = UUID.randomUUID().toString().replace("-", "");
+        String lockKey = lockKey(key, type);
+        long deadline = System.nanoTime() + Math.max(waitTime.toNanos(), 0);
+        Duration leaseTime = lockTime == null ? lockWatchdog.getLeaseTime() : lockTime;
+
+        return tryLockAsync(lockKey, deadline, 0, () -> acquire(lockKey, type, owner, leaseTime, lockTime == null), executor).thenCompose(lockSuccess -> {
+            if (!lockSuccess) {
+                // 没有成功，表示当前已经有相关的操作正在进行
+                if (throwEx) {
+                    return CompletableFuture.failedFuture(new SystemException("已经存在正在运行的进程，请稍后重试"));
+                }
+                return CompletableFuture.completedFuture(null);
+            }
+
+            CompletableFuture<Object> result;
+            try {
+                result = callable.get();
+            } catch (RuntimeException e) {
+                result = CompletableFuture.failedFuture(e);
+            }
+
+            return result.whenCompleteAsync((value, e) -> release(lockKey, type, owner), releaseExecutor(executor));
+        });
+    }
+
+    /**
+     * 释放锁使用的线程池，指定的线程池拒绝执行时在公共线程池中释放，锁不能因为线程池已满而无法释放
+     *
+     * @param executor   执行redis操作的线程池
+     * @return 释放锁使用的线程池
+     */
+    private static Executor releaseExecutor(Executor executor) {
+        return task -> {
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                ForkJoinPool.commonPool().execute(task);
+            }
+        };
+    }
+
+    /**
+     * 异步获取锁，锁被占用时等待释放通知或者退避时间后再次提交，直到超过截止时间
+     *
+     * @param lockKey    锁的key值
+     * @param deadline   截止时间，纳秒
+     * @param attempt    已经重试的次数
+     * @param acquire    尝试获取一次锁
+     * @param executor   执行redis操作的线程池
+     * @return 是否获取成功
+     */
+    private CompletableFuture<Boolean> tryLockAsync(String lockKey, long deadline, int attempt, BooleanSupplier acquire, Executor executor) {
+        CompletableFuture<Void> released = lockWaiter.await(lockKey);
+
+        CompletableFuture<Boolean> attemptResult;
+        try {
+            attemptResult = CompletableFuture.supplyAsync(acquire::getAsBoolean, executor);
+        } catch (RejectedExecutionException e) {
+            // 线程池已满，不在调用线程中访问redis
+            lockWaiter.cancel(lockKey, released);
+            return CompletableFuture.failedFuture(e);
+        }
+
+        return attemptResult
+            .whenComplete((lockSuccess, e) -> {
+                if (e != null) {
+                    lockWaiter.cancel(lockKey, released);
+                }
+            })
+            .thenCompose(lockSuccess -> {
+                long remaining = deadline - System.nanoTime();
+                if (lockSuccess || remaining <= 0) {
+                    lockWaiter.cancel(lockKey, released);
+                    return CompletableFuture.completedFuture(lockSuccess);
+                }
+
+                return released.completeOnTimeout(null, Math.min(lockWaiter.backoff(attempt), remaining), TimeUnit.NANOSECONDS)
+                    .thenCompose(ignored -> {
+                        lockWaiter.cancel(lockKey, released);
+                        return tryLockAsync(lockKey, deadline, attempt + 1, acquire, executor);
+                    });
+            });
     }
 
     /**
@@ -193,15 +629,15 @@ public class RedisOperationService<T> extends AbstractRedisOperationService<T> {
      * @return  对应的数据
      */
     public T get(String key, Object hashKey, Callback callback) {
-        return hashRedisOperationService.get(key, hashKey).or(() -> {
-            if (exist(key)) {
-                return Optional.empty();
-            }
+        // hash中的值和hash是否存在一次读取
+        Map<Object, T> values = hashRedisOperationService.get(key, Collections.singletonList(hashKey));
+        if (values != null) {
+            return values.get(hashKey);
+        }
 
-            // 处理加载逻辑
-            callback.execute();
-            return hashRedisOperationService.get(key, hashKey);
-        }).orElse(null);
+        // 处理加载逻辑
+        callback.execute();
+        return hashRedisOperationService.get(key, hashKey).orElse(null);
     }
 
     /**
@@ -3,7 +3,6 @@ package cn.jvmaster.redis.service;
 import java.time.Duration;
 import java.util.Collection;
 import java.util.Set;
-import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
 
 /**
@@ -50,23 +49,9 @@ public class SetRedisOperationService<T> extends AbstractRedisOperationService<T
             return;
         }
 
-        // 添加到缓存中
-        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
-            byte[] keyBytes = serializeKey(key);
-            byte[][] values = value.stream().map(this::serializeValue).toArray(byte[][]::new);
-
-            if (remove) {
-                connection.keyCommands().del(keyBytes);
-            }
-
-            connection.setCommands().sAdd(serializeKey(key), values);
-            if (timeout != null && timeout.toSeconds() > 0) {
-                // 设置有效期
-                connection.keyCommands().expire(keyBytes, timeout.getSeconds());
-            }
-
-            return null;
-        });
+        // 分批添加到缓存中
+        bulkWrite(key, value, timeout, remove, (connection, keyBytes, chunk) ->
+            connection.setCommands().sAdd(keyBytes, chunk.stream().map(this::serializeValue).toArray(byte[][]::new)));
     }
 
     /**
@@ -1,6 +1,8 @@
 package cn.jvmaster.redis.service;
 
+import cn.jvmaster.redis.constant.LuaFiles;
 import cn.jvmaster.redis.domain.SignEntity;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.List;
 import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
@@ -57,7 +59,7 @@ public class StringRedisOperationService<T> extends AbstractRedisOperationServic
     public boolean lock(String key, Object value, Duration expireTime) {
         Boolean result = (Boolean) redisTemplate.execute((RedisCallback<Object>) connection -> connection.stringCommands().set(serializeKey(key),
             serialize(value, redisTemplate.getValueSerializer()),
-            Expiration.seconds(expireTime.getSeconds()),
+            Expiration.from(expireTime),
             SetOption.SET_IF_ABSENT));
 
         return result != null && result;
@@ -69,7 +71,60 @@ public class StringRedisOperationService<T> extends AbstractRedisOperationServic
      * @param value 锁值
      */
     public void unlock(String key, Object value) {
-        executeLuaFromFile(Boolean.class, UN_LOCK_SCRIPT, 1, key, value);
+        // 锁值与加锁时一样使用值的序列化方式，否则无法匹配
+        executeLuaFromFile(Boolean.class, redisTemplate.getValueSerializer(), UN_LOCK_SCRIPT, 1, key, value);
+    }
+
+    /**
+     * 解锁，解锁成功后在频道中发布锁的key
+     * @param key       锁的key值
+     * @param value     锁值
+     * @param channel   锁释放通知的频道
+     * @return  是否解锁成功
+     */
+    public boolean unlock(String key, Object value, byte[] channel) {
+        Boolean result = executeLuaFromFile(Boolean.class, redisTemplate.getValueSerializer(), UN_LOCK_SCRIPT, 1, key, value, channel);
+        return result != null && result;
+    }
+
+    /**
+     * 排他锁续期，锁值相同时延长有效时间（只延长不缩短）
+     * @param key           锁的key值
+     * @param value         锁值
+     * @param expireTime    锁自动释放时间
+     * @return  是否续期成功，锁已经过期或者被其他持有者获取时返回false
+     */
+    @SuppressWarnings("unchecked")
+    public boolean renew(String key, Object value, Duration expireTime) {
+        byte[] lease = String.valueOf(expireTime.toMillis()).getBytes(StandardCharsets.UTF_8);
+        List<Long> result = executeLuaFromFile(List.class, redisTemplate.getValueSerializer(), LuaFiles.LOCK_RENEW, 1, key, lease, value);
+        return result != null && !result.isEmpty() && result.getFirst() == 1;
+    }
+
+    /**
+     * 可重入读写锁加锁
+     * @param key           锁的key值
+     * @param owner         持有者，同一个持有者可以重入
+     * @param write         是否是写锁
+     * @param expireTime    锁自动释放时间
+     * @return  加锁后的重入次数，加锁失败时返回0
+     */
+    public long readWriteLock(String key, String owner, boolean write, Duration expireTime) {
+        Long result = executeLuaFromFile(Long.class, RW_LOCK_SCRIPT, 1, key, owner, write ? "write" : "read", String.valueOf(expireTime.toMillis()));
+        return result == null ? 0 : result;
+    }
+
+    /**
+     * 可重入读写锁解锁，持有者完全释放并且其他持有者可以进入时在频道中发布锁的key
+     * @param key       锁的key值
+     * @param owner     持有者
+     * @param write     是否是写锁
+     * @param channel   锁释放通知的频道
+     * @return  持有者剩余的重入次数，没有持有锁时返回-1
+     */
+    public long readWriteUnlock(String key, String owner, boolean write, byte[] channel) {
+        Long result = executeLuaFromFile(Long.class, RW_UN_LOCK_SCRIPT, 1, key, owner, write ? "write" : "read", channel);
+        return result == null ? -1 : result;
     }
 
     /**
@@ -16,7 +16,7 @@ import org.springframework.context.annotation.Import;
 @Target(ElementType.TYPE)
 @Retention(RetentionPolicy.RUNTIME)
 @Documented
-@Import({RedisAutoConfiguration.class, RedisEventAutoConfiguration.class, RedisAopConfiguration.class})
+@Import({RedisAutoConfiguration.class, RedisEventAutoConfiguration.class, RedisAopConfiguration.class, RedisMetricsConfiguration.class})
 public @interface EnableRedis {
 
 }
@@ -8,13 +8,18 @@ import cn.jvmaster.redis.annotation.Lock;
 import cn.jvmaster.redis.generator.CacheKeyGenerator;
 import cn.jvmaster.redis.generator.CacheProcessorManager;
 import cn.jvmaster.redis.service.RedisOperationService;
-import cn.jvmaster.redis.util.CacheUtils;
-import cn.jvmaster.spring.util.ExpressionUtils;
+import cn.jvmaster.redis.support.CacheAsyncExecutor;
+import cn.jvmaster.redis.support.CacheMethodMetadata;
+import cn.jvmaster.redis.support.CacheMethodRegistry;
 import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
@@ -22,6 +27,8 @@ import org.aspectj.lang.reflect.MethodSignature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.ClassUtils;
+import reactor.core.publisher.Mono;
 
 /**
  * redis aop注解
@@ -33,6 +40,10 @@ import org.springframework.context.annotation.Configuration;
 @Aspect
 public class RedisAopConfiguration {
 
+    /**
+     * 是否存在reactor，只有lettuce会引入reactor，使用jedis时不存在
+     */
+    private static final boolean REACTOR_PRESENT = ClassUtils.isPresent("reactor.core.publisher.Mono", RedisAopConfiguration.class.getClassLoader());
 
     private final RedisOperationService<?> redisOperationService;
 
@@ -40,10 +51,20 @@ public class RedisAopConfiguration {
 
     private final CacheProcessorManager cacheProcessorManager;
 
-    public RedisAopConfiguration(RedisOperationService<?> redisOperationService, CacheKeyGenerator cacheKeyGenerator, CacheProcessorManager cacheProcessorManager) {
+    private final CacheMethodRegistry cacheMethodRegistry;
+
+    private final CacheAsyncExecutor cacheAsyncExecutor;
+
+    public RedisAopConfiguration(RedisOperationService<?> redisOperationService,
+                                    CacheKeyGenerator cacheKeyGenerator,
+                                    CacheProcessorManager cacheProcessorManager,
+                                    CacheMethodRegistry cacheMethodRegistry,
+                                    CacheAsyncExecutor cacheAsyncExecutor) {
         this.redisOperationService = redisOperationService;
         this.cacheKeyGenerator = cacheKeyGenerator;
         this.cacheProcessorManager = cacheProcessorManager;
+        this.cacheMethodRegistry = cacheMethodRegistry;
+        this.cacheAsyncExecutor = cacheAsyncExecutor;
     }
 
     /**
@@ -54,13 +75,24 @@ public class RedisAopConfiguration {
      */
     @Around("@annotation(lock)")
     public Object handleLock(ProceedingJoinPoint joinPoint, Lock lock) {
-        return redisOperationService.lock(CacheUtils.getCacheName(lock.name(), joinPoint, cacheKeyGenerator), () -> {
+        String name = getMetadata(joinPoint).getCacheName(lock.name(), joinPoint, cacheKeyGenerator);
+        Class<?> returnType = ((MethodSignature) joinPoint.getSignature()).getReturnType();
+        Duration waitTime = lock.waitTime() < 0 ? Duration.ofSeconds(lock.retryTimes()) : Duration.ofMillis(lock.waitTime());
+        // 使用看门狗时不指定加锁时间
+        Duration lockTime = lock.watchdog() ? null : Duration.ofSeconds(lock.lockExistSeconds());
+        if (isAsync(returnType)) {
+            // 异步方法在返回的CompletableFuture、Mono完成后释放锁
+            return toReturnType(returnType, () -> redisOperationService.lockAsync(name, lock.type(), () -> proceedAsync(joinPoint), waitTime,
+                lockTime, true, cacheAsyncExecutor.getExecutor()));
+        }
+
+        return redisOperationService.lock(name, lock.type(), () -> {
             try {
                 return joinPoint.proceed();
             } catch (Throwable e) {
                 throw new RuntimeException(e);
             }
-        }, lock.retryTimes(), Duration.ofSeconds(lock.lockExistSeconds()), true);
+        }, waitTime, lockTime, true);
     }
 
     /**
@@ -71,17 +103,48 @@ public class RedisAopConfiguration {
      */
     @Around("@annotation(cache)")
     public Object handleCache(ProceedingJoinPoint joinPoint, Cache cache) {
-        return cacheProcessorManager.resolve(CacheUtils.getCacheName(cache.name(), joinPoint, cacheKeyGenerator), cache, joinPoint, () -> {
+        CacheMethodMetadata metadata = getMetadata(joinPoint);
+        Class<?> returnType = ((MethodSignature) joinPoint.getSignature()).getReturnType();
+        if (isAsync(returnType)) {
+            // 异步方法缓存CompletableFuture、Mono的结果，而不是其本身
+            String name = metadata.getCacheName(cache.name(), joinPoint, cacheKeyGenerator);
+            return toReturnType(returnType, () -> cacheProcessorManager.resolveAsync(name, cache, joinPoint, () -> proceedAsync(joinPoint)));
+        }
+
+        if (cache.batch()) {
+            // 批量缓存未定义名称时，以类名::方法名作为缓存名称前缀
+            String name = StringUtils.isEmpty(cache.name()) ? metadata.getName() : metadata.getCacheName(cache.name(), joinPoint, cacheKeyGenerator);
+            return cacheProcessorManager.resolveBatch(name, cache, joinPoint, metadata);
+        }
+
+        Supplier<Object> resultSupplier = () -> {
             try {
                 return joinPoint.proceed();
             } catch (Throwable e) {
                 throw new RuntimeException(e);
             }
-        });
+        };
+
+        if (StringUtils.isNotEmpty(cache.hashField())) {
+            // 按照hash字段读取，缓存名称不能与字段参数相关，未定义名称时以类名::方法名作为缓存名称
+            String name = StringUtils.isEmpty(cache.name()) ? metadata.getName() : metadata.getCacheName(cache.name(), joinPoint, cacheKeyGenerator);
+            return cacheProcessorManager.resolveHashField(name, metadata.getArgumentValue(cache.hashField(), joinPoint), cache, joinPoint, resultSupplier, metadata);
+        }
+
+        if (StringUtils.isNotEmpty(cache.offset()) || StringUtils.isNotEmpty(cache.limit())) {
+            // 按照范围读取，缓存名称不能与范围参数相关，未定义名称时以类名::方法名作为缓存名称
+            String name = StringUtils.isEmpty(cache.name()) ? metadata.getName() : metadata.getCacheName(cache.name(), joinPoint, cacheKeyGenerator);
+            long offset = toLong(metadata.getArgumentValue(cache.offset(), joinPoint));
+            long limit = toLong(metadata.getArgumentValue(cache.limit(), joinPoint));
+            return cacheProcessorManager.resolveListRange(name, offset, limit, cache, joinPoint, resultSupplier, metadata);
+        }
+
+        return cacheProcessorManager.resolve(metadata.getCacheName(cache.name(), joinPoint, cacheKeyGenerator), cache, joinPoint, resultSupplier);
     }
 
     /**
      * 对缓存注解进行拦截，一个方法上存在多个缓存注解
+     * 所有缓存在一个管道中读取，实际方法只执行一次
      * @param joinPoint 切面信息
      * @param cache     缓存信息
      * @return  方法执行结果
@@ -89,29 +152,23 @@ public class RedisAopConfiguration {
     @Around("@annotation(cache)")
     public Object handleCache(ProceedingJoinPoint joinPoint, Caches cache) {
         AtomicReference<Object> methodExecuteResult = new AtomicReference<>();
-        Object firstCacheResult = null;
-
-        // 依次执行缓存
-        for (Cache item : cache.value()) {
-            Object result = cacheProcessorManager.resolve(CacheUtils.getCacheName(item.name(), joinPoint, cacheKeyGenerator), item, joinPoint, () -> {
-                try {
-                    // 保证实际方法只执行一次
-                    if (methodExecuteResult.get() == null) {
-                        methodExecuteResult.set(joinPoint.proceed());
-                    }
-
-                    return methodExecuteResult.get();
-                } catch (Throwable e) {
-                    throw new RuntimeException(e);
+        AtomicBoolean executed = new AtomicBoolean(false);
+        CacheMethodMetadata metadata = getMetadata(joinPoint);
+        List<String> names = Arrays.stream(cache.value()).map(item -> metadata.getCacheName(item.name(), joinPoint, cacheKeyGenerator)).toList();
+
+        return cacheProcessorManager.resolveAll(names, cache.value(), joinPoint, () -> {
+            try {
+                // 保证实际方法只执行一次
+                if (!executed.get()) {
+                    methodExecuteResult.set(joinPoint.proceed());
+                    executed.set(true);
                 }
-            });
 
-            if (firstCacheResult == null && result != null) {
-                firstCacheResult = result;
+                return methodExecuteResult.get();
+            } catch (Throwable e) {
+                throw new RuntimeException(e);
             }
-        }
-
-        return firstCacheResult;
+        });
     }
 
     /**
@@ -125,18 +182,123 @@ public class RedisAopConfiguration {
         // 如果没有指定待删除的缓存名称，则表示删除当前类下所有缓存数据
         boolean removeAll = cache.allEntries();
         List<String> cacheNames;
+        List<String> tags = Collections.emptyList();
+        CacheMethodMetadata metadata = getMetadata(joinPoint);
+        if (cache.tags().length > 0) {
+            tags = metadata.getTags(cache.tags(), joinPoint.getTarget(), (MethodSignature) joinPoint.getSignature(), joinPoint.getArgs());
+        }
 
         if (cache.name() == null || cache.name().length == 0) {
-            removeAll = true;
-            cacheNames = Collections.singletonList(joinPoint.getTarget().getClass().getName());
+            // 只定义了标签时只按照标签删除
+            removeAll = cache.tags().length == 0;
+            cacheNames = removeAll ? Collections.singletonList(joinPoint.getTarget().getClass().getName()) : Collections.emptyList();
         } else {
-            cacheNames = Arrays.stream(cache.name()).map(item -> CacheUtils.getCacheName(item, joinPoint, cacheKeyGenerator)).toList();
+            cacheNames = Arrays.stream(cache.name()).map(item -> metadata.getCacheName(item, joinPoint, cacheKeyGenerator)).toList();
         }
         Object result = joinPoint.proceed();
-        cacheProcessorManager.remove(cacheNames, cache, joinPoint, removeAll);
+        if (!cacheNames.isEmpty()) {
+            cacheProcessorManager.remove(cacheNames, cache, joinPoint, removeAll);
+        }
+        if (!tags.isEmpty()) {
+            cacheProcessorManager.removeByTags(tags, joinPoint);
+        }
 
         return result;
     }
 
+    /**
+     * 判断是否是异步方法
+     * @param returnType    方法返回类型
+     * @return  返回CompletableFuture（CompletionStage）或者Mono时为异步方法
+     */
+    private boolean isAsync(Class<?> returnType) {
+        return CompletionStage.class.isAssignableFrom(returnType) || isMono(returnType);
+    }
+
+    /**
+     * 判断是否返回Mono，不存在reactor时不会加载Mono
+     * @param returnType    方法返回类型
+     * @return  boolean
+     */
+    private static boolean isMono(Class<?> returnType) {
+        return REACTOR_PRESENT && ReactorAdapter.isMono(returnType);
+    }
+
+    /**
+     * 执行异步方法
+     * @param joinPoint 切面信息
+     * @return  方法返回的CompletableFuture，返回Mono时转换为CompletableFuture
+     */
+    private CompletableFuture<Object> proceedAsync(ProceedingJoinPoint joinPoint) {
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        if (result != null && isMono(result.getClass())) {
+            return ReactorAdapter.toFuture(result);
+        }
+
+        if (result instanceof CompletionStage<?> stage) {
+            return stage.<Object>thenApply(value -> value).toCompletableFuture();
+        }
+
+        return CompletableFuture.completedFuture(result);
+    }
+
+    /**
+     * 将CompletableFuture转换为方法的返回类型
+     * @param returnType    方法返回类型
+     * @param supplier      获取执行结果，返回Mono时订阅后才执行
+     * @return  方法返回类型的执行结果
+     */
+    private Object toReturnType(Class<?> returnType, Supplier<CompletableFuture<Object>> supplier) {
+        if (isMono(returnType)) {
+            return ReactorAdapter.fromFuture(supplier);
+        }
 
+        return supplier.get();
+    }
+
+    /**
+     * 转换范围参数
+     * @param value 表达式计算结果
+     * @return  不是数字时返回0
+     */
+    private long toLong(Object value) {
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+
+        return value instanceof String text && StringUtils.isNotEmpty(text) ? Long.parseLong(text) : 0L;
+    }
+
+    /**
+     * 获取缓存方法元数据
+     * @param joinPoint 切面信息
+     * @return  元数据
+     */
+    private CacheMethodMetadata getMetadata(ProceedingJoinPoint joinPoint) {
+        return cacheMethodRegistry.get(((MethodSignature) joinPoint.getSignature()).getMethod());
+    }
+
+    /**
+     * Mono相关操作，只有存在reactor时才会加载该类
+     */
+    private static final class ReactorAdapter {
+
+        private static boolean isMono(Class<?> type) {
+            return Mono.class.isAssignableFrom(type);
+        }
+
+        private static CompletableFuture<Object> toFuture(Object mono) {
+            return ((Mono<?>) mono).<Object>map(value -> value).toFuture();
+        }
+
+        private static Object fromFuture(Supplier<CompletableFuture<Object>> supplier) {
+            return Mono.fromFuture(supplier);
+        }
+    }
 }
@@ -1,33 +1,58 @@
 package cn.jvmaster.redis.starter;
 
 import cn.jvmaster.core.constant.DateTimeFormat;
+import cn.jvmaster.core.util.StringUtils;
+import cn.jvmaster.redis.constant.CacheConstant;
+import cn.jvmaster.redis.constant.Codec;
 import cn.jvmaster.redis.generator.CacheKeyGenerator;
 import cn.jvmaster.redis.generator.CacheProcessor;
 import cn.jvmaster.redis.generator.CacheProcessorManager;
 import cn.jvmaster.redis.generator.CacheProcessorManager.CacheProcessorEntity;
 import cn.jvmaster.redis.generator.DefaultCacheKeyGenerator;
+import cn.jvmaster.redis.generator.HashCacheKeyGenerator;
 import cn.jvmaster.redis.generator.processor.DefaultCacheProcessor;
 import cn.jvmaster.redis.generator.processor.DefaultHashCacheProcessor;
 import cn.jvmaster.redis.generator.processor.DefaultListCacheProcessor;
 import cn.jvmaster.redis.generator.processor.DefaultSetCacheProcessor;
 import cn.jvmaster.redis.serializer.RedisKeySerializer;
+import cn.jvmaster.redis.serializer.RedisValueSerializer;
+import cn.jvmaster.redis.serializer.ValueCompressor;
 import cn.jvmaster.redis.service.HashRedisOperationService;
 import cn.jvmaster.redis.service.ListRedisOperationService;
 import cn.jvmaster.redis.service.RedisOperationService;
 import cn.jvmaster.redis.service.SetRedisOperationService;
 import cn.jvmaster.redis.service.StringRedisOperationService;
+import cn.jvmaster.redis.support.CacheAsyncExecutor;
+import cn.jvmaster.redis.support.CacheInvalidationBroadcaster;
+import cn.jvmaster.redis.support.CacheMethodRegistry;
+import cn.jvmaster.redis.support.CacheMetricsRecorder;
+import cn.jvmaster.redis.support.CacheNamespaces;
+import cn.jvmaster.redis.support.CacheRefresher;
+import cn.jvmaster.redis.support.CacheStatistics;
+import cn.jvmaster.redis.support.CacheTags;
+import cn.jvmaster.redis.support.CacheWriteBehind;
+import cn.jvmaster.redis.support.HotKeyDetector;
+import cn.jvmaster.redis.support.LocalLocks;
+import cn.jvmaster.redis.support.LockWaiter;
+import cn.jvmaster.redis.support.LockWatchdog;
+import cn.jvmaster.redis.support.NearCache;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
@@ -37,7 +62,10 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 
 /**
  * redis配置类
@@ -83,15 +111,48 @@ public class RedisAutoConfiguration {
         return objectMapper;
     }
 
+    /**
+     * 缓存统计信息
+     * @param cacheMetricsRecorder  指标记录器，引入Micrometer时由{@link RedisMetricsConfiguration}创建
+     * @return  CacheStatistics
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public CacheStatistics cacheStatistics(ObjectProvider<CacheMetricsRecorder> cacheMetricsRecorder) {
+        return new CacheStatistics(cacheMetricsRecorder.getIfAvailable(() -> CacheMetricsRecorder.NONE));
+    }
+
+    /**
+     * 缓存数据序列化方式
+     * 按照配置的编码格式写入数据，所有编码格式的数据都可以读取
+     * @param cacheObjectMapper 缓存json配置
+     * @param cacheStatistics   缓存统计信息
+     * @return  RedisValueSerializer
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public RedisValueSerializer redisValueSerializer(@Qualifier("cacheObjectMapper") ObjectMapper cacheObjectMapper, CacheStatistics cacheStatistics) {
+        Map<Codec, RedisSerializer<Object>> serializers = new EnumMap<>(Codec.class);
+        serializers.put(Codec.JSON, new GenericJackson2JsonRedisSerializer(cacheObjectMapper));
+        serializers.put(Codec.SMILE, new GenericJackson2JsonRedisSerializer(cacheObjectMapper.copyWith(new SmileFactory())));
+        serializers.put(Codec.CBOR, new GenericJackson2JsonRedisSerializer(cacheObjectMapper.copyWith(new CBORFactory())));
+
+        RedisProperties.Compress compress = redisProperties.getCompress();
+        ValueCompressor compressor = new ValueCompressor(compress.getAlgorithm(), compress.getThreshold(), cacheStatistics);
+
+        return new RedisValueSerializer(redisProperties.getCodec(), serializers, compressor, cacheStatistics);
+    }
+
     /**
      * 配置redis template
      * @param redisConnectionFactory redis连接配置
+     * @param valueSerializer 缓存数据序列化方式
      * @return  redisTemplate
      */
     @Bean
     @Primary
     @ConditionalOnMissingBean(name = "redisTemplate")
-    public RedisTemplate<?, ?> redisTemplate(RedisConnectionFactory redisConnectionFactory, @Qualifier("cacheObjectMapper") ObjectMapper cacheObjectMapper) {
+    public RedisTemplate<?, ?> redisTemplate(RedisConnectionFactory redisConnectionFactory, RedisValueSerializer valueSerializer) {
         RedisTemplate<?, ?> redisTemplate = new RedisTemplate<>();
         redisTemplate.setConnectionFactory(redisConnectionFactory);
 
@@ -99,7 +160,6 @@ public class RedisAutoConfiguration {
         redisTemplate.setKeySerializer(new RedisKeySerializer(redisProperties.getPrefix()));
         redisTemplate.setHashKeySerializer(new RedisKeySerializer());
 
-        GenericJackson2JsonRedisSerializer valueSerializer = new GenericJackson2JsonRedisSerializer(cacheObjectMapper);
         redisTemplate.setValueSerializer(valueSerializer);
         redisTemplate.setHashValueSerializer(valueSerializer);
 
@@ -107,13 +167,19 @@ public class RedisAutoConfiguration {
     }
 
     /**
-     * 默认缓存key生成规则
+     * 默认缓存key生成规则，默认使用参数原文/hashCode的规则，可以通过配置开启定长hash
+     * @param redisTemplate redis，调试模式下用于保存参数指纹
      * @return 缓存key默认生成配置
      */
     @Bean
     @ConditionalOnMissingBean
-    public CacheKeyGenerator cacheKeyGenerator() {
-        return new DefaultCacheKeyGenerator();
+    public CacheKeyGenerator cacheKeyGenerator(RedisTemplate<String, Object> redisTemplate) {
+        RedisProperties.Key key = redisProperties.getKey();
+        if (!key.isHashed()) {
+            return new DefaultCacheKeyGenerator();
+        }
+
+        return new HashCacheKeyGenerator(key.isDebug() ? redisTemplate : null, key.getFingerprintExpire());
     }
 
     /**
@@ -135,7 +201,10 @@ public class RedisAutoConfiguration {
     @Bean
     @ConditionalOnMissingBean
     public HashRedisOperationService<?> hashRedisOperationService(RedisTemplate<String, Object> redisTemplate) {
-        return new HashRedisOperationService<>(redisTemplate);
+        HashRedisOperationService<Object> hashRedisOperationService = new HashRedisOperationService<>(redisTemplate);
+        hashRedisOperationService.setChunkSize(redisProperties.getWrite().getChunkSize());
+
+        return hashRedisOperationService;
     }
 
     /**
@@ -146,7 +215,10 @@ public class RedisAutoConfiguration {
     @Bean
     @ConditionalOnMissingBean
     public ListRedisOperationService<?> listRedisOperationService(RedisTemplate<String, Object> redisTemplate) {
-        return new ListRedisOperationService<>(redisTemplate);
+        ListRedisOperationService<Object> listRedisOperationService = new ListRedisOperationService<>(redisTemplate);
+        listRedisOperationService.setChunkSize(redisProperties.getWrite().getChunkSize());
+
+        return listRedisOperationService;
     }
 
     /**
@@ -157,7 +229,10 @@ public class RedisAutoConfiguration {
     @Bean
     @ConditionalOnMissingBean
     public SetRedisOperationService<?> setRedisOperationService(RedisTemplate<String, Object> redisTemplate) {
-        return new SetRedisOperationService<>(redisTemplate);
+        SetRedisOperationService<Object> setRedisOperationService = new SetRedisOperationService<>(redisTemplate);
+        setRedisOperationService.setChunkSize(redisProperties.getWrite().getChunkSize());
+
+        return setRedisOperationService;
     }
 
     /**
@@ -170,9 +245,163 @@ public class RedisAutoConfiguration {
                                                         StringRedisOperationService<T> stringRedisOperationService,
                                                         SetRedisOperationService<T> setRedisOperationService,
                                                         ListRedisOperationService<T> listRedisOperationService,
-                                                        HashRedisOperationService<T> hashRedisOperationService
+                                                        HashRedisOperationService<T> hashRedisOperationService,
+                                                        LockWaiter lockWaiter,
+                                                        LockWatchdog lockWatchdog,
+                                                        LocalLocks localLocks
     ) {
-        return new RedisOperationService<>(redisTemplate, stringRedisOperationService, setRedisOperationService, listRedisOperationService, hashRedisOperationService);
+        return new RedisOperationService<>(redisTemplate, stringRedisOperationService, setRedisOperationService, listRedisOperationService, hashRedisOperationService,
+            lockWaiter, lockWatchdog, localLocks);
+    }
+
+    /**
+     * 分布式锁前的本地锁
+     * @return  LocalLocks
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public LocalLocks localLocks() {
+        RedisProperties.Lock lock = redisProperties.getLock();
+        return new LocalLocks(lock.isLocal(), lock.getMaxHandoffs());
+    }
+
+    /**
+     * 分布式锁等待，订阅锁释放通知
+     * @param redisMessageListenerContainer redis消息监听容器
+     * @return  LockWaiter
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public LockWaiter lockWaiter(RedisMessageListenerContainer redisMessageListenerContainer) {
+        RedisProperties.Lock lock = redisProperties.getLock();
+        String channel = StringUtils.isEmpty(redisProperties.getPrefix()) ? lock.getChannel() : redisProperties.getPrefix() + CacheConstant.SEPARATOR + lock.getChannel();
+
+        LockWaiter lockWaiter = new LockWaiter(channel, redisProperties.getPrefix(), lock.getMinBackoff(), lock.getMaxBackoff());
+        redisMessageListenerContainer.addMessageListener(lockWaiter, new ChannelTopic(channel));
+
+        return lockWaiter;
+    }
+
+    /**
+     * 分布式锁看门狗
+     * @param stringRedisOperationService   执行lua脚本
+     * @return  LockWatchdog
+     */
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnMissingBean
+    public LockWatchdog lockWatchdog(StringRedisOperationService<Object> stringRedisOperationService) {
+        RedisProperties.Lock lock = redisProperties.getLock();
+        return new LockWatchdog(stringRedisOperationService, lock.getLeaseTime(), lock.getRenewBatchSize());
+    }
+
+    /**
+     * redis消息监听容器
+     * @param redisConnectionFactory redis连接配置
+     * @return  RedisMessageListenerContainer
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory redisConnectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+
+        return container;
+    }
+
+    /**
+     * 本地缓存失效通知
+     * @param redisTemplate redis
+     * @param redisMessageListenerContainer redis消息监听容器
+     * @return  CacheInvalidationBroadcaster
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public CacheInvalidationBroadcaster cacheInvalidationBroadcaster(RedisTemplate<String, ?> redisTemplate,
+                                                                        RedisMessageListenerContainer redisMessageListenerContainer) {
+        RedisProperties.Local local = redisProperties.getLocal();
+        String channel = StringUtils.isEmpty(redisProperties.getPrefix()) ? local.getChannel() : redisProperties.getPrefix() + CacheConstant.SEPARATOR + local.getChannel();
+
+        CacheInvalidationBroadcaster broadcaster = new CacheInvalidationBroadcaster(new NearCache(local.getMaximumSize()), redisTemplate, channel);
+        if (local.isEnabled()) {
+            // 订阅其他节点的失效通知
+            redisMessageListenerContainer.addMessageListener(broadcaster, new ChannelTopic(channel));
+        }
+
+        return broadcaster;
+    }
+
+    /**
+     * 缓存后台刷新
+     * @return  CacheRefresher
+     */
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnMissingBean
+    public CacheRefresher cacheRefresher() {
+        return new CacheRefresher(redisProperties.getRefresh().getPoolSize(), redisProperties.getRefresh().getQueueSize());
+    }
+
+    /**
+     * 异步方法的缓存、锁执行线程池
+     * @return  CacheAsyncExecutor
+     */
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnMissingBean
+    public CacheAsyncExecutor cacheAsyncExecutor() {
+        return new CacheAsyncExecutor(redisProperties.getAsync().getPoolSize(), redisProperties.getAsync().getQueueSize());
+    }
+
+    /**
+     * 缓存命名空间版本号
+     * @param redisTemplate redis
+     * @return  CacheNamespaces
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public CacheNamespaces cacheNamespaces(RedisTemplate<String, Object> redisTemplate) {
+        RedisProperties.Namespace namespace = redisProperties.getNamespace();
+        return new CacheNamespaces(namespace.getNames(), namespace.getExpire(), redisTemplate);
+    }
+
+    /**
+     * 热点key检测，热点key只保存在本地缓存中，未启用本地缓存时不检测
+     * @return  HotKeyDetector
+     */
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnMissingBean
+    public HotKeyDetector hotKeyDetector() {
+        RedisProperties.HotKey hotKey = redisProperties.getHotKey();
+        boolean enabled = hotKey.isEnabled() && redisProperties.getLocal().isEnabled();
+        return new HotKeyDetector(enabled, hotKey.getThreshold(), hotKey.getSampleRate(), hotKey.getWindow(),
+            hotKey.getWidth(), hotKey.getMaxHotKeys(), hotKey.getExpire());
+    }
+
+    /**
+     * 延迟更新模式的缓存写入
+     * @param stringRedisOperationService   redis管道操作
+     * @param cacheInvalidationBroadcaster  本地缓存失效通知
+     * @param cacheStatistics               缓存统计信息
+     * @return  CacheWriteBehind
+     */
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnMissingBean
+    public CacheWriteBehind cacheWriteBehind(StringRedisOperationService<Object> stringRedisOperationService,
+                                                CacheInvalidationBroadcaster cacheInvalidationBroadcaster,
+                                                CacheStatistics cacheStatistics) {
+        RedisProperties.WriteBehind writeBehind = redisProperties.getWriteBehind();
+        return new CacheWriteBehind(stringRedisOperationService, redisProperties.getLocal().isEnabled() ? cacheInvalidationBroadcaster : null,
+            cacheStatistics, writeBehind.getBatchSize(), writeBehind.getMaxPending(), writeBehind.getFlushInterval());
+    }
+
+    /**
+     * 缓存标签
+     * @param stringRedisOperationService   执行lua脚本
+     * @return  CacheTags
+     */
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnMissingBean
+    public CacheTags cacheTags(StringRedisOperationService<Object> stringRedisOperationService) {
+        RedisProperties.Tag tag = redisProperties.getTag();
+        return new CacheTags(stringRedisOperationService, redisProperties.getPrefix(), tag.getBatchSize(), tag.getCleanupInterval());
     }
 
     /**
@@ -181,9 +410,21 @@ public class RedisAutoConfiguration {
      */
     @Bean
     @ConditionalOnMissingBean
-    public CacheProcessorManager cacheProcessorManager(RedisTemplate<String, ?> redisTemplate,
+    public CacheProcessorManager cacheProcessorManager(RedisTemplate<String, Object> redisTemplate,
                                                         RedisOperationService<?> redisOperationService,
+                                                        StringRedisOperationService<Object> stringRedisOperationService,
+                                                        HashRedisOperationService<Object> hashRedisOperationService,
+                                                        ListRedisOperationService<Object> listRedisOperationService,
                                                         List<CacheProcessor> cacheProcessors,
+                                                        CacheInvalidationBroadcaster cacheInvalidationBroadcaster,
+                                                        CacheRefresher cacheRefresher,
+                                                        CacheMethodRegistry cacheMethodRegistry,
+                                                        CacheNamespaces cacheNamespaces,
+                                                        CacheStatistics cacheStatistics,
+                                                        CacheAsyncExecutor cacheAsyncExecutor,
+                                                        HotKeyDetector hotKeyDetector,
+                                                        CacheWriteBehind cacheWriteBehind,
+                                                        CacheTags cacheTags,
                                                         ApplicationContext applicationContext) {
         List<CacheProcessorEntity> defaultCacheProcessorList = createDefaultProcessor(redisOperationService);
         if (!cacheProcessors.isEmpty()) {
@@ -191,7 +432,8 @@ public class RedisAutoConfiguration {
             defaultCacheProcessorList.addAll(0, cacheProcessors.stream().map(item -> new CacheProcessorEntity(getBeanName(applicationContext, item), item)).toList());
         }
 
-        return new CacheProcessorManager(defaultCacheProcessorList, redisTemplate);
+        return new CacheProcessorManager(defaultCacheProcessorList, redisTemplate, redisProperties, cacheInvalidationBroadcaster,
+            stringRedisOperationService, hashRedisOperationService, listRedisOperationService, cacheRefresher, cacheMethodRegistry, cacheNamespaces, cacheStatistics, cacheAsyncExecutor, hotKeyDetector, cacheWriteBehind, cacheTags);
     }
 
     /**
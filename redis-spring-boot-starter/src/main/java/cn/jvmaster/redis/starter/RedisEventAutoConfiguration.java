@@ -1,12 +1,28 @@
 package cn.jvmaster.redis.starter;
 
+import cn.jvmaster.redis.annotation.Cache;
+import cn.jvmaster.redis.annotation.CacheRemove;
+import cn.jvmaster.redis.annotation.CacheWarmup;
+import cn.jvmaster.redis.annotation.Caches;
+import cn.jvmaster.redis.annotation.Lock;
+import cn.jvmaster.redis.support.CacheMethodRegistry;
+import cn.jvmaster.redis.support.CacheWarmer;
+import cn.jvmaster.redis.support.CacheWarmer.WarmupMethod;
 import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.springframework.aop.support.AopUtils;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 /**
  * 事件通知注入
+ * 启动时收集所有缓存、锁方法，预先解析方法元数据；收集{@link CacheWarmup}方法，启动完成后预热缓存
  * @author AI
  * @date 2024/11/26 9:43
  * @version 1.0
@@ -14,12 +30,53 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 public class RedisEventAutoConfiguration implements BeanPostProcessor {
 
+    private final CacheMethodRegistry cacheMethodRegistry = new CacheMethodRegistry();
+
+    /**
+     * 缓存预热方法，bean初始化过程中持续添加
+     */
+    private final List<WarmupMethod> warmupMethods = new CopyOnWriteArrayList<>();
+
+    /**
+     * 缓存方法元数据注册表
+     * @return  CacheMethodRegistry
+     */
+    @Bean
+    public CacheMethodRegistry cacheMethodRegistry() {
+        return cacheMethodRegistry;
+    }
+
+    /**
+     * 缓存预热
+     * @param applicationContext    spring容器
+     * @param redisProperties       配置属性
+     * @return  CacheWarmer
+     */
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "spring.redis.warmup", name = "enabled", matchIfMissing = true)
+    public CacheWarmer cacheWarmer(ApplicationContext applicationContext, RedisProperties redisProperties) {
+        RedisProperties.Warmup warmup = redisProperties.getWarmup();
+        return new CacheWarmer(warmupMethods, applicationContext, warmup.getPoolSize(), warmup.getRate(), warmup.getReadinessTimeout());
+    }
+
     @Override
     public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
-        Method[] methods = bean.getClass().getDeclaredMethods();
+        // bean可能已经被代理，需要从原始类中获取注解
+        Method[] methods = AopUtils.getTargetClass(bean).getDeclaredMethods();
         for (Method method : methods) {
             // 根据类来分类其中的缓存注解
+            if (method.isAnnotationPresent(Cache.class)
+                || method.isAnnotationPresent(Caches.class)
+                || method.isAnnotationPresent(CacheRemove.class)
+                || method.isAnnotationPresent(Lock.class)) {
+                cacheMethodRegistry.register(method);
+            }
 
+            CacheWarmup warmup = method.getAnnotation(CacheWarmup.class);
+            if (warmup != null) {
+                warmupMethods.add(new WarmupMethod(beanName, method, warmup));
+            }
         }
 
         return bean;
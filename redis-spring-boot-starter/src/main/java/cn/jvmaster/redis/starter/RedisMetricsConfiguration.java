@@ -0,0 +1,112 @@
+package cn.jvmaster.redis.starter;
+
+import cn.jvmaster.redis.support.CacheMetricsRecorder;
+import cn.jvmaster.redis.support.CacheStatistics;
+import cn.jvmaster.redis.support.CacheStatisticsEndpoint;
+import cn.jvmaster.redis.support.CacheWarmer;
+import cn.jvmaster.redis.support.CacheWarmupHealthIndicator;
+import cn.jvmaster.redis.support.HotKeyDetector;
+import cn.jvmaster.redis.support.HotKeyEndpoint;
+import cn.jvmaster.redis.support.MicrometerCacheMetricsRecorder;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 缓存监控配置
+ * 引入Micrometer时记录缓存指标，引入actuator时提供缓存统计信息端点以及缓存预热健康检查，都不存在时不做任何处理
+ * @author AI
+ * @date 2025/6/13 11:20
+ * @version 1.0
+**/
+@Configuration
+public class RedisMetricsConfiguration {
+
+    /**
+     * Micrometer指标记录
+     */
+    @Configuration
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+    static class MicrometerConfiguration {
+
+        /**
+         * 缓存指标记录器，未配置MeterRegistry时使用全局的MeterRegistry
+         * @param meterRegistry 指标注册
+         * @return  CacheMetricsRecorder
+         */
+        @Bean
+        @ConditionalOnMissingBean
+        public CacheMetricsRecorder cacheMetricsRecorder(ObjectProvider<MeterRegistry> meterRegistry) {
+            return new MicrometerCacheMetricsRecorder(meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+        }
+
+        /**
+         * 当前热点key数量的指标
+         * @param meterRegistry     指标注册
+         * @param hotKeyDetector    热点key检测
+         * @return  指标
+         */
+        @Bean
+        public Gauge hotKeysGauge(ObjectProvider<MeterRegistry> meterRegistry, HotKeyDetector hotKeyDetector) {
+            return Gauge.builder("redis.cache.hotkeys.active", hotKeyDetector, detector -> detector.getHotKeys().size())
+                .description("当前的热点key数量")
+                .register(meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+        }
+    }
+
+    /**
+     * actuator端点
+     */
+    @Configuration
+    @ConditionalOnClass(name = "org.springframework.boot.actuate.endpoint.annotation.Endpoint")
+    static class EndpointConfiguration {
+
+        /**
+         * 缓存统计信息端点
+         * @param cacheStatistics   缓存统计信息
+         * @return  CacheStatisticsEndpoint
+         */
+        @Bean
+        @ConditionalOnMissingBean
+        public CacheStatisticsEndpoint cacheStatisticsEndpoint(CacheStatistics cacheStatistics) {
+            return new CacheStatisticsEndpoint(cacheStatistics);
+        }
+
+        /**
+         * 热点key端点
+         * @param hotKeyDetector    热点key检测
+         * @return  HotKeyEndpoint
+         */
+        @Bean
+        @ConditionalOnMissingBean
+        public HotKeyEndpoint hotKeyEndpoint(HotKeyDetector hotKeyDetector) {
+            return new HotKeyEndpoint(hotKeyDetector);
+        }
+    }
+
+    /**
+     * actuator健康检查
+     */
+    @Configuration
+    @ConditionalOnClass(name = "org.springframework.boot.actuate.health.HealthIndicator")
+    @ConditionalOnProperty(prefix = "spring.redis.warmup", name = "enabled", matchIfMissing = true)
+    static class HealthConfiguration {
+
+        /**
+         * 缓存预热健康检查，名称为cacheWarmup，输出预热进度
+         * @param cacheWarmer   缓存预热
+         * @return  CacheWarmupHealthIndicator
+         */
+        @Bean
+        @ConditionalOnMissingBean
+        public CacheWarmupHealthIndicator cacheWarmupHealthIndicator(CacheWarmer cacheWarmer) {
+            return new CacheWarmupHealthIndicator(cacheWarmer);
+        }
+    }
+}
@@ -1,5 +1,13 @@
 package cn.jvmaster.redis.starter;
 
+import cn.jvmaster.redis.constant.Codec;
+import cn.jvmaster.redis.constant.Compression;
+import cn.jvmaster.redis.generator.HashCacheKeyGenerator;
+import cn.jvmaster.redis.service.AbstractRedisOperationService;
+import cn.jvmaster.redis.support.CacheTags;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -16,6 +24,76 @@ public class RedisProperties {
      */
     private String prefix;
 
+    /**
+     * 缓存数据编码格式，二进制格式体积更小、解析更快，切换后旧数据仍然可以读取
+     */
+    private Codec codec = Codec.JSON;
+
+    /**
+     * 缓存数据压缩配置
+     */
+    private Compress compress = new Compress();
+
+    /**
+     * 本地缓存（一级缓存）配置
+     */
+    private Local local = new Local();
+
+    /**
+     * 缓存加载配置
+     */
+    private Load load = new Load();
+
+    /**
+     * 缓存后台刷新配置
+     */
+    private Refresh refresh = new Refresh();
+
+    /**
+     * 异步方法的缓存、锁配置
+     */
+    private Async async = new Async();
+
+    /**
+     * 缓存命名空间配置
+     */
+    private Namespace namespace = new Namespace();
+
+    /**
+     * 缓存标签配置
+     */
+    private Tag tag = new Tag();
+
+    /**
+     * 集合缓存分批写入配置
+     */
+    private Write write = new Write();
+
+    /**
+     * 缓存预热配置
+     */
+    private Warmup warmup = new Warmup();
+
+    /**
+     * 默认缓存key生成配置
+     */
+    private Key key = new Key();
+
+    /**
+     * 热点key检测配置
+     */
+    private HotKey hotKey = new HotKey();
+
+    /**
+     * 延迟更新配置
+     */
+    private WriteBehind writeBehind = new WriteBehind();
+
+    /**
+     * 分布式锁配置
+     */
+    private Lock lock = new Lock();
+
     public String getPrefix() {
         return prefix;
     }
@@ -23,4 +101,781 @@ public class RedisProperties {
     public void setPrefix(String prefix) {
         this.prefix = prefix;
     }
+
+    public Codec getCodec() {
+        return codec;
+    }
+
+    public void setCodec(Codec codec) {
+        this.codec = codec;
+    }
+
+    public Compress getCompress() {
+        return compress;
+    }
+
+    public void setCompress(Compress compress) {
+        this.compress = compress;
+    }
+
+    public Local getLocal() {
+        return local;
+    }
+
+    public void setLocal(Local local) {
+        this.local = local;
+    }
+
+    public Load getLoad() {
+        return load;
+    }
+
+    public void setLoad(Load load) {
+        this.load = load;
+    }
+
+    public Refresh getRefresh() {
+        return refresh;
+    }
+
+    public void setRefresh(Refresh refresh) {
+        this.refresh = refresh;
+    }
+
+    public Async getAsync() {
+        return async;
+    }
+
+    public void setAsync(Async async) {
+        this.async = async;
+    }
+
+    public Namespace getNamespace() {
+        return namespace;
+    }
+
+    public void setNamespace(Namespace namespace) {
+        this.namespace = namespace;
+    }
+
+    public Tag getTag() {
+        return tag;
+    }
+
+    public void setTag(Tag tag) {
+        this.tag = tag;
+    }
+
+    public Write getWrite() {
+        return write;
+    }
+
+    public void setWrite(Write write) {
+        this.write = write;
+    }
+
+    public Warmup getWarmup() {
+        return warmup;
+    }
+
+    public void setWarmup(Warmup warmup) {
+        this.warmup = warmup;
+    }
+
+    public Key getKey() {
+        return key;
+    }
+
+    public void setKey(Key key) {
+        this.key = key;
+    }
+
+    public HotKey getHotKey() {
+        return hotKey;
+    }
+
+    public void setHotKey(HotKey hotKey) {
+        this.hotKey = hotKey;
+    }
+
+    public WriteBehind getWriteBehind() {
+        return writeBehind;
+    }
+
+    public void setWriteBehind(WriteBehind writeBehind) {
+        this.writeBehind = writeBehind;
+    }
+
+    public Lock getLock() {
+        return lock;
+    }
+
+    public void setLock(Lock lock) {
+        this.lock = lock;
+    }
+
+    /**
+     * 缓存数据压缩配置属性
+     */
+    public static class Compress {
+
+        /**
+         * 压缩方式，NONE时不压缩
+         */
+        private Compression algorithm = Compression.FAST;
+
+        /**
+         * 压缩阈值，序列化后超过该大小的数据才进行压缩，字节
+         */
+        private int threshold = 4096;
+
+        public Compression getAlgorithm() {
+            return algorithm;
+        }
+
+        public void setAlgorithm(Compression algorithm) {
+            this.algorithm = algorithm;
+        }
+
+        public int getThreshold() {
+            return threshold;
+        }
+
+        public void setThreshold(int threshold) {
+            this.threshold = threshold;
+        }
+    }
+
+    /**
+     * 本地缓存配置属性
+     */
+    public static class Local {
+
+        /**
+         * 是否启用本地缓存，默认关闭，关闭时@Cache(local = true)也不生效，也不订阅失效通知
+         */
+        private boolean enabled = false;
+
+        /**
+         * 本地缓存最大条数，超出后按照最近最少使用进行近似淘汰
+         */
+        private int maximumSize = 10000;
+
+        /**
+         * 本地缓存默认有效时间
+         */
+        private Duration expire = Duration.ofSeconds(60);
+
+        /**
+         * 使用本地缓存的缓存名称，以缓存名称前缀进行匹配
+         */
+        private Set<String> names = new HashSet<>();
+
+        /**
+         * 缓存失效通知的频道名称
+         */
+        private String channel = "cache::invalidation";
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(int maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public Duration getExpire() {
+            return expire;
+        }
+
+        public void setExpire(Duration expire) {
+            this.expire = expire;
+        }
+
+        public Set<String> getNames() {
+            return names;
+        }
+
+        public void setNames(Set<String> names) {
+            this.names = names;
+        }
+
+        public String getChannel() {
+            return channel;
+        }
+
+        public void setChannel(String channel) {
+            this.channel = channel;
+        }
+    }
+
+    /**
+     * 缓存加载配置属性
+     */
+    public static class Load {
+
+        /**
+         * 是否合并同一个缓存key的并发加载，同一时刻只有一个线程执行方法，其他线程等待其结果
+         */
+        private boolean singleFlight = true;
+
+        /**
+         * 是否在多个节点之间合并加载，开启后通过redis锁保证同一时刻只有一个节点执行方法
+         */
+        private boolean distributed = false;
+
+        /**
+         * 多节点加载时，加载锁的有效时间
+         */
+        private Duration leaseTime = Duration.ofSeconds(10);
+
+        /**
+         * 多节点加载时，等待其他节点加载完成的最长时间，超时后自行加载
+         */
+        private Duration waitTime = Duration.ofSeconds(3);
+
+        public boolean isSingleFlight() {
+            return singleFlight;
+        }
+
+        public void setSingleFlight(boolean singleFlight) {
+            this.singleFlight = singleFlight;
+        }
+
+        public boolean isDistributed() {
+            return distributed;
+        }
+
+        public void setDistributed(boolean distributed) {
+            this.distributed = distributed;
+        }
+
+        public Duration getLeaseTime() {
+            return leaseTime;
+        }
+
+        public void setLeaseTime(Duration leaseTime) {
+            this.leaseTime = leaseTime;
+        }
+
+        public Duration getWaitTime() {
+            return waitTime;
+        }
+
+        public void setWaitTime(Duration waitTime) {
+            this.waitTime = waitTime;
+        }
+    }
+
+    /**
+     * 缓存后台刷新配置属性
+     */
+    public static class Refresh {
+
+        /**
+         * 后台刷新线程数
+         */
+        private int poolSize = 2;
+
+        /**
+         * 等待刷新的最大任务数，超出后放弃刷新，等待下次访问时再刷新
+         */
+        private int queueSize = 1000;
+
+        public int getPoolSize() {
+            return poolSize;
+        }
+
+        public void setPoolSize(int poolSize) {
+            this.poolSize = poolSize;
+        }
+
+        public int getQueueSize() {
+            return queueSize;
+        }
+
+        public void setQueueSize(int queueSize) {
+            this.queueSize = queueSize;
+        }
+    }
+
+    /**
+     * 异步方法的缓存、锁配置属性
+     */
+    public static class Async {
+
+        /**
+         * 执行缓存读写、锁操作的线程数
+         */
+        private int poolSize = 4;
+
+        /**
+         * 等待执行的最大任务数，超出后拒绝执行，返回失败的CompletableFuture
+         */
+        private int queueSize = 10000;
+
+        public int getPoolSize() {
+            return poolSize;
+        }
+
+        public void setPoolSize(int poolSize) {
+            this.poolSize = poolSize;
+        }
+
+        public int getQueueSize() {
+            return queueSize;
+        }
+
+        public void setQueueSize(int queueSize) {
+            this.queueSize = queueSize;
+        }
+    }
+
+    /**
+     * 缓存命名空间配置属性
+     */
+    public static class Namespace {
+
+        /**
+         * 使用版本号的命名空间，以缓存名称前缀进行匹配
+         * 命名空间下的缓存批量删除时只需要增加版本号，旧版本的缓存等待自动过期
+         */
+        private Set<String> names = new HashSet<>();
+
+        /**
+         * 命名空间版本号在本地的缓存时间，其他节点删除缓存后，最多经过该时间当前节点才能读取到新的缓存
+         */
+        private Duration expire = Duration.ofSeconds(1);
+
+        /**
+         * 非命名空间的缓存批量删除时，每批次删除的key数量
+         */
+        private int batchSize = 1000;
+
+        public Set<String> getNames() {
+            return names;
+        }
+
+        public void setNames(Set<String> names) {
+            this.names = names;
+        }
+
+        public Duration getExpire() {
+            return expire;
+        }
+
+        public void setExpire(Duration expire) {
+            this.expire = expire;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+    }
+
+    /**
+     * 缓存标签配置属性
+     */
+    public static class Tag {
+
+        /**
+         * 清理标签集合中已经不存在（过期、按照名称或者模糊匹配删除）的缓存的间隔，小于等于0时不清理
+         */
+        private Duration cleanupInterval = CacheTags.DEFAULT_CLEANUP_INTERVAL;
+
+        /**
+         * 按照标签删除、清理标签集合时，每次SSCAN以及每个管道处理的缓存数量
+         */
+        private int batchSize = CacheTags.DEFAULT_BATCH_SIZE;
+
+        public Duration getCleanupInterval() {
+            return cleanupInterval;
+        }
+
+        public void setCleanupInterval(Duration cleanupInterval) {
+            this.cleanupInterval = cleanupInterval;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+    }
+
+    /**
+     * 集合缓存分批写入配置属性
+     */
+    public static class Write {
+
+        /**
+         * list、set、hash缓存写入时每批次的元素数量，每批次单独序列化、发送，避免大集合一次性占用过多内存
+         */
+        private int chunkSize = AbstractRedisOperationService.DEFAULT_CHUNK_SIZE;
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+    }
+
+    /**
+     * 缓存预热配置属性
+     */
+    public static class Warmup {
+
+        /**
+         * 是否启用缓存预热
+         */
+        private boolean enabled = true;
+
+        /**
+         * 同时执行的预热调用数
+         */
+        private int poolSize = 2;
+
+        /**
+         * 每秒最多的预热调用数，小于等于0时不限速
+         */
+        private int rate = 100;
+
+        /**
+         * 等待关键缓存预热的最长时间，超时后恢复接收流量（ACCEPTING_TRAFFIC），预热继续执行
+         */
+        private Duration readinessTimeout = Duration.ofMinutes(5);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getPoolSize() {
+            return poolSize;
+        }
+
+        public void setPoolSize(int poolSize) {
+            this.poolSize = poolSize;
+        }
+
+        public int getRate() {
+            return rate;
+        }
+
+        public void setRate(int rate) {
+            this.rate = rate;
+        }
+
+        public Duration getReadinessTimeout() {
+            return readinessTimeout;
+        }
+
+        public void setReadinessTimeout(Duration readinessTimeout) {
+            this.readinessTimeout = readinessTimeout;
+        }
+    }
+
+    /**
+     * 默认缓存key生成配置属性，只对未指定缓存名称的方法生效
+     */
+    public static class Key {
+
+        /**
+         * 是否将方法参数hash为定长key，默认关闭，使用单个参数的toString或者多个参数的hashCode；
+         * 开启后自动生成的缓存key全部改变，已有的缓存不再命中
+         */
+        private boolean hashed = false;
+
+        /**
+         * 调试模式，将参数指纹保存到redis并检查key冲突，会增加redis访问，只在排查问题时开启
+         */
+        private boolean debug = false;
+
+        /**
+         * 调试模式下参数指纹的有效时间，只检查有效时间内的冲突
+         */
+        private Duration fingerprintExpire = HashCacheKeyGenerator.DEFAULT_FINGERPRINT_EXPIRE;
+
+        public boolean isHashed() {
+            return hashed;
+        }
+
+        public void setHashed(boolean hashed) {
+            this.hashed = hashed;
+        }
+
+        public boolean isDebug() {
+            return debug;
+        }
+
+        public void setDebug(boolean debug) {
+            this.debug = debug;
+        }
+
+        public Duration getFingerprintExpire() {
+            return fingerprintExpire;
+        }
+
+        public void setFingerprintExpire(Duration fingerprintExpire) {
+            this.fingerprintExpire = fingerprintExpire;
+        }
+    }
+
+    /**
+     * 热点key检测配置属性
+     */
+    public static class HotKey {
+
+        /**
+         * 是否启用热点key检测，热点key需要同时启用本地缓存才会保存到本地
+         */
+        private boolean enabled = true;
+
+        /**
+         * 每秒访问次数超过该值的缓存key成为热点key
+         */
+        private long threshold = 1000;
+
+        /**
+         * 采样率，(0, 1]，每次访问按照该概率计数
+         */
+        private double sampleRate = 0.1;
+
+        /**
+         * 统计窗口，每个窗口结束时所有计数减半
+         */
+        private Duration window = Duration.ofSeconds(1);
+
+        /**
+         * 计数矩阵每行的宽度，越大估算越准确，占用内存为 4 * 4 * width 字节
+         */
+        private int width = 4096;
+
+        /**
+         * 最多同时存在的热点key数量
+         */
+        private int maxHotKeys = 100;
+
+        /**
+         * 热点key在本地缓存的有效时间，缓存本身配置了本地缓存时使用缓存的配置
+         */
+        private Duration expire = Duration.ofSeconds(2);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getThreshold() {
+            return threshold;
+        }
+
+        public void setThreshold(long threshold) {
+            this.threshold = threshold;
+        }
+
+        public double getSampleRate() {
+            return sampleRate;
+        }
+
+        public void setSampleRate(double sampleRate) {
+            this.sampleRate = sampleRate;
+        }
+
+        public Duration getWindow() {
+            return window;
+        }
+
+        public void setWindow(Duration window) {
+            this.window = window;
+        }
+
+        public int getWidth() {
+            return width;
+        }
+
+        public void setWidth(int width) {
+            this.width = width;
+        }
+
+        public int getMaxHotKeys() {
+            return maxHotKeys;
+        }
+
+        public void setMaxHotKeys(int maxHotKeys) {
+            this.maxHotKeys = maxHotKeys;
+        }
+
+        public Duration getExpire() {
+            return expire;
+        }
+
+        public void setExpire(Duration expire) {
+            this.expire = expire;
+        }
+    }
+
+    /**
+     * 延迟更新配置属性
+     */
+    public static class WriteBehind {
+
+        /**
+         * 每批次写入的缓存数量，等待写入的数量达到该值时立即写入
+         */
+        private int batchSize = 500;
+
+        /**
+         * 最多等待写入的缓存数量，超出后由调用线程同步写入
+         */
+        private int maxPending = 10000;
+
+        /**
+         * 定时写入的间隔
+         */
+        private Duration flushInterval = Duration.ofSeconds(1);
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getMaxPending() {
+            return maxPending;
+        }
+
+        public void setMaxPending(int maxPending) {
+            this.maxPending = maxPending;
+        }
+
+        public Duration getFlushInterval() {
+            return flushInterval;
+        }
+
+        public void setFlushInterval(Duration flushInterval) {
+            this.flushInterval = flushInterval;
+        }
+    }
+
+    /**
+     * 分布式锁配置属性
+     */
+    public static class Lock {
+
+        /**
+         * 锁释放通知的频道名称，等待锁的线程收到通知后立即重试
+         */
+        private String channel = "lock::release";
+
+        /**
+         * 第一次重试前的等待时间，之后每次翻倍
+         */
+        private Duration minBackoff = Duration.ofMillis(10);
+
+        /**
+         * 每次重试前的最大等待时间，锁因为过期被释放时没有通知，依靠重试获取
+         */
+        private Duration maxBackoff = Duration.ofMillis(500);
+
+        /**
+         * 看门狗模式下锁的有效时间，持有期间每1/3有效时间续期一次
+         */
+        private Duration leaseTime = Duration.ofSeconds(30);
+
+        /**
+         * 看门狗每次lua调用续期的最大锁数量
+         */
+        private int renewBatchSize = 500;
+
+        /**
+         * 是否在排他锁之前使用本地锁，同一个key在当前节点只有一个线程竞争redis锁
+         */
+        private boolean local = true;
+
+        /**
+         * redis锁在本地线程之间连续交接的最大次数，达到后释放redis锁，让其他节点有机会获取
+         */
+        private int maxHandoffs = 16;
+
+        public String getChannel() {
+            return channel;
+        }
+
+        public void setChannel(String channel) {
+            this.channel = channel;
+        }
+
+        public Duration getMinBackoff() {
+            return minBackoff;
+        }
+
+        public void setMinBackoff(Duration minBackoff) {
+            this.minBackoff = minBackoff;
+        }
+
+        public Duration getMaxBackoff() {
+            return maxBackoff;
+        }
+
+        public void setMaxBackoff(Duration maxBackoff) {
+            this.maxBackoff = maxBackoff;
+        }
+
+        public Duration getLeaseTime() {
+            return leaseTime;
+        }
+
+        public void setLeaseTime(Duration leaseTime) {
+            this.leaseTime = leaseTime;
+        }
+
+        public int getRenewBatchSize() {
+            return renewBatchSize;
+        }
+
+        public void setRenewBatchSize(int renewBatchSize) {
+            this.renewBatchSize = renewBatchSize;
+        }
+
+        public boolean isLocal() {
+            return local;
+        }
+
+        public void setLocal(boolean local) {
+            this.local = local;
+        }
+
+        public int getMaxHandoffs() {
+            return maxHandoffs;
+        }
+
+        public void setMaxHandoffs(int maxHandoffs) {
+            this.maxHandoffs = maxHandoffs;
+        }
+    }
 }
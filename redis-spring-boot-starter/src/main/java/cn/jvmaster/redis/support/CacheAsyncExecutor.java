@@ -0,0 +1,70 @@
+package cn.jvmaster.redis.support;
+
+import cn.jvmaster.core.builder.ThreadExecutorBuilder;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Supplier;
+
+/**
+ * 缓存异步执行
+ * 方法返回CompletableFuture、Mono时，缓存的读取、写入以及锁的获取、释放在该线程池中执行，调用线程不需要等待redis。
+ * 队列已满时拒绝执行，返回失败的CompletableFuture，不会由调用线程（可能是WebFlux的事件循环线程）执行阻塞的redis操作
+ * @author AI
+ * @date 2025/6/16 9:50
+ * @version 1.0
+**/
+public class CacheAsyncExecutor {
+
+    private final ThreadPoolExecutor executor;
+
+    public CacheAsyncExecutor(int poolSize, int queueSize) {
+        this.executor = ThreadExecutorBuilder.builder()
+            .setCorePoolSize(poolSize)
+            .setMaxPoolSize(poolSize)
+            .setWorkQueue(new LinkedBlockingQueue<>(queueSize))
+            .setHandler(new ThreadPoolExecutor.AbortPolicy())
+            .build();
+    }
+
+    /**
+     * 异步执行
+     * @param supplier  执行逻辑
+     * @return  执行结果，队列已满时返回以{@link RejectedExecutionException}失败的CompletableFuture
+     */
+    public <T> CompletableFuture<T> supply(Supplier<T> supplier) {
+        try {
+            return CompletableFuture.supplyAsync(supplier, executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * 线程池，队列已满时提交任务会抛出{@link RejectedExecutionException}
+     * @return  线程池
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * 关闭线程池
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * 判断异常是否是因为队列已满被拒绝执行
+     * @param e 异常
+     * @return  boolean
+     */
+    public static boolean isRejected(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        return cause instanceof RejectedExecutionException;
+    }
+}
@@ -0,0 +1,103 @@
+package cn.jvmaster.redis.support;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+
+/**
+ * 本地缓存失效通知
+ * 缓存删除或更新后，通过redis发布订阅通知其他节点删除对应的本地缓存
+ * <pre>
+ *     消息格式（按行分隔）：
+ *       第1行：发送消息的节点标识，节点不处理自己发送的消息
+ *       第2行：1表示按照名称模糊删除，0表示精确删除
+ *       其余行：缓存名称
+ * </pre>
+ * @author AI
+ * @date 2025/6/3 10:40
+ * @version 1.0
+**/
+public class CacheInvalidationBroadcaster implements MessageListener {
+    private static final Log logger = LogFactory.getLog(CacheInvalidationBroadcaster.class);
+    private static final String LINE_SEPARATOR = "\n";
+
+    /**
+     * 当前节点标识
+     */
+    private final String nodeId = UUID.randomUUID().toString().replace("-", "");
+
+    private final NearCache nearCache;
+
+    private final RedisTemplate<String, ?> redisTemplate;
+
+    /**
+     * 通知频道
+     */
+    private final byte[] channel;
+
+    public CacheInvalidationBroadcaster(NearCache nearCache, RedisTemplate<String, ?> redisTemplate, String channel) {
+        this.nearCache = nearCache;
+        this.redisTemplate = redisTemplate;
+        this.channel = channel.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 删除本地缓存，并通知其他节点删除
+     * @param cacheNames    缓存名称
+     * @param allEntries    是否删除所有包含缓存名称的数据
+     */
+    public void invalidate(Collection<String> cacheNames, boolean allEntries) {
+        if (cacheNames == null || cacheNames.isEmpty()) {
+            return;
+        }
+
+        evict(cacheNames, allEntries);
+
+        // 通知其他节点
+        String message = nodeId + LINE_SEPARATOR + (allEntries ? 1 : 0) + LINE_SEPARATOR + String.join(LINE_SEPARATOR, cacheNames);
+        try {
+            redisTemplate.execute((RedisCallback<Long>) connection -> connection.publish(channel, message.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            // 通知失败不影响主流程，其他节点的本地缓存会在有效期后自动失效
+            logger.warn("本地缓存失效通知发送失败", e);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] lines = new String(message.getBody(), StandardCharsets.UTF_8).split(LINE_SEPARATOR);
+        if (lines.length < 3 || nodeId.equals(lines[0])) {
+            // 格式不正确，或者是自己发送的消息
+            return;
+        }
+
+        List<String> cacheNames = Arrays.asList(lines).subList(2, lines.length);
+        logger.debug("收到本地缓存失效通知: " + cacheNames);
+        evict(cacheNames, "1".equals(lines[1]));
+    }
+
+    /**
+     * 删除本地缓存
+     * @param cacheNames    缓存名称
+     * @param allEntries    是否删除所有包含缓存名称的数据
+     */
+    private void evict(Collection<String> cacheNames, boolean allEntries) {
+        if (allEntries) {
+            nearCache.removeIf(key -> cacheNames.stream().anyMatch(key::contains));
+        } else {
+            cacheNames.forEach(nearCache::remove);
+        }
+    }
+
+    public NearCache getNearCache() {
+        return nearCache;
+    }
+}
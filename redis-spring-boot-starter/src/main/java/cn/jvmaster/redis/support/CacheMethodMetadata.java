@@ -0,0 +1,484 @@
+package cn.jvmaster.redis.support;
+
+import cn.jvmaster.core.util.DateUtils;
+import cn.jvmaster.core.util.StringUtils;
+import cn.jvmaster.redis.annotation.Cache;
+import cn.jvmaster.redis.annotation.CacheRemove;
+import cn.jvmaster.redis.annotation.Caches;
+import cn.jvmaster.redis.annotation.Lock;
+import cn.jvmaster.redis.constant.CacheConstant;
+import cn.jvmaster.redis.constant.Mode;
+import cn.jvmaster.redis.domain.ListSlice;
+import cn.jvmaster.redis.generator.CacheKeyGenerator;
+import cn.jvmaster.redis.generator.CacheProcessor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.expression.BeanResolver;
+import org.springframework.expression.ConstructorResolver;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.MethodResolver;
+import org.springframework.expression.OperatorOverloader;
+import org.springframework.expression.PropertyAccessor;
+import org.springframework.expression.TypeComparator;
+import org.springframework.expression.TypeConverter;
+import org.springframework.expression.TypeLocator;
+import org.springframework.expression.TypedValue;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.util.ObjectUtils;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * 缓存方法元数据
+ * 启动时预先解析缓存方法的参数名称、编译缓存名称表达式，方法调用时只需要计算缓存名称
+ * @author AI
+ * @date 2025/6/9 9:40
+ * @version 1.0
+**/
+public class CacheMethodMetadata {
+    private static final ParameterNameDiscoverer PARAMETER_NAME_DISCOVERER = new DefaultParameterNameDiscoverer();
+
+    /**
+     * 表达式解析器，表达式执行几次后编译成字节码；参数类型变化导致编译后的表达式执行失败时自动回退为解释执行，
+     * 多次失败后不再编译，避免反复编译生成新的类
+     */
+    private static final ExpressionParser PARSER = new SpelExpressionParser(
+        new SpelParserConfiguration(SpelCompilerMode.MIXED, CacheMethodMetadata.class.getClassLoader()));
+
+    /**
+     * 表达式中的日期格式化函数
+     */
+    private static final Method FORMAT_FUNCTION = ReflectionUtils.findMethod(DateUtils.class, "convert", Date.class, String.class);
+
+    /**
+     * 所有方法调用共用的解析器、类型转换等，创建时完成延迟初始化，之后只读
+     */
+    private static final StandardEvaluationContext SHARED_CONTEXT = createSharedContext();
+
+    /**
+     * 缓存方法
+     */
+    private final Method method;
+
+    /**
+     * 统计名称，类名::方法名
+     */
+    private final String name;
+
+    /**
+     * 方法参数名称 - 参数位置，无法在启动时获取参数名称时，第一次调用时根据方法签名建立
+     */
+    private volatile Map<String, Integer> parameterIndexes;
+
+    /**
+     * 缓存名称 - 编译后的表达式
+     */
+    private final Map<String, Expression> expressions = new ConcurrentHashMap<>();
+
+    /**
+     * 解析器名称 - 缓存处理器
+     */
+    private final Map<String, CacheProcessor> processors = new ConcurrentHashMap<>();
+
+    /**
+     * 未指定解析器名称时的缓存处理器，查找结果与调用对象、方法参数无关时才保存
+     */
+    private volatile CacheProcessor defaultProcessor;
+
+    /**
+     * 写入的缓存是否带有标签
+     */
+    private final boolean tagged;
+
+    public CacheMethodMetadata(Method method) {
+        this.method = method;
+        this.name = method.getDeclaringClass().getName() + CacheConstant.SEPARATOR + method.getName();
+        String[] parameterNames = PARAMETER_NAME_DISCOVERER.getParameterNames(method);
+        this.parameterIndexes = parameterNames == null ? null : indexes(parameterNames);
+
+        // 预先编译注解上的缓存名称表达式
+        boolean hasTags = false;
+        Cache cache = method.getAnnotation(Cache.class);
+        if (cache != null) {
+            hasTags = cache.tags().length > 0;
+            if (cache.batch()) {
+                checkBatch(cache);
+            }
+            if (ListSlice.class.isAssignableFrom(method.getReturnType()) && StringUtils.isEmpty(cache.offset()) && StringUtils.isEmpty(cache.limit())) {
+                throw new IllegalArgumentException("返回值为ListSlice时需要指定offset或者limit: " + name);
+            }
+            compile(cache.name());
+            if (StringUtils.isNotEmpty(cache.batchKey())) {
+                expressions.computeIfAbsent(cache.batchKey(), PARSER::parseExpression);
+            }
+            compile(cache.hashField());
+            compile(cache.offset());
+            compile(cache.limit());
+            compileAll(cache.tags());
+        }
+
+        Caches caches = method.getAnnotation(Caches.class);
+        if (caches != null) {
+            for (Cache item : caches.value()) {
+                hasTags |= item.tags().length > 0;
+                compile(item.name());
+                compileAll(item.tags());
+            }
+        }
+
+        CacheRemove cacheRemove = method.getAnnotation(CacheRemove.class);
+        if (cacheRemove != null) {
+            compileAll(cacheRemove.name());
+            compileAll(cacheRemove.tags());
+        }
+        this.tagged = hasTags;
+
+        Lock lock = method.getAnnotation(Lock.class);
+        if (lock != null) {
+            compile(lock.name());
+        }
+    }
+
+    /**
+     * 获取缓存名称
+     * @param name                  缓存注解定义的名称
+     * @param joinPoint             切面信息
+     * @param cacheKeyGenerator     未定义名称时使用的缓存key生成规则
+     * @return  缓存名称
+     */
+    public String getCacheName(String name, ProceedingJoinPoint joinPoint, CacheKeyGenerator cacheKeyGenerator) {
+        if (StringUtils.isEmpty(name)) {
+            // 根据默认配置生成缓存key
+            return cacheKeyGenerator.generate(joinPoint.getTarget(), (MethodSignature) joinPoint.getSignature(), joinPoint.getArgs());
+        }
+
+        // 这里约定缓存key中不能添加#号，如果添加了#号，则表示为springel表达式
+        Expression expression = compile(name);
+        if (expression == null) {
+            return name;
+        }
+
+        return evaluate(expression, createContext(joinPoint), String.class);
+    }
+
+    /**
+     * 计算方法参数表达式
+     * @param expression    springEl表达式
+     * @param joinPoint     切面信息
+     * @return  计算结果，不是表达式时返回表达式本身
+     */
+    public Object getArgumentValue(String expression, ProceedingJoinPoint joinPoint) {
+        Expression compiled = compile(expression);
+        if (compiled == null) {
+            return expression;
+        }
+
+        return evaluate(compiled, createContext(joinPoint), Object.class);
+    }
+
+    /**
+     * 计算缓存标签
+     * 不是表达式的标签直接使用，表达式的结果为集合或数组时每个元素都是一个标签，结果为null的忽略
+     * @param tags      注解定义的标签
+     * @param target    目标对象
+     * @param signature 方法签名
+     * @param args      方法参数
+     * @return  标签
+     */
+    public List<String> getTags(String[] tags, Object target, MethodSignature signature, Object[] args) {
+        List<String> result = new ArrayList<>(tags.length);
+        EvaluationContext context = null;
+        for (String tag : tags) {
+            Expression expression = compile(tag);
+            if (expression == null) {
+                if (StringUtils.isNotEmpty(tag)) {
+                    result.add(tag);
+                }
+                continue;
+            }
+
+            if (context == null) {
+                context = createContext(target, signature, args);
+            }
+
+            Object value = evaluate(expression, context, Object.class);
+            if (value instanceof Collection<?> collection) {
+                collection.stream().filter(Objects::nonNull).forEach(item -> result.add(String.valueOf(item)));
+            } else if (value != null && value.getClass().isArray()) {
+                for (Object item : ObjectUtils.toObjectArray(value)) {
+                    if (item != null) {
+                        result.add(String.valueOf(item));
+                    }
+                }
+            } else if (value != null) {
+                result.add(String.valueOf(value));
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * 构建表达式上下文环境
+     * @param joinPoint 切面信息
+     * @return  上下文环境
+     */
+    private EvaluationContext createContext(ProceedingJoinPoint joinPoint) {
+        return createContext(joinPoint.getTarget(), (MethodSignature) joinPoint.getSignature(), joinPoint.getArgs());
+    }
+
+    private EvaluationContext createContext(Object target, MethodSignature signature, Object[] args) {
+        Map<String, Integer> indexes = parameterIndexes;
+        if (indexes == null) {
+            // 启动时无法获取参数名称，根据方法签名建立一次
+            indexes = indexes(signature.getParameterNames());
+            parameterIndexes = indexes;
+        }
+
+        return new InvocationContext(indexes, target.getClass(), signature.getMethod(), args);
+    }
+
+    /**
+     * 建立参数名称与参数位置的对应关系，同名参数以后面的为准
+     * @param names 参数名称
+     * @return  参数名称 - 参数位置
+     */
+    private static Map<String, Integer> indexes(String[] names) {
+        Map<String, Integer> indexes = new HashMap<>(names.length * 2);
+        for (int i = 0; i < names.length; i++) {
+            indexes.put(names[i], i);
+        }
+
+        return indexes;
+    }
+
+    private static StandardEvaluationContext createSharedContext() {
+        StandardEvaluationContext context = new StandardEvaluationContext();
+        context.getPropertyAccessors();
+        context.getConstructorResolvers();
+        context.getMethodResolvers();
+        context.getTypeLocator();
+        context.getTypeConverter();
+
+        return context;
+    }
+
+    /**
+     * 计算对象的属性表达式
+     * @param expression    表达式，如：id
+     * @param root          对象
+     * @return  计算结果
+     */
+    public Object getValue(String expression, Object root) {
+        return expressions.computeIfAbsent(expression, PARSER::parseExpression).getValue(root);
+    }
+
+    /**
+     * 获取缓存处理器
+     * 指定了解析器名称时按照名称查找，与方法参数无关，同一个方法只查找一次；
+     * 未指定时由{@link CacheProcessor#support(Object, MethodSignature, Object[])}判断，查找时经过的处理器都只根据方法本身判断时，
+     * 同一个方法也只查找一次，否则每次调用都需要查找
+     * @param resolverName  自定义解析器名称
+     * @param lookup        查找缓存处理器
+     * @return  缓存处理器，不存在时返回null
+     */
+    public CacheProcessor getProcessor(String resolverName, Function<String, ProcessorLookup> lookup) {
+        if (StringUtils.isNotEmpty(resolverName)) {
+            return processors.computeIfAbsent(resolverName, name -> lookup.apply(name).processor());
+        }
+
+        CacheProcessor processor = defaultProcessor;
+        if (processor != null) {
+            return processor;
+        }
+
+        ProcessorLookup result = lookup.apply("");
+        if (result.reusable()) {
+            defaultProcessor = result.processor();
+        }
+
+        return result.processor();
+    }
+
+    /**
+     * 检查批量缓存的属性，不支持的属性在启动时报错，而不是在调用时忽略
+     * 批量缓存的每个id单独读写，不使用本地缓存，也没有缓存元数据，无法在后台刷新
+     * @param cache 缓存属性
+     */
+    private void checkBatch(Cache cache) {
+        if (cache.local()) {
+            throw new IllegalArgumentException("批量缓存不支持本地缓存: " + name);
+        }
+
+        if (cache.mode() == Mode.STALE_WHILE_REVALIDATE || cache.earlyRefresh()) {
+            throw new IllegalArgumentException("批量缓存不支持后台刷新（STALE_WHILE_REVALIDATE、earlyRefresh）: " + name);
+        }
+    }
+
+    /**
+     * 编译缓存名称表达式
+     * @param name  缓存名称
+     * @return  编译后的表达式，不是表达式时返回null
+     */
+    private Expression compile(String name) {
+        if (StringUtils.isEmpty(name) || !name.contains("#")) {
+            return null;
+        }
+
+        return expressions.computeIfAbsent(name, PARSER::parseExpression);
+    }
+
+    private void compileAll(String[] names) {
+        for (String name : names) {
+            compile(name);
+        }
+    }
+
+    /**
+     * 计算表达式
+     * @param expression    表达式
+     * @param context       上下文环境
+     * @param clazz         计算结果类型
+     * @return  计算结果
+     */
+    private <T> T evaluate(Expression expression, EvaluationContext context, Class<T> clazz) {
+        return expression.getValue(context, clazz);
+    }
+
+    public Method getMethod() {
+        return method;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isTagged() {
+        return tagged;
+    }
+
+    /**
+     * 缓存处理器的查找结果
+     * @param processor 缓存处理器，不存在时为null
+     * @param reusable  查找结果是否与调用对象、方法参数无关，可以在之后的调用中直接使用
+     */
+    public record ProcessorLookup(CacheProcessor processor, boolean reusable) {}
+
+    /**
+     * 一次方法调用的表达式上下文环境
+     * 解析器、类型转换等与调用无关的部分使用共用的上下文，变量按照预先建立的参数位置直接从方法参数中读取，
+     * 每次调用只需要设置参数值，不需要重新注册函数和变量
+     */
+    private static final class InvocationContext implements EvaluationContext {
+
+        private final Map<String, Integer> parameterIndexes;
+
+        private final Class<?> targetClass;
+
+        private final Method method;
+
+        private final Object[] args;
+
+        /**
+         * 表达式中赋值的变量，很少使用，需要时才创建
+         */
+        private Map<String, Object> variables;
+
+        private InvocationContext(Map<String, Integer> parameterIndexes, Class<?> targetClass, Method method, Object[] args) {
+            this.parameterIndexes = parameterIndexes;
+            this.targetClass = targetClass;
+            this.method = method;
+            this.args = args;
+        }
+
+        @Override
+        public Object lookupVariable(String name) {
+            if (variables != null && variables.containsKey(name)) {
+                return variables.get(name);
+            }
+
+            // 参数名称优先，与内置变量同名时使用参数
+            Integer index = parameterIndexes.get(name);
+            if (index != null && index < args.length) {
+                return args[index];
+            }
+
+            return switch (name) {
+                case "target" -> targetClass;
+                case "method" -> method;
+                case "params" -> args;
+                case "format" -> FORMAT_FUNCTION;
+                default -> null;
+            };
+        }
+
+        @Override
+        public void setVariable(String name, Object value) {
+            if (variables == null) {
+                variables = new HashMap<>();
+            }
+            variables.put(name, value);
+        }
+
+        @Override
+        public TypedValue getRootObject() {
+            return TypedValue.NULL;
+        }
+
+        @Override
+        public List<PropertyAccessor> getPropertyAccessors() {
+            return SHARED_CONTEXT.getPropertyAccessors();
+        }
+
+        @Override
+        public List<ConstructorResolver> getConstructorResolvers() {
+            return SHARED_CONTEXT.getConstructorResolvers();
+        }
+
+        @Override
+        public List<MethodResolver> getMethodResolvers() {
+            return SHARED_CONTEXT.getMethodResolvers();
+        }
+
+        @Override
+        public BeanResolver getBeanResolver() {
+            return null;
+        }
+
+        @Override
+        public TypeLocator getTypeLocator() {
+            return SHARED_CONTEXT.getTypeLocator();
+        }
+
+        @Override
+        public TypeConverter getTypeConverter() {
+            return SHARED_CONTEXT.getTypeConverter();
+        }
+
+        @Override
+        public TypeComparator getTypeComparator() {
+            return SHARED_CONTEXT.getTypeComparator();
+        }
+
+        @Override
+        public OperatorOverloader getOperatorOverloader() {
+            return SHARED_CONTEXT.getOperatorOverloader();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package cn.jvmaster.redis.support;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 缓存方法元数据注册表
+ * 启动时由{@link cn.jvmaster.redis.starter.RedisEventAutoConfiguration}注册所有缓存、锁方法，
+ * 未注册的方法（如接口代理的方法）在第一次调用时注册
+ * @author AI
+ * @date 2025/6/9 9:32
+ * @version 1.0
+**/
+public class CacheMethodRegistry {
+
+    private final Map<Method, CacheMethodMetadata> metadataMap = new ConcurrentHashMap<>();
+
+    /**
+     * 是否注册过写入带有标签的缓存的方法，没有时删除缓存不需要维护标签集合
+     */
+    private volatile boolean tagged;
+
+    /**
+     * 注册缓存方法
+     * @param method    缓存方法
+     */
+    public void register(Method method) {
+        get(method);
+    }
+
+    /**
+     * 获取缓存方法元数据
+     * @param method    缓存方法
+     * @return  元数据
+     */
+    public CacheMethodMetadata get(Method method) {
+        CacheMethodMetadata metadata = metadataMap.get(method);
+        if (metadata != null) {
+            return metadata;
+        }
+
+        metadata = metadataMap.computeIfAbsent(method, CacheMethodMetadata::new);
+        if (metadata.isTagged()) {
+            tagged = true;
+        }
+        return metadata;
+    }
+
+    /**
+     * 是否有缓存带有标签
+     * @return  注册过写入带有标签的缓存的方法时为true
+     */
+    public boolean isTagged() {
+        return tagged;
+    }
+
+    /**
+     * 获取所有已注册的缓存方法
+     * @return  方法 - 元数据
+     */
+    public Map<Method, CacheMethodMetadata> getAll() {
+        return Collections.unmodifiableMap(metadataMap);
+    }
+}
@@ -0,0 +1,80 @@
+package cn.jvmaster.redis.support;
+
+/**
+ * 缓存指标记录
+ * {@link CacheStatistics}记录统计信息的同时，将每次的记录交给指标记录器，用于对接Micrometer等监控系统
+ * @author AI
+ * @date 2025/6/13 10:12
+ * @version 1.0
+**/
+public interface CacheMetricsRecorder {
+
+    /**
+     * 不记录任何指标
+     */
+    CacheMetricsRecorder NONE = new CacheMetricsRecorder() {};
+
+    /**
+     * 记录缓存命中
+     * @param name  统计名称
+     * @param type  缓存处理器类型
+     * @param count 命中次数
+     */
+    default void recordHit(String name, String type, long count) {}
+
+    /**
+     * 记录缓存未命中
+     * @param name  统计名称
+     * @param type  缓存处理器类型
+     * @param count 未命中次数
+     */
+    default void recordMiss(String name, String type, long count) {}
+
+    /**
+     * 记录一次从redis读取缓存
+     * @param name  统计名称
+     * @param type  缓存处理器类型
+     * @param nanos 读取耗时，纳秒
+     */
+    default void recordRead(String name, String type, long nanos) {}
+
+    /**
+     * 记录一次执行方法加载数据
+     * @param name  统计名称
+     * @param type  缓存处理器类型
+     * @param nanos 加载耗时，纳秒
+     */
+    default void recordLoad(String name, String type, long nanos) {}
+
+    /**
+     * 记录一次写入缓存的数据大小
+     * @param name  统计名称
+     * @param type  缓存处理器类型
+     * @param bytes 序列化后的大小，字节
+     */
+    default void recordPayload(String name, String type, long bytes) {}
+
+    /**
+     * 记录缓存删除
+     * @param name  统计名称
+     * @param type  缓存处理器类型
+     * @param count 删除的缓存数量
+     */
+    default void recordEviction(String name, String type, long count) {}
+
+    /**
+     * 记录缓存key成为热点key
+     * @param name  统计名称
+     * @param type  缓存处理器类型
+     * @param count 成为热点key的数量
+     */
+    default void recordHotKey(String name, String type, long count) {}
+
+    /**
+     * 记录延迟写入失败被丢弃的缓存
+     * @param name  统计名称
+     * @param type  缓存处理器类型
+     * @param count 丢弃的缓存数量
+     */
+    default void recordWriteDrop(String name, String type, long count) {}
+}
@@ -0,0 +1,130 @@
+package cn.jvmaster.redis.support;
+
+import cn.jvmaster.redis.constant.CacheConstant;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.data.redis.core.RedisTemplate;
+
+/**
+ * 缓存命名空间版本号
+ * 命名空间下的缓存key中带有版本号，如命名空间user下的缓存user::1实际保存为user~3::1，
+ * 批量删除命名空间下的缓存时只需要一次INCR增加版本号，旧版本的缓存不再被读取，等待自动过期。
+ * 缓存名称等于命名空间，或者以命名空间加分隔符开头时才属于该命名空间，多个命名空间都匹配时使用最长的一个
+ * @author AI
+ * @date 2025/6/10 14:05
+ * @version 1.0
+**/
+public class CacheNamespaces {
+
+    /**
+     * 命名空间与版本号的分隔符
+     */
+    private static final String GENERATION_SEPARATOR = "~";
+
+    /**
+     * 使用版本号的命名空间
+     */
+    private final Set<String> names;
+
+    /**
+     * 按照长度从长到短排列的命名空间，匹配时优先使用最长的命名空间
+     */
+    private final List<String> orderedNames;
+
+    /**
+     * 版本号在本地的缓存时间，毫秒
+     */
+    private final long expire;
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    /**
+     * 命名空间 - 本地缓存的版本号
+     */
+    private final Map<String, Generation> generations = new ConcurrentHashMap<>();
+
+    public CacheNamespaces(Set<String> names, Duration expire, RedisTemplate<String, Object> redisTemplate) {
+        this.names = names;
+        this.orderedNames = names.stream().sorted(Comparator.comparingInt(String::length).reversed()).toList();
+        this.expire = expire.toMillis();
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * 获取缓存实际保存的key
+     * @param cacheName 缓存名称
+     * @return  属于命名空间时返回带有版本号的key，否则返回缓存名称
+     */
+    public String resolve(String cacheName) {
+        String namespace = getNamespace(cacheName);
+        if (namespace == null) {
+            return cacheName;
+        }
+
+        return namespace + GENERATION_SEPARATOR + getGeneration(namespace) + cacheName.substring(namespace.length());
+    }
+
+    /**
+     * 判断是否是命名空间
+     * @param name  名称
+     * @return  boolean
+     */
+    public boolean contains(String name) {
+        return names.contains(name);
+    }
+
+    /**
+     * 增加命名空间的版本号，命名空间下已有的缓存全部失效
+     * @param namespace 命名空间
+     */
+    public void increment(String namespace) {
+        Long generation = redisTemplate.opsForValue().increment(namespace + CacheConstant.GENERATION_SUFFIX);
+        generations.put(namespace, new Generation(generation == null ? 0L : generation, System.currentTimeMillis() + expire));
+    }
+
+    /**
+     * 获取缓存名称所属的命名空间
+     * @param cacheName 缓存名称
+     * @return  命名空间，不属于任何命名空间时返回null
+     */
+    private String getNamespace(String cacheName) {
+        for (String name : orderedNames) {
+            if (cacheName.startsWith(name)
+                && (cacheName.length() == name.length() || cacheName.startsWith(CacheConstant.SEPARATOR, name.length()))) {
+                return name;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * 获取命名空间的版本号，优先从本地缓存中获取
+     * @param namespace 命名空间
+     * @return  版本号
+     */
+    private long getGeneration(String namespace) {
+        Generation generation = generations.get(namespace);
+        long now = System.currentTimeMillis();
+        if (generation != null && generation.expireAt > now) {
+            return generation.value;
+        }
+
+        Object value = redisTemplate.opsForValue().get(namespace + CacheConstant.GENERATION_SUFFIX);
+        long current = value instanceof Number number ? number.longValue() : 0L;
+        generations.put(namespace, new Generation(current, now + expire));
+
+        return current;
+    }
+
+    /**
+     * 本地缓存的版本号
+     * @param value     版本号
+     * @param expireAt  过期时间点，毫秒
+     */
+    private record Generation(long value, long expireAt) {}
+}
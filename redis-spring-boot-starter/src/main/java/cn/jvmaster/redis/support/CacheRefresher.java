@@ -0,0 +1,76 @@
+package cn.jvmaster.redis.support;
+
+import cn.jvmaster.core.builder.ThreadExecutorBuilder;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * 缓存后台刷新
+ * 使用有界线程池在后台重新加载缓存，同一个缓存key同一时刻只会有一个刷新任务
+ * @author AI
+ * @date 2025/6/6 10:32
+ * @version 1.0
+**/
+public class CacheRefresher {
+    private static final Log logger = LogFactory.getLog(CacheRefresher.class);
+
+    /**
+     * 正在刷新的缓存key
+     */
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 刷新线程池，队列已满时放弃本次刷新
+     */
+    private final ThreadPoolExecutor executor;
+
+    public CacheRefresher(int poolSize, int queueSize) {
+        this.executor = ThreadExecutorBuilder.builder()
+            .setCorePoolSize(poolSize)
+            .setMaxPoolSize(poolSize)
+            .setWorkQueue(new LinkedBlockingQueue<>(queueSize))
+            .build();
+    }
+
+    /**
+     * 提交刷新任务
+     * @param key   缓存key
+     * @param task  刷新逻辑
+     * @return  是否提交成功，该key已经在刷新中时返回false
+     */
+    public boolean refresh(String key, Runnable task) {
+        if (!refreshing.add(key)) {
+            return false;
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } catch (Exception e) {
+                    logger.warn("缓存后台刷新失败: " + key, e);
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+
+            return true;
+        } catch (RejectedExecutionException e) {
+            // 队列已满或者线程池已经关闭，等待下次访问时再刷新
+            refreshing.remove(key);
+            return false;
+        }
+    }
+
+    /**
+     * 关闭刷新线程池
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
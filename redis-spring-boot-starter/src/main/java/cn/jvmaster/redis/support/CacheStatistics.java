@@ -0,0 +1,458 @@
+package cn.jvmaster.redis.support;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 缓存统计信息
+ * 按照缓存统计名称（同一个缓存方法的所有缓存key共用一个统计名称）记录缓存的命中、加载情况，
+ * 每次记录同时交给{@link CacheMetricsRecorder}，用于对接监控系统
+ * @author AI
+ * @date 2025/6/4 9:21
+ * @version 1.0
+**/
+public class CacheStatistics {
+
+    /**
+     * 不在缓存方法中执行时使用的统计名称
+     */
+    public static final String DEFAULT_NAME = "default";
+
+    /**
+     * 未指定缓存处理器类型时使用的类型
+     */
+    public static final String UNKNOWN_TYPE = "unknown";
+
+    private final Map<String, Statistic> statistics = new ConcurrentHashMap<>();
+
+    /**
+     * 指标记录器
+     */
+    private final CacheMetricsRecorder recorder;
+
+    /**
+     * 当前线程正在执行的缓存统计名称，用于在序列化等无法获取缓存名称的地方进行统计
+     */
+    private final ThreadLocal<String> currentName = new ThreadLocal<>();
+
+    public CacheStatistics() {
+        this(CacheMetricsRecorder.NONE);
+    }
+
+    public CacheStatistics(CacheMetricsRecorder recorder) {
+        this.recorder = recorder == null ? CacheMetricsRecorder.NONE : recorder;
+    }
+
+    /**
+     * 获取缓存的统计信息
+     * @param name  统计名称
+     * @return  统计信息
+     */
+    public Statistic get(String name) {
+        return statistics.computeIfAbsent(name, key -> new Statistic(key, recorder));
+    }
+
+    /**
+     * 设置当前线程的统计名称
+     * @param name  统计名称
+     * @return  之前的统计名称，需要通过{@link #restore(String)}恢复
+     */
+    public String bind(String name) {
+        String previous = currentName.get();
+        currentName.set(name);
+
+        return previous;
+    }
+
+    /**
+     * 恢复当前线程之前的统计名称
+     * @param previous  之前的统计名称
+     */
+    public void restore(String previous) {
+        if (previous == null) {
+            currentName.remove();
+        } else {
+            currentName.set(previous);
+        }
+    }
+
+    /**
+     * 获取当前线程的统计信息
+     * @return  统计信息，当前线程没有统计名称时返回默认统计信息
+     */
+    public Statistic current() {
+        String name = currentName.get();
+        return get(name == null ? DEFAULT_NAME : name);
+    }
+
+    /**
+     * 获取所有的统计信息
+     * @return  统计名称 - 统计信息
+     */
+    public Map<String, Statistic> getAll() {
+        return Collections.unmodifiableMap(statistics);
+    }
+
+    /**
+     * 单个缓存的统计信息
+     */
+    public static class Statistic {
+
+        /**
+         * 统计名称
+         */
+        private final String name;
+
+        /**
+         * 指标记录器
+         */
+        private final CacheMetricsRecorder recorder;
+
+        /**
+         * 缓存处理器类型，如string、list、set、hash
+         */
+        private volatile String type = UNKNOWN_TYPE;
+
+        /**
+         * 缓存命中次数
+         */
+        private final LongAdder hitCount = new LongAdder();
+
+        /**
+         * 缓存未命中次数
+         */
+        private final LongAdder missCount = new LongAdder();
+
+        /**
+         * 从redis读取缓存的次数
+         */
+        private final LongAdder readCount = new LongAdder();
+
+        /**
+         * 从redis读取缓存的总时长，纳秒
+         */
+        private final LongAdder readTime = new LongAdder();
+
+        /**
+         * 写入缓存的次数
+         */
+        private final LongAdder payloadCount = new LongAdder();
+
+        /**
+         * 写入缓存的总大小，字节
+         */
+        private final LongAdder payloadSize = new LongAdder();
+
+        /**
+         * 删除缓存的数量
+         */
+        private final LongAdder evictionCount = new LongAdder();
+
+        /**
+         * 成为热点key的次数
+         */
+        private final LongAdder hotKeyCount = new LongAdder();
+
+        /**
+         * 延迟写入失败被丢弃的缓存数量
+         */
+        private final LongAdder writeDropCount = new LongAdder();
+
+        /**
+         * 实际执行方法加载数据的次数
+         */
+        private final LongAdder loadCount = new LongAdder();
+
+        /**
+         * 实际执行方法加载数据的总时长，纳秒
+         */
+        private final LongAdder loadTime = new LongAdder();
+
+        /**
+         * 等待其他线程加载数据的次数
+         */
+        private final LongAdder waitCount = new LongAdder();
+
+        /**
+         * 等待其他线程加载数据的总时长，纳秒
+         */
+        private final LongAdder waitTime = new LongAdder();
+
+        /**
+         * 压缩次数
+         */
+        private final LongAdder compressCount = new LongAdder();
+
+        /**
+         * 压缩前的总大小，字节
+         */
+        private final LongAdder originalSize = new LongAdder();
+
+        /**
+         * 压缩后的总大小，字节
+         */
+        private final LongAdder compressedSize = new LongAdder();
+
+        /**
+         * 压缩总时长，纳秒
+         */
+        private final LongAdder compressTime = new LongAdder();
+
+        /**
+         * 解压次数
+         */
+        private final LongAdder decompressCount = new LongAdder();
+
+        /**
+         * 解压总时长，纳秒
+         */
+        private final LongAdder decompressTime = new LongAdder();
+
+        public Statistic(String name, CacheMetricsRecorder recorder) {
+            this.name = name;
+            this.recorder = recorder;
+        }
+
+        /**
+         * 记录缓存命中
+         * @param count 命中次数
+         */
+        public void recordHit(long count) {
+            hitCount.add(count);
+            recorder.recordHit(name, type, count);
+        }
+
+        /**
+         * 记录缓存未命中
+         * @param count 未命中次数
+         */
+        public void recordMiss(long count) {
+            missCount.add(count);
+            recorder.recordMiss(name, type, count);
+        }
+
+        /**
+         * 记录一次从redis读取缓存
+         * @param nanos 读取耗时，纳秒
+         */
+        public void recordRead(long nanos) {
+            readCount.increment();
+            readTime.add(nanos);
+            recorder.recordRead(name, type, nanos);
+        }
+
+        /**
+         * 记录一次数据加载
+         * @param nanos 加载耗时，纳秒
+         */
+        public void recordLoad(long nanos) {
+            loadCount.increment();
+            loadTime.add(nanos);
+            recorder.recordLoad(name, type, nanos);
+        }
+
+        /**
+         * 记录一次写入缓存的数据大小
+         * @param bytes 序列化后的大小，字节
+         */
+        public void recordPayload(long bytes) {
+            payloadCount.increment();
+            payloadSize.add(bytes);
+            recorder.recordPayload(name, type, bytes);
+        }
+
+        /**
+         * 记录缓存删除
+         * @param count 删除的缓存数量
+         */
+        public void recordEviction(long count) {
+            evictionCount.add(count);
+            recorder.recordEviction(name, type, count);
+        }
+
+        /**
+         * 记录一个缓存key成为热点key
+         */
+        public void recordHotKey() {
+            hotKeyCount.increment();
+            recorder.recordHotKey(name, type, 1);
+        }
+
+        /**
+         * 记录延迟写入失败被丢弃的缓存
+         * @param count 丢弃的缓存数量
+         */
+        public void recordWriteDrop(long count) {
+            writeDropCount.add(count);
+            recorder.recordWriteDrop(name, type, count);
+        }
+
+        /**
+         * 记录一次等待
+         * @param nanos 等待时长，纳秒
+         */
+        public void recordWait(long nanos) {
+            waitCount.increment();
+            waitTime.add(nanos);
+        }
+
+        /**
+         * 记录一次压缩
+         * @param original      压缩前大小
+         * @param compressed    压缩后大小
+         * @param nanos         压缩耗时，纳秒
+         */
+        public void recordCompress(long original, long compressed, long nanos) {
+            compressCount.increment();
+            originalSize.add(original);
+            compressedSize.add(compressed);
+            compressTime.add(nanos);
+        }
+
+        /**
+         * 记录一次解压
+         * @param nanos 解压耗时，纳秒
+         */
+        public void recordDecompress(long nanos) {
+            decompressCount.increment();
+            decompressTime.add(nanos);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public void setType(String type) {
+            this.type = type;
+        }
+
+        public long getHitCount() {
+            return hitCount.sum();
+        }
+
+        public long getMissCount() {
+            return missCount.sum();
+        }
+
+        /**
+         * 缓存命中率
+         * @return  没有读取过缓存时返回0
+         */
+        public double getHitRatio() {
+            long hit = hitCount.sum();
+            long total = hit + missCount.sum();
+            return total == 0 ? 0D : (double) hit / total;
+        }
+
+        public long getReadCount() {
+            return readCount.sum();
+        }
+
+        /**
+         * 平均每次从redis读取缓存的耗时
+         * @return  毫秒，保留小数
+         */
+        public double getAverageReadTime() {
+            long count = readCount.sum();
+            return count == 0 ? 0D : readTime.sum() / (count * 1_000_000D);
+        }
+
+        public long getPayloadCount() {
+            return payloadCount.sum();
+        }
+
+        /**
+         * 平均每次写入缓存的数据大小
+         * @return  字节
+         */
+        public long getAveragePayloadSize() {
+            long count = payloadCount.sum();
+            return count == 0 ? 0 : payloadSize.sum() / count;
+        }
+
+        public long getEvictionCount() {
+            return evictionCount.sum();
+        }
+
+        public long getHotKeyCount() {
+            return hotKeyCount.sum();
+        }
+
+        public long getWriteDropCount() {
+            return writeDropCount.sum();
+        }
+
+        public long getLoadCount() {
+            return loadCount.sum();
+        }
+
+        /**
+         * 实际执行方法加载数据的总时长
+         * @return  毫秒
+         */
+        public long getLoadTime() {
+            return TimeUnit.NANOSECONDS.toMillis(loadTime.sum());
+        }
+
+        /**
+         * 平均每次加载数据的耗时
+         * @return  毫秒
+         */
+        public long getAverageLoadTime() {
+            long count = loadCount.sum();
+            return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(loadTime.sum() / count);
+        }
+
+        public long getWaitCount() {
+            return waitCount.sum();
+        }
+
+        /**
+         * 等待其他线程加载数据的总时长
+         * @return  毫秒
+         */
+        public long getWaitTime() {
+            return TimeUnit.NANOSECONDS.toMillis(waitTime.sum());
+        }
+
+        public long getCompressCount() {
+            return compressCount.sum();
+        }
+
+        /**
+         * 压缩率，压缩后大小 / 压缩前大小
+         * @return  没有压缩过时返回1
+         */
+        public double getCompressionRatio() {
+            long original = originalSize.sum();
+            return original == 0 ? 1D : (double) compressedSize.sum() / original;
+        }
+
+        /**
+         * 压缩总时长
+         * @return  毫秒
+         */
+        public long getCompressTime() {
+            return TimeUnit.NANOSECONDS.toMillis(compressTime.sum());
+        }
+
+        public long getDecompressCount() {
+            return decompressCount.sum();
+        }
+
+        /**
+         * 解压总时长
+         * @return  毫秒
+         */
+        public long getDecompressTime() {
+            return TimeUnit.NANOSECONDS.toMillis(decompressTime.sum());
+        }
+    }
+}
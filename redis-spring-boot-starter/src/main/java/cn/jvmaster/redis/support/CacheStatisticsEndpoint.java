@@ -0,0 +1,75 @@
+package cn.jvmaster.redis.support;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+
+/**
+ * 缓存统计信息端点
+ * 通过/actuator/rediscache查看所有缓存方法的命中率、加载耗时、数据大小等汇总信息，用于评估缓存是否有效以及调整有效时间
+ * @author AI
+ * @date 2025/6/13 11:05
+ * @version 1.0
+**/
+@Endpoint(id = "rediscache")
+public class CacheStatisticsEndpoint {
+
+    private final CacheStatistics cacheStatistics;
+
+    public CacheStatisticsEndpoint(CacheStatistics cacheStatistics) {
+        this.cacheStatistics = cacheStatistics;
+    }
+
+    /**
+     * 所有缓存的统计信息
+     * @return  统计名称 - 统计信息
+     */
+    @ReadOperation
+    public Map<String, Map<String, Object>> statistics() {
+        Map<String, Map<String, Object>> result = new TreeMap<>();
+        cacheStatistics.getAll().forEach((name, statistic) -> result.put(name, summary(statistic)));
+
+        return result;
+    }
+
+    /**
+     * 单个缓存的统计信息
+     * @param name  统计名称
+     * @return  统计信息，不存在时返回null
+     */
+    @ReadOperation
+    public Map<String, Object> statistic(@Selector String name) {
+        CacheStatistics.Statistic statistic = cacheStatistics.getAll().get(name);
+        return statistic == null ? null : summary(statistic);
+    }
+
+    /**
+     * 汇总统计信息
+     * @param statistic 统计信息
+     * @return  汇总结果
+     */
+    private Map<String, Object> summary(CacheStatistics.Statistic statistic) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("type", statistic.getType());
+        summary.put("hitCount", statistic.getHitCount());
+        summary.put("missCount", statistic.getMissCount());
+        summary.put("hitRatio", statistic.getHitRatio());
+        summary.put("averageReadTime", statistic.getAverageReadTime());
+        summary.put("loadCount", statistic.getLoadCount());
+        summary.put("averageLoadTime", statistic.getAverageLoadTime());
+        summary.put("waitCount", statistic.getWaitCount());
+        summary.put("waitTime", statistic.getWaitTime());
+        summary.put("payloadCount", statistic.getPayloadCount());
+        summary.put("averagePayloadSize", statistic.getAveragePayloadSize());
+        summary.put("evictionCount", statistic.getEvictionCount());
+        summary.put("hotKeyCount", statistic.getHotKeyCount());
+        summary.put("writeDropCount", statistic.getWriteDropCount());
+        summary.put("compressCount", statistic.getCompressCount());
+        summary.put("compressionRatio", statistic.getCompressionRatio());
+
+        return summary;
+    }
+}
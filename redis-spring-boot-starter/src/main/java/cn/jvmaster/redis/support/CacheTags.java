@@ -0,0 +1,384 @@
+package cn.jvmaster.redis.support;
+
+import cn.jvmaster.core.util.StringUtils;
+import cn.jvmaster.core.util.ThreadUtils;
+import cn.jvmaster.redis.constant.CacheConstant;
+import cn.jvmaster.redis.constant.LuaFiles;
+import cn.jvmaster.redis.service.StringRedisOperationService;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * 缓存标签
+ * 写入缓存时把缓存key记录到每个标签对应的set中（cache::tag::标签），缓存的标签索引（缓存key~tags）记录其所属的标签。
+ * 按照标签删除时通过SSCAN分批读取set中的缓存key，每批通过管道从其他标签集合中移除，并UNLINK缓存、缓存元数据以及标签索引，
+ * 内存在redis后台线程中释放；过期或者模糊匹配删除的缓存由定时任务同样分批清理，标签集合不会无限增长。
+ * 只有写入标签集合时使用lua脚本，并且只操作声明的标签集合，其他命令都只操作一个key，集群模式下缓存与标签不需要在同一个slot；
+ * 删除不是原子的，删除过程中写入的缓存可能保留在标签集合中，下次按照标签删除时删除
+ * @author AI
+ * @date 2025/6/19 9:30
+ * @version 1.0
+**/
+public class CacheTags {
+    private static final Log logger = LogFactory.getLog(CacheTags.class);
+
+    /**
+     * 默认的清理间隔
+     */
+    public static final Duration DEFAULT_CLEANUP_INTERVAL = Duration.ofMinutes(10);
+
+    /**
+     * 默认的批次大小
+     */
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    private final StringRedisOperationService<Object> stringRedisOperationService;
+
+    /**
+     * 执行管道命令
+     */
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    /**
+     * redis中缓存key的前缀，标签集合中的key去掉前缀后才是缓存名称
+     */
+    private final String keyPrefix;
+
+    /**
+     * 每批处理的缓存数量
+     */
+    private final int batchSize;
+
+    /**
+     * 定时清理标签集合中已经不存在的缓存，清理间隔小于等于0时为null
+     */
+    private final ScheduledThreadPoolExecutor scheduler;
+
+    /**
+     * 构建缓存标签
+     * @param stringRedisOperationService   执行lua脚本
+     * @param prefix                        缓存key的全局前缀，没有时传入空
+     * @param batchSize                     每次SSCAN以及每个管道处理的缓存数量
+     */
+    public CacheTags(StringRedisOperationService<Object> stringRedisOperationService, String prefix, int batchSize) {
+        this(stringRedisOperationService, prefix, batchSize, DEFAULT_CLEANUP_INTERVAL);
+    }
+
+    /**
+     * 构建缓存标签
+     * @param stringRedisOperationService   执行lua脚本
+     * @param prefix                        缓存key的全局前缀，没有时传入空
+     * @param batchSize                     每次SSCAN以及每个管道处理的缓存数量
+     * @param cleanupInterval               清理标签集合的间隔，小于等于0时不清理
+     */
+    public CacheTags(StringRedisOperationService<Object> stringRedisOperationService, String prefix, int batchSize, Duration cleanupInterval) {
+        this.stringRedisOperationService = stringRedisOperationService;
+        this.redisTemplate = stringRedisOperationService.getRedisTemplate();
+        this.keyPrefix = StringUtils.isEmpty(prefix) ? "" : prefix + CacheConstant.SEPARATOR;
+        this.batchSize = Math.max(batchSize, 1);
+
+        if (cleanupInterval != null && cleanupInterval.toMillis() > 0) {
+            this.scheduler = ThreadUtils.createScheduledExecutor(1);
+            this.scheduler.scheduleWithFixedDelay(this::cleanupQuietly, cleanupInterval.toMillis(), cleanupInterval.toMillis(), TimeUnit.MILLISECONDS);
+        } else {
+            this.scheduler = null;
+        }
+    }
+
+    /**
+     * 记录缓存所属的标签
+     * @param cacheName     缓存名称
+     * @param tags          标签
+     * @param expireSeconds 标签的有效时间，秒，只会延长不会缩短，小于等于0时不过期
+     */
+    public void add(String cacheName, Collection<String> tags, long expireSeconds) {
+        add(Collections.singletonList(cacheName), tags, expireSeconds);
+    }
+
+    /**
+     * 记录多个缓存所属的标签，每批缓存一次网络往返
+     * 每个标签集合执行一次只声明了该集合的lua脚本，标签索引直接在管道中写入
+     * @param cacheNames    缓存名称
+     * @param tags          标签
+     * @param expireSeconds 标签的有效时间，秒，只会延长不会缩短，小于等于0时不过期
+     */
+    public void add(Collection<String> cacheNames, Collection<String> tags, long expireSeconds) {
+        if (tags.isEmpty()) {
+            return;
+        }
+
+        byte[][] tagKeys = tags.stream().map(tag -> rawKey(tagKey(tag))).toArray(byte[][]::new);
+        String expire = String.valueOf(Math.max(expireSeconds, 0));
+        forEachBatch(cacheNames, batch -> redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String cacheName : batch) {
+                byte[] member = rawKey(cacheName);
+                for (byte[] tagKey : tagKeys) {
+                    stringRedisOperationService.executeLuaFromFile(connection, Long.class, LuaFiles.TAG_ADD, 1, tagKey, member, expire);
+                }
+
+                // 标签索引与缓存同时过期
+                byte[] index = suffix(member, CacheConstant.TAGS_SUFFIX);
+                connection.setCommands().sAdd(index, tagKeys);
+                if (expireSeconds > 0) {
+                    connection.keyCommands().expire(index, expireSeconds);
+                } else {
+                    connection.keyCommands().persist(index);
+                }
+            }
+            return null;
+        }));
+    }
+
+    /**
+     * 删除标签下的所有缓存
+     * 每个标签集合通过SSCAN分批读取，每批与按照名称删除相同，同时从当前标签集合中移除，集合为空时redis自动删除；
+     * 删除过程中新写入的缓存保留在标签集合中
+     * @param tags  标签
+     * @return  删除的缓存名称
+     */
+    public List<String> remove(Collection<String> tags) {
+        if (tags.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        // 同一个缓存可能属于多个标签
+        Set<String> cacheNames = new LinkedHashSet<>();
+        for (String tag : new LinkedHashSet<>(tags)) {
+            byte[] tagKey = rawKey(tagKey(tag));
+            scanMembers(tagKey, members -> {
+                delete(members.stream().map(member -> member.getBytes(StandardCharsets.UTF_8)).toList(), tagKey);
+                members.forEach(member -> cacheNames.add(member.startsWith(keyPrefix) ? member.substring(keyPrefix.length()) : member));
+            });
+        }
+
+        return new ArrayList<>(cacheNames);
+    }
+
+    /**
+     * 删除缓存及其元数据，同时从缓存所属的标签集合中移除
+     * 每批缓存两次网络往返：第一次通过管道读取缓存的标签索引，第二次通过管道移除标签集合中的缓存并删除缓存、元数据以及标签索引
+     * @param cacheNames    缓存名称，属于命名空间时为带有版本号的名称
+     */
+    public void delete(Collection<String> cacheNames) {
+        forEachBatch(cacheNames, batch -> delete(batch.stream().map(this::rawKey).toList(), null));
+    }
+
+    /**
+     * 清理所有标签集合中已经不存在的缓存
+     * 遍历所有标签集合，每个集合通过SSCAN分批检查，每批通过管道检查缓存是否存在，不会长时间阻塞redis
+     * @return  移除的缓存数量
+     */
+    public long cleanup() {
+        long removed = 0;
+        ScanOptions scanOptions = ScanOptions.scanOptions().match(keyPrefix + CacheConstant.TAG_PREFIX + "*").count(batchSize).build();
+        try (Cursor<String> cursor = redisTemplate.scan(scanOptions)) {
+            while (cursor.hasNext()) {
+                // scan返回的是redis中实际的key，已经带有前缀，不再经过key的序列化
+                removed += cleanup(cursor.next().getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        return removed;
+    }
+
+    /**
+     * 停止定时清理
+     */
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+
+    /**
+     * 清理一个标签集合中已经不存在的缓存
+     * @param tagKey    标签集合在redis中实际的key
+     * @return  移除的缓存数量
+     */
+    private long cleanup(byte[] tagKey) {
+        long[] removed = new long[1];
+        scanMembers(tagKey, members -> removed[0] += cleanup(tagKey, members));
+        return removed[0];
+    }
+
+    /**
+     * 从标签集合中移除一批已经不存在的缓存
+     * 移除的同时再次检查缓存是否存在，检查之后重新写入的缓存再加入标签集合
+     * @param tagKey    标签集合在redis中实际的key
+     * @param members   标签集合中的一批缓存key
+     * @return  移除的缓存数量
+     */
+    private long cleanup(byte[] tagKey, List<String> members) {
+        List<Object> exists = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            members.forEach(member -> connection.keyCommands().exists(member.getBytes(StandardCharsets.UTF_8)));
+            return null;
+        }, RedisSerializer.string());
+
+        List<byte[]> missing = new ArrayList<>();
+        for (int i = 0; i < members.size(); i++) {
+            if (!Boolean.TRUE.equals(exists.get(i))) {
+                missing.add(members.get(i).getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        if (missing.isEmpty()) {
+            return 0;
+        }
+
+        List<Object> result = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.setCommands().sRem(tagKey, missing.toArray(new byte[0][]));
+            missing.forEach(member -> connection.keyCommands().exists(member));
+            return null;
+        }, RedisSerializer.string());
+
+        // 第一个结果为SREM的数量
+        List<byte[]> rewritten = new ArrayList<>();
+        for (int i = 0; i < missing.size(); i++) {
+            if (Boolean.TRUE.equals(result.get(i + 1))) {
+                rewritten.add(missing.get(i));
+            }
+        }
+        if (!rewritten.isEmpty()) {
+            redisTemplate.execute((RedisCallback<Object>) connection -> connection.setCommands().sAdd(tagKey, rewritten.toArray(new byte[0][])));
+        }
+
+        return missing.size() - rewritten.size();
+    }
+
+    /**
+     * 删除一批缓存
+     * @param members   缓存在redis中实际的key
+     * @param tagKey    按照标签删除时的标签集合，缓存的标签索引已经过期时也从中移除，按照名称删除时为null
+     */
+    private void delete(List<byte[]> members, byte[] tagKey) {
+        List<Object> indexes = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            members.forEach(member -> connection.setCommands().sMembers(suffix(member, CacheConstant.TAGS_SUFFIX)));
+            return null;
+        }, RedisSerializer.string());
+
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (int i = 0; i < members.size(); i++) {
+                byte[] member = members.get(i);
+                if (indexes.get(i) instanceof Collection<?> tagKeys) {
+                    tagKeys.forEach(tagKey -> connection.setCommands().sRem(String.valueOf(tagKey).getBytes(StandardCharsets.UTF_8), member));
+                }
+                unlink(connection, member);
+            }
+
+            if (tagKey != null) {
+                connection.setCommands().sRem(tagKey, members.toArray(new byte[0][]));
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 通过SSCAN分批读取标签集合中的缓存key
+     * @param tagKey    标签集合在redis中实际的key
+     * @param consumer  处理一批缓存key，参数在处理后会被清空
+     */
+    private void scanMembers(byte[] tagKey, Consumer<List<String>> consumer) {
+        ScanOptions scanOptions = ScanOptions.scanOptions().count(batchSize).build();
+        List<String> members = new ArrayList<>(batchSize);
+        try (Cursor<byte[]> cursor = redisTemplate.executeWithStickyConnection(connection -> connection.setCommands().sScan(tagKey, scanOptions))) {
+            while (cursor.hasNext()) {
+                members.add(new String(cursor.next(), StandardCharsets.UTF_8));
+                if (members.size() >= batchSize) {
+                    consumer.accept(members);
+                    members.clear();
+                }
+            }
+        }
+
+        if (!members.isEmpty()) {
+            consumer.accept(members);
+        }
+    }
+
+    /**
+     * 分批处理
+     * @param items     待处理的数据
+     * @param consumer  处理一批数据
+     */
+    private <T> void forEachBatch(Collection<T> items, Consumer<List<T>> consumer) {
+        List<T> batch = new ArrayList<>(Math.min(items.size(), batchSize));
+        for (T item : items) {
+            batch.add(item);
+            if (batch.size() >= batchSize) {
+                consumer.accept(batch);
+                batch.clear();
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            consumer.accept(batch);
+        }
+    }
+
+    /**
+     * 删除缓存、元数据以及标签索引，分别删除，集群模式下不要求在同一个slot
+     * @param connection    管道连接
+     * @param member        缓存在redis中实际的key
+     */
+    private static void unlink(RedisConnection connection, byte[] member) {
+        connection.keyCommands().unlink(member);
+        connection.keyCommands().unlink(suffix(member, CacheConstant.META_SUFFIX));
+        connection.keyCommands().unlink(suffix(member, CacheConstant.TAGS_SUFFIX));
+    }
+
+    /**
+     * 序列化key，得到redis中实际的key
+     * @param key   key
+     * @return  redis中实际的key
+     */
+    @SuppressWarnings("unchecked")
+    private byte[] rawKey(String key) {
+        return ((RedisSerializer<Object>) redisTemplate.getKeySerializer()).serialize(key);
+    }
+
+    /**
+     * 在redis中实际的key后面拼接后缀
+     * @param rawKey    redis中实际的key
+     * @param suffix    后缀
+     * @return  拼接后的key
+     */
+    private static byte[] suffix(byte[] rawKey, String suffix) {
+        byte[] suffixBytes = suffix.getBytes(StandardCharsets.UTF_8);
+        byte[] result = Arrays.copyOf(rawKey, rawKey.length + suffixBytes.length);
+        System.arraycopy(suffixBytes, 0, result, rawKey.length, suffixBytes.length);
+        return result;
+    }
+
+    private void cleanupQuietly() {
+        try {
+            long removed = cleanup();
+            if (removed > 0 && logger.isDebugEnabled()) {
+                logger.debug("清理标签集合中已经不存在的缓存" + removed + "个");
+            }
+        } catch (Exception e) {
+            // 下次继续清理
+            logger.warn("清理缓存标签失败", e);
+        }
+    }
+
+    private static String tagKey(String tag) {
+        return CacheConstant.TAG_PREFIX + tag;
+    }
+}
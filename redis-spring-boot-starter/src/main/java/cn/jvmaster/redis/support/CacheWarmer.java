@@ -0,0 +1,429 @@
+package cn.jvmaster.redis.support;
+
+import cn.jvmaster.core.builder.ThreadExecutorBuilder;
+import cn.jvmaster.core.util.StringUtils;
+import cn.jvmaster.redis.annotation.CacheWarmup;
+import cn.jvmaster.redis.domain.WarmupProgress;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.context.expression.BeanFactoryResolver;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ObjectUtils;
+import org.springframework.util.ReflectionUtils;
+import reactor.core.publisher.Mono;
+
+/**
+ * 缓存预热
+ * 应用启动完成后在有界线程池中按照限速调用{@link CacheWarmup}方法，关键缓存优先预热；
+ * 存在关键缓存时发布REFUSING_TRAFFIC，关键缓存全部预热完成（或者等待超时）后再发布ACCEPTING_TRAFFIC，
+ * 期间readiness探针为OUT_OF_SERVICE，应用不会接收流量，避免流量打到冷缓存上
+ * @author AI
+ * @date 2025/6/17 9:50
+ * @version 1.0
+**/
+public class CacheWarmer {
+    private static final Log logger = LogFactory.getLog(CacheWarmer.class);
+
+    private static final ExpressionParser PARSER = new SpelExpressionParser();
+
+    /**
+     * 是否存在reactor，只有存在时才会等待方法返回的Mono
+     */
+    private static final boolean REACTOR_PRESENT = ClassUtils.isPresent("reactor.core.publisher.Mono", CacheWarmer.class.getClassLoader());
+
+    /**
+     * 进度日志的输出次数
+     */
+    private static final int PROGRESS_STEPS = 10;
+
+    /**
+     * 等待spring boot发布ACCEPTING_TRAFFIC的检查间隔，毫秒
+     */
+    private static final long READINESS_POLL_INTERVAL = 10;
+
+    /**
+     * 预热顺序，关键缓存在前，同类缓存按照order排序
+     */
+    private static final Comparator<WarmupMethod> ORDER = Comparator
+        .comparing((WarmupMethod item) -> !item.warmup().critical())
+        .thenComparingInt(item -> item.warmup().order());
+
+    /**
+     * 启动时收集到的预热方法
+     */
+    private final List<WarmupMethod> methods;
+
+    private final ApplicationContext applicationContext;
+
+    /**
+     * 同时执行的预热调用数
+     */
+    private final int poolSize;
+
+    /**
+     * 两次预热调用的最小间隔，纳秒，0表示不限速
+     */
+    private final long interval;
+
+    /**
+     * 等待关键缓存预热的最长时间
+     */
+    private final Duration readinessTimeout;
+
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * 关键缓存预热完成（或者等待超时）
+     */
+    private final CompletableFuture<Void> criticalReady = new CompletableFuture<>();
+
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final AtomicInteger completed = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private volatile int total;
+    private volatile boolean resolved;
+
+    private volatile Thread dispatcher;
+
+    /**
+     * 修改readiness状态时加锁，保证REFUSING_TRAFFIC之后一定会发布ACCEPTING_TRAFFIC
+     */
+    private final Object readinessLock = new Object();
+
+    /**
+     * 是否已经发布REFUSING_TRAFFIC
+     */
+    private boolean refused;
+
+    /**
+     * 构建缓存预热
+     * @param methods               预热方法，启动过程中会继续添加
+     * @param applicationContext    spring容器
+     * @param poolSize              同时执行的预热调用数
+     * @param rate                  每秒最多的预热调用数，小于等于0时不限速
+     * @param readinessTimeout      等待关键缓存预热的最长时间
+     */
+    public CacheWarmer(List<WarmupMethod> methods, ApplicationContext applicationContext, int poolSize, int rate, Duration readinessTimeout) {
+        this.methods = methods;
+        this.applicationContext = applicationContext;
+        this.poolSize = poolSize;
+        this.interval = rate > 0 ? TimeUnit.SECONDS.toNanos(1) / rate : 0L;
+        this.readinessTimeout = readinessTimeout;
+        this.executor = ThreadExecutorBuilder.builder()
+            .setCorePoolSize(poolSize)
+            .setMaxPoolSize(poolSize)
+            .setWorkQueue(new LinkedBlockingQueue<>(poolSize))
+            .build();
+    }
+
+    /**
+     * 应用启动完成后开始预热
+     * @param event 启动完成事件
+     */
+    @EventListener
+    public void onApplicationReady(ApplicationReadyEvent event) {
+        if (event.getApplicationContext() != applicationContext || !started.compareAndSet(false, true)) {
+            return;
+        }
+
+        if (methods.isEmpty()) {
+            resolved = true;
+            criticalReady.complete(null);
+            return;
+        }
+
+        criticalReady.completeOnTimeout(null, readinessTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        criticalReady.whenComplete((result, e) -> acceptTraffic());
+        Thread thread = new Thread(this::warmup, "cache-warmup");
+        thread.setDaemon(true);
+        dispatcher = thread;
+        thread.start();
+    }
+
+    /**
+     * 获取预热进度
+     * @return  WarmupProgress
+     */
+    public WarmupProgress getProgress() {
+        int done = completed.get();
+        return new WarmupProgress(total, done, failed.get(), criticalReady.isDone(), resolved && done >= total);
+    }
+
+    /**
+     * 停止预热
+     */
+    public void shutdown() {
+        Thread thread = dispatcher;
+        if (thread != null) {
+            thread.interrupt();
+        }
+        executor.shutdownNow();
+    }
+
+    /**
+     * 计算预热参数，按照限速逐个提交预热调用
+     */
+    private void warmup() {
+        boolean critical = methods.stream().anyMatch(item -> item.warmup().critical());
+        if (critical) {
+            try {
+                refuseTraffic();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.info("缓存预热已停止");
+                return;
+            }
+        }
+
+        List<WarmupTask> tasks = resolveTasks();
+        int criticalCount = (int) tasks.stream().filter(WarmupTask::critical).count();
+        AtomicInteger criticalRemaining = new AtomicInteger(criticalCount);
+        total = tasks.size();
+        resolved = true;
+        if (criticalCount == 0) {
+            criticalReady.complete(null);
+        }
+        logger.info("开始预热缓存，共" + tasks.size() + "次调用，其中关键缓存" + criticalCount + "次");
+
+        int step = Math.max(tasks.size() / PROGRESS_STEPS, 1);
+        Semaphore permits = new Semaphore(poolSize);
+        long next = System.nanoTime();
+        try {
+            for (WarmupTask task : tasks) {
+                if (interval > 0) {
+                    long wait = next - System.nanoTime();
+                    if (wait > 0) {
+                        TimeUnit.NANOSECONDS.sleep(wait);
+                    }
+                    next = Math.max(next, System.nanoTime()) + interval;
+                }
+
+                permits.acquire();
+                executor.execute(() -> {
+                    try {
+                        invoke(task);
+                    } finally {
+                        permits.release();
+                        complete(task, criticalRemaining, step);
+                    }
+                });
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.info("缓存预热已停止，完成" + completed.get() + "/" + total + "次调用");
+        } catch (RejectedExecutionException e) {
+            // 应用关闭时线程池已经停止
+            logger.info("缓存预热已停止，完成" + completed.get() + "/" + total + "次调用");
+        }
+    }
+
+    /**
+     * 关键缓存预热完成前拒绝流量
+     * spring boot在ApplicationReadyEvent之后才发布ACCEPTING_TRAFFIC，需要等待其发布后再修改，否则会被覆盖；
+     * 关键缓存预热完成（或者等待超时）时停止等待
+     * @throws InterruptedException 应用关闭
+     */
+    private void refuseTraffic() throws InterruptedException {
+        ApplicationAvailability availability = applicationContext.getBeanProvider(ApplicationAvailability.class).getIfAvailable();
+        while (availability != null && availability.getReadinessState() != ReadinessState.ACCEPTING_TRAFFIC && !criticalReady.isDone()) {
+            TimeUnit.MILLISECONDS.sleep(READINESS_POLL_INTERVAL);
+        }
+
+        synchronized (readinessLock) {
+            if (!criticalReady.isDone()) {
+                logger.info("关键缓存预热完成前拒绝流量");
+                AvailabilityChangeEvent.publish(applicationContext, ReadinessState.REFUSING_TRAFFIC);
+                refused = true;
+            }
+        }
+    }
+
+    /**
+     * 关键缓存预热完成（或者等待超时）后恢复接收流量
+     */
+    private void acceptTraffic() {
+        synchronized (readinessLock) {
+            if (refused) {
+                refused = false;
+                AvailabilityChangeEvent.publish(applicationContext, ReadinessState.ACCEPTING_TRAFFIC);
+            }
+        }
+    }
+
+    /**
+     * 记录一次预热调用完成
+     * @param task              预热调用
+     * @param criticalRemaining 剩余的关键缓存调用数
+     * @param step              每完成多少次调用输出一次进度
+     */
+    private void complete(WarmupTask task, AtomicInteger criticalRemaining, int step) {
+        if (task.critical() && criticalRemaining.decrementAndGet() == 0) {
+            logger.info("关键缓存预热完成");
+            criticalReady.complete(null);
+        }
+
+        int done = completed.incrementAndGet();
+        if (done == total) {
+            logger.info("缓存预热完成，共" + total + "次调用，失败" + failed.get() + "次");
+        } else if (done % step == 0) {
+            logger.info("缓存预热进度: " + done + "/" + total + "，失败" + failed.get() + "次");
+        }
+    }
+
+    /**
+     * 执行一次预热调用，方法返回CompletionStage、Mono时等待其完成，Mono只有订阅后才会读取、写入缓存
+     * @param task  预热调用
+     */
+    private void invoke(WarmupTask task) {
+        try {
+            Object result = task.method().invoke(task.bean(), task.args());
+            if (result instanceof CompletionStage<?> stage) {
+                stage.toCompletableFuture().join();
+            } else if (REACTOR_PRESENT && ReactorAdapter.isMono(result)) {
+                ReactorAdapter.block(result);
+            }
+        } catch (InvocationTargetException e) {
+            failed.incrementAndGet();
+            logger.warn("缓存预热失败: " + task.method(), e.getTargetException());
+        } catch (Exception e) {
+            failed.incrementAndGet();
+            logger.warn("缓存预热失败: " + task.method(), e);
+        }
+    }
+
+    /**
+     * 计算所有预热方法的参数，生成预热调用
+     * @return  按照预热顺序排列的预热调用
+     */
+    private List<WarmupTask> resolveTasks() {
+        List<WarmupMethod> sorted = new ArrayList<>(methods);
+        sorted.sort(ORDER);
+
+        List<WarmupTask> tasks = new ArrayList<>();
+        for (WarmupMethod item : sorted) {
+            try {
+                // 从容器中获取最终的bean，保证调用经过缓存切面
+                Object bean = applicationContext.getBean(item.beanName());
+                Method method = AopUtils.selectInvocableMethod(item.method(), bean.getClass());
+                ReflectionUtils.makeAccessible(method);
+                for (Object[] args : resolveArguments(item, bean)) {
+                    tasks.add(new WarmupTask(bean, method, args, item.warmup().critical()));
+                }
+            } catch (Exception e) {
+                logger.warn("缓存预热参数计算失败: " + item.method(), e);
+            }
+        }
+
+        return tasks;
+    }
+
+    /**
+     * 计算预热方法的参数
+     * @param item  预热方法
+     * @param bean  方法所在的bean
+     * @return  每次调用的参数
+     */
+    private List<Object[]> resolveArguments(WarmupMethod item, Object bean) {
+        int count = item.method().getParameterCount();
+        if (count == 0) {
+            return Collections.singletonList(new Object[0]);
+        }
+
+        String arguments = item.warmup().arguments();
+        if (StringUtils.isEmpty(arguments)) {
+            logger.warn("缓存预热方法有参数但是没有配置arguments，已忽略: " + item.method());
+            return List.of();
+        }
+
+        StandardEvaluationContext context = new StandardEvaluationContext(bean);
+        context.setBeanResolver(new BeanFactoryResolver(applicationContext));
+        Object value = PARSER.parseExpression(arguments).getValue(context);
+
+        List<Object[]> result = new ArrayList<>();
+        for (Object element : toList(value)) {
+            result.add(count == 1 ? new Object[]{element} : toList(element).toArray());
+        }
+
+        return result;
+    }
+
+    /**
+     * 集合、数组转换为list，其他对象作为单个元素
+     * @param value 对象
+     * @return  list
+     */
+    private static List<?> toList(Object value) {
+        if (value == null) {
+            return List.of();
+        }
+
+        if (value instanceof Collection<?> collection) {
+            return new ArrayList<>(collection);
+        }
+
+        if (value.getClass().isArray()) {
+            return Arrays.asList(ObjectUtils.toObjectArray(value));
+        }
+
+        return List.of(value);
+    }
+
+    /**
+     * 预热方法
+     * @param beanName  方法所在的bean名称
+     * @param method    原始类中的方法
+     * @param warmup    预热注解
+     */
+    public record WarmupMethod(String beanName, Method method, CacheWarmup warmup) {}
+
+    /**
+     * 一次预热调用
+     * @param bean      调用的bean
+     * @param method    bean上可以调用的方法
+     * @param args      调用参数
+     * @param critical  是否是关键缓存
+     */
+    private record WarmupTask(Object bean, Method method, Object[] args, boolean critical) {}
+
+    /**
+     * Mono相关操作，只有存在reactor时才会加载该类
+     */
+    private static final class ReactorAdapter {
+
+        private static boolean isMono(Object value) {
+            return value instanceof Mono<?>;
+        }
+
+        private static void block(Object mono) {
+            ((Mono<?>) mono).block();
+        }
+    }
+}
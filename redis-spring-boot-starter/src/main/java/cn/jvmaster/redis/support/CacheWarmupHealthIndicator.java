@@ -0,0 +1,33 @@
+package cn.jvmaster.redis.support;
+
+import cn.jvmaster.redis.domain.WarmupProgress;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+
+/**
+ * 缓存预热健康检查
+ * 只输出预热进度，状态始终为UP；关键缓存预热完成前拒绝流量由{@link CacheWarmer}发布的readiness状态实现
+ * @author AI
+ * @date 2025/6/22 14:30
+ * @version 1.0
+**/
+public class CacheWarmupHealthIndicator implements HealthIndicator {
+
+    private final CacheWarmer cacheWarmer;
+
+    public CacheWarmupHealthIndicator(CacheWarmer cacheWarmer) {
+        this.cacheWarmer = cacheWarmer;
+    }
+
+    @Override
+    public Health health() {
+        WarmupProgress progress = cacheWarmer.getProgress();
+        return Health.up()
+            .withDetail("criticalReady", progress.criticalReady())
+            .withDetail("total", progress.total())
+            .withDetail("completed", progress.completed())
+            .withDetail("failed", progress.failed())
+            .withDetail("finished", progress.finished())
+            .build();
+    }
+}
@@ -0,0 +1,251 @@
+package cn.jvmaster.redis.support;
+
+import cn.jvmaster.core.util.ThreadUtils;
+import cn.jvmaster.redis.CacheContext;
+import cn.jvmaster.redis.generator.CacheProcessor;
+import cn.jvmaster.redis.service.StringRedisOperationService;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * 缓存延迟写入
+ * {@link cn.jvmaster.redis.constant.Mode#WRITE_BEHIND}模式的缓存先保存在内存中，同一个key只保留最新的值，
+ * 定时或者数量达到批次大小时在一个管道中批量写入redis；
+ * 待写入的数量达到上限时由调用线程同步写入一个批次，限制内存占用，剩余的数据仍由定时任务写入；
+ * 写入失败的数据不重试，丢弃数量记录在{@link CacheStatistics}中；应用关闭时写入所有数据
+ * @author AI
+ * @date 2025/6/18 14:20
+ * @version 1.0
+**/
+public class CacheWriteBehind {
+    private static final Log logger = LogFactory.getLog(CacheWriteBehind.class);
+
+    private final StringRedisOperationService<Object> stringRedisOperationService;
+
+    /**
+     * 写入后通知其他节点删除本地缓存，未启用本地缓存时为null
+     */
+    private final CacheInvalidationBroadcaster cacheInvalidationBroadcaster;
+
+    private final CacheStatistics cacheStatistics;
+
+    /**
+     * 每批次写入的数量
+     */
+    private final int batchSize;
+
+    /**
+     * 最多等待写入的数量
+     */
+    private final int maxPending;
+
+    /**
+     * 缓存key - 等待写入的数据，按照第一次写入的顺序排列
+     */
+    private final Map<String, PendingWrite> pending = new LinkedHashMap<>();
+
+    /**
+     * 写入锁，保证同一个key的旧值不会覆盖新值
+     */
+    private final Object flushLock = new Object();
+
+    /**
+     * 是否已经提交了批量写入任务
+     */
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    private final ScheduledThreadPoolExecutor scheduler;
+
+    private volatile boolean closed;
+
+    /**
+     * 构建缓存延迟写入
+     * @param stringRedisOperationService   redis管道操作
+     * @param cacheInvalidationBroadcaster  本地缓存失效通知，未启用本地缓存时传入null
+     * @param cacheStatistics               缓存统计信息
+     * @param batchSize                     每批次写入的数量
+     * @param maxPending                    最多等待写入的数量
+     * @param flushInterval                 定时写入的间隔
+     */
+    public CacheWriteBehind(StringRedisOperationService<Object> stringRedisOperationService,
+                            CacheInvalidationBroadcaster cacheInvalidationBroadcaster,
+                            CacheStatistics cacheStatistics,
+                            int batchSize,
+                            int maxPending,
+                            Duration flushInterval) {
+        this.stringRedisOperationService = stringRedisOperationService;
+        this.cacheInvalidationBroadcaster = cacheInvalidationBroadcaster;
+        this.cacheStatistics = cacheStatistics;
+        this.batchSize = Math.max(batchSize, 1);
+        this.maxPending = Math.max(maxPending, this.batchSize);
+        this.scheduler = ThreadUtils.createScheduledExecutor(1);
+        this.scheduler.scheduleWithFixedDelay(this::flushQuietly, flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 添加待写入的缓存，同一个key已经在等待写入时替换为新值
+     * @param cacheName         缓存名称
+     * @param cacheProcessor    缓存处理器
+     * @param cacheContext      缓存上下文
+     * @param value             缓存数据
+     */
+    public void submit(String cacheName, CacheProcessor cacheProcessor, CacheContext cacheContext, Object value) {
+        PendingWrite write = new PendingWrite(cacheName, cacheStatistics.current().getName(), cacheProcessor, cacheContext, value);
+        if (closed) {
+            // 已经关闭，直接写入
+            write(List.of(write));
+            return;
+        }
+
+        int size;
+        synchronized (pending) {
+            pending.put(cacheName, write);
+            size = pending.size();
+        }
+
+        if (size >= maxPending) {
+            // 写入速度跟不上，由调用线程写入一个批次，剩余的交给定时任务
+            writeBatch();
+        }
+
+        if (size >= batchSize && flushRequested.compareAndSet(false, true)) {
+            try {
+                scheduler.execute(this::flushQuietly);
+            } catch (RejectedExecutionException e) {
+                flushRequested.set(false);
+            }
+        }
+    }
+
+    /**
+     * 写入所有等待中的缓存
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            flushRequested.set(false);
+            List<PendingWrite> batch;
+            while (!(batch = drain()).isEmpty()) {
+                write(batch);
+            }
+        }
+    }
+
+    /**
+     * 当前等待写入的数量
+     * @return  数量
+     */
+    public int getPendingCount() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+
+    /**
+     * 停止定时写入，并写入所有等待中的缓存
+     */
+    public void shutdown() {
+        closed = true;
+        scheduler.shutdown();
+        flush();
+    }
+
+    /**
+     * 写入一个批次，与{@link #flush()}使用同一个写入锁，保证同一个key的旧值不会覆盖新值
+     */
+    private void writeBatch() {
+        synchronized (flushLock) {
+            List<PendingWrite> batch = drain();
+            if (!batch.isEmpty()) {
+                write(batch);
+            }
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            logger.warn("缓存延迟写入失败", e);
+        }
+    }
+
+    /**
+     * 取出一个批次的待写入缓存
+     * @return  待写入缓存，没有时返回空集合
+     */
+    private List<PendingWrite> drain() {
+        synchronized (pending) {
+            List<PendingWrite> batch = new ArrayList<>(Math.min(pending.size(), batchSize));
+            Iterator<PendingWrite> iterator = pending.values().iterator();
+            while (iterator.hasNext() && batch.size() < batchSize) {
+                batch.add(iterator.next());
+                iterator.remove();
+            }
+
+            return batch;
+        }
+    }
+
+    /**
+     * 在一个管道中写入一批缓存，不支持管道写入的缓存处理器单独写入
+     * @param batch 待写入缓存
+     */
+    @SuppressWarnings("unchecked")
+    private void write(List<PendingWrite> batch) {
+        List<PendingWrite> saveLater = new ArrayList<>();
+        try {
+            stringRedisOperationService.executePipelined(operations -> batch.forEach(item -> {
+                String previousName = cacheStatistics.bind(item.statisticName());
+                try {
+                    if (!item.cacheProcessor().write(operations, item.cacheName(), item.value(), item.cacheContext())) {
+                        saveLater.add(item);
+                    }
+                } finally {
+                    cacheStatistics.restore(previousName);
+                }
+            }));
+
+            for (PendingWrite item : saveLater) {
+                String previousName = cacheStatistics.bind(item.statisticName());
+                try {
+                    item.cacheProcessor().save(item.cacheName(), item.value(), item.cacheContext());
+                } finally {
+                    cacheStatistics.restore(previousName);
+                }
+            }
+        } catch (Exception e) {
+            // 不重试，避免redis不可用时内存持续增长
+            logger.warn("缓存延迟写入失败，丢弃" + batch.size() + "条数据", e);
+            batch.stream()
+                .collect(Collectors.groupingBy(PendingWrite::statisticName, Collectors.counting()))
+                .forEach((statisticName, count) -> cacheStatistics.get(statisticName).recordWriteDrop(count));
+            return;
+        }
+
+        if (cacheInvalidationBroadcaster != null) {
+            // 缓存已经更新，通知所有节点删除旧的本地缓存
+            cacheInvalidationBroadcaster.invalidate(batch.stream().map(PendingWrite::cacheName).toList(), false);
+        }
+    }
+
+    /**
+     * 等待写入的缓存
+     * @param cacheName         缓存名称
+     * @param statisticName     统计名称
+     * @param cacheProcessor    缓存处理器
+     * @param cacheContext      缓存上下文
+     * @param value             缓存数据
+     */
+    private record PendingWrite(String cacheName, String statisticName, CacheProcessor cacheProcessor, CacheContext cacheContext, Object value) {}
+}
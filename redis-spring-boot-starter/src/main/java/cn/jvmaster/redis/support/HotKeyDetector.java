@@ -0,0 +1,253 @@
+package cn.jvmaster.redis.support;
+
+import cn.jvmaster.core.util.HashUtils;
+import cn.jvmaster.core.util.ThreadUtils;
+import cn.jvmaster.redis.domain.HotKey;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * 热点key检测
+ * 按照采样率统计缓存key的访问次数，次数保存在count-min sketch中，内存占用固定，与key的数量无关；
+ * 每个统计窗口结束时由定时任务将所有计数减半，计数稳定在 2 * 每秒访问次数 * 窗口秒数，据此估算每秒访问次数。
+ * 估算值超过阈值的key成为热点key，由{@link cn.jvmaster.redis.generator.CacheProcessorManager}自动保存到本地缓存，
+ * 估算值降到阈值一半以下时不再是热点key
+ * @author AI
+ * @date 2025/6/18 9:40
+ * @version 1.0
+**/
+public class HotKeyDetector {
+    private static final Log logger = LogFactory.getLog(HotKeyDetector.class);
+
+    /**
+     * sketch的行数，每行使用不同的hash
+     */
+    private static final int DEPTH = 4;
+
+    private final boolean enabled;
+
+    /**
+     * 热点key的每秒访问次数阈值
+     */
+    private final long threshold;
+
+    /**
+     * 采样率，(0, 1]
+     */
+    private final double sampleRate;
+
+    /**
+     * 每次采样增加的计数，抵消采样带来的缩小
+     */
+    private final int weight;
+
+    /**
+     * 计数换算为每秒访问次数的除数：2 * 窗口秒数
+     */
+    private final double divisor;
+
+    /**
+     * 最多同时存在的热点key数量
+     */
+    private final int maxHotKeys;
+
+    /**
+     * 热点key在本地缓存的有效时间
+     */
+    private final Duration expire;
+
+    /**
+     * 每行的宽度，2的幂
+     */
+    private final int width;
+
+    private final AtomicIntegerArray counters;
+
+    /**
+     * 每个统计窗口执行一次计数减半，未启用时为null
+     */
+    private final ScheduledThreadPoolExecutor scheduler;
+
+    /**
+     * 当前的热点key
+     */
+    private final Map<String, HotKey> hotKeys = new ConcurrentHashMap<>();
+
+    /**
+     * 构建热点key检测
+     * @param enabled       是否启用
+     * @param threshold     热点key的每秒访问次数阈值
+     * @param sampleRate    采样率，(0, 1]
+     * @param window        统计窗口
+     * @param width         sketch每行的宽度，会调整为2的幂
+     * @param maxHotKeys    最多同时存在的热点key数量
+     * @param expire        热点key在本地缓存的有效时间
+     */
+    public HotKeyDetector(boolean enabled, long threshold, double sampleRate, Duration window, int width, int maxHotKeys, Duration expire) {
+        if (sampleRate <= 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("采样率必须在(0, 1]之间");
+        }
+
+        this.enabled = enabled && threshold > 0;
+        this.threshold = threshold;
+        this.sampleRate = sampleRate;
+        this.weight = (int) Math.round(1 / sampleRate);
+        this.divisor = 2D * window.toNanos() / Duration.ofSeconds(1).toNanos();
+        this.maxHotKeys = maxHotKeys;
+        this.expire = expire;
+        this.width = Integer.highestOneBit(Math.max(width, 16) - 1) << 1;
+        this.counters = new AtomicIntegerArray(this.enabled ? DEPTH * this.width : 0);
+
+        if (this.enabled) {
+            long interval = Math.max(window.toMillis(), 1);
+            this.scheduler = ThreadUtils.createScheduledExecutor(1);
+            this.scheduler.scheduleWithFixedDelay(this::decayQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        } else {
+            this.scheduler = null;
+        }
+    }
+
+    /**
+     * 记录一次访问
+     * @param key       缓存key
+     * @param statistic 缓存所属方法的统计信息，成为热点key时记录
+     * @return  是否是热点key
+     */
+    public boolean record(String key, CacheStatistics.Statistic statistic) {
+        if (!enabled) {
+            return false;
+        }
+
+        if (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return hotKeys.containsKey(key);
+        }
+
+        int[] indexes = indexes(key);
+        int count = Integer.MAX_VALUE;
+        for (int index : indexes) {
+            count = Math.min(count, counters.addAndGet(index, weight));
+        }
+
+        long qps = (long) (count / divisor);
+        if (qps < threshold || hotKeys.containsKey(key)) {
+            return hotKeys.containsKey(key);
+        }
+
+        if (hotKeys.size() >= maxHotKeys) {
+            return false;
+        }
+
+        hotKeys.computeIfAbsent(key, hotKey -> {
+            statistic.recordHotKey();
+            logger.info("发现热点key: " + hotKey + "，每秒访问约" + qps + "次");
+            return new HotKey(hotKey, statistic.getName(), qps, System.currentTimeMillis());
+        });
+
+        return true;
+    }
+
+    /**
+     * 判断是否是热点key
+     * @param key   缓存key
+     * @return  boolean
+     */
+    public boolean isHot(String key) {
+        return hotKeys.containsKey(key);
+    }
+
+    /**
+     * 当前的热点key，按照访问次数倒序
+     * @return  热点key
+     */
+    public List<HotKey> getHotKeys() {
+        List<HotKey> result = new ArrayList<>(hotKeys.values());
+        result.sort(Comparator.comparingLong(HotKey::qps).reversed());
+
+        return Collections.unmodifiableList(result);
+    }
+
+    public Duration getExpire() {
+        return expire;
+    }
+
+    /**
+     * 停止计数减半的定时任务
+     */
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+
+    private void decayQuietly() {
+        try {
+            decay();
+        } catch (Exception e) {
+            logger.warn("热点key计数减半失败", e);
+        }
+    }
+
+    /**
+     * 统计窗口结束时所有计数减半，同时更新热点key的访问次数，访问次数降到阈值一半以下时移除
+     * 由定时任务执行，不占用读取缓存的线程，减半期间其他线程的计数可能丢失，不影响估算
+     */
+    void decay() {
+        for (int i = 0; i < counters.length(); i++) {
+            int value = counters.get(i);
+            if (value != 0) {
+                counters.set(i, value >>> 1);
+            }
+        }
+
+        for (HotKey hotKey : hotKeys.values()) {
+            long qps = estimate(hotKey.key());
+            if (qps < threshold / 2) {
+                hotKeys.remove(hotKey.key());
+                logger.info("热点key已冷却: " + hotKey.key());
+            } else {
+                hotKeys.replace(hotKey.key(), new HotKey(hotKey.key(), hotKey.name(), qps, hotKey.since()));
+            }
+        }
+    }
+
+    /**
+     * 估算key的每秒访问次数
+     * @param key   缓存key
+     * @return  每秒访问次数
+     */
+    private long estimate(String key) {
+        int count = Integer.MAX_VALUE;
+        for (int index : indexes(key)) {
+            count = Math.min(count, counters.get(index));
+        }
+
+        return (long) (count / divisor);
+    }
+
+    /**
+     * 计算key在每行中的位置，由128位hash的两部分组合出每行的hash
+     * @param key   缓存key
+     * @return  每行的计数下标
+     */
+    private int[] indexes(String key) {
+        long[] hash = HashUtils.murmur3(key.getBytes(StandardCharsets.UTF_8));
+        int[] indexes = new int[DEPTH];
+        for (int i = 0; i < DEPTH; i++) {
+            indexes[i] = i * width + (int) ((hash[0] + i * hash[1]) & (width - 1));
+        }
+
+        return indexes;
+    }
+}
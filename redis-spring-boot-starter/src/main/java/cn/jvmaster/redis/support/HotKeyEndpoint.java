@@ -0,0 +1,32 @@
+package cn.jvmaster.redis.support;
+
+import cn.jvmaster.redis.domain.HotKey;
+import java.util.List;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+/**
+ * 热点key端点
+ * 通过/actuator/redishotkeys查看当前的热点key，以及每个热点key估算的每秒访问次数
+ * @author AI
+ * @date 2025/6/18 10:30
+ * @version 1.0
+**/
+@Endpoint(id = "redishotkeys")
+public class HotKeyEndpoint {
+
+    private final HotKeyDetector hotKeyDetector;
+
+    public HotKeyEndpoint(HotKeyDetector hotKeyDetector) {
+        this.hotKeyDetector = hotKeyDetector;
+    }
+
+    /**
+     * 当前的热点key
+     * @return  按照访问次数倒序的热点key
+     */
+    @ReadOperation
+    public List<HotKey> hotKeys() {
+        return hotKeyDetector.getHotKeys();
+    }
+}
@@ -0,0 +1,151 @@
+package cn.jvmaster.redis.support;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 分布式锁前的本地锁
+ * 同一个锁的key在当前节点只有一个线程竞争redis锁，其他线程在本地公平排队；
+ * 持有redis锁的线程执行完成时如果还有本地线程在排队，不释放redis锁，直接交给下一个线程（只需要一次续期），
+ * 连续交接达到上限后释放redis锁，让其他节点也有机会获取。没有线程使用的key会被移除，内存占用与正在加锁的key数量相关
+ * @author AI
+ * @date 2025/6/21 9:40
+ * @version 1.0
+**/
+public class LocalLocks {
+
+    private final boolean enabled;
+
+    /**
+     * redis锁在本地连续交接的最大次数
+     */
+    private final int maxHandoffs;
+
+    /**
+     * 锁的key - 本地锁
+     */
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * 构建本地锁
+     * @param enabled       是否启用
+     * @param maxHandoffs   redis锁在本地连续交接的最大次数，小于等于0时不交接
+     */
+    public LocalLocks(boolean enabled, int maxHandoffs) {
+        this.enabled = enabled;
+        this.maxHandoffs = maxHandoffs;
+    }
+
+    /**
+     * 获取key对应的本地锁，使用完成后需要调用{@link #release(String, Entry)}
+     * @param lockKey   锁的key
+     * @return  本地锁
+     */
+    public Entry acquire(String lockKey) {
+        return entries.compute(lockKey, (key, entry) -> {
+            Entry current = entry == null ? new Entry() : entry;
+            current.references++;
+            return current;
+        });
+    }
+
+    /**
+     * 不再使用本地锁，最后一个使用者移除本地锁
+     * @param lockKey   锁的key
+     * @param entry     {@link #acquire(String)}的返回值
+     * @return  等待交接的线程都已经离开时，返回未被接收的redis锁值，调用者需要释放该redis锁；否则返回null
+     */
+    public String release(String lockKey, Entry entry) {
+        String[] pending = new String[1];
+        entries.computeIfPresent(lockKey, (key, current) -> {
+            if (current != entry || --current.references > 0) {
+                return current;
+            }
+
+            pending[0] = current.handoff;
+            current.handoff = null;
+            return null;
+        });
+
+        return pending[0];
+    }
+
+    /**
+     * 当前正在使用的key数量
+     * @return  数量
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 一个key的本地锁
+     */
+    public final class Entry {
+
+        /**
+         * 公平锁，按照排队的顺序交接
+         */
+        private final ReentrantLock lock = new ReentrantLock(true);
+
+        /**
+         * 使用者数量，在map的compute中修改
+         */
+        private int references;
+
+        /**
+         * 交接给下一个线程的redis锁值
+         */
+        private volatile String handoff;
+
+        /**
+         * 连续交接的次数，持有本地锁时修改
+         */
+        private int handoffs;
+
+        /**
+         * 获取本地锁
+         * @param timeout   最长等待时间，纳秒，小于等于0时不等待
+         * @return  是否获取成功
+         */
+        public boolean tryLock(long timeout) throws InterruptedException {
+            return timeout <= 0 ? lock.tryLock() : lock.tryLock(timeout, TimeUnit.NANOSECONDS);
+        }
+
+        public void unlock() {
+            lock.unlock();
+        }
+
+        /**
+         * 取出上一个线程交接的redis锁值，需要持有本地锁
+         * @return  锁值，没有交接时返回null
+         */
+        public String takeHandoff() {
+            String value = handoff;
+            handoff = null;
+            return value;
+        }
+
+        /**
+         * 把redis锁交给下一个排队的线程，需要在释放本地锁之前调用
+         * @param value redis锁值
+         * @return  是否交接成功，没有线程排队或者达到交接上限时返回false，调用者需要释放redis锁
+         */
+        public boolean handoff(String value) {
+            if (!lock.hasQueuedThreads() || handoffs >= maxHandoffs) {
+                handoffs = 0;
+                return false;
+            }
+
+            handoffs++;
+            handoff = value;
+            return true;
+        }
+    }
+}
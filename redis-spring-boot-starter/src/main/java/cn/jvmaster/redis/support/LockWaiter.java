@@ -0,0 +1,120 @@
+package cn.jvmaster.redis.support;
+
+import cn.jvmaster.core.util.StringUtils;
+import cn.jvmaster.redis.constant.CacheConstant;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+
+/**
+ * 分布式锁等待
+ * 解锁时在频道中发布锁的key，等待同一个锁的线程收到通知后立即重试，不需要固定等待；
+ * 锁因为过期被释放时没有通知，因此每次等待的时间不超过指数退避的时间（加入随机抖动，避免多个节点同时重试）
+ * @author AI
+ * @date 2025/6/19 14:10
+ * @version 1.0
+**/
+public class LockWaiter implements MessageListener {
+
+    /**
+     * 锁释放通知的频道
+     */
+    private final byte[] channel;
+
+    /**
+     * redis中key的前缀，通知中的key去掉前缀后才是锁的key
+     */
+    private final String keyPrefix;
+
+    /**
+     * 第一次重试前的等待时间，纳秒
+     */
+    private final long minBackoff;
+
+    /**
+     * 每次重试前的最大等待时间，纳秒
+     */
+    private final long maxBackoff;
+
+    /**
+     * 锁的key - 等待中的线程
+     */
+    private final Map<String, Set<CompletableFuture<Void>>> waiters = new ConcurrentHashMap<>();
+
+    /**
+     * 构建分布式锁等待
+     * @param channel       锁释放通知的频道
+     * @param prefix        redis中key的全局前缀，没有时传入空
+     * @param minBackoff    第一次重试前的等待时间
+     * @param maxBackoff    每次重试前的最大等待时间
+     */
+    public LockWaiter(String channel, String prefix, Duration minBackoff, Duration maxBackoff) {
+        this.channel = channel.getBytes(StandardCharsets.UTF_8);
+        this.keyPrefix = StringUtils.isEmpty(prefix) ? "" : prefix + CacheConstant.SEPARATOR;
+        this.minBackoff = Math.max(minBackoff.toNanos(), 1);
+        this.maxBackoff = Math.max(maxBackoff.toNanos(), this.minBackoff);
+    }
+
+    /**
+     * 开始等待锁释放，需要在尝试加锁之前调用，保证加锁失败后的释放通知不会丢失
+     * @param lockKey   锁的key
+     * @return  锁释放时完成，不再等待时需要调用{@link #cancel(String, CompletableFuture)}
+     */
+    public CompletableFuture<Void> await(String lockKey) {
+        CompletableFuture<Void> released = new CompletableFuture<>();
+        waiters.computeIfAbsent(lockKey, key -> ConcurrentHashMap.newKeySet()).add(released);
+
+        return released;
+    }
+
+    /**
+     * 不再等待锁释放
+     * @param lockKey   锁的key
+     * @param released  {@link #await(String)}的返回值
+     */
+    public void cancel(String lockKey, CompletableFuture<Void> released) {
+        waiters.computeIfPresent(lockKey, (key, futures) -> {
+            futures.remove(released);
+            return futures.isEmpty() ? null : futures;
+        });
+    }
+
+    /**
+     * 唤醒等待锁的线程
+     * @param lockKey   锁的key
+     */
+    public void release(String lockKey) {
+        Set<CompletableFuture<Void>> futures = waiters.remove(lockKey);
+        if (futures != null) {
+            futures.forEach(future -> future.complete(null));
+        }
+    }
+
+    /**
+     * 第attempt次重试前的等待时间，在指数退避时间的一半到全部之间随机
+     * @param attempt   已经重试的次数，从0开始
+     * @return  等待时间，纳秒
+     */
+    public long backoff(int attempt) {
+        long backoff = attempt >= Long.numberOfLeadingZeros(minBackoff) - 1 ? maxBackoff : Math.min(maxBackoff, minBackoff << attempt);
+        long half = backoff >>> 1;
+
+        return half + ThreadLocalRandom.current().nextLong(backoff - half + 1);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String key = new String(message.getBody(), StandardCharsets.UTF_8);
+        release(key.startsWith(keyPrefix) ? key.substring(keyPrefix.length()) : key);
+    }
+
+    public byte[] getChannel() {
+        return channel;
+    }
+}
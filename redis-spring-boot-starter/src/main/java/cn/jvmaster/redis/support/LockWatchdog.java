@@ -0,0 +1,182 @@
+package cn.jvmaster.redis.support;
+
+import cn.jvmaster.core.util.ThreadUtils;
+import cn.jvmaster.redis.constant.LuaFiles;
+import cn.jvmaster.redis.service.StringRedisOperationService;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * 分布式锁看门狗
+ * 看门狗模式的锁只设置较短的有效时间，持有期间由一个共享的定时任务每1/3有效时间续期一次；
+ * 当前节点持有的所有锁在一次lua调用中批量续期（超过批次大小时分多次），与持有锁的数量无关只有一个定时任务。
+ * 节点宕机后不再续期，锁最多经过一个有效时间就会释放
+ * @author AI
+ * @date 2025/6/20 10:15
+ * @version 1.0
+**/
+public class LockWatchdog {
+    private static final Log logger = LogFactory.getLog(LockWatchdog.class);
+
+    private final StringRedisOperationService<Object> stringRedisOperationService;
+
+    /**
+     * 锁的有效时间
+     */
+    private final Duration leaseTime;
+
+    /**
+     * 每次续期的最大锁数量
+     */
+    private final int batchSize;
+
+    /**
+     * 当前节点持有的需要续期的锁，读锁可能被多个线程同时持有
+     */
+    private final Set<Lease> locks = ConcurrentHashMap.newKeySet();
+
+    private final ScheduledThreadPoolExecutor scheduler;
+
+    /**
+     * 构建分布式锁看门狗
+     * @param stringRedisOperationService   执行lua脚本
+     * @param leaseTime                     锁的有效时间，每1/3有效时间续期一次
+     * @param batchSize                     每次续期的最大锁数量
+     */
+    public LockWatchdog(StringRedisOperationService<Object> stringRedisOperationService, Duration leaseTime, int batchSize) {
+        this.stringRedisOperationService = stringRedisOperationService;
+        this.leaseTime = leaseTime;
+        this.batchSize = Math.max(batchSize, 1);
+
+        long interval = Math.max(leaseTime.toMillis() / 3, 1);
+        this.scheduler = ThreadUtils.createScheduledExecutor(1);
+        this.scheduler.scheduleWithFixedDelay(this::renewQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 开始续期排他锁
+     * @param lockKey   锁的key
+     * @param value     锁值
+     */
+    public void watch(String lockKey, Object value) {
+        locks.add(new Lease(lockKey, value, false));
+    }
+
+    /**
+     * 停止续期排他锁，需要在解锁前调用
+     * @param lockKey   锁的key
+     * @param value     锁值
+     */
+    public void unwatch(String lockKey, Object value) {
+        locks.remove(new Lease(lockKey, value, false));
+    }
+
+    /**
+     * 开始续期读写锁
+     * @param lockKey   锁的key
+     * @param field     持有者在锁中的字段
+     */
+    public void watchField(String lockKey, String field) {
+        locks.add(new Lease(lockKey, field, true));
+    }
+
+    /**
+     * 停止续期读写锁
+     * @param lockKey   锁的key
+     * @param field     持有者在锁中的字段
+     */
+    public void unwatchField(String lockKey, String field) {
+        locks.remove(new Lease(lockKey, field, true));
+    }
+
+    /**
+     * 当前需要续期的锁数量
+     * @return  数量
+     */
+    public int getWatchingCount() {
+        return locks.size();
+    }
+
+    public Duration getLeaseTime() {
+        return leaseTime;
+    }
+
+    public void shutdown() {
+        scheduler.shutdown();
+    }
+
+    private void renewQuietly() {
+        try {
+            renew();
+        } catch (Exception e) {
+            // 下次继续续期，在有效时间内恢复时锁不会丢失
+            logger.warn("分布式锁续期失败", e);
+        }
+    }
+
+    /**
+     * 批量续期当前持有的所有锁，续期失败的锁已经过期或者被其他节点持有，不再续期
+     */
+    private void renew() {
+        if (locks.isEmpty()) {
+            return;
+        }
+
+        byte[] lease = String.valueOf(leaseTime.toMillis()).getBytes(StandardCharsets.UTF_8);
+        List<Lease> batch = new ArrayList<>(Math.min(locks.size(), batchSize));
+        for (Lease item : locks) {
+            batch.add(item);
+            if (batch.size() >= batchSize) {
+                renew(batch, lease);
+                batch.clear();
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            renew(batch, lease);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void renew(List<Lease> batch, byte[] lease) {
+        // 锁的key在前，有效时间和锁值在后；排他锁的值与加锁时一样使用值的序列化方式，读写锁的字段为字符串
+        RedisSerializer<Object> valueSerializer = (RedisSerializer<Object>) stringRedisOperationService.getRedisTemplate().getValueSerializer();
+        Object[] args = new Object[batch.size() * 2 + 1];
+        args[batch.size()] = lease;
+        for (int i = 0; i < batch.size(); i++) {
+            Lease item = batch.get(i);
+            args[i] = item.lockKey();
+            args[batch.size() + 1 + i] = item.field()
+                ? String.valueOf(item.value()).getBytes(StandardCharsets.UTF_8)
+                : valueSerializer.serialize(item.value());
+        }
+
+        List<Long> result = stringRedisOperationService.executeLuaFromFile(List.class, LuaFiles.LOCK_RENEW, batch.size(), args);
+        if (result == null) {
+            return;
+        }
+
+        for (int i = 0; i < batch.size() && i < result.size(); i++) {
+            if (result.get(i) == 0 && locks.remove(batch.get(i))) {
+                logger.warn("分布式锁已经失效，停止续期: " + batch.get(i).lockKey());
+            }
+        }
+    }
+
+    /**
+     * 需要续期的锁
+     * @param lockKey   锁的key
+     * @param value     排他锁的锁值，或者读写锁持有者的字段
+     * @param field     是否是读写锁
+     */
+    private record Lease(String lockKey, Object value, boolean field) {}
+}
@@ -0,0 +1,114 @@
+package cn.jvmaster.redis.support;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于Micrometer的缓存指标记录
+ * 所有指标以统计名称（tag: name）和缓存处理器类型（tag: type）区分：
+ * <ul>
+ *     <li>redis.cache.gets：缓存读取次数，tag result为hit或miss</li>
+ *     <li>redis.cache.read：从redis读取缓存的耗时</li>
+ *     <li>redis.cache.load：执行方法加载数据的耗时</li>
+ *     <li>redis.cache.payload：写入缓存的数据大小，字节</li>
+ *     <li>redis.cache.evictions：删除的缓存数量</li>
+ *     <li>redis.cache.hotkeys：成为热点key的缓存数量</li>
+ *     <li>redis.cache.write.dropped：延迟写入失败被丢弃的缓存数量</li>
+ * </ul>
+ * @author AI
+ * @date 2025/6/13 10:40
+ * @version 1.0
+**/
+public class MicrometerCacheMetricsRecorder implements CacheMetricsRecorder {
+
+    private static final String METRIC_PREFIX = "redis.cache.";
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * 统计名称 + 类型 - 指标，避免每次记录都重新查找指标
+     */
+    private final Map<String, Meters> metersMap = new ConcurrentHashMap<>();
+
+    public MicrometerCacheMetricsRecorder(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void recordHit(String name, String type, long count) {
+        getMeters(name, type).hit.increment(count);
+    }
+
+    @Override
+    public void recordMiss(String name, String type, long count) {
+        getMeters(name, type).miss.increment(count);
+    }
+
+    @Override
+    public void recordRead(String name, String type, long nanos) {
+        getMeters(name, type).read.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordLoad(String name, String type, long nanos) {
+        getMeters(name, type).load.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordPayload(String name, String type, long bytes) {
+        getMeters(name, type).payload.record(bytes);
+    }
+
+    @Override
+    public void recordEviction(String name, String type, long count) {
+        getMeters(name, type).eviction.increment(count);
+    }
+
+    @Override
+    public void recordHotKey(String name, String type, long count) {
+        getMeters(name, type).hotKey.increment(count);
+    }
+
+    @Override
+    public void recordWriteDrop(String name, String type, long count) {
+        getMeters(name, type).writeDrop.increment(count);
+    }
+
+    /**
+     * 获取统计名称对应的指标，不存在时注册
+     * @param name  统计名称
+     * @param type  缓存处理器类型
+     * @return  指标
+     */
+    private Meters getMeters(String name, String type) {
+        return metersMap.computeIfAbsent(name + "|" + type, key -> new Meters(
+            Counter.builder(METRIC_PREFIX + "gets").tag("name", name).tag("type", type).tag("result", "hit")
+                .description("缓存命中次数").register(meterRegistry),
+            Counter.builder(METRIC_PREFIX + "gets").tag("name", name).tag("type", type).tag("result", "miss")
+                .description("缓存未命中次数").register(meterRegistry),
+            Timer.builder(METRIC_PREFIX + "read").tag("name", name).tag("type", type)
+                .description("从redis读取缓存的耗时").publishPercentileHistogram().register(meterRegistry),
+            Timer.builder(METRIC_PREFIX + "load").tag("name", name).tag("type", type)
+                .description("执行方法加载数据的耗时").publishPercentileHistogram().register(meterRegistry),
+            DistributionSummary.builder(METRIC_PREFIX + "payload").tag("name", name).tag("type", type).baseUnit("bytes")
+                .description("写入缓存的数据大小").publishPercentileHistogram().register(meterRegistry),
+            Counter.builder(METRIC_PREFIX + "evictions").tag("name", name).tag("type", type)
+                .description("删除的缓存数量").register(meterRegistry),
+            Counter.builder(METRIC_PREFIX + "hotkeys").tag("name", name).tag("type", type)
+                .description("成为热点key的缓存数量").register(meterRegistry),
+            Counter.builder(METRIC_PREFIX + "write.dropped").tag("name", name).tag("type", type)
+                .description("延迟写入失败被丢弃的缓存数量").register(meterRegistry)
+        ));
+    }
+
+    /**
+     * 单个统计名称的所有指标
+     */
+    private record Meters(Counter hit, Counter miss, Timer read, Timer load, DistributionSummary payload, Counter eviction, Counter hotKey,
+                          Counter writeDrop) {}
+}
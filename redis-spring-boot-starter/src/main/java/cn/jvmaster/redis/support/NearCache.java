@@ -0,0 +1,232 @@
+package cn.jvmaster.redis.support;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * 本地缓存（一级缓存）
+ * 位于redis之前，按照最近最少使用淘汰超出容量的数据，同时每条数据都有各自的有效时间。
+ * 数据按照key的hash分到多个分段中，每个分段单独加锁、单独淘汰，不同分段的读写互不阻塞，
+ * 因此淘汰是近似的最近最少使用，总条数最多比最大条数多出分段数量-1条。
+ * <p>
+ * 加载数据前通过{@link #stamp()}获取时间戳，保存时带上该时间戳，加载期间key被删除过时不再保存，
+ * 避免删除之前开始的加载在删除之后写回旧数据
+ * @author AI
+ * @date 2025/6/3 10:12
+ * @version 1.0
+**/
+public class NearCache {
+
+    /**
+     * 最大分段数量
+     */
+    private static final int MAX_SEGMENTS = 64;
+
+    /**
+     * 最大缓存条数
+     */
+    private final int maximumSize;
+
+    /**
+     * 缓存分段，数量为2的幂
+     */
+    private final Segment[] segments;
+
+    /**
+     * 删除操作的序号，每次删除递增
+     */
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * 最后一次批量删除（按照条件删除或者清空）的序号
+     */
+    private volatile long clearedAt;
+
+    public NearCache(int maximumSize) {
+        this.maximumSize = Math.max(maximumSize, 1);
+
+        // 分段数量不超过最大条数，保证每个分段至少能保存一条数据
+        int segmentCount = Math.min(Integer.highestOneBit(this.maximumSize), MAX_SEGMENTS);
+        int segmentSize = (this.maximumSize + segmentCount - 1) / segmentCount;
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(segmentSize);
+        }
+    }
+
+    /**
+     * 获取缓存数据
+     * @param key   缓存key
+     * @return  缓存数据，不存在或者已过期时返回null
+     */
+    public Object get(String key) {
+        Segment segment = segmentFor(key);
+        synchronized (segment) {
+            Entry entry = segment.entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+
+            if (entry.expireAt < System.currentTimeMillis()) {
+                // 已过期
+                segment.entries.remove(key);
+                return null;
+            }
+
+            return entry.value;
+        }
+    }
+
+    /**
+     * 获取当前时间戳，在读取redis或者执行方法之前调用，保存时传入{@link #put(String, Object, Duration, long)}
+     * @return  时间戳
+     */
+    public long stamp() {
+        return sequence.get();
+    }
+
+    /**
+     * 添加缓存数据
+     * @param key       缓存key
+     * @param value     缓存数据
+     * @param expire    有效时间
+     */
+    public void put(String key, Object value, Duration expire) {
+        put(key, value, expire, Long.MAX_VALUE);
+    }
+
+    /**
+     * 添加缓存数据，获取时间戳之后key被删除过时不保存
+     * @param key       缓存key
+     * @param value     缓存数据
+     * @param expire    有效时间
+     * @param stamp     读取数据之前通过{@link #stamp()}获取的时间戳
+     * @return  是否保存
+     */
+    public boolean put(String key, Object value, Duration expire, long stamp) {
+        if (value == null || expire == null || expire.isNegative() || expire.isZero()) {
+            return false;
+        }
+
+        Segment segment = segmentFor(key);
+        synchronized (segment) {
+            // 删除与保存在同一个分段锁中执行，检查通过后删除一定在保存之后
+            if (stamp < clearedAt || stamp < segment.invalidatedAt(key)) {
+                return false;
+            }
+
+            segment.entries.put(key, new Entry(value, System.currentTimeMillis() + expire.toMillis()));
+            return true;
+        }
+    }
+
+    /**
+     * 删除缓存数据
+     * @param key   缓存key
+     */
+    public void remove(String key) {
+        Segment segment = segmentFor(key);
+        synchronized (segment) {
+            segment.invalidate(key, sequence.incrementAndGet());
+            segment.entries.remove(key);
+        }
+    }
+
+    /**
+     * 删除满足条件的缓存数据
+     * @param predicate 删除条件
+     */
+    public void removeIf(Predicate<String> predicate) {
+        clearedAt = sequence.incrementAndGet();
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.entries.keySet().removeIf(predicate);
+            }
+        }
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void clear() {
+        clearedAt = sequence.incrementAndGet();
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.entries.clear();
+            }
+        }
+    }
+
+    /**
+     * 当前缓存条数
+     * @return  缓存条数
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.entries.size();
+            }
+        }
+
+        return size;
+    }
+
+    private Segment segmentFor(String key) {
+        int hash = key.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (segments.length - 1)];
+    }
+
+    /**
+     * 缓存分段
+     */
+    private static final class Segment {
+
+        /**
+         * 记录删除序号的槽位数量，不同的key可能共用一个槽位，只会多拒绝一些保存
+         */
+        private static final int SLOTS = 64;
+
+        /**
+         * 缓存数据，按照访问顺序排列
+         */
+        private final LinkedHashMap<String, Entry> entries;
+
+        /**
+         * 每个槽位最后一次删除的序号
+         */
+        private final long[] invalidations = new long[SLOTS];
+
+        private Segment(int maximumSize) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                    return size() > maximumSize;
+                }
+            };
+        }
+
+        private long invalidatedAt(String key) {
+            return invalidations[slot(key)];
+        }
+
+        private void invalidate(String key, long sequence) {
+            invalidations[slot(key)] = sequence;
+        }
+
+        private static int slot(String key) {
+            // 高位参与计算，低位已经用于选择分段
+            return (key.hashCode() >>> 16) & (SLOTS - 1);
+        }
+    }
+
+    /**
+     * 缓存数据
+     * @param value     缓存内容
+     * @param expireAt  过期时间点，毫秒
+     */
+    private record Entry(Object value, long expireAt) {}
+}
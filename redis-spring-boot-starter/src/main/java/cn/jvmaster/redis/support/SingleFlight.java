@@ -0,0 +1,85 @@
+package cn.jvmaster.redis.support;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 相同key的并发加载合并
+ * 同一时刻同一个key只有一个线程执行加载逻辑，其他线程等待该线程的加载结果，防止缓存击穿
+ * @author AI
+ * @date 2025/6/4 9:05
+ * @version 1.0
+**/
+public class SingleFlight {
+
+    /**
+     * 正在进行中的加载
+     */
+    private final Map<String, Call> calls = new ConcurrentHashMap<>();
+
+    /**
+     * 执行加载
+     * @param key           加载的key
+     * @param loader        加载逻辑
+     * @param statistic     统计信息，记录等待其他线程加载的次数和时长
+     * @return  加载结果
+     */
+    public Object execute(String key, Supplier<Object> loader, CacheStatistics.Statistic statistic) {
+        Call call = new Call(Thread.currentThread());
+        Call exist = calls.putIfAbsent(key, call);
+
+        if (exist != null) {
+            if (exist.owner == Thread.currentThread()) {
+                // 加载过程中重入了同一个key，直接执行，避免自己等待自己
+                return loader.get();
+            }
+
+            // 已经有线程在加载，等待其结果
+            long start = System.nanoTime();
+            try {
+                return exist.future.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof Error error) {
+                    throw error;
+                }
+                throw e.getCause() instanceof RuntimeException runtimeException ? runtimeException : e;
+            } finally {
+                statistic.recordWait(System.nanoTime() - start);
+            }
+        }
+
+        try {
+            Object result = loader.get();
+            call.future.complete(result);
+
+            return result;
+        } catch (RuntimeException | Error e) {
+            call.future.completeExceptionally(e);
+            throw e;
+        } finally {
+            calls.remove(key, call);
+        }
+    }
+
+    /**
+     * 进行中的加载
+     */
+    private static class Call {
+        /**
+         * 执行加载的线程
+         */
+        final Thread owner;
+
+        /**
+         * 加载结果
+         */
+        final CompletableFuture<Object> future = new CompletableFuture<>();
+
+        Call(Thread owner) {
+            this.owner = owner;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+-- 分批写入完成后，临时key原子替换正式key并设置有效期
+local tempKey = KEYS[1]
+local key = KEYS[2]
+local expire = tonumber(ARGV[1])
+
+redis.call('rename', tempKey, key)
+if expire > 0 then
+    redis.call('expire', key, expire)
+else
+    redis.call('persist', key)
+end
+
+return 1
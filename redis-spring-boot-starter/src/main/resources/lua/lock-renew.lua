@@ -0,0 +1,28 @@
+-- 分布式锁续期，锁仍然属于持有者时才延长有效时间
+-- 排他锁比较锁的值，读写锁判断持有者的字段是否存在
+-- KEYS: 锁的key
+-- ARGV[1]: 有效时间（毫秒），ARGV[i + 1]: KEYS[i]对应的锁值或者持有者字段
+-- 返回每个锁是否续期成功
+local lease = ARGV[1]
+local result = {}
+
+for i, lockKey in ipairs(KEYS) do
+    local owned
+    if redis.call('type', lockKey)['ok'] == 'hash' then
+        owned = redis.call('hexists', lockKey, ARGV[i + 1]) == 1
+    else
+        owned = redis.call('get', lockKey) == ARGV[i + 1]
+    end
+
+    if owned then
+        -- 读锁的多个读者共用一个有效时间，只延长不缩短
+        if redis.call('pttl', lockKey) < tonumber(lease) then
+            redis.call('pexpire', lockKey, lease)
+        end
+        result[i] = 1
+    else
+        result[i] = 0
+    end
+end
+
+return result
@@ -0,0 +1,39 @@
+-- 可重入读写锁加锁
+-- 锁为hash：mode为当前模式（read、write），持有者:r、持有者:w 分别为持有者读锁、写锁的重入次数
+-- KEYS[1]: 锁的key
+-- ARGV[1]: 持有者，ARGV[2]: read或者write，ARGV[3]: 有效时间（毫秒）
+-- 返回加锁后的重入次数，加锁失败返回0
+local lockKey = KEYS[1]
+local owner = ARGV[1]
+local lockMode = ARGV[2]
+local lease = tonumber(ARGV[3])
+local mode = redis.call('hget', lockKey, 'mode')
+
+local acquired
+if not mode then
+    acquired = true
+elseif mode == 'write' then
+    -- 写锁只能由持有者重入，持有写锁时可以再获取读锁
+    acquired = redis.call('hexists', lockKey, owner .. ':w') == 1
+else
+    -- 读锁之间共享，持有读锁时不能升级为写锁
+    acquired = lockMode == 'read'
+end
+
+if not acquired then
+    return 0
+end
+
+if not mode then
+    redis.call('hset', lockKey, 'mode', lockMode)
+end
+
+local field = owner .. (lockMode == 'read' and ':r' or ':w')
+local count = redis.call('hincrby', lockKey, field, 1)
+
+-- 多个读者共用一个有效时间，只延长不缩短
+if redis.call('pttl', lockKey) < lease then
+    redis.call('pexpire', lockKey, lease)
+end
+
+return count
@@ -0,0 +1,33 @@
+-- 可重入读写锁解锁
+-- KEYS[1]: 锁的key
+-- ARGV[1]: 持有者，ARGV[2]: read或者write，ARGV[3]: 锁释放通知的频道，可以不传
+-- 返回持有者剩余的重入次数，没有持有锁时返回-1
+local lockKey = KEYS[1]
+local field = ARGV[1] .. (ARGV[2] == 'read' and ':r' or ':w')
+
+if redis.call('hexists', lockKey, field) == 0 then
+    return -1
+end
+
+local count = redis.call('hincrby', lockKey, field, -1)
+if count > 0 then
+    return count
+end
+
+redis.call('hdel', lockKey, field)
+local released = false
+if redis.call('hlen', lockKey) <= 1 then
+    -- 只剩下mode，没有任何持有者
+    redis.call('del', lockKey)
+    released = true
+elseif ARGV[2] == 'write' then
+    -- 写锁只有一个持有者，剩下的是该持有者的读锁，降级为读锁后其他读者可以进入
+    redis.call('hset', lockKey, 'mode', 'read')
+    released = true
+end
+
+if released and ARGV[3] then
+    redis.call('publish', ARGV[3], lockKey)
+end
+
+return 0
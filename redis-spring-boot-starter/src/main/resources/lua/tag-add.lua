@@ -0,0 +1,22 @@
+-- 记录缓存所属的标签，标签集合的有效时间不小于其中缓存的有效时间
+-- 只操作声明的标签集合，集群模式下标签集合与缓存不需要在同一个slot
+-- KEYS[1]: 标签集合
+-- ARGV[1]: 缓存在redis中实际的key，ARGV[2]: 标签集合的有效时间（秒），小于等于0时不过期
+local tagKey = KEYS[1]
+local expire = tonumber(ARGV[2])
+local exists = redis.call('exists', tagKey)
+redis.call('sadd', tagKey, ARGV[1])
+
+if expire <= 0 then
+    redis.call('persist', tagKey)
+elseif exists == 0 then
+    redis.call('expire', tagKey, expire)
+else
+    -- ttl为-1时集合中有不过期的缓存，保持不过期
+    local ttl = redis.call('ttl', tagKey)
+    if ttl >= 0 and ttl < expire then
+        redis.call('expire', tagKey, expire)
+    end
+end
+
+return 1
@@ -1,10 +1,15 @@
 -- 分布式锁解锁操作
 -- 只有锁的值和解锁传的值相同，才能正确解锁
+-- ARGV[2]存在时，解锁成功后向该频道发布锁的key，通知等待的线程
 local lockKey = KEYS[1]
 local lockVal = ARGV[1]
 
 if redis.call('get', lockKey) == lockVal then
-    return redis.call('del', lockKey)
+    redis.call('del', lockKey)
+    if ARGV[2] then
+        redis.call('publish', ARGV[2], lockKey)
+    end
+    return 1
 else
     return 0
-end
\ No newline at end of file
+end
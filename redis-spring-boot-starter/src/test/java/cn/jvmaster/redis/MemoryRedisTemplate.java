@@ -0,0 +1,478 @@
+package cn.jvmaster.redis;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisKeyCommands;
+import org.springframework.data.redis.connection.RedisListCommands;
+import org.springframework.data.redis.connection.RedisScriptingCommands;
+import org.springframework.data.redis.connection.RedisSetCommands;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ListOperations;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * 内存中的RedisTemplate
+ * 测试使用，数据保存在内存中，并记录网络往返次数，管道中的所有命令只算一次
+ * @author AI
+ * @date 2025/6/24 9:10
+ * @version 1.0
+**/
+public class MemoryRedisTemplate extends RedisTemplate<String, Object> {
+
+    /**
+     * 支持的lua脚本
+     */
+    private static final String TAG_ADD_SCRIPT = script("lua/tag-add.lua");
+
+    private static final String BULK_SWAP_SCRIPT = script("lua/bulk-swap.lua");
+
+    /**
+     * 字符串类型的数据
+     */
+    private final Map<String, Object> values = new ConcurrentHashMap<>();
+
+    /**
+     * list类型的数据
+     */
+    private final Map<String, List<Object>> lists = new ConcurrentHashMap<>();
+
+    /**
+     * set类型的数据，成员为字符串
+     */
+    private final Map<String, Set<String>> sets = new ConcurrentHashMap<>();
+
+    /**
+     * key - 有效时间，秒
+     */
+    private final Map<String, Long> expires = new ConcurrentHashMap<>();
+
+    private final AtomicInteger roundTrips = new AtomicInteger();
+
+    public MemoryRedisTemplate() {
+        setKeySerializer(RedisSerializer.string());
+        setValueSerializer(RedisSerializer.java());
+    }
+
+    @Override
+    public ValueOperations<String, Object> opsForValue() {
+        return proxy(ValueOperations.class, (proxy, method, args) -> {
+            roundTrips.incrementAndGet();
+            return value(method.getName(), args);
+        });
+    }
+
+    @Override
+    public ListOperations<String, Object> opsForList() {
+        return proxy(ListOperations.class, (proxy, method, args) -> {
+            roundTrips.incrementAndGet();
+            return list(method.getName(), args);
+        });
+    }
+
+    @Override
+    public List<Object> executePipelined(SessionCallback<?> session) {
+        return executePipelined(session, null);
+    }
+
+    @Override
+    public List<Object> executePipelined(SessionCallback<?> session, RedisSerializer<?> resultSerializer) {
+        roundTrips.incrementAndGet();
+        List<Object> results = new ArrayList<>();
+        ValueOperations<String, Object> valueOperations = proxy(ValueOperations.class, (proxy, method, args) -> {
+            Object result = value(method.getName(), args);
+            if (!method.getName().startsWith("set")) {
+                // 与lettuce一致，SET等状态回复不在管道结果中
+                results.add(result);
+            }
+            return null;
+        });
+
+        ListOperations<String, Object> listOperations = proxy(ListOperations.class, (proxy, method, args) -> {
+            results.add(list(method.getName(), args));
+            return null;
+        });
+
+        RedisOperations<String, Object> operations = proxy(RedisOperations.class, (proxy, method, args) -> switch (method.getName()) {
+            case "opsForValue" -> valueOperations;
+            case "opsForList" -> listOperations;
+            default -> throw new UnsupportedOperationException(method.getName());
+        });
+        session.execute(operations);
+
+        return results;
+    }
+
+    @Override
+    public List<Object> executePipelined(RedisCallback<?> action, RedisSerializer<?> resultSerializer) {
+        roundTrips.incrementAndGet();
+        List<Object> results = new ArrayList<>();
+        action.doInRedis(connection(results));
+
+        List<Object> deserialized = new ArrayList<>(results.size());
+        results.forEach(result -> deserialized.add(deserialize(result, resultSerializer)));
+        return deserialized;
+    }
+
+    @Override
+    public <T> T execute(RedisCallback<T> action) {
+        roundTrips.incrementAndGet();
+        return action.doInRedis(connection(null));
+    }
+
+    @Override
+    public <T extends Closeable> T executeWithStickyConnection(RedisCallback<T> callback) {
+        roundTrips.incrementAndGet();
+        return callback.doInRedis(connection(null));
+    }
+
+    @Override
+    public Long delete(Collection<String> keys) {
+        roundTrips.incrementAndGet();
+        return keys.stream().filter(this::remove).count();
+    }
+
+    /**
+     * 创建redis连接，命令直接操作内存中的数据
+     * @param pipelineResults   管道中命令的结果，不在管道中时为null，命令直接返回结果
+     * @return  redis连接
+     */
+    private RedisConnection connection(List<Object> pipelineResults) {
+        InvocationHandler commandHandler = (proxy, method, args) -> {
+            Object result = command(method.getName(), args);
+            if (pipelineResults == null) {
+                return result;
+            }
+
+            pipelineResults.add(result);
+            return null;
+        };
+        RedisKeyCommands keyCommands = proxy(RedisKeyCommands.class, commandHandler);
+        RedisSetCommands setCommands = proxy(RedisSetCommands.class, commandHandler);
+        RedisScriptingCommands scriptingCommands = proxy(RedisScriptingCommands.class, commandHandler);
+        RedisListCommands listCommands = proxy(RedisListCommands.class, commandHandler);
+
+        return proxy(RedisConnection.class, (proxy, method, args) -> switch (method.getName()) {
+            case "keyCommands" -> keyCommands;
+            case "setCommands" -> setCommands;
+            case "scriptingCommands" -> scriptingCommands;
+            case "listCommands" -> listCommands;
+            case "scan" -> commandHandler.invoke(proxy, method, args);
+            case "close" -> null;
+            default -> throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    /**
+     * 执行连接上的命令
+     * @param command   命令名称，RedisConnection中的方法名
+     * @param args      命令参数
+     * @return  命令结果
+     */
+    private Object command(String command, Object[] args) {
+        switch (command) {
+            case "exists" -> {
+                return exists(string(args[0]));
+            }
+            case "unlink", "del" -> {
+                return Arrays.stream((byte[][]) args[0]).map(MemoryRedisTemplate::string).filter(this::remove).count();
+            }
+            case "expire" -> {
+                String key = string(args[0]);
+                if (!exists(key)) {
+                    return false;
+                }
+                expires.put(key, (Long) args[1]);
+                return true;
+            }
+            case "persist" -> {
+                return expires.remove(string(args[0])) != null;
+            }
+            case "scan" -> {
+                Pattern pattern = glob(((ScanOptions) args[0]).getPattern());
+                return cursor(Stream.of(values.keySet(), lists.keySet(), sets.keySet())
+                    .flatMap(Collection::stream)
+                    .filter(key -> pattern.matcher(key).matches())
+                    .toList());
+            }
+            case "sAdd" -> {
+                Set<String> set = sets.computeIfAbsent(string(args[0]), key -> new LinkedHashSet<>());
+                return Arrays.stream((byte[][]) args[1]).map(MemoryRedisTemplate::string).filter(set::add).count();
+            }
+            case "sRem" -> {
+                String key = string(args[0]);
+                Set<String> set = sets.getOrDefault(key, new LinkedHashSet<>());
+                long count = Arrays.stream((byte[][]) args[1]).map(MemoryRedisTemplate::string).filter(set::remove).count();
+                if (set.isEmpty()) {
+                    remove(key);
+                }
+                return count;
+            }
+            case "sMembers" -> {
+                Set<byte[]> members = new LinkedHashSet<>();
+                sets.getOrDefault(string(args[0]), Set.of()).forEach(member -> members.add(bytes(member)));
+                return members;
+            }
+            case "sScan" -> {
+                return cursor(new ArrayList<>(sets.getOrDefault(string(args[0]), Set.of())));
+            }
+            case "rPush" -> {
+                List<Object> list = lists.computeIfAbsent(string(args[0]), key -> new ArrayList<>());
+                Arrays.stream((byte[][]) args[1]).forEach(value -> list.add(getValueSerializer().deserialize(value)));
+                return (long) list.size();
+            }
+            case "eval" -> {
+                String script = string(args[0]);
+                if (TAG_ADD_SCRIPT.equals(script)) {
+                    return tagAdd((byte[][]) args[3]);
+                }
+                if (BULK_SWAP_SCRIPT.equals(script)) {
+                    return bulkSwap((byte[][]) args[3]);
+                }
+                throw new UnsupportedOperationException(script);
+            }
+            default -> throw new UnsupportedOperationException(command);
+        }
+    }
+
+    /**
+     * 按照lua/bulk-swap.lua的逻辑，临时key替换正式key并设置有效期
+     * @param keysAndArgs   临时key、正式key、有效时间
+     * @return  1
+     */
+    private long bulkSwap(byte[][] keysAndArgs) {
+        String tempKey = string(keysAndArgs[0]);
+        String key = string(keysAndArgs[1]);
+        long expire = Long.parseLong(string(keysAndArgs[2]));
+        remove(key);
+        lists.put(key, lists.remove(tempKey));
+        expires.remove(tempKey);
+        if (expire > 0) {
+            expires.put(key, expire);
+        }
+        return 1L;
+    }
+
+    /**
+     * 按照lua/tag-add.lua的逻辑记录缓存所属的标签
+     * @param keysAndArgs   标签集合、缓存key、有效时间
+     * @return  1
+     */
+    private long tagAdd(byte[][] keysAndArgs) {
+        String tagKey = string(keysAndArgs[0]);
+        long expire = Long.parseLong(string(keysAndArgs[2]));
+        boolean exists = sets.containsKey(tagKey);
+        sets.computeIfAbsent(tagKey, key -> new LinkedHashSet<>()).add(string(keysAndArgs[1]));
+
+        if (expire <= 0) {
+            expires.remove(tagKey);
+        } else if (!exists) {
+            expires.put(tagKey, expire);
+        } else {
+            // 没有有效时间时集合中有不过期的缓存，保持不过期
+            Long ttl = expires.get(tagKey);
+            if (ttl != null && ttl < expire) {
+                expires.put(tagKey, expire);
+            }
+        }
+        return 1L;
+    }
+
+    private boolean exists(String key) {
+        return values.containsKey(key) || lists.containsKey(key) || sets.containsKey(key);
+    }
+
+    private boolean remove(String key) {
+        expires.remove(key);
+        boolean removed = values.remove(key) != null;
+        removed |= lists.remove(key) != null;
+        removed |= sets.remove(key) != null;
+        return removed;
+    }
+
+    /**
+     * 遍历key或者set成员的游标，遍历的是创建时的快照
+     * @param items key或者set成员
+     * @return  游标
+     */
+    private static Cursor<byte[]> cursor(List<String> items) {
+        Iterator<String> iterator = items.iterator();
+        boolean[] closed = new boolean[1];
+        return proxy(Cursor.class, (proxy, method, args) -> switch (method.getName()) {
+            case "hasNext" -> iterator.hasNext();
+            case "next" -> bytes(iterator.next());
+            case "close" -> {
+                closed[0] = true;
+                yield null;
+            }
+            case "isClosed" -> closed[0];
+            default -> throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    /**
+     * 与管道一样，使用结果序列化器反序列化命令结果
+     */
+    private static Object deserialize(Object result, RedisSerializer<?> serializer) {
+        if (serializer == null) {
+            return result;
+        }
+
+        if (result instanceof byte[] bytes) {
+            return serializer.deserialize(bytes);
+        }
+
+        if (result instanceof Set<?> set) {
+            Set<Object> deserialized = new LinkedHashSet<>();
+            set.forEach(item -> deserialized.add(deserialize(item, serializer)));
+            return deserialized;
+        }
+
+        return result;
+    }
+
+    /**
+     * scan的匹配规则转换为正则，只支持*
+     */
+    private static Pattern glob(String pattern) {
+        if (pattern == null) {
+            return Pattern.compile(".*");
+        }
+
+        return Pattern.compile(Arrays.stream(pattern.split("\\*", -1)).map(Pattern::quote).reduce((a, b) -> a + ".*" + b).orElse(""));
+    }
+
+    private static String script(String path) {
+        try (InputStream inputStream = MemoryRedisTemplate.class.getClassLoader().getResourceAsStream(path)) {
+            return new String(Objects.requireNonNull(inputStream, path).readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String string(Object key) {
+        return new String((byte[]) key, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] bytes(String key) {
+        return key.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 执行字符串命令
+     * @param command   命令名称，ValueOperations的方法名
+     * @param args      命令参数
+     * @return  命令结果
+     */
+    private Object value(String command, Object[] args) {
+        switch (command) {
+            case "get" -> {
+                return values.get((String) args[0]);
+            }
+            case "multiGet" -> {
+                List<Object> result = new ArrayList<>();
+                ((Collection<?>) args[0]).forEach(key -> result.add(values.get((String) key)));
+                return result;
+            }
+            case "set" -> {
+                set((String) args[0], args[1], args);
+                return null;
+            }
+            case "setIfAbsent" -> {
+                if (values.containsKey((String) args[0])) {
+                    return false;
+                }
+                set((String) args[0], args[1], args);
+                return true;
+            }
+            default -> throw new UnsupportedOperationException(command);
+        }
+    }
+
+    /**
+     * 执行list命令
+     * @param command   命令名称，ListOperations的方法名
+     * @param args      命令参数
+     * @return  命令结果
+     */
+    private Object list(String command, Object[] args) {
+        List<Object> list = lists.getOrDefault((String) args[0], List.of());
+        switch (command) {
+            case "range" -> {
+                int start = (int) Math.min((Long) args[1], list.size());
+                long stop = (Long) args[2];
+                return new ArrayList<>(list.subList(start, stop < 0 ? list.size() : (int) Math.min(stop + 1, list.size())));
+            }
+            case "size" -> {
+                return (long) list.size();
+            }
+            default -> throw new UnsupportedOperationException(command);
+        }
+    }
+
+    private void set(String key, Object value, Object[] args) {
+        values.put(key, value);
+        if (args.length == 3 && args[2] instanceof Duration duration) {
+            expires.put(key, duration.toSeconds());
+        } else if (args.length == 4 && args[3] instanceof TimeUnit unit) {
+            expires.put(key, unit.toSeconds((Long) args[2]));
+        } else {
+            expires.remove(key);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<?> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(MemoryRedisTemplate.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    public Map<String, Object> getValues() {
+        return values;
+    }
+
+    public Map<String, List<Object>> getLists() {
+        return lists;
+    }
+
+    public Map<String, Set<String>> getSets() {
+        return sets;
+    }
+
+    public Map<String, Long> getExpires() {
+        return expires;
+    }
+
+    /**
+     * 获取网络往返次数，同时清零
+     * @return  上次清零后的网络往返次数
+     */
+    public int takeRoundTrips() {
+        return roundTrips.getAndSet(0);
+    }
+}
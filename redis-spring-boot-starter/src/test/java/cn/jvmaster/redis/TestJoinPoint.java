@@ -0,0 +1,68 @@
+package cn.jvmaster.redis;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+
+/**
+ * 测试使用的切面信息
+ * 直接调用目标对象的方法，代替实际的aop调用
+ * @author AI
+ * @date 2025/6/24 9:30
+ * @version 1.0
+**/
+public final class TestJoinPoint {
+
+    private TestJoinPoint() {
+    }
+
+    /**
+     * 构建切面信息
+     * @param target        目标对象
+     * @param methodName    方法名称，同名方法取第一个
+     * @param args          方法参数
+     * @return  切面信息，proceed时调用目标对象的方法
+     */
+    public static ProceedingJoinPoint of(Object target, String methodName, Object... args) {
+        Method method = Arrays.stream(target.getClass().getDeclaredMethods())
+            .filter(item -> item.getName().equals(methodName))
+            .findFirst()
+            .orElseThrow(() -> new IllegalArgumentException("方法不存在: " + methodName));
+        method.setAccessible(true);
+
+        MethodSignature signature = (MethodSignature) Proxy.newProxyInstance(TestJoinPoint.class.getClassLoader(),
+            new Class<?>[]{MethodSignature.class}, (proxy, invoked, invokeArgs) -> switch (invoked.getName()) {
+                case "getMethod" -> method;
+                case "getName" -> method.getName();
+                case "getReturnType" -> method.getReturnType();
+                case "getParameterTypes" -> method.getParameterTypes();
+                case "getParameterNames" -> Arrays.stream(method.getParameters()).map(Parameter::getName).toArray(String[]::new);
+                case "getDeclaringType" -> method.getDeclaringClass();
+                case "getDeclaringTypeName" -> method.getDeclaringClass().getName();
+                case "toString" -> method.toString();
+                default -> throw new UnsupportedOperationException(invoked.getName());
+            });
+
+        return (ProceedingJoinPoint) Proxy.newProxyInstance(TestJoinPoint.class.getClassLoader(),
+            new Class<?>[]{ProceedingJoinPoint.class}, (proxy, invoked, invokeArgs) -> switch (invoked.getName()) {
+                case "getTarget", "getThis" -> target;
+                case "getSignature" -> signature;
+                case "getArgs" -> args.clone();
+                case "proceed" -> invoke(target, method, invokeArgs == null || invokeArgs.length == 0 ? args : (Object[]) invokeArgs[0]);
+                case "toString" -> "execution(" + method + ")";
+                default -> throw new UnsupportedOperationException(invoked.getName());
+            });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package cn.jvmaster.redis.domain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * 缓存元数据测试
+ * @author AI
+ * @date 2025/6/23 10:10
+ * @version 1.0
+**/
+class CacheMetaTest {
+
+    private static final int SAMPLES = 20_000;
+
+    @Test
+    void encodeAndDecodeRoundTrip() {
+        CacheMeta cacheMeta = new CacheMeta(1_750_000_000_000L, 250);
+
+        assertEquals("1750000000000,250", cacheMeta.encode());
+        assertEquals(cacheMeta, CacheMeta.decode(cacheMeta.encode()));
+    }
+
+    @Test
+    void decodeRejectsMalformedValues() {
+        assertNull(CacheMeta.decode(null));
+        assertNull(CacheMeta.decode(42L));
+        assertNull(CacheMeta.decode("1750000000000"));
+        assertNull(CacheMeta.decode("a,b"));
+        assertNull(CacheMeta.decode("1,2,3"));
+    }
+
+    @Test
+    void softExpiredAfterSoftExpireTime() {
+        long now = System.currentTimeMillis();
+
+        assertTrue(new CacheMeta(now - 1, 10).isSoftExpired());
+        assertFalse(new CacheMeta(now + 60_000, 10).isSoftExpired());
+    }
+
+    @Test
+    void neverRefreshesEarlyWithoutComputeTime() {
+        CacheMeta cacheMeta = new CacheMeta(System.currentTimeMillis() + 60_000, 0);
+        for (int i = 0; i < SAMPLES; i++) {
+            assertFalse(cacheMeta.shouldRefreshEarly(1D));
+        }
+    }
+
+    @Test
+    void alwaysRefreshesAfterSoftExpire() {
+        CacheMeta cacheMeta = new CacheMeta(System.currentTimeMillis() - 1, 0);
+        for (int i = 0; i < SAMPLES; i++) {
+            assertTrue(cacheMeta.shouldRefreshEarly(1D));
+        }
+    }
+
+    @Test
+    void earlyRefreshProbabilityFollowsExponentialDistribution() {
+        // 剩余时间等于加载耗时 * beta时，刷新概率为 P(-ln(random) >= 1) = e^-1
+        long computeTime = 10_000;
+        double ratio = refreshRatio(new CacheMeta(System.currentTimeMillis() + computeTime, computeTime), 1D);
+        assertEquals(Math.exp(-1), ratio, 0.03);
+
+        // 剩余时间越长，刷新概率越小；beta越大，刷新概率越大
+        double far = refreshRatio(new CacheMeta(System.currentTimeMillis() + 3 * computeTime, computeTime), 1D);
+        double eager = refreshRatio(new CacheMeta(System.currentTimeMillis() + 3 * computeTime, computeTime), 3D);
+        assertEquals(Math.exp(-3), far, 0.02);
+        assertTrue(eager > far);
+    }
+
+    private static double refreshRatio(CacheMeta cacheMeta, double beta) {
+        int refreshed = 0;
+        for (int i = 0; i < SAMPLES; i++) {
+            if (cacheMeta.shouldRefreshEarly(beta)) {
+                refreshed++;
+            }
+        }
+
+        return (double) refreshed / SAMPLES;
+    }
+}
@@ -0,0 +1,367 @@
+package cn.jvmaster.redis.generator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import cn.jvmaster.redis.MemoryRedisTemplate;
+import cn.jvmaster.redis.TestJoinPoint;
+import cn.jvmaster.redis.annotation.Cache;
+import cn.jvmaster.redis.annotation.CacheRemove;
+import cn.jvmaster.redis.constant.Mode;
+import cn.jvmaster.redis.domain.EmptyValue;
+import cn.jvmaster.redis.domain.ListSlice;
+import cn.jvmaster.redis.generator.processor.DefaultCacheProcessor;
+import cn.jvmaster.redis.service.HashRedisOperationService;
+import cn.jvmaster.redis.service.ListRedisOperationService;
+import cn.jvmaster.redis.service.StringRedisOperationService;
+import cn.jvmaster.redis.starter.RedisProperties;
+import cn.jvmaster.redis.support.CacheAsyncExecutor;
+import cn.jvmaster.redis.support.CacheInvalidationBroadcaster;
+import cn.jvmaster.redis.support.CacheMethodMetadata;
+import cn.jvmaster.redis.support.CacheMethodRegistry;
+import cn.jvmaster.redis.support.CacheNamespaces;
+import cn.jvmaster.redis.support.CacheRefresher;
+import cn.jvmaster.redis.support.CacheStatistics;
+import cn.jvmaster.redis.support.CacheTags;
+import cn.jvmaster.redis.support.CacheWriteBehind;
+import cn.jvmaster.redis.support.HotKeyDetector;
+import cn.jvmaster.redis.support.NearCache;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.support.NullValue;
+
+/**
+ * 缓存解析测试
+ * redis使用内存实现，验证缓存的读写次数以及读写的数据
+ * @author AI
+ * @date 2025/6/24 10:00
+ * @version 1.0
+**/
+class CacheProcessorManagerTest {
+
+    private final MemoryRedisTemplate redisTemplate = new MemoryRedisTemplate();
+
+    private final StringRedisOperationService<Object> stringRedisOperationService = new StringRedisOperationService<>(redisTemplate);
+
+    private final CacheStatistics cacheStatistics = new CacheStatistics();
+
+    private final CacheRefresher cacheRefresher = new CacheRefresher(1, 10);
+
+    private final CacheAsyncExecutor cacheAsyncExecutor = new CacheAsyncExecutor(1, 10);
+
+    private final HotKeyDetector hotKeyDetector = new HotKeyDetector(false, 100, 1, Duration.ofSeconds(1), 64, 10, Duration.ofSeconds(1));
+
+    private final CacheWriteBehind cacheWriteBehind = new CacheWriteBehind(stringRedisOperationService, null, cacheStatistics, 100, 1000, Duration.ofHours(1));
+
+    private final CacheTags cacheTags = new CacheTags(stringRedisOperationService, "", 100, Duration.ZERO);
+
+    private final CacheMethodRegistry cacheMethodRegistry = new CacheMethodRegistry();
+
+    private final UserService userService = new UserService();
+
+    private final CacheProcessorManager cacheProcessorManager = manager(new RedisProperties());
+
+    @AfterEach
+    void shutdown() {
+        cacheRefresher.shutdown();
+        cacheAsyncExecutor.shutdown();
+        hotKeyDetector.shutdown();
+        cacheWriteBehind.shutdown();
+        cacheTags.shutdown();
+    }
+
+    @Test
+    void cachedValueIsReadInOneRoundTrip() {
+        redisTemplate.getValues().put("user::1", "cached");
+
+        assertEquals("cached", resolve("user::1", "find", 1L));
+        assertEquals(1, redisTemplate.takeRoundTrips());
+        assertEquals(0, userService.calls.get());
+    }
+
+    @Test
+    void missIsLoadedAndSaved() {
+        assertEquals("user1", resolve("user::1", "find", 1L));
+        assertEquals(2, redisTemplate.takeRoundTrips());
+        assertEquals("user1", redisTemplate.getValues().get("user::1"));
+
+        assertEquals("user1", resolve("user::1", "find", 1L));
+        assertEquals(1, userService.calls.get());
+    }
+
+    @Test
+    void nullResultIsCachedWithPlaceholder() {
+        assertNull(resolve("user::0", "find", 0L));
+        assertSame(NullValue.INSTANCE, redisTemplate.getValues().get("user::0"));
+        assertEquals(60L, redisTemplate.getExpires().get("user::0"));
+
+        redisTemplate.takeRoundTrips();
+        assertNull(resolve("user::0", "find", 0L));
+        assertEquals(1, redisTemplate.takeRoundTrips());
+        assertEquals(1, userService.calls.get());
+    }
+
+    @Test
+    void nullResultIsNotCachedWithoutNullExpire() {
+        assertNull(resolve("user::0", "findWithoutNull", 0L));
+        assertNull(resolve("user::0", "findWithoutNull", 0L));
+
+        assertEquals(2, userService.calls.get());
+    }
+
+    @Test
+    void batchReadsAllIdsOnceAndLoadsOnlyMisses() {
+        redisTemplate.getValues().put("user::1", "cached1");
+        redisTemplate.getValues().put("user::3", NullValue.INSTANCE);
+
+        Object result = resolveBatch("findAll", List.of(1L, 2L, 3L));
+        assertEquals(Map.of(1L, "cached1", 2L, "user2"), result);
+        assertEquals(List.of(List.of(2L)), userService.batchArgs);
+        // MGET一次，写入一次
+        assertEquals(2, redisTemplate.takeRoundTrips());
+        assertEquals("user2", redisTemplate.getValues().get("user::2"));
+    }
+
+    @Test
+    void batchCachesMissingIdsAsNull() {
+        resolveBatch("findAll", List.of(2L, 0L));
+
+        assertSame(NullValue.INSTANCE, redisTemplate.getValues().get("user::0"));
+        assertEquals(60L, redisTemplate.getExpires().get("user::0"));
+    }
+
+    @Test
+    void batchUpdateOnlyDoesNotReadCache() {
+        redisTemplate.getValues().put("user::1", "stale");
+
+        Object result = resolveBatch("updateAll", List.of(1L, 0L));
+        assertEquals(Map.of(1L, "user1"), result);
+        assertEquals(List.of(List.of(1L, 0L)), userService.batchArgs);
+        assertEquals("user1", redisTemplate.getValues().get("user::1"));
+        // 更新模式不缓存空值
+        assertFalse(redisTemplate.getValues().containsKey("user::0"));
+    }
+
+    @Test
+    void batchWriteBehindIsWrittenOnFlush() {
+        resolveBatch("writeBehindAll", List.of(1L, 2L));
+
+        assertTrue(redisTemplate.getValues().isEmpty());
+        assertEquals(2, cacheWriteBehind.getPendingCount());
+
+        cacheWriteBehind.flush();
+        assertEquals("user1", redisTemplate.getValues().get("user::1"));
+        assertEquals("user2", redisTemplate.getValues().get("user::2"));
+    }
+
+    @Test
+    void rangeIsReadWithTotalFromCache() {
+        redisTemplate.getLists().put("orders", List.of("a", "b", "c", "d"));
+
+        assertEquals(new ListSlice<>(List.of("b", "c"), 4), resolveRange("sliceOrders", 1L, 2L));
+        assertEquals(List.of("b", "c"), resolveRange("listOrders", 1L, 2L));
+        // LRANGE和LLEN在一个管道中读取
+        assertEquals(2, redisTemplate.takeRoundTrips());
+        assertEquals(0, userService.calls.get());
+    }
+
+    @Test
+    void rangeMissReturnsTotalOfLoadedList() {
+        assertEquals(new ListSlice<>(List.of("c", "d"), 4), resolveRange("sliceOrders", 2L, 5L));
+        // 只缓存方法返回的数据，不缓存ListSlice
+        assertEquals(List.of("a", "b", "c", "d"), redisTemplate.getValues().get("orders"));
+        assertEquals(1, userService.calls.get());
+    }
+
+    @Test
+    void rangeOfCachedEmptyListIsEmptySlice() {
+        redisTemplate.getLists().put("orders", List.of(EmptyValue.INSTANCE));
+
+        assertEquals(new ListSlice<>(List.of(), 0), resolveRange("sliceOrders", 0L, 10L));
+    }
+
+    @Test
+    void removeWithoutTagsDeletesCacheAndMetaInOneRoundTrip() {
+        redisTemplate.getValues().put("user::1", "cached");
+        redisTemplate.getValues().put("user::1~meta", "meta");
+
+        remove("evict", 1L);
+        assertEquals(1, redisTemplate.takeRoundTrips());
+        assertTrue(redisTemplate.getValues().isEmpty());
+    }
+
+    @Test
+    void removeWithTagsRemovesCacheFromTags() {
+        cacheMethodRegistry.register(method("findVip"));
+        redisTemplate.getValues().put("user::1", "cached");
+        redisTemplate.getSets().put("cache::tag::vip", new LinkedHashSet<>(List.of("user::1", "user::2")));
+        redisTemplate.getSets().put("user::1~tags", new LinkedHashSet<>(List.of("cache::tag::vip")));
+
+        remove("evict", 1L);
+        assertEquals(2, redisTemplate.takeRoundTrips());
+        assertTrue(redisTemplate.getValues().isEmpty());
+        assertEquals(Set.of("user::2"), redisTemplate.getSets().get("cache::tag::vip"));
+        assertFalse(redisTemplate.getSets().containsKey("user::1~tags"));
+    }
+
+    /**
+     * 调用删除缓存的方法
+     * @param methodName    方法名称
+     * @param args          方法参数
+     */
+    private void remove(String methodName, Object... args) {
+        ProceedingJoinPoint joinPoint = TestJoinPoint.of(userService, methodName, args);
+        CacheRemove cacheRemove = ((MethodSignature) joinPoint.getSignature()).getMethod().getAnnotation(CacheRemove.class);
+        cacheProcessorManager.remove(List.of("user::" + args[0]), cacheRemove, joinPoint, false);
+    }
+
+    private static Method method(String methodName) {
+        return Arrays.stream(UserService.class.getDeclaredMethods())
+            .filter(method -> method.getName().equals(methodName))
+            .findFirst()
+            .orElseThrow();
+    }
+
+    /**
+     * 调用按照范围读取的缓存方法
+     * @param methodName    方法名称
+     * @param offset        开始位置
+     * @param limit         读取数量
+     * @return  缓存结果
+     */
+    private Object resolveRange(String methodName, long offset, long limit) {
+        ProceedingJoinPoint joinPoint = TestJoinPoint.of(userService, methodName, offset, limit);
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        return cacheProcessorManager.resolveListRange("orders", offset, limit, method.getAnnotation(Cache.class), joinPoint, () -> {
+            try {
+                return joinPoint.proceed();
+            } catch (Throwable e) {
+                throw new RuntimeException(e);
+            }
+        }, new CacheMethodMetadata(method));
+    }
+
+    /**
+     * 调用批量缓存方法
+     * @param methodName    方法名称
+     * @param ids           id集合
+     * @return  缓存结果
+     */
+    private Object resolveBatch(String methodName, Collection<Long> ids) {
+        ProceedingJoinPoint joinPoint = TestJoinPoint.of(userService, methodName, ids);
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        return cacheProcessorManager.resolveBatch("user", method.getAnnotation(Cache.class), joinPoint, new CacheMethodMetadata(method));
+    }
+
+    /**
+     * 调用缓存方法
+     * @param name          缓存名称
+     * @param methodName    方法名称
+     * @param args          方法参数
+     * @return  缓存结果
+     */
+    private Object resolve(String name, String methodName, Object... args) {
+        ProceedingJoinPoint joinPoint = TestJoinPoint.of(userService, methodName, args);
+        Cache cache = ((MethodSignature) joinPoint.getSignature()).getMethod().getAnnotation(Cache.class);
+        return cacheProcessorManager.resolve(name, cache, joinPoint, () -> {
+            try {
+                return joinPoint.proceed();
+            } catch (Throwable e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    private CacheProcessorManager manager(RedisProperties redisProperties) {
+        List<CacheProcessorManager.CacheProcessorEntity> processors = new ArrayList<>();
+        processors.add(CacheProcessorManager.build("defaultCacheProcessor", new DefaultCacheProcessor(stringRedisOperationService)));
+
+        return new CacheProcessorManager(processors, redisTemplate, redisProperties,
+            new CacheInvalidationBroadcaster(new NearCache(100), redisTemplate, "cache::invalidation"),
+            stringRedisOperationService, new HashRedisOperationService<>(redisTemplate), new ListRedisOperationService<>(redisTemplate),
+            cacheRefresher, cacheMethodRegistry, new CacheNamespaces(Set.of(), Duration.ofSeconds(1), redisTemplate),
+            cacheStatistics, cacheAsyncExecutor, hotKeyDetector, cacheWriteBehind, cacheTags);
+    }
+
+    /**
+     * 缓存方法
+     */
+    static class UserService {
+
+        private final AtomicInteger calls = new AtomicInteger();
+
+        private final List<List<Long>> batchArgs = new ArrayList<>();
+
+        @Cache(expire = 600)
+        public String find(Long id) {
+            calls.incrementAndGet();
+            return id == 0 ? null : "user" + id;
+        }
+
+        @Cache(expire = 600, nullExpire = 0)
+        public String findWithoutNull(Long id) {
+            calls.incrementAndGet();
+            return id == 0 ? null : "user" + id;
+        }
+
+        @Cache(expire = 600, tags = "'vip'")
+        public String findVip(Long id) {
+            calls.incrementAndGet();
+            return "vip" + id;
+        }
+
+        @CacheRemove(name = "'user::' + #id")
+        public void evict(Long id) {
+        }
+
+        @Cache(name = "user", batch = true)
+        public Map<Long, String> findAll(Collection<Long> ids) {
+            return load(ids);
+        }
+
+        @Cache(name = "user", batch = true, mode = Mode.UPDATE_ONLY)
+        public Map<Long, String> updateAll(Collection<Long> ids) {
+            return load(ids);
+        }
+
+        @Cache(name = "user", batch = true, mode = Mode.WRITE_BEHIND)
+        public Map<Long, String> writeBehindAll(Collection<Long> ids) {
+            return load(ids);
+        }
+
+        @Cache(name = "orders", offset = "#offset", limit = "#limit")
+        public List<String> listOrders(long offset, long limit) {
+            calls.incrementAndGet();
+            return List.of("a", "b", "c", "d");
+        }
+
+        @Cache(name = "orders", offset = "#offset", limit = "#limit")
+        public ListSlice<String> sliceOrders(long offset, long limit) {
+            calls.incrementAndGet();
+            return new ListSlice<>(List.of("a", "b", "c", "d"), 4);
+        }
+
+        private Map<Long, String> load(Collection<Long> ids) {
+            batchArgs.add(new ArrayList<>(ids));
+            Map<Long, String> result = new LinkedHashMap<>();
+            ids.stream().filter(id -> id != 0).forEach(id -> result.put(id, "user" + id));
+            return result;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package cn.jvmaster.redis.generator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import cn.jvmaster.redis.MemoryRedisTemplate;
+import cn.jvmaster.redis.TestJoinPoint;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 定长hash缓存key测试
+ * @author AI
+ * @date 2025/6/24 17:50
+ * @version 1.0
+**/
+class HashCacheKeyGeneratorTest {
+
+    private final UserService userService = new UserService();
+
+    @Test
+    void methodWithoutArgumentsUsesPrefix() {
+        assertEquals(UserService.class.getName() + "::find", new HashCacheKeyGenerator().generate(userService, signature(), new Object[0]));
+    }
+
+    @Test
+    void keyLengthIsFixed() {
+        HashCacheKeyGenerator generator = new HashCacheKeyGenerator();
+        String prefix = UserService.class.getName() + "::find::";
+
+        String shortKey = generator.generate(userService, signature(), new Object[]{1L});
+        String longKey = generator.generate(userService, signature(), new Object[]{"x".repeat(10000), List.of(1, 2, 3)});
+        assertTrue(shortKey.startsWith(prefix));
+        assertEquals(prefix.length() + 22, shortKey.length());
+        assertEquals(shortKey.length(), longKey.length());
+        assertEquals(shortKey, generator.generate(userService, signature(), new Object[]{1L}));
+    }
+
+    @Test
+    void typesAreDistinguished() {
+        assertNotEquals(fingerprint(1), fingerprint(1L));
+        assertNotEquals(fingerprint(1), fingerprint("1"));
+        assertNotEquals(fingerprint((Object) null), fingerprint("null"));
+        assertNotEquals(fingerprint(List.of(1, 2)), fingerprint((Object) new Integer[]{1, 2}));
+    }
+
+    @Test
+    void textBoundariesAreKept() {
+        assertNotEquals(fingerprint("a", "bc"), fingerprint("ab", "c"));
+        assertNotEquals(fingerprint(List.of("a", "b")), fingerprint(List.of("a"), "b"));
+    }
+
+    @Test
+    void unorderedCollectionsIgnoreIterationOrder() {
+        Set<String> first = new LinkedHashSet<>(List.of("a", "b", "c"));
+        Set<String> second = new LinkedHashSet<>(List.of("c", "b", "a"));
+        assertEquals(fingerprint(first), fingerprint(second));
+
+        Map<String, Integer> map = new LinkedHashMap<>();
+        map.put("b", 2);
+        map.put("a", 1);
+        assertEquals(fingerprint(map), fingerprint(new TreeMap<>(map)));
+
+        assertNotEquals(fingerprint(List.of("a", "b")), fingerprint(List.of("b", "a")));
+    }
+
+    @Test
+    void objectsAreEncodedByProperties() {
+        assertEquals(fingerprint(new Query("name", LocalDate.of(2025, 6, 24))), fingerprint(new Query("name", LocalDate.of(2025, 6, 24))));
+        assertNotEquals(fingerprint(new Query("name", LocalDate.of(2025, 6, 24))), fingerprint(new Query("name", LocalDate.of(2025, 6, 25))));
+    }
+
+    @Test
+    void fingerprintIsSavedInDebugMode() {
+        MemoryRedisTemplate redisTemplate = new MemoryRedisTemplate();
+        HashCacheKeyGenerator generator = new HashCacheKeyGenerator(redisTemplate, Duration.ofMinutes(10));
+
+        String key = generator.generate(userService, signature(), new Object[]{1L});
+        String fingerprintKey = HashCacheKeyGenerator.FINGERPRINT_KEY + "::" + key;
+        assertEquals(HashCacheKeyGenerator.fingerprint(new Object[]{1L}), redisTemplate.getValues().get(fingerprintKey));
+        assertEquals(600L, redisTemplate.getExpires().get(fingerprintKey));
+
+        // 已经保存了不同的指纹时只输出日志
+        redisTemplate.getValues().put(fingerprintKey, "other");
+        assertEquals(key, generator.generate(userService, signature(), new Object[]{1L}));
+        assertEquals("other", redisTemplate.getValues().get(fingerprintKey));
+    }
+
+    private MethodSignature signature() {
+        return (MethodSignature) TestJoinPoint.of(userService, "find", 1L).getSignature();
+    }
+
+    private static String fingerprint(Object... args) {
+        return HashCacheKeyGenerator.fingerprint(args);
+    }
+
+    public record Query(String name, LocalDate date) {}
+
+    static class UserService {
+
+        public String find(Long id) {
+            return "user" + id;
+        }
+    }
+}
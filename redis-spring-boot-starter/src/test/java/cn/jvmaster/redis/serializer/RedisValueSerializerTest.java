@@ -0,0 +1,188 @@
+package cn.jvmaster.redis.serializer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import cn.jvmaster.redis.constant.Codec;
+import cn.jvmaster.redis.constant.Compression;
+import cn.jvmaster.redis.domain.EmptyValue;
+import cn.jvmaster.redis.support.CacheStatistics;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * 缓存数据序列化测试
+ * 使用文本序列化代替实际的JSON、Smile，只验证标记、压缩以及格式切换
+ * @author AI
+ * @date 2025/6/23 10:25
+ * @version 1.0
+**/
+class RedisValueSerializerTest {
+
+    private static final String LARGE_VALUE = "cache value ".repeat(200);
+
+    private final CacheStatistics cacheStatistics = new CacheStatistics();
+
+    private final RedisSerializer<Object> json = new TextSerializer("\"");
+
+    private final RedisSerializer<Object> smile = new TextSerializer("smile:");
+
+    @Test
+    void nullValueIsSingleZeroByte() {
+        RedisValueSerializer serializer = serializer(Codec.JSON, null);
+        byte[] bytes = serializer.serialize(NullValue.INSTANCE);
+
+        assertArrayEquals(new byte[]{0}, bytes);
+        assertSame(NullValue.INSTANCE, serializer.deserialize(bytes));
+    }
+
+    @Test
+    void emptyValueIsSingleOneByte() {
+        RedisValueSerializer serializer = serializer(Codec.SMILE, compressor(1));
+        byte[] bytes = serializer.serialize(EmptyValue.INSTANCE);
+
+        assertArrayEquals(new byte[]{1}, bytes);
+        assertSame(EmptyValue.INSTANCE, serializer.deserialize(bytes));
+    }
+
+    @Test
+    void emptyValueStaysSingletonAfterJavaSerialization() throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (ObjectOutputStream objectOutputStream = new ObjectOutputStream(outputStream)) {
+            objectOutputStream.writeObject(EmptyValue.INSTANCE);
+        }
+
+        try (ObjectInputStream objectInputStream = new ObjectInputStream(new ByteArrayInputStream(outputStream.toByteArray()))) {
+            assertSame(EmptyValue.INSTANCE, objectInputStream.readObject());
+        }
+    }
+
+    @Test
+    void jsonIsWrittenWithoutMarker() {
+        RedisValueSerializer serializer = serializer(Codec.JSON, null);
+        byte[] bytes = serializer.serialize("value");
+
+        assertArrayEquals("\"value".getBytes(StandardCharsets.UTF_8), bytes);
+        assertEquals("value", serializer.deserialize(bytes));
+    }
+
+    @Test
+    void binaryCodecIsWrittenWithMarker() {
+        RedisValueSerializer serializer = serializer(Codec.SMILE, null);
+        byte[] bytes = serializer.serialize("value");
+
+        assertEquals(Codec.SMILE.getMarker(), bytes[0]);
+        assertEquals("value", serializer.deserialize(bytes));
+    }
+
+    @Test
+    void dataWrittenWithOtherCodecIsStillReadable() {
+        byte[] jsonBytes = serializer(Codec.JSON, null).serialize("json");
+        byte[] smileBytes = serializer(Codec.SMILE, null).serialize("smile");
+
+        assertEquals("json", serializer(Codec.SMILE, null).deserialize(jsonBytes));
+        assertEquals("smile", serializer(Codec.JSON, null).deserialize(smileBytes));
+    }
+
+    @Test
+    void unknownCodecIsRejected() {
+        RedisValueSerializer serializer = serializer(Codec.JSON, null);
+        byte[] cborBytes = new byte[]{Codec.CBOR.getMarker(), 'x'};
+
+        assertThrows(SerializationException.class, () -> serializer.deserialize(cborBytes));
+    }
+
+    @Test
+    void largeValueIsCompressedAndRestored() {
+        RedisValueSerializer serializer = serializer(Codec.SMILE, compressor(64));
+        byte[] bytes = serializer.serialize(LARGE_VALUE);
+
+        assertEquals(ValueCompressor.MARKER, bytes[0]);
+        assertTrue(bytes.length < LARGE_VALUE.length());
+        assertEquals(LARGE_VALUE, serializer.deserialize(bytes));
+        assertEquals(1, cacheStatistics.current().getCompressCount());
+    }
+
+    @Test
+    void smallValueIsNotCompressed() {
+        RedisValueSerializer serializer = serializer(Codec.JSON, compressor(64));
+        byte[] bytes = serializer.serialize("value");
+
+        assertNotEquals(ValueCompressor.MARKER, bytes[0]);
+        assertEquals("value", serializer.deserialize(bytes));
+    }
+
+    @Test
+    void compressedDataIsReadableAfterCompressionIsTurnedOff() {
+        byte[] bytes = serializer(Codec.JSON, compressor(64)).serialize(LARGE_VALUE);
+        RedisValueSerializer reader = serializer(Codec.JSON, new ValueCompressor(Compression.NONE, 64, cacheStatistics));
+
+        assertEquals(LARGE_VALUE, reader.deserialize(bytes));
+    }
+
+    @Test
+    void payloadSizeIsRecorded() {
+        RedisValueSerializer serializer = serializer(Codec.JSON, null);
+        serializer.serialize("value");
+
+        CacheStatistics.Statistic statistic = cacheStatistics.current();
+        assertEquals(1, statistic.getPayloadCount());
+        assertEquals("\"value".length(), statistic.getAveragePayloadSize());
+    }
+
+    @Test
+    void nullBytesAreNull() {
+        assertNull(serializer(Codec.JSON, null).deserialize(null));
+    }
+
+    private RedisValueSerializer serializer(Codec codec, ValueCompressor compressor) {
+        return new RedisValueSerializer(codec, Map.of(Codec.JSON, json, Codec.SMILE, smile), compressor, cacheStatistics);
+    }
+
+    private ValueCompressor compressor(int threshold) {
+        return new ValueCompressor(Compression.FAST, threshold, cacheStatistics);
+    }
+
+    /**
+     * 以固定前缀区分格式的文本序列化
+     */
+    private static final class TextSerializer implements RedisSerializer<Object> {
+
+        private final String prefix;
+
+        private TextSerializer(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public byte[] serialize(Object value) {
+            return value == null ? null : (prefix + value).getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public Object deserialize(byte[] bytes) {
+            if (bytes == null) {
+                return null;
+            }
+
+            String text = new String(bytes, StandardCharsets.UTF_8);
+            if (!text.startsWith(prefix)) {
+                throw new IllegalArgumentException("格式不正确: " + text);
+            }
+            return text.substring(prefix.length());
+        }
+    }
+}
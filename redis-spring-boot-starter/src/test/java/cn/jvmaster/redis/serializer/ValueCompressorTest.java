@@ -0,0 +1,93 @@
+package cn.jvmaster.redis.serializer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import cn.jvmaster.redis.constant.Compression;
+import cn.jvmaster.redis.support.CacheStatistics;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * 缓存数据压缩测试
+ * @author AI
+ * @date 2025/6/24 15:10
+ * @version 1.0
+**/
+class ValueCompressorTest {
+
+    private static final byte[] LARGE_VALUE = "cache value ".repeat(200).getBytes(StandardCharsets.UTF_8);
+
+    private final CacheStatistics cacheStatistics = new CacheStatistics();
+
+    @Test
+    void largeValueIsCompressedAndRestored() {
+        ValueCompressor compressor = new ValueCompressor(Compression.HIGH, 64, cacheStatistics);
+        byte[] compressed = compressor.compress(LARGE_VALUE);
+
+        assertTrue(compressor.isCompressed(compressed));
+        assertTrue(compressed.length < LARGE_VALUE.length);
+        assertArrayEquals(LARGE_VALUE, compressor.decompress(compressed));
+
+        CacheStatistics.Statistic statistic = cacheStatistics.current();
+        assertEquals(1, statistic.getCompressCount());
+        assertEquals(1, statistic.getDecompressCount());
+        assertTrue(statistic.getCompressionRatio() < 1);
+    }
+
+    @Test
+    void valueBelowThresholdIsNotCompressed() {
+        byte[] bytes = "value".getBytes(StandardCharsets.UTF_8);
+
+        assertSame(bytes, new ValueCompressor(Compression.FAST, 64, cacheStatistics).compress(bytes));
+        assertEquals(0, cacheStatistics.current().getCompressCount());
+    }
+
+    @Test
+    void noneIsNeverCompressed() {
+        assertSame(LARGE_VALUE, new ValueCompressor(Compression.NONE, 0, cacheStatistics).compress(LARGE_VALUE));
+    }
+
+    @Test
+    void resultNotSmallerIsDiscarded() {
+        // 随机数据无法压缩，压缩后加上标记反而变大
+        byte[] bytes = new byte[256];
+        new Random(1).nextBytes(bytes);
+        bytes[0] = 0;
+
+        byte[] result = new ValueCompressor(Compression.FAST, 64, cacheStatistics).compress(bytes);
+        assertSame(bytes, result);
+        assertFalse(new ValueCompressor(Compression.FAST, 64, cacheStatistics).isCompressed(result));
+    }
+
+    @Test
+    void markerOnlyIsNotCompressed() {
+        ValueCompressor compressor = new ValueCompressor(Compression.FAST, 64, cacheStatistics);
+
+        assertFalse(compressor.isCompressed(null));
+        assertFalse(compressor.isCompressed(new byte[]{ValueCompressor.MARKER}));
+        assertTrue(compressor.isCompressed(new byte[]{ValueCompressor.MARKER, 0}));
+    }
+
+    @Test
+    void truncatedDataIsRejected() {
+        ValueCompressor compressor = new ValueCompressor(Compression.FAST, 64, cacheStatistics);
+        byte[] compressed = compressor.compress(LARGE_VALUE);
+
+        assertThrows(SerializationException.class, () -> compressor.decompress(Arrays.copyOf(compressed, compressed.length / 2)));
+    }
+
+    @Test
+    void corruptDataIsRejected() {
+        ValueCompressor compressor = new ValueCompressor(Compression.FAST, 64, cacheStatistics);
+
+        assertThrows(SerializationException.class, () -> compressor.decompress(new byte[]{ValueCompressor.MARKER, 1, 2, 3, 4}));
+    }
+}
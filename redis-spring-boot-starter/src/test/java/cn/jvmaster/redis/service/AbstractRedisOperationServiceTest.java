@@ -0,0 +1,110 @@
+package cn.jvmaster.redis.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import cn.jvmaster.redis.MemoryRedisTemplate;
+import cn.jvmaster.redis.serializer.RedisKeySerializer;
+import io.lettuce.core.cluster.SlotHash;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+
+/**
+ * redis操作测试
+ * 临时key与正式key的slot，以及集合数据的分批写入
+ * @author AI
+ * @date 2025/6/24 16:05
+ * @version 1.0
+**/
+class AbstractRedisOperationServiceTest {
+
+    private final StringRedisOperationService<Object> service = new StringRedisOperationService<>(template("app"));
+
+    @Test
+    void tempKeyIsInSameSlotAsKey() {
+        String tempKey = service.tempKey("user::1");
+
+        assertTrue(actualKey(tempKey).startsWith("app::{app::user::1}~tmp~"));
+        assertEquals(slot("user::1"), slot(tempKey));
+    }
+
+    @Test
+    void existingHashTagIsKept() {
+        String tempKey = service.tempKey("{user}::1");
+
+        assertTrue(actualKey(tempKey).startsWith("app::{user}::1~tmp~"));
+        assertEquals(slot("{user}::1"), slot(tempKey));
+    }
+
+    @Test
+    void tempKeyWithoutPrefix() {
+        String tempKey = new StringRedisOperationService<>(template(null)).tempKey("user::1");
+
+        assertTrue(tempKey.startsWith("{user::1}~tmp~"));
+        assertNotEquals(tempKey, new StringRedisOperationService<>(template(null)).tempKey("user::1"));
+    }
+
+    @Test
+    void replaceWritesChunksToTempKeyThenSwaps() {
+        MemoryRedisTemplate redisTemplate = new MemoryRedisTemplate();
+        redisTemplate.getLists().put("orders", new ArrayList<>(List.of("old")));
+        ListRedisOperationService<Object> listService = listService(redisTemplate);
+
+        listService.set("orders", List.of("a", "b", "c", "d", "e"), Duration.ofMinutes(10), true);
+        assertEquals(List.of("a", "b", "c", "d", "e"), redisTemplate.getLists().get("orders"));
+        assertEquals(Set.of("orders"), redisTemplate.getLists().keySet());
+        assertEquals(600L, redisTemplate.getExpires().get("orders"));
+        // 3个批次，1次替换
+        assertEquals(4, redisTemplate.takeRoundTrips());
+    }
+
+    @Test
+    void appendWritesChunksToKey() {
+        MemoryRedisTemplate redisTemplate = new MemoryRedisTemplate();
+        redisTemplate.getLists().put("orders", new ArrayList<>(List.of("old")));
+
+        listService(redisTemplate).set("orders", List.of("a", "b", "c"), Duration.ofMinutes(1), false);
+        assertEquals(List.of("old", "a", "b", "c"), redisTemplate.getLists().get("orders"));
+        assertEquals(60L, redisTemplate.getExpires().get("orders"));
+        assertEquals(3, redisTemplate.takeRoundTrips());
+    }
+
+    @Test
+    void failedReplaceKeepsOldData() {
+        MemoryRedisTemplate redisTemplate = new MemoryRedisTemplate();
+        redisTemplate.getLists().put("orders", new ArrayList<>(List.of("old")));
+
+        // 第二个批次无法序列化
+        assertThrows(RuntimeException.class,
+            () -> listService(redisTemplate).set("orders", List.of("a", "b", new Object()), Duration.ofMinutes(1), true));
+        assertEquals(List.of("old"), redisTemplate.getLists().get("orders"));
+        assertEquals(Set.of("orders"), redisTemplate.getLists().keySet());
+    }
+
+    private static ListRedisOperationService<Object> listService(MemoryRedisTemplate redisTemplate) {
+        ListRedisOperationService<Object> listService = new ListRedisOperationService<>(redisTemplate);
+        listService.setChunkSize(2);
+        return listService;
+    }
+
+    private String actualKey(String key) {
+        return new String(service.serializeKey(key), StandardCharsets.UTF_8);
+    }
+
+    private int slot(String key) {
+        return SlotHash.getSlot(service.serializeKey(key));
+    }
+
+    private static RedisTemplate<String, Object> template(String prefix) {
+        RedisTemplate<String, Object> redisTemplate = new RedisTemplate<>();
+        redisTemplate.setKeySerializer(new RedisKeySerializer(prefix));
+        return redisTemplate;
+    }
+}
@@ -0,0 +1,157 @@
+package cn.jvmaster.redis.starter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import cn.jvmaster.redis.TestJoinPoint;
+import cn.jvmaster.redis.annotation.Cache;
+import cn.jvmaster.redis.generator.CacheProcessorManager;
+import cn.jvmaster.redis.support.CacheMethodMetadata;
+import cn.jvmaster.redis.support.CacheMethodRegistry;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 缓存注解分发测试
+ * 验证不同的注解属性调用的缓存解析方法以及解析后的缓存名称、参数
+ * @author AI
+ * @date 2025/6/24 16:40
+ * @version 1.0
+**/
+class RedisAopConfigurationTest {
+
+    private final RecordingCacheProcessorManager cacheProcessorManager = new RecordingCacheProcessorManager();
+
+    private final RedisAopConfiguration redisAopConfiguration = new RedisAopConfiguration(null, null, cacheProcessorManager,
+        new CacheMethodRegistry(), null);
+
+    private final UserService userService = new UserService();
+
+    @Test
+    void plainMethodIsResolved() {
+        handle("find", 1L);
+
+        assertEquals(List.of("resolve user::1"), cacheProcessorManager.calls);
+    }
+
+    @Test
+    void asyncMethodIsResolvedAsync() {
+        Object result = handle("findAsync", 1L);
+
+        assertEquals(List.of("resolveAsync user::1"), cacheProcessorManager.calls);
+        assertEquals("async", ((CompletableFuture<?>) result).join());
+    }
+
+    @Test
+    void batchMethodIsResolvedByIds() {
+        handle("findAll", List.of(1L, 2L));
+
+        assertEquals(List.of("resolveBatch user"), cacheProcessorManager.calls);
+    }
+
+    @Test
+    void hashFieldIsResolvedByField() {
+        handle("findDict", "male");
+
+        assertEquals(List.of("resolveHashField dict male"), cacheProcessorManager.calls);
+    }
+
+    @Test
+    void rangeIsResolvedByOffsetAndLimit() {
+        handle("listOrders", 3, 10);
+        handle("listAll", "");
+
+        assertEquals(List.of("resolveListRange orders 20 10", "resolveListRange " + UserService.class.getName() + "::listAll 0 0"),
+            cacheProcessorManager.calls);
+    }
+
+    private Object handle(String methodName, Object... args) {
+        ProceedingJoinPoint joinPoint = TestJoinPoint.of(userService, methodName, args);
+        Cache cache = ((MethodSignature) joinPoint.getSignature()).getMethod().getAnnotation(Cache.class);
+        return redisAopConfiguration.handleCache(joinPoint, cache);
+    }
+
+    /**
+     * 只记录调用的解析方法
+     */
+    static class RecordingCacheProcessorManager extends CacheProcessorManager {
+
+        private final List<String> calls = new ArrayList<>();
+
+        RecordingCacheProcessorManager() {
+            super(List.of(), null, new RedisProperties(), null, null, null, null, null, null, null, null, null, null, null, null);
+        }
+
+        @Override
+        public Object resolve(String name, Cache cache, ProceedingJoinPoint joinPoint, Supplier<Object> resultSupplier) {
+            calls.add("resolve " + name);
+            return null;
+        }
+
+        @Override
+        public CompletableFuture<Object> resolveAsync(String name, Cache cache, ProceedingJoinPoint joinPoint,
+                                                        Supplier<CompletableFuture<Object>> loader) {
+            calls.add("resolveAsync " + name);
+            return CompletableFuture.completedFuture("async");
+        }
+
+        @Override
+        public Object resolveBatch(String name, Cache cache, ProceedingJoinPoint joinPoint, CacheMethodMetadata metadata) {
+            calls.add("resolveBatch " + name);
+            return null;
+        }
+
+        @Override
+        public Object resolveHashField(String name, Object field, Cache cache, ProceedingJoinPoint joinPoint,
+                                        Supplier<Object> resultSupplier, CacheMethodMetadata metadata) {
+            calls.add("resolveHashField " + name + " " + field);
+            return null;
+        }
+
+        @Override
+        public Object resolveListRange(String name, long offset, long limit, Cache cache, ProceedingJoinPoint joinPoint,
+                                        Supplier<Object> resultSupplier, CacheMethodMetadata metadata) {
+            calls.add("resolveListRange " + name + " " + offset + " " + limit);
+            return null;
+        }
+    }
+
+    static class UserService {
+
+        @Cache(name = "'user::' + #id")
+        public String find(Long id) {
+            return "user" + id;
+        }
+
+        @Cache(name = "'user::' + #id")
+        public CompletableFuture<String> findAsync(Long id) {
+            return CompletableFuture.completedFuture("user" + id);
+        }
+
+        @Cache(name = "user", batch = true)
+        public Map<Long, String> findAll(Collection<Long> ids) {
+            return Map.of();
+        }
+
+        @Cache(name = "dict", hashField = "#code")
+        public String findDict(String code) {
+            return code;
+        }
+
+        @Cache(name = "orders", offset = "(#pageNum - 1) * #pageSize", limit = "#pageSize")
+        public List<String> listOrders(int pageNum, int pageSize) {
+            return List.of();
+        }
+
+        @Cache(offset = "#offset")
+        public List<String> listAll(String offset) {
+            return List.of();
+        }
+    }
+}
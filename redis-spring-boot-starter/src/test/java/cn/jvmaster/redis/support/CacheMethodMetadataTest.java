@@ -0,0 +1,172 @@
+package cn.jvmaster.redis.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import cn.jvmaster.redis.CacheContext;
+import cn.jvmaster.redis.TestJoinPoint;
+import cn.jvmaster.redis.annotation.Cache;
+import cn.jvmaster.redis.constant.Mode;
+import cn.jvmaster.redis.domain.CacheValue;
+import cn.jvmaster.redis.domain.ListSlice;
+import cn.jvmaster.redis.generator.CacheProcessor;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 缓存方法元数据测试
+ * @author AI
+ * @date 2025/6/24 14:20
+ * @version 1.0
+**/
+class CacheMethodMetadataTest {
+
+    private final UserService userService = new UserService();
+
+    private final CacheProcessor processor = new TestProcessor();
+
+    private final AtomicInteger lookups = new AtomicInteger();
+
+    @Test
+    void defaultProcessorIsLookedUpOnceWhenReusable() {
+        CacheMethodMetadata metadata = metadata("find");
+
+        assertSame(processor, metadata.getProcessor("", name -> lookup(true)));
+        assertSame(processor, metadata.getProcessor("", name -> lookup(true)));
+        assertEquals(1, lookups.get());
+    }
+
+    @Test
+    void defaultProcessorIsLookedUpEveryCallWhenNotReusable() {
+        CacheMethodMetadata metadata = metadata("find");
+
+        metadata.getProcessor("", name -> lookup(false));
+        metadata.getProcessor(null, name -> lookup(false));
+        assertEquals(2, lookups.get());
+    }
+
+    @Test
+    void namedProcessorIsLookedUpOnce() {
+        CacheMethodMetadata metadata = metadata("find");
+
+        metadata.getProcessor("testProcessor", name -> lookup(false));
+        metadata.getProcessor("testProcessor", name -> lookup(false));
+        assertEquals(1, lookups.get());
+    }
+
+    @Test
+    void cacheNameUsesParameterValues() {
+        ProceedingJoinPoint joinPoint = TestJoinPoint.of(userService, "find", 1L, "name");
+        CacheMethodMetadata metadata = new CacheMethodMetadata(((MethodSignature) joinPoint.getSignature()).getMethod());
+        String name = ((MethodSignature) joinPoint.getSignature()).getMethod().getAnnotation(Cache.class).name();
+
+        assertEquals("user::1::name::UserService", metadata.getCacheName(name, joinPoint, null));
+        // 上下文只绑定参数值，多次调用互不影响
+        assertEquals("user::2::other::UserService", metadata.getCacheName(name, TestJoinPoint.of(userService, "find", 2L, "other"), null));
+    }
+
+    @Test
+    void tagsExpandCollections() {
+        ProceedingJoinPoint joinPoint = TestJoinPoint.of(userService, "find", 1L, "name");
+        CacheMethodMetadata metadata = new CacheMethodMetadata(((MethodSignature) joinPoint.getSignature()).getMethod());
+
+        List<String> tags = metadata.getTags(new String[]{"user", "{#id, null, 'all'}", "#missing"}, userService,
+            (MethodSignature) joinPoint.getSignature(), new Object[]{1L, "name"});
+        assertEquals(List.of("user", "1", "all"), tags);
+    }
+
+    @Test
+    void valueIsReadFromRootObject() {
+        CacheMethodMetadata metadata = metadata("find");
+
+        assertEquals(3L, metadata.getValue("id", new User(3L)));
+        assertNull(metadata.getValue("id", new User(null)));
+    }
+
+    @Test
+    void batchWithUnsupportedOptionsIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> metadata("batchLocal"));
+        assertThrows(IllegalArgumentException.class, () -> metadata("batchStale"));
+        assertThrows(IllegalArgumentException.class, () -> metadata("batchEarlyRefresh"));
+    }
+
+    @Test
+    void sliceWithoutRangeIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> metadata("slice"));
+    }
+
+    private CacheMethodMetadata.ProcessorLookup lookup(boolean reusable) {
+        lookups.incrementAndGet();
+        return new CacheMethodMetadata.ProcessorLookup(processor, reusable);
+    }
+
+    private CacheMethodMetadata metadata(String methodName) {
+        for (Method method : UserService.class.getDeclaredMethods()) {
+            if (method.getName().equals(methodName)) {
+                return new CacheMethodMetadata(method);
+            }
+        }
+
+        throw new IllegalArgumentException(methodName);
+    }
+
+    static class UserService {
+
+        @Cache(name = "'user::' + #id + '::' + #params[1] + '::' + #target.getSimpleName()")
+        public String find(Long id, String name) {
+            return name;
+        }
+
+        @Cache(name = "user", batch = true, local = true)
+        public Map<Long, String> batchLocal(List<Long> ids) {
+            return Map.of();
+        }
+
+        @Cache(name = "user", batch = true, mode = Mode.STALE_WHILE_REVALIDATE)
+        public Map<Long, String> batchStale(List<Long> ids) {
+            return Map.of();
+        }
+
+        @Cache(name = "user", batch = true, earlyRefresh = true)
+        public Map<Long, String> batchEarlyRefresh(List<Long> ids) {
+            return Map.of();
+        }
+
+        @Cache(name = "orders")
+        public ListSlice<String> slice() {
+            return new ListSlice<>(List.of(), 0);
+        }
+    }
+
+    public static class User {
+
+        private final Long id;
+
+        public User(Long id) {
+            this.id = id;
+        }
+
+        public Long getId() {
+            return id;
+        }
+    }
+
+    static class TestProcessor implements CacheProcessor {
+
+        @Override
+        public CacheValue get(String cacheName, CacheContext cache) {
+            return null;
+        }
+
+        @Override
+        public void save(String cacheName, Object value, CacheContext cache) {
+        }
+    }
+}
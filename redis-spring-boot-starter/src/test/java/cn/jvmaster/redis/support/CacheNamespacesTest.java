@@ -0,0 +1,86 @@
+package cn.jvmaster.redis.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+/**
+ * 缓存命名空间测试
+ * 版本号保存在内存中，不需要连接redis
+ * @author AI
+ * @date 2025/6/23 10:40
+ * @version 1.0
+**/
+class CacheNamespacesTest {
+
+    private final Map<String, Long> generations = new ConcurrentHashMap<>();
+
+    private final CacheNamespaces cacheNamespaces = new CacheNamespaces(Set.of("user", "user::profile", "order"), Duration.ZERO, redisTemplate());
+
+    @Test
+    void cacheOutsideNamespaceIsUnchanged() {
+        assertEquals("goods::1", cacheNamespaces.resolve("goods::1"));
+    }
+
+    @Test
+    void namespaceMatchesExactNameAndSeparatorPrefix() {
+        assertEquals("user~0", cacheNamespaces.resolve("user"));
+        assertEquals("user~0::1", cacheNamespaces.resolve("user::1"));
+    }
+
+    @Test
+    void namespaceDoesNotMatchPartialSegment() {
+        assertEquals("userProfile::1", cacheNamespaces.resolve("userProfile::1"));
+        assertEquals("orders::1", cacheNamespaces.resolve("orders::1"));
+    }
+
+    @Test
+    void longestNamespaceWins() {
+        assertEquals("user::profile~0::1", cacheNamespaces.resolve("user::profile::1"));
+        assertEquals("user~0::profiles::1", cacheNamespaces.resolve("user::profiles::1"));
+    }
+
+    @Test
+    void incrementInvalidatesOnlyItsNamespace() {
+        cacheNamespaces.increment("user");
+
+        assertEquals("user~1::1", cacheNamespaces.resolve("user::1"));
+        assertEquals("user::profile~0::1", cacheNamespaces.resolve("user::profile::1"));
+        assertEquals("order~0::1", cacheNamespaces.resolve("order::1"));
+    }
+
+    @Test
+    void containsOnlyConfiguredNames() {
+        assertTrue(cacheNamespaces.contains("user"));
+        assertFalse(cacheNamespaces.contains("user::1"));
+    }
+
+    /**
+     * 只支持get、increment的RedisTemplate
+     */
+    @SuppressWarnings("unchecked")
+    private RedisTemplate<String, Object> redisTemplate() {
+        ValueOperations<String, Object> operations = (ValueOperations<String, Object>) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[]{ValueOperations.class}, (proxy, method, args) -> switch (method.getName()) {
+                case "get" -> generations.get((String) args[0]);
+                case "increment" -> generations.merge((String) args[0], 1L, Long::sum);
+                default -> throw new UnsupportedOperationException(method.getName());
+            });
+
+        return new RedisTemplate<>() {
+            @Override
+            public ValueOperations<String, Object> opsForValue() {
+                return operations;
+            }
+        };
+    }
+}
@@ -0,0 +1,137 @@
+package cn.jvmaster.redis.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import cn.jvmaster.redis.MemoryRedisTemplate;
+import cn.jvmaster.redis.serializer.RedisKeySerializer;
+import cn.jvmaster.redis.service.StringRedisOperationService;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 缓存标签测试
+ * @author AI
+ * @date 2025/6/25 9:30
+ * @version 1.0
+**/
+class CacheTagsTest {
+
+    private final MemoryRedisTemplate redisTemplate = new MemoryRedisTemplate();
+
+    private CacheTags cacheTags = cacheTags(100);
+
+    @AfterEach
+    void shutdown() {
+        cacheTags.shutdown();
+    }
+
+    @Test
+    void addRecordsTagsAndIndexesInOnePipeline() {
+        cacheTags.add(List.of("user::1", "user::2"), List.of("dept::1", "vip"), 600);
+
+        assertEquals(1, redisTemplate.takeRoundTrips());
+        assertEquals(Set.of("user::1", "user::2"), redisTemplate.getSets().get("cache::tag::dept::1"));
+        assertEquals(Set.of("user::1", "user::2"), redisTemplate.getSets().get("cache::tag::vip"));
+        assertEquals(Set.of("cache::tag::dept::1", "cache::tag::vip"), redisTemplate.getSets().get("user::1~tags"));
+        assertEquals(600L, redisTemplate.getExpires().get("cache::tag::vip"));
+        assertEquals(600L, redisTemplate.getExpires().get("user::2~tags"));
+    }
+
+    @Test
+    void tagExpireIsOnlyExtended() {
+        cacheTags.add("user::1", List.of("vip"), 600);
+        cacheTags.add("user::2", List.of("vip"), 60);
+        assertEquals(600L, redisTemplate.getExpires().get("cache::tag::vip"));
+
+        // 不过期的缓存使标签集合不过期，之后不再设置有效时间
+        cacheTags.add("user::3", List.of("vip"), 0);
+        cacheTags.add("user::4", List.of("vip"), 600);
+        assertFalse(redisTemplate.getExpires().containsKey("cache::tag::vip"));
+        assertEquals(60L, redisTemplate.getExpires().get("user::2~tags"));
+        assertFalse(redisTemplate.getExpires().containsKey("user::3~tags"));
+    }
+
+    @Test
+    void removeDeletesCachesOfAllTagsInBatches() {
+        cacheTags.shutdown();
+        redisTemplate.setKeySerializer(new RedisKeySerializer("app"));
+        cacheTags = new CacheTags(new StringRedisOperationService<>(redisTemplate), "app", 1, Duration.ZERO);
+        cache("app::user::1", "app::cache::tag::dept::1", "app::cache::tag::vip");
+        cache("app::user::2", "app::cache::tag::dept::1");
+        cache("app::user::3", "app::cache::tag::vip");
+        cache("app::user::4", "app::cache::tag::other");
+
+        List<String> removed = cacheTags.remove(List.of("dept::1", "vip"));
+        assertEquals(List.of("user::1", "user::2", "user::3"), removed);
+        assertEquals(Set.of("app::user::4", "app::user::4~meta"), redisTemplate.getValues().keySet());
+        assertEquals(Set.of("app::cache::tag::other", "app::user::4~tags"), redisTemplate.getSets().keySet());
+    }
+
+    @Test
+    void removeOfUnknownTagRemovesNothing() {
+        assertTrue(cacheTags.remove(List.of("vip")).isEmpty());
+        assertTrue(cacheTags.remove(List.of()).isEmpty());
+    }
+
+    @Test
+    void cleanupRemovesMissingCaches() {
+        cache("user::1", "cache::tag::vip");
+        redisTemplate.getSets().get("cache::tag::vip").add("user::2");
+        redisTemplate.getSets().computeIfAbsent("cache::tag::dept::1", key -> new LinkedHashSet<>()).add("user::3");
+
+        assertEquals(2, cacheTags.cleanup());
+        assertEquals(Set.of("user::1"), redisTemplate.getSets().get("cache::tag::vip"));
+        assertFalse(redisTemplate.getSets().containsKey("cache::tag::dept::1"));
+    }
+
+    @Test
+    void deleteRemovesCacheFromItsTagsInTwoRoundTrips() {
+        cache("user::1", "cache::tag::dept::1", "cache::tag::vip");
+        cache("user::2", "cache::tag::dept::1");
+
+        cacheTags.delete(List.of("user::1", "user::3"));
+        assertEquals(2, redisTemplate.takeRoundTrips());
+        assertEquals(Set.of("user::2"), redisTemplate.getSets().get("cache::tag::dept::1"));
+        assertFalse(redisTemplate.getSets().containsKey("cache::tag::vip"));
+        assertFalse(redisTemplate.getSets().containsKey("user::1~tags"));
+        assertFalse(redisTemplate.getValues().containsKey("user::1"));
+        assertFalse(redisTemplate.getValues().containsKey("user::1~meta"));
+        assertTrue(redisTemplate.getValues().containsKey("user::2"));
+    }
+
+    @Test
+    void deleteIsBatched() {
+        cacheTags.shutdown();
+        cacheTags = cacheTags(1);
+        cache("user::1", "cache::tag::vip");
+        cache("user::2", "cache::tag::vip");
+
+        cacheTags.delete(List.of("user::1", "user::2"));
+        assertEquals(4, redisTemplate.takeRoundTrips());
+        assertTrue(redisTemplate.getSets().isEmpty());
+    }
+
+    /**
+     * 写入缓存、元数据，并记录缓存所属的标签
+     * @param cacheName 缓存在redis中实际的key
+     * @param tagKeys   标签集合
+     */
+    private void cache(String cacheName, String... tagKeys) {
+        redisTemplate.getValues().put(cacheName, "cached");
+        redisTemplate.getValues().put(cacheName + "~meta", "meta");
+        for (String tagKey : tagKeys) {
+            redisTemplate.getSets().computeIfAbsent(tagKey, key -> new LinkedHashSet<>()).add(cacheName);
+        }
+        redisTemplate.getSets().put(cacheName + "~tags", new LinkedHashSet<>(List.of(tagKeys)));
+    }
+
+    private CacheTags cacheTags(int batchSize) {
+        return new CacheTags(new StringRedisOperationService<>(redisTemplate), "", batchSize, Duration.ZERO);
+    }
+}
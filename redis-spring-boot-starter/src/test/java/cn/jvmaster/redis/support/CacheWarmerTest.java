@@ -0,0 +1,145 @@
+package cn.jvmaster.redis.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import cn.jvmaster.redis.annotation.CacheWarmup;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.availability.ApplicationAvailabilityBean;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.support.GenericApplicationContext;
+
+/**
+ * 缓存预热测试
+ * 模拟spring boot在ApplicationReadyEvent之后发布ACCEPTING_TRAFFIC，验证readiness状态的变化
+ * @author AI
+ * @date 2025/6/24 17:20
+ * @version 1.0
+**/
+class CacheWarmerTest {
+
+    private final GenericApplicationContext applicationContext = new GenericApplicationContext();
+
+    private final List<ReadinessState> states = new CopyOnWriteArrayList<>();
+
+    private final UserService userService = new UserService();
+
+    private CacheWarmer cacheWarmer;
+
+    CacheWarmerTest() {
+        applicationContext.registerBean(ApplicationAvailabilityBean.class);
+        applicationContext.registerBean("userService", UserService.class, () -> userService);
+        applicationContext.addApplicationListener((ApplicationListener<ApplicationEvent>) event -> {
+            if (event instanceof AvailabilityChangeEvent<?> change && change.getState() instanceof ReadinessState state) {
+                states.add(state);
+            }
+        });
+        applicationContext.refresh();
+    }
+
+    @AfterEach
+    void shutdown() {
+        userService.release.countDown();
+        if (cacheWarmer != null) {
+            cacheWarmer.shutdown();
+        }
+        applicationContext.close();
+    }
+
+    @Test
+    void criticalWarmupRefusesTrafficUntilReady() throws Exception {
+        start(Duration.ofMinutes(1), "loadConfig", "loadUser");
+
+        await(() -> states.size() == 2);
+        assertEquals(List.of(ReadinessState.ACCEPTING_TRAFFIC, ReadinessState.REFUSING_TRAFFIC), states);
+        assertFalse(cacheWarmer.getProgress().criticalReady());
+
+        userService.release.countDown();
+        await(() -> cacheWarmer.getProgress().finished());
+        await(() -> states.size() == 3);
+        assertEquals(ReadinessState.ACCEPTING_TRAFFIC, states.get(2));
+        assertEquals(ReadinessState.ACCEPTING_TRAFFIC, applicationContext.getBean(ApplicationAvailabilityBean.class).getReadinessState());
+    }
+
+    @Test
+    void warmupWithoutCriticalCacheDoesNotRefuseTraffic() throws Exception {
+        start(Duration.ofMinutes(1), "loadUser");
+
+        await(() -> cacheWarmer.getProgress().finished());
+        assertTrue(cacheWarmer.getProgress().criticalReady());
+        assertEquals(List.of(ReadinessState.ACCEPTING_TRAFFIC), states);
+    }
+
+    @Test
+    void trafficIsAcceptedAfterReadinessTimeout() throws Exception {
+        start(Duration.ofMillis(200), "loadConfig");
+
+        await(() -> states.size() == 3);
+        assertEquals(List.of(ReadinessState.ACCEPTING_TRAFFIC, ReadinessState.REFUSING_TRAFFIC, ReadinessState.ACCEPTING_TRAFFIC), states);
+        assertFalse(cacheWarmer.getProgress().finished());
+    }
+
+    /**
+     * 开始预热，并与spring boot一样在ApplicationReadyEvent之后发布ACCEPTING_TRAFFIC
+     * @param readinessTimeout  等待关键缓存预热的最长时间
+     * @param methodNames       预热方法
+     */
+    private void start(Duration readinessTimeout, String... methodNames) {
+        List<CacheWarmer.WarmupMethod> methods = Arrays.stream(methodNames)
+            .map(name -> {
+                Method method = method(name);
+                return new CacheWarmer.WarmupMethod("userService", method, method.getAnnotation(CacheWarmup.class));
+            })
+            .toList();
+
+        cacheWarmer = new CacheWarmer(methods, applicationContext, 1, 0, readinessTimeout);
+        cacheWarmer.onApplicationReady(new ApplicationReadyEvent(new SpringApplication(), new String[0], applicationContext, Duration.ZERO));
+        AvailabilityChangeEvent.publish(applicationContext, ReadinessState.ACCEPTING_TRAFFIC);
+    }
+
+    private static Method method(String name) {
+        return Arrays.stream(UserService.class.getDeclaredMethods())
+            .filter(method -> method.getName().equals(name))
+            .findFirst()
+            .orElseThrow();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "等待超时");
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+    }
+
+    static class UserService {
+
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        @CacheWarmup(critical = true)
+        public String loadConfig() throws InterruptedException {
+            release.await();
+            return "config";
+        }
+
+        @CacheWarmup
+        public String loadUser() {
+            return "user";
+        }
+    }
+}
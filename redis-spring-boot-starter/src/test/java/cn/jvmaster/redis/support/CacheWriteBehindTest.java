@@ -0,0 +1,163 @@
+package cn.jvmaster.redis.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import cn.jvmaster.redis.CacheContext;
+import cn.jvmaster.redis.MemoryRedisTemplate;
+import cn.jvmaster.redis.domain.CacheValue;
+import cn.jvmaster.redis.generator.CacheProcessor;
+import cn.jvmaster.redis.service.StringRedisOperationService;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisOperations;
+
+/**
+ * 缓存延迟写入测试
+ * @author AI
+ * @date 2025/6/24 18:15
+ * @version 1.0
+**/
+class CacheWriteBehindTest {
+
+    private final MemoryRedisTemplate redisTemplate = new MemoryRedisTemplate();
+
+    private final StringRedisOperationService<Object> stringRedisOperationService = new StringRedisOperationService<>(redisTemplate);
+
+    private final CacheStatistics cacheStatistics = new CacheStatistics();
+
+    private final TestProcessor processor = new TestProcessor();
+
+    private CacheWriteBehind cacheWriteBehind;
+
+    @AfterEach
+    void shutdown() {
+        cacheWriteBehind.shutdown();
+    }
+
+    @Test
+    void latestValueIsWrittenInOnePipeline() {
+        cacheWriteBehind = writeBehind(100, 1000);
+        submit("user::1", "v1");
+        submit("user::1", "v2");
+        submit("user::2", "v1");
+        assertEquals(2, cacheWriteBehind.getPendingCount());
+        assertTrue(redisTemplate.getValues().isEmpty());
+
+        cacheWriteBehind.flush();
+        assertEquals(Map.of("user::1", "v2", "user::2", "v1"), redisTemplate.getValues());
+        assertEquals(1, redisTemplate.takeRoundTrips());
+        assertEquals(0, cacheWriteBehind.getPendingCount());
+    }
+
+    @Test
+    void fullBatchIsWrittenInBackground() throws Exception {
+        cacheWriteBehind = writeBehind(2, 1000);
+        submit("user::1", "v1");
+        submit("user::2", "v2");
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (redisTemplate.getValues().size() < 2) {
+            assertTrue(System.nanoTime() < deadline, "等待超时");
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        assertEquals(0, cacheWriteBehind.getPendingCount());
+    }
+
+    @Test
+    void callerWritesWhenPendingIsFull() {
+        cacheWriteBehind = writeBehind(100, 100);
+        for (int i = 0; i < 100; i++) {
+            submit("user::" + i, "v" + i);
+        }
+
+        // 调用线程已经写入一个批次
+        assertEquals(100, redisTemplate.getValues().size());
+    }
+
+    @Test
+    void valueThatCannotBePipelinedIsSaved() {
+        cacheWriteBehind = writeBehind(100, 1000);
+        submit("user::1", "v1");
+        submit("user::large", "large");
+
+        cacheWriteBehind.flush();
+        assertEquals(List.of("user::large"), processor.saved);
+        assertEquals("large", redisTemplate.getValues().get("user::large"));
+    }
+
+    @Test
+    void failedWriteIsDroppedAndCounted() {
+        cacheWriteBehind = writeBehind(100, 1000);
+        submit("user::1", "v1");
+        submit("user::fail", "fail");
+
+        cacheWriteBehind.flush();
+        assertEquals(0, cacheWriteBehind.getPendingCount());
+        assertEquals(2, cacheStatistics.get("user").getWriteDropCount());
+    }
+
+    @Test
+    void shutdownWritesPendingValues() {
+        cacheWriteBehind = writeBehind(100, 1000);
+        submit("user::1", "v1");
+
+        cacheWriteBehind.shutdown();
+        assertEquals("v1", redisTemplate.getValues().get("user::1"));
+
+        // 关闭后直接写入
+        submit("user::2", "v2");
+        assertEquals("v2", redisTemplate.getValues().get("user::2"));
+    }
+
+    private void submit(String cacheName, Object value) {
+        String previousName = cacheStatistics.bind("user");
+        try {
+            cacheWriteBehind.submit(cacheName, processor, null, value);
+        } finally {
+            cacheStatistics.restore(previousName);
+        }
+    }
+
+    private CacheWriteBehind writeBehind(int batchSize, int maxPending) {
+        return new CacheWriteBehind(stringRedisOperationService, null, cacheStatistics, batchSize, maxPending, Duration.ofHours(1));
+    }
+
+    /**
+     * 字符串缓存，large不能在管道中写入，fail写入失败
+     */
+    private class TestProcessor implements CacheProcessor {
+
+        private final List<String> saved = new ArrayList<>();
+
+        @Override
+        public CacheValue get(String cacheName, CacheContext cache) {
+            return null;
+        }
+
+        @Override
+        public void save(String cacheName, Object value, CacheContext cache) {
+            saved.add(cacheName);
+            redisTemplate.opsForValue().set(cacheName, value);
+        }
+
+        @Override
+        public boolean write(RedisOperations<String, Object> operations, String cacheName, Object value, CacheContext cache) {
+            if ("fail".equals(value)) {
+                throw new IllegalStateException("写入失败");
+            }
+
+            if ("large".equals(value)) {
+                return false;
+            }
+
+            operations.opsForValue().set(cacheName, value);
+            return true;
+        }
+    }
+}
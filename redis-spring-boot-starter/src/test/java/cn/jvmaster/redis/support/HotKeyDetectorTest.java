@@ -0,0 +1,121 @@
+package cn.jvmaster.redis.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import cn.jvmaster.redis.domain.HotKey;
+import java.time.Duration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 热点key检测测试
+ * 统计窗口为10秒，计数换算每秒访问次数的除数为20，测试期间定时任务不会执行，由测试直接调用减半
+ * @author AI
+ * @date 2025/6/23 11:50
+ * @version 1.0
+**/
+class HotKeyDetectorTest {
+
+    private static final Duration WINDOW = Duration.ofSeconds(10);
+
+    private final CacheStatistics.Statistic statistic = new CacheStatistics().get("test");
+
+    private HotKeyDetector hotKeyDetector;
+
+    @AfterEach
+    void shutdown() {
+        if (hotKeyDetector != null) {
+            hotKeyDetector.shutdown();
+        }
+    }
+
+    @Test
+    void keyBecomesHotAboveThreshold() {
+        hotKeyDetector = detector(5, 10);
+
+        // 99次访问的估算值为4，未达到阈值
+        assertFalse(record("user::1", 99));
+        assertFalse(hotKeyDetector.isHot("user::1"));
+
+        assertTrue(record("user::1", 1));
+        assertTrue(hotKeyDetector.isHot("user::1"));
+        assertFalse(hotKeyDetector.isHot("user::2"));
+        assertEquals(1, statistic.getHotKeyCount());
+
+        HotKey hotKey = hotKeyDetector.getHotKeys().getFirst();
+        assertEquals("user::1", hotKey.key());
+        assertEquals("test", hotKey.name());
+        assertEquals(5, hotKey.qps());
+    }
+
+    @Test
+    void decayHalvesCountsAndCoolsKeyBelowHalfThreshold() {
+        hotKeyDetector = detector(5, 10);
+        record("user::1", 100);
+        assertTrue(hotKeyDetector.isHot("user::1"));
+
+        // 计数减半为50，估算值2，不低于阈值的一半（2），仍然是热点key
+        hotKeyDetector.decay();
+        assertTrue(hotKeyDetector.isHot("user::1"));
+        assertEquals(2, hotKeyDetector.getHotKeys().getFirst().qps());
+
+        // 计数减半为25，估算值1，低于阈值的一半，不再是热点key
+        hotKeyDetector.decay();
+        assertFalse(hotKeyDetector.isHot("user::1"));
+        assertTrue(hotKeyDetector.getHotKeys().isEmpty());
+    }
+
+    @Test
+    void decayedCountNeedsMoreAccessesToBecomeHot() {
+        hotKeyDetector = detector(5, 10);
+        record("user::1", 80);
+        hotKeyDetector.decay();
+
+        // 减半后计数为40，需要再访问60次
+        assertFalse(record("user::1", 59));
+        assertTrue(record("user::1", 1));
+    }
+
+    @Test
+    void hotKeysAreLimited() {
+        hotKeyDetector = detector(5, 1);
+        record("user::1", 100);
+
+        assertFalse(record("user::2", 100));
+        assertEquals(1, hotKeyDetector.getHotKeys().size());
+    }
+
+    @Test
+    void disabledDetectorRecordsNothing() {
+        hotKeyDetector = new HotKeyDetector(false, 5, 1D, WINDOW, 16, 10, Duration.ofSeconds(2));
+
+        assertFalse(record("user::1", 1000));
+        assertFalse(hotKeyDetector.isHot("user::1"));
+        assertTrue(hotKeyDetector.getHotKeys().isEmpty());
+    }
+
+    @Test
+    void invalidSampleRateIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new HotKeyDetector(true, 5, 0D, WINDOW, 16, 10, Duration.ofSeconds(2)));
+    }
+
+    /**
+     * 采样率为1，每次访问计数1
+     */
+    private static HotKeyDetector detector(long threshold, int maxHotKeys) {
+        return new HotKeyDetector(true, threshold, 1D, WINDOW, 1024, maxHotKeys, Duration.ofSeconds(2));
+    }
+
+    private boolean record(String key, int times) {
+        boolean hot = false;
+        for (int i = 0; i < times; i++) {
+            hot = hotKeyDetector.record(key, statistic);
+        }
+
+        return hot;
+    }
+}
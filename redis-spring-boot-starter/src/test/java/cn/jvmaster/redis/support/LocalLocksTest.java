@@ -0,0 +1,139 @@
+package cn.jvmaster.redis.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 分布式锁前的本地锁测试
+ * @author AI
+ * @date 2025/6/23 11:10
+ * @version 1.0
+**/
+class LocalLocksTest {
+
+    private static final long WAIT = TimeUnit.SECONDS.toNanos(5);
+
+    @Test
+    void sameKeySharesEntryAndIsRemovedAfterLastRelease() {
+        LocalLocks localLocks = new LocalLocks(true, 3);
+        LocalLocks.Entry first = localLocks.acquire("lock::1");
+        LocalLocks.Entry second = localLocks.acquire("lock::1");
+
+        assertSame(first, second);
+        assertEquals(1, localLocks.size());
+
+        assertNull(localLocks.release("lock::1", first));
+        assertEquals(1, localLocks.size());
+        assertNull(localLocks.release("lock::1", second));
+        assertEquals(0, localLocks.size());
+    }
+
+    @Test
+    void handoffFailsWithoutQueuedThread() throws InterruptedException {
+        LocalLocks localLocks = new LocalLocks(true, 3);
+        LocalLocks.Entry entry = localLocks.acquire("lock::1");
+        assertTrue(entry.tryLock(0));
+
+        assertFalse(entry.handoff("redis-value"));
+        entry.unlock();
+        assertNull(localLocks.release("lock::1", entry));
+    }
+
+    @Test
+    void redisLockIsHandedToQueuedThread() throws Exception {
+        LocalLocks localLocks = new LocalLocks(true, 3);
+        LocalLocks.Entry entry = localLocks.acquire("lock::1");
+        assertTrue(entry.tryLock(0));
+
+        CompletableFuture<String> received = CompletableFuture.supplyAsync(() -> {
+            LocalLocks.Entry waiting = localLocks.acquire("lock::1");
+            try {
+                assertTrue(waiting.tryLock(WAIT));
+                String value = waiting.takeHandoff();
+                waiting.unlock();
+                return value;
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            } finally {
+                assertNull(localLocks.release("lock::1", waiting));
+            }
+        });
+
+        handoffWhenQueued(entry, "redis-value");
+        entry.unlock();
+        assertNull(localLocks.release("lock::1", entry));
+
+        assertEquals("redis-value", received.get(5, TimeUnit.SECONDS));
+        assertEquals(0, localLocks.size());
+    }
+
+    @Test
+    void handoffStopsAtLimit() throws Exception {
+        LocalLocks localLocks = new LocalLocks(true, 1);
+        LocalLocks.Entry entry = localLocks.acquire("lock::1");
+        assertTrue(entry.tryLock(0));
+
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> {
+            LocalLocks.Entry waiting = localLocks.acquire("lock::1");
+            try {
+                return waiting.tryLock(TimeUnit.MILLISECONDS.toNanos(500));
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            } finally {
+                localLocks.release("lock::1", waiting);
+            }
+        });
+
+        handoffWhenQueued(entry, "redis-value");
+        // 达到交接上限，需要释放redis锁
+        assertFalse(entry.handoff("redis-value"));
+
+        assertFalse(queued.get(5, TimeUnit.SECONDS));
+        entry.unlock();
+        localLocks.release("lock::1", entry);
+    }
+
+    @Test
+    void unclaimedHandoffIsReturnedToLastUser() throws Exception {
+        LocalLocks localLocks = new LocalLocks(true, 3);
+        LocalLocks.Entry entry = localLocks.acquire("lock::1");
+        assertTrue(entry.tryLock(0));
+
+        // 排队的线程在交接之后等待超时离开，没有接收redis锁
+        CompletableFuture<Boolean> timedOut = CompletableFuture.supplyAsync(() -> {
+            LocalLocks.Entry waiting = localLocks.acquire("lock::1");
+            try {
+                return waiting.tryLock(TimeUnit.MILLISECONDS.toNanos(300));
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            } finally {
+                localLocks.release("lock::1", waiting);
+            }
+        });
+
+        handoffWhenQueued(entry, "redis-value");
+        assertFalse(timedOut.get(5, TimeUnit.SECONDS));
+
+        entry.unlock();
+        assertEquals("redis-value", localLocks.release("lock::1", entry));
+        assertEquals(0, localLocks.size());
+    }
+
+    /**
+     * 等待其他线程排队后交接，没有线程排队时handoff返回false
+     */
+    private static void handoffWhenQueued(LocalLocks.Entry entry, String value) throws InterruptedException {
+        long deadline = System.nanoTime() + WAIT;
+        while (!entry.handoff(value)) {
+            assertTrue(System.nanoTime() < deadline, "没有线程排队");
+            Thread.sleep(5);
+        }
+    }
+}
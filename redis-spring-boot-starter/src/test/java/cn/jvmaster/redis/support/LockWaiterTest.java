@@ -0,0 +1,92 @@
+package cn.jvmaster.redis.support;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+
+/**
+ * 分布式锁等待测试
+ * @author AI
+ * @date 2025/6/23 10:55
+ * @version 1.0
+**/
+class LockWaiterTest {
+
+    private static final long MIN = Duration.ofMillis(10).toNanos();
+
+    private static final long MAX = Duration.ofMillis(500).toNanos();
+
+    private final LockWaiter lockWaiter = new LockWaiter("lock:release", "app", Duration.ofNanos(MIN), Duration.ofNanos(MAX));
+
+    @Test
+    void backoffGrowsExponentiallyWithJitter() {
+        for (int attempt = 0; attempt < 6; attempt++) {
+            long expected = MIN << attempt;
+            for (int i = 0; i < 1000; i++) {
+                assertBetween(expected / 2, expected, lockWaiter.backoff(attempt));
+            }
+        }
+    }
+
+    @Test
+    void backoffIsCappedByMaximum() {
+        for (int attempt : new int[]{6, 10, 30}) {
+            for (int i = 0; i < 1000; i++) {
+                assertBetween(MAX / 2, MAX, lockWaiter.backoff(attempt));
+            }
+        }
+    }
+
+    @Test
+    void backoffDoesNotOverflowForLargeAttempts() {
+        for (int attempt : new int[]{38, 39, 40, 63, 64, 1000, Integer.MAX_VALUE}) {
+            assertBetween(MAX / 2, MAX, lockWaiter.backoff(attempt));
+        }
+    }
+
+    @Test
+    void backoffUsesMinimumWhenMaximumIsSmaller() {
+        LockWaiter waiter = new LockWaiter("lock:release", null, Duration.ofMillis(20), Duration.ofMillis(5));
+        long min = Duration.ofMillis(20).toNanos();
+        assertBetween(min / 2, min, waiter.backoff(5));
+    }
+
+    @Test
+    void releaseCompletesWaiters() {
+        CompletableFuture<Void> first = lockWaiter.await("order::1");
+        CompletableFuture<Void> second = lockWaiter.await("order::1");
+        CompletableFuture<Void> other = lockWaiter.await("order::2");
+
+        lockWaiter.release("order::1");
+
+        assertTrue(first.isDone());
+        assertTrue(second.isDone());
+        assertFalse(other.isDone());
+    }
+
+    @Test
+    void messageWithPrefixedKeyReleasesWaiter() {
+        CompletableFuture<Void> released = lockWaiter.await("order::1");
+        lockWaiter.onMessage(new DefaultMessage(lockWaiter.getChannel(), "app::order::1".getBytes(StandardCharsets.UTF_8)), null);
+
+        assertTrue(released.isDone());
+    }
+
+    @Test
+    void cancelledWaiterIsNotCompleted() {
+        CompletableFuture<Void> released = lockWaiter.await("order::1");
+        lockWaiter.cancel("order::1", released);
+        lockWaiter.release("order::1");
+
+        assertFalse(released.isDone());
+    }
+
+    private static void assertBetween(long min, long max, long actual) {
+        assertTrue(actual >= min && actual <= max, actual + " not in [" + min + ", " + max + "]");
+    }
+}
@@ -0,0 +1,178 @@
+package cn.jvmaster.redis.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import cn.jvmaster.redis.constant.LuaFiles;
+import cn.jvmaster.redis.service.StringRedisOperationService;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * 分布式锁看门狗测试
+ * 续期脚本由内存中的实现代替，记录每次续期的锁
+ * @author AI
+ * @date 2025/6/23 11:30
+ * @version 1.0
+**/
+class LockWatchdogTest {
+
+    /**
+     * 每100毫秒续期一次
+     */
+    private static final Duration LEASE_TIME = Duration.ofMillis(300);
+
+    private final RecordingService service = new RecordingService();
+
+    private LockWatchdog lockWatchdog;
+
+    @AfterEach
+    void shutdown() {
+        if (lockWatchdog != null) {
+            lockWatchdog.shutdown();
+        }
+    }
+
+    @Test
+    void locksAreRenewedInBatches() throws InterruptedException {
+        lockWatchdog = new LockWatchdog(service, LEASE_TIME, 2);
+        for (int i = 0; i < 5; i++) {
+            lockWatchdog.watch("lock::" + i, "value-" + i);
+        }
+
+        // 一轮续期为3个批次：2 + 2 + 1
+        List<RenewCall> calls = service.awaitCalls(3);
+        List<Integer> sizes = calls.stream().map(call -> call.lockKeys().size()).sorted().toList();
+        assertEquals(List.of(1, 2, 2), sizes);
+
+        Set<String> renewed = new HashSet<>();
+        calls.forEach(call -> renewed.addAll(call.lockKeys()));
+        assertEquals(Set.of("lock::0", "lock::1", "lock::2", "lock::3", "lock::4"), renewed);
+
+        RenewCall first = calls.getFirst();
+        assertEquals(String.valueOf(LEASE_TIME.toMillis()), first.lease());
+    }
+
+    @Test
+    void readWriteLockFieldIsSentAsString() throws InterruptedException {
+        lockWatchdog = new LockWatchdog(service, LEASE_TIME, 10);
+        lockWatchdog.watchField("lock::rw", "owner:r");
+
+        RenewCall call = service.awaitCalls(1).getFirst();
+        assertEquals(List.of("lock::rw"), call.lockKeys());
+        assertEquals(List.of("owner:r"), call.values());
+    }
+
+    @Test
+    void lostLockIsNoLongerRenewed() throws InterruptedException {
+        service.lost.add("lock::lost");
+        lockWatchdog = new LockWatchdog(service, LEASE_TIME, 10);
+        lockWatchdog.watch("lock::held", "value");
+        lockWatchdog.watch("lock::lost", "value");
+
+        // 第二轮续期在第一轮处理完结果之后开始
+        List<RenewCall> calls = service.awaitCalls(2);
+        assertEquals(1, lockWatchdog.getWatchingCount());
+        assertEquals(List.of("lock::held"), calls.get(1).lockKeys());
+    }
+
+    @Test
+    void unwatchedLockIsNotRenewed() throws InterruptedException {
+        lockWatchdog = new LockWatchdog(service, LEASE_TIME, 10);
+        lockWatchdog.watch("lock::1", "value");
+        lockWatchdog.watchField("lock::2", "owner:w");
+        lockWatchdog.unwatch("lock::1", "value");
+        lockWatchdog.unwatchField("lock::2", "owner:w");
+
+        assertEquals(0, lockWatchdog.getWatchingCount());
+        Thread.sleep(LEASE_TIME.toMillis());
+        assertTrue(service.hasNoCalls());
+    }
+
+    /**
+     * 一次续期脚本的调用
+     * @param lockKeys  锁的key
+     * @param lease     有效时间，毫秒
+     * @param values    锁值或者持有者字段
+     */
+    private record RenewCall(List<String> lockKeys, String lease, List<String> values) {}
+
+    /**
+     * 记录续期脚本调用的redis操作，lost中的锁续期失败
+     */
+    private static final class RecordingService extends StringRedisOperationService<Object> {
+
+        private final List<RenewCall> calls = new ArrayList<>();
+
+        private final Set<String> lost = Collections.synchronizedSet(new HashSet<>());
+
+        /**
+         * 等待调用次数的计数器，与calls一起在同一个锁中修改
+         */
+        private CountDownLatch latch = new CountDownLatch(0);
+
+        private RecordingService() {
+            super(redisTemplate());
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <S> S executeLuaFromFile(Class<S> tClass, String filepath, int keySize, Object... args) {
+            assertEquals(LuaFiles.LOCK_RENEW, filepath);
+
+            List<String> lockKeys = new ArrayList<>();
+            List<String> values = new ArrayList<>();
+            List<Long> result = new ArrayList<>();
+            for (int i = 0; i < keySize; i++) {
+                lockKeys.add((String) args[i]);
+                values.add(new String((byte[]) args[keySize + 1 + i], StandardCharsets.UTF_8));
+                result.add(lost.contains((String) args[i]) ? 0L : 1L);
+            }
+
+            synchronized (this) {
+                calls.add(new RenewCall(lockKeys, new String((byte[]) args[keySize], StandardCharsets.UTF_8), values));
+                latch.countDown();
+            }
+            return (S) result;
+        }
+
+        /**
+         * 等待续期脚本被调用指定次数
+         * @param count 次数
+         * @return  最早的count次调用
+         */
+        private List<RenewCall> awaitCalls(int count) throws InterruptedException {
+            CountDownLatch current;
+            synchronized (this) {
+                current = new CountDownLatch(Math.max(count - calls.size(), 0));
+                latch = current;
+            }
+
+            assertTrue(current.await(5, TimeUnit.SECONDS), "续期脚本没有被调用");
+            synchronized (this) {
+                return new ArrayList<>(calls.subList(0, count));
+            }
+        }
+
+        private synchronized boolean hasNoCalls() {
+            return calls.isEmpty();
+        }
+
+        private static RedisTemplate<String, Object> redisTemplate() {
+            RedisTemplate<String, Object> redisTemplate = new RedisTemplate<>();
+            redisTemplate.setValueSerializer(RedisSerializer.string());
+            return redisTemplate;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package cn.jvmaster.redis.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 本地缓存测试
+ * @author AI
+ * @date 2025/6/23 9:55
+ * @version 1.0
+**/
+class NearCacheTest {
+
+    private static final Duration EXPIRE = Duration.ofMinutes(1);
+
+    @Test
+    void getReturnsPutValue() {
+        NearCache nearCache = new NearCache(16);
+        nearCache.put("user::1", "value", EXPIRE);
+
+        assertEquals("value", nearCache.get("user::1"));
+        assertNull(nearCache.get("user::2"));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntryInSegment() {
+        // 128条分成64个分段，每个分段2条
+        NearCache nearCache = new NearCache(128);
+        List<String> keys = sameSegmentKeys(64, 3);
+
+        nearCache.put(keys.get(0), 0, EXPIRE);
+        nearCache.put(keys.get(1), 1, EXPIRE);
+        // 访问后第一个key成为最近使用的数据
+        nearCache.get(keys.get(0));
+        nearCache.put(keys.get(2), 2, EXPIRE);
+
+        assertEquals(0, nearCache.get(keys.get(0)));
+        assertNull(nearCache.get(keys.get(1)));
+        assertEquals(2, nearCache.get(keys.get(2)));
+    }
+
+    @Test
+    void sizeIsBoundedByMaximumSize() {
+        NearCache nearCache = new NearCache(100);
+        for (int i = 0; i < 10_000; i++) {
+            nearCache.put("user::" + i, i, EXPIRE);
+        }
+
+        // 淘汰按照分段进行，最多比最大条数多出分段数量-1条
+        assertTrue(nearCache.size() <= 100 + 63, "size: " + nearCache.size());
+        assertTrue(nearCache.size() >= 64);
+    }
+
+    @Test
+    void singleEntryCacheKeepsLatestValue() {
+        NearCache nearCache = new NearCache(1);
+        nearCache.put("a", 1, EXPIRE);
+        nearCache.put("b", 2, EXPIRE);
+
+        assertNull(nearCache.get("a"));
+        assertEquals(2, nearCache.get("b"));
+        assertEquals(1, nearCache.size());
+    }
+
+    @Test
+    void expiredEntryIsRemovedOnRead() throws InterruptedException {
+        NearCache nearCache = new NearCache(16);
+        nearCache.put("user::1", "value", Duration.ofMillis(50));
+        assertEquals("value", nearCache.get("user::1"));
+
+        Thread.sleep(120);
+        assertNull(nearCache.get("user::1"));
+        assertEquals(0, nearCache.size());
+    }
+
+    @Test
+    void nonPositiveExpireOrNullValueIsNotStored() {
+        NearCache nearCache = new NearCache(16);
+
+        assertFalse(nearCache.put("a", "value", Duration.ZERO, nearCache.stamp()));
+        assertFalse(nearCache.put("b", "value", Duration.ofSeconds(-1), nearCache.stamp()));
+        assertFalse(nearCache.put("c", null, EXPIRE, nearCache.stamp()));
+        assertEquals(0, nearCache.size());
+    }
+
+    @Test
+    void putWithStampTakenBeforeRemoveIsRejected() {
+        NearCache nearCache = new NearCache(16);
+        long stamp = nearCache.stamp();
+        nearCache.remove("user::1");
+
+        assertFalse(nearCache.put("user::1", "stale", EXPIRE, stamp));
+        assertNull(nearCache.get("user::1"));
+
+        // 删除之后开始的加载可以保存
+        assertTrue(nearCache.put("user::1", "fresh", EXPIRE, nearCache.stamp()));
+        assertEquals("fresh", nearCache.get("user::1"));
+    }
+
+    @Test
+    void removeOfOtherKeyDoesNotRejectPut() {
+        NearCache nearCache = new NearCache(1024);
+        List<String> keys = otherSlotKeys();
+        long stamp = nearCache.stamp();
+        nearCache.remove(keys.get(0));
+
+        assertTrue(nearCache.put(keys.get(1), "value", EXPIRE, stamp));
+    }
+
+    @Test
+    void clearAndRemoveIfRejectOlderStamps() {
+        NearCache nearCache = new NearCache(16);
+        nearCache.put("user::1", 1, EXPIRE);
+        nearCache.put("order::1", 1, EXPIRE);
+
+        long beforeRemoveIf = nearCache.stamp();
+        nearCache.removeIf(key -> key.startsWith("user"));
+        assertNull(nearCache.get("user::1"));
+        assertEquals(1, nearCache.get("order::1"));
+        assertFalse(nearCache.put("user::2", 2, EXPIRE, beforeRemoveIf));
+
+        long beforeClear = nearCache.stamp();
+        nearCache.clear();
+        assertEquals(0, nearCache.size());
+        assertFalse(nearCache.put("order::2", 2, EXPIRE, beforeClear));
+
+        // 不带时间戳的保存不受删除影响
+        nearCache.put("order::3", 3, EXPIRE);
+        assertEquals(3, nearCache.get("order::3"));
+    }
+
+    /**
+     * 找出落在同一个分段中的key，与{@link NearCache}选择分段的方式一致
+     */
+    private static List<String> sameSegmentKeys(int segments, int count) {
+        List<String> keys = new ArrayList<>();
+        int target = segmentOf("key::0", segments);
+        for (int i = 0; keys.size() < count; i++) {
+            String key = "key::" + i;
+            if (segmentOf(key, segments) == target) {
+                keys.add(key);
+            }
+        }
+
+        return keys;
+    }
+
+    /**
+     * 找出两个分段不同的key
+     */
+    private static List<String> otherSlotKeys() {
+        String first = "key::0";
+        for (int i = 1; ; i++) {
+            String key = "key::" + i;
+            if (segmentOf(key, 64) != segmentOf(first, 64)) {
+                return List.of(first, key);
+            }
+        }
+    }
+
+    private static int segmentOf(String key, int segments) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (segments - 1);
+    }
+}
@@ -0,0 +1,128 @@
+package cn.jvmaster.redis.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 并发加载合并测试
+ * @author AI
+ * @date 2025/6/23 9:40
+ * @version 1.0
+**/
+class SingleFlightTest {
+
+    private static final int THREADS = 8;
+
+    private final SingleFlight singleFlight = new SingleFlight();
+
+    private final CacheStatistics.Statistic statistic = new CacheStatistics().get("test");
+
+    @Test
+    void concurrentCallsShareOneLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch arrived = new CountDownLatch(THREADS);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Object>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    arrived.countDown();
+                    return singleFlight.execute("user::1", () -> {
+                        loads.incrementAndGet();
+                        await(release);
+                        return "value";
+                    }, statistic);
+                }));
+            }
+
+            assertTrue(arrived.await(5, TimeUnit.SECONDS));
+            // 给所有线程进入等待的时间
+            Thread.sleep(200);
+            release.countDown();
+
+            for (Future<Object> future : futures) {
+                assertEquals("value", future.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals(THREADS - 1, statistic.getWaitCount());
+    }
+
+    @Test
+    void waitersReceiveTheLoaderException() throws Exception {
+        IllegalStateException failure = new IllegalStateException("load failed");
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Throwable> owner = executor.submit(() -> catchThrowable(() -> singleFlight.execute("user::1", () -> {
+                loading.countDown();
+                await(release);
+                throw failure;
+            }, statistic)));
+
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            Future<Throwable> waiter = executor.submit(() -> catchThrowable(() -> singleFlight.execute("user::1", () -> "unused", statistic)));
+
+            // 给等待线程进入等待的时间
+            Thread.sleep(200);
+            release.countDown();
+
+            assertSame(failure, owner.get(5, TimeUnit.SECONDS));
+            assertSame(failure, waiter.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void reentrantCallOnSameKeyDoesNotDeadlock() {
+        Object result = singleFlight.execute("user::1",
+            () -> singleFlight.execute("user::1", () -> "inner", statistic), statistic);
+
+        assertEquals("inner", result);
+    }
+
+    @Test
+    void finishedLoadIsNotShared() {
+        AtomicInteger loads = new AtomicInteger();
+        singleFlight.execute("user::1", loads::incrementAndGet, statistic);
+        singleFlight.execute("user::1", loads::incrementAndGet, statistic);
+
+        assertEquals(2, loads.get());
+    }
+
+    private static Throwable catchThrowable(Runnable runnable) {
+        try {
+            runnable.run();
+            return null;
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}